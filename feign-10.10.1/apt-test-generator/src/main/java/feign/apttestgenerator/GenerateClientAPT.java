@@ -0,0 +1,618 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.apttestgenerator;
+
+import com.github.jknack.handlebars.*;
+import com.github.jknack.handlebars.context.FieldValueResolver;
+import com.github.jknack.handlebars.context.JavaBeanValueResolver;
+import com.github.jknack.handlebars.context.MapValueResolver;
+import com.github.jknack.handlebars.io.URLTemplateSource;
+import com.google.auto.service.AutoService;
+import feign.Request.HttpMethod;
+import java.io.IOError;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+/**
+ * Parses interfaces written for {@code feign.Contract.Default} at compile time and generates, next
+ * to each of them, a {@code feign.PrecompiledMetadata} holding their {@code MethodMetadata} and a
+ * client implementation. Used through {@code feign.PrecompiledContract} and
+ * {@code Feign.Builder#generatedDispatch()}, clients are built without reading annotations,
+ * resolving types or creating proxies.
+ *
+ * <p>
+ * Interfaces the contract would reject, or that use something this processor does not model, are
+ * skipped with a note and keep being parsed at runtime.
+ *
+ * <p>
+ * As it shares its jar with {@link GenerateTestStubAPT}, the processor only runs when enabled with
+ * {@code -Afeign.generateClients=true}.
+ */
+@SupportedAnnotationTypes({
+    "feign.RequestLine"
+})
+@SupportedOptions(GenerateClientAPT.OPTION)
+@AutoService(Processor.class)
+public class GenerateClientAPT extends AbstractProcessor {
+
+  static final String OPTION = "feign.generateClients";
+  static final String SUFFIX = "$$FeignMetadata";
+
+  private static final Pattern REQUEST_LINE_PATTERN = Pattern.compile("^([A-Z]+)[ ]*(.*)$");
+  private static final String REQUEST_LINE = "feign.RequestLine";
+  private static final String BODY = "feign.Body";
+  private static final String HEADERS = "feign.Headers";
+  private static final String PARAM = "feign.Param";
+  private static final String QUERY_MAP = "feign.QueryMap";
+  private static final String HEADER_MAP = "feign.HeaderMap";
+  private static final String TO_STRING_EXPANDER = "feign.Param.ToStringExpander";
+
+  private Elements elements;
+  private Types types;
+  private Template template;
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    this.elements = processingEnv.getElementUtils();
+    this.types = processingEnv.getTypeUtils();
+    final URLTemplateSource source =
+        new URLTemplateSource("client.mustache", getClass().getResource("/client.mustache"));
+    try {
+      this.template = new Handlebars().prettyPrint(true).with(EscapingStrategy.NOOP).compile(source);
+    } catch (final IOException e) {
+      throw new IOError(e);
+    }
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (!Boolean.parseBoolean(processingEnv.getOptions().get(OPTION))) {
+      return false;
+    }
+    final Set<TypeElement> clients = new LinkedHashSet<>();
+    for (final Element annotated : roundEnv
+        .getElementsAnnotatedWith(elements.getTypeElement(REQUEST_LINE))) {
+      clients.add((TypeElement) annotated.getEnclosingElement());
+    }
+    // interfaces inheriting every request from the one they extend
+    for (final TypeElement root : ElementFilter.typesIn(roundEnv.getRootElements())) {
+      collectInheriting(root, clients);
+    }
+
+    for (final TypeElement type : clients) {
+      try {
+        final PrecompiledClientDefinition client = parse(type);
+        final JavaFileObject file = processingEnv.getFiler()
+            .createSourceFile(client.jpackage.isEmpty()
+                ? client.className
+                : client.jpackage + "." + client.className, type);
+        final Context context = Context.newBuilder(template)
+            .combine("client", client)
+            .resolver(JavaBeanValueResolver.INSTANCE, MapValueResolver.INSTANCE,
+                FieldValueResolver.INSTANCE)
+            .build();
+        try (Writer writer = file.openWriter()) {
+          writer.append(template.apply(context));
+        }
+      } catch (final Unsupported e) {
+        processingEnv.getMessager().printMessage(Kind.NOTE,
+            "Feign client metadata not generated, parsed at runtime instead: " + e.getMessage(),
+            type);
+      } catch (final IOException e) {
+        processingEnv.getMessager().printMessage(Kind.ERROR,
+            "Unable to generate Feign client metadata for " + type + ": " + e, type);
+      }
+    }
+    return false;
+  }
+
+  private void collectInheriting(TypeElement type, Set<TypeElement> clients) {
+    if (type.getKind() == ElementKind.INTERFACE && !clients.contains(type)
+        && ElementFilter.methodsIn(elements.getAllMembers(type)).stream()
+            .anyMatch(method -> annotation(method, REQUEST_LINE) != null)) {
+      clients.add(type);
+    }
+    ElementFilter.typesIn(type.getEnclosedElements())
+        .forEach(nested -> collectInheriting(nested, clients));
+  }
+
+  private PrecompiledClientDefinition parse(TypeElement type) {
+    require(type.getKind() == ElementKind.INTERFACE, "not an interface");
+    require(type.getTypeParameters().isEmpty(), "parameterized types unsupported");
+    for (Element enclosing = type; enclosing instanceof TypeElement; enclosing =
+        enclosing.getEnclosingElement()) {
+      require(!enclosing.getModifiers().contains(Modifier.PRIVATE), "private types unsupported");
+    }
+    final List<? extends TypeMirror> interfaces = type.getInterfaces();
+    require(interfaces.size() <= 1, "only single inheritance supported");
+    final TypeElement parent = interfaces.isEmpty()
+        ? null
+        : (TypeElement) types.asElement(interfaces.get(0));
+    require(parent == null || parent.getInterfaces().isEmpty(),
+        "only single-level inheritance supported");
+
+    final String jpackage = elements.getPackageOf(type).getQualifiedName().toString();
+    final String binaryName = elements.getBinaryName(type).toString();
+    final String className =
+        (jpackage.isEmpty() ? binaryName : binaryName.substring(jpackage.length() + 1)) + SUFFIX;
+    final String iface = types.erasure(type.asType()).toString();
+
+    final List<PrecompiledMethodDefinition> methods = new ArrayList<>();
+    final List<ExecutableElement> dispatchOrder = new ArrayList<>();
+    final Set<String> configKeys = new HashSet<>();
+    for (final ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+      if (method.getEnclosingElement().getKind() != ElementKind.INTERFACE
+          || method.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+      require(!isObjectMethod(method), "redeclares " + method);
+      require(method.getTypeParameters().isEmpty(), "generic methods unsupported: " + method);
+      final int index = methods.size();
+      final ExecutableType resolved =
+          (ExecutableType) types.asMemberOf((DeclaredType) type.asType(), method);
+      final List<String> statements;
+      if (method.getModifiers().contains(Modifier.DEFAULT)) {
+        statements = null;
+      } else {
+        final String configKey = configKey(type, method, resolved);
+        require(configKeys.add(configKey), "overrides unsupported: " + configKey);
+        statements = parseMethod(type, parent, method, resolved, iface, index, configKey);
+      }
+      methods.add(new PrecompiledMethodDefinition(index,
+          lookup(iface, method),
+          statements,
+          signature(method, resolved, index),
+          dispatch(method, resolved, index)));
+      dispatchOrder.add(method);
+    }
+    require(!methods.isEmpty(), "no methods");
+    return new PrecompiledClientDefinition(jpackage, className, iface, methods,
+        "0x" + Long.toHexString(fingerprint(type, parent, dispatchOrder)) + "L");
+  }
+
+  /**
+   * Same as {@code PrecompiledMetadata.fingerprint(Class, Method[])}, from the source.
+   */
+  private long fingerprint(TypeElement type,
+                           TypeElement parent,
+                           List<ExecutableElement> methods) {
+    final StringBuilder declarations = new StringBuilder();
+    if (parent != null) {
+      headers(parent, declarations);
+    }
+    headers(type, declarations);
+    for (final ExecutableElement method : methods) {
+      append(declarations, method.getSimpleName().toString(), typeName(method.getReturnType()));
+      final AnnotationMirror requestLine = annotation(method, REQUEST_LINE);
+      if (requestLine != null) {
+        final Map<String, Object> values = values(requestLine);
+        append(declarations, "@RequestLine", (String) values.get("value"),
+            String.valueOf(values.get("decodeSlash")), (String) values.get("collectionFormat"));
+      }
+      final AnnotationMirror body = annotation(method, BODY);
+      if (body != null) {
+        append(declarations, "@Body", (String) values(body).get("value"));
+      }
+      headers(method, declarations);
+      for (final VariableElement parameter : method.getParameters()) {
+        append(declarations, typeName(parameter.asType()));
+        for (final AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
+          switch (annotationName(annotation)) {
+            case PARAM:
+              append(declarations, "@Param", (String) values(annotation).get("value"),
+                  typeName(types.erasure((TypeMirror) value(annotation, "expander"))));
+              break;
+            case QUERY_MAP:
+              append(declarations, "@QueryMap", String.valueOf(values(annotation).get("encoded")));
+              break;
+            case HEADER_MAP:
+              append(declarations, "@HeaderMap");
+              break;
+            default:
+              // unused by the contract
+          }
+        }
+      }
+    }
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < declarations.length(); i++) {
+      hash = (hash ^ declarations.charAt(i)) * 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  private void headers(Element element, StringBuilder declarations) {
+    final AnnotationMirror headers = annotation(element, HEADERS);
+    if (headers != null) {
+      append(declarations, "@Headers");
+      for (final Object value : (List<?>) values(headers).get("value")) {
+        append(declarations, (String) value);
+      }
+    }
+  }
+
+  private static void append(StringBuilder declarations, String... values) {
+    for (final String value : values) {
+      declarations.append(value).append('\0');
+    }
+  }
+
+  /**
+   * Binary names with type arguments, as {@code PrecompiledMetadata} writes reflected types.
+   */
+  private String typeName(TypeMirror type) {
+    switch (type.getKind()) {
+      case ARRAY:
+        return typeName(((ArrayType) type).getComponentType()) + "[]";
+      case DECLARED:
+        final DeclaredType declared = (DeclaredType) type;
+        final String raw =
+            elements.getBinaryName((TypeElement) declared.asElement()).toString();
+        return declared.getTypeArguments().isEmpty()
+            ? raw
+            : raw + declared.getTypeArguments().stream()
+                .map(this::typeName)
+                .collect(Collectors.joining(",", "<", ">"));
+      case WILDCARD:
+        final WildcardType wildcard = (WildcardType) type;
+        if (wildcard.getSuperBound() != null) {
+          return "? super " + typeName(wildcard.getSuperBound());
+        }
+        final TypeMirror extendsBound = wildcard.getExtendsBound();
+        return extendsBound == null || "java.lang.Object".equals(extendsBound.toString())
+            ? "?"
+            : "? extends " + typeName(extendsBound);
+      default:
+        return type.toString();
+    }
+  }
+
+  private List<String> parseMethod(TypeElement type,
+                                   TypeElement parent,
+                                   ExecutableElement method,
+                                   ExecutableType resolved,
+                                   String iface,
+                                   int index,
+                                   String configKey) {
+    final List<String> statements = new ArrayList<>();
+    statements.add("final feign.MethodMetadata data = metadata(" + iface + ".class, METHOD_"
+        + index + ", " + typeExpression(resolved.getReturnType()) + ", " + literal(configKey)
+        + ")");
+    if (parent != null) {
+      classHeaders(parent, statements);
+    }
+    classHeaders(type, statements);
+
+    require(annotation(method, REQUEST_LINE) != null,
+        "not annotated with HTTP method type: " + configKey);
+    for (final AnnotationMirror annotation : method.getAnnotationMirrors()) {
+      final Map<String, Object> values = values(annotation);
+      switch (annotationName(annotation)) {
+        case REQUEST_LINE:
+          final String requestLine = (String) values.get("value");
+          final Matcher matcher = REQUEST_LINE_PATTERN.matcher(requestLine);
+          require(!requestLine.isEmpty() && matcher.find() && isHttpMethod(matcher.group(1)),
+              "invalid request line on " + configKey);
+          statements.add("requestLine(data, feign.Request.HttpMethod." + matcher.group(1) + ", "
+              + literal(matcher.group(2)) + ", " + values.get("decodeSlash")
+              + ", feign.CollectionFormat." + values.get("collectionFormat") + ")");
+          break;
+        case BODY:
+          statements.add("body(data, " + literal((String) values.get("value")) + ")");
+          break;
+        case HEADERS:
+          statements.add("methodHeaders(data" + literals(values.get("value")) + ")");
+          break;
+        default:
+          // unused by the contract
+      }
+    }
+
+    final List<? extends VariableElement> parameters = method.getParameters();
+    for (int i = 0; i < parameters.size(); i++) {
+      final VariableElement parameter = parameters.get(i);
+      final TypeMirror parameterType = resolved.getParameterTypes().get(i);
+      boolean annotated = false;
+      for (final AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
+        final Map<String, Object> values = values(annotation);
+        switch (annotationName(annotation)) {
+          case PARAM:
+            final String expander = (String) values.get("expander");
+            statements.add("param(data, " + i + ", " + literal((String) values.get("value"))
+                + ", " + (TO_STRING_EXPANDER.equals(expander) ? "null" : expander + ".class")
+                + ")");
+            annotated = true;
+            break;
+          case QUERY_MAP:
+            requireMapKeys(parameterType, false, configKey);
+            statements.add("queryMap(data, " + i + ", " + values.get("encoded") + ")");
+            annotated = true;
+            break;
+          case HEADER_MAP:
+            requireMapKeys(parameterType, true, configKey);
+            statements.add("headerMap(data, " + i + ")");
+            annotated = true;
+            break;
+          default:
+            // unused by the contract
+        }
+      }
+      final String erasure = types.erasure(parameterType).toString();
+      if ("java.net.URI".equals(erasure)) {
+        statements.add("data.urlIndex(" + i + ")");
+      } else if (!"feign.Request.Options".equals(erasure)) {
+        statements.add(annotated
+            ? "annotatedParam(data)"
+            : "bodyParam(data, " + i + ", " + typeExpression(parameterType) + ")");
+      }
+    }
+    return statements;
+  }
+
+  private void classHeaders(TypeElement type, List<String> statements) {
+    final AnnotationMirror headers = annotation(type, HEADERS);
+    if (headers != null) {
+      statements.add("classHeaders(data" + literals(values(headers).get("value")) + ")");
+    }
+  }
+
+  /**
+   * Map parameters must have {@code String} keys, otherwise {@code Contract.BaseContract} fails.
+   */
+  private void requireMapKeys(TypeMirror type, boolean mustBeMap, String configKey) {
+    final TypeMirror map = types.erasure(elements.getTypeElement("java.util.Map").asType());
+    if (!types.isAssignable(types.erasure(type), map)) {
+      require(!mustBeMap, "HeaderMap parameter must be a Map on " + configKey);
+      return;
+    }
+    require(type.getKind() == TypeKind.DECLARED, "unsupported map type on " + configKey);
+    final List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+    require(!arguments.isEmpty() || types.isSameType(types.erasure(type), map),
+        "unsupported map type on " + configKey);
+    require(arguments.isEmpty() || "java.lang.String".equals(arguments.get(0).toString()),
+        "map keys must be Strings on " + configKey);
+  }
+
+  /**
+   * Same as {@code Feign.configKey(Class, Method)}.
+   */
+  private String configKey(TypeElement type, ExecutableElement method, ExecutableType resolved) {
+    return type.getSimpleName() + "#" + method.getSimpleName() + "("
+        + resolved.getParameterTypes().stream()
+            .map(this::rawSimpleName)
+            .collect(Collectors.joining(","))
+        + ")";
+  }
+
+  private String rawSimpleName(TypeMirror type) {
+    switch (type.getKind()) {
+      case ARRAY:
+        return rawSimpleName(((ArrayType) type).getComponentType()) + "[]";
+      case DECLARED:
+        return ((DeclaredType) type).asElement().getSimpleName().toString();
+      case TYPEVAR:
+      case WILDCARD:
+        return "Object";
+      default:
+        return type.toString();
+    }
+  }
+
+  private String lookup(String iface, ExecutableElement method) {
+    final StringBuilder lookup = new StringBuilder("method(")
+        .append(iface).append(".class, ").append(literal(method.getSimpleName().toString()));
+    for (final VariableElement parameter : method.getParameters()) {
+      lookup.append(", ").append(sourceName(types.erasure(parameter.asType()))).append(".class");
+    }
+    return lookup.append(')').toString();
+  }
+
+  private String signature(ExecutableElement method, ExecutableType resolved, int index) {
+    final StringBuilder signature = new StringBuilder()
+        .append(sourceName(resolved.getReturnType())).append(' ')
+        .append(method.getSimpleName()).append('(');
+    final List<? extends TypeMirror> parameterTypes = resolved.getParameterTypes();
+    for (int i = 0; i < parameterTypes.size(); i++) {
+      if (i > 0) {
+        signature.append(", ");
+      }
+      signature.append(sourceName(parameterTypes.get(i))).append(" arg").append(i);
+    }
+    signature.append(')');
+    if (!resolved.getThrownTypes().isEmpty()) {
+      signature.append(" throws ").append(resolved.getThrownTypes().stream()
+          .map(this::sourceName)
+          .collect(Collectors.joining(", ")));
+    }
+    return signature.toString();
+  }
+
+  private String dispatch(ExecutableElement method, ExecutableType resolved, int index) {
+    final String arguments = method.getParameters().isEmpty()
+        ? "null"
+        : IntStream.range(0, method.getParameters().size())
+            .mapToObj(i -> "arg" + i)
+            .collect(Collectors.joining(", ", "new Object[] {", "}"));
+    final String invoke = "slot" + index + ".invoke(" + arguments + ")";
+    final TypeMirror returnType = resolved.getReturnType();
+    if (returnType.getKind() == TypeKind.VOID) {
+      return invoke;
+    }
+    final String cast = returnType.getKind().isPrimitive()
+        ? types.boxedClass((PrimitiveType) returnType).getQualifiedName().toString()
+        : sourceName(returnType);
+    return "return (" + cast + ") " + invoke;
+  }
+
+  /**
+   * Expression building the {@code java.lang.reflect.Type} of a resolved type.
+   */
+  private String typeExpression(TypeMirror type) {
+    switch (type.getKind()) {
+      case ARRAY:
+        final TypeMirror component = ((ArrayType) type).getComponentType();
+        final String componentExpression = typeExpression(component);
+        return componentExpression.startsWith("parameterized(")
+            || componentExpression.startsWith("arrayOf(")
+                ? "arrayOf(" + componentExpression + ")"
+                : sourceName(types.erasure(type)) + ".class";
+      case DECLARED:
+        final DeclaredType declared = (DeclaredType) type;
+        requireAccessible(declared);
+        final String raw = sourceName(types.erasure(type)) + ".class";
+        if (declared.getTypeArguments().isEmpty()) {
+          return raw;
+        }
+        return "parameterized(" + raw + declared.getTypeArguments().stream()
+            .map(argument -> ", " + typeExpression(argument))
+            .collect(Collectors.joining()) + ")";
+      case WILDCARD:
+        final WildcardType wildcard = (WildcardType) type;
+        if (wildcard.getSuperBound() != null) {
+          return "supertypeOf(" + typeExpression(wildcard.getSuperBound()) + ")";
+        }
+        return "subtypeOf(" + (wildcard.getExtendsBound() != null
+            ? typeExpression(wildcard.getExtendsBound())
+            : "Object.class") + ")";
+      default:
+        require(type.getKind().isPrimitive() || type.getKind() == TypeKind.VOID,
+            "unsupported type " + type);
+        return type + ".class";
+    }
+  }
+
+  private String sourceName(TypeMirror type) {
+    if (type.getKind() == TypeKind.DECLARED) {
+      requireAccessible((DeclaredType) type);
+    }
+    return type.toString();
+  }
+
+  private void requireAccessible(DeclaredType type) {
+    for (Element element = type.asElement(); element instanceof TypeElement; element =
+        element.getEnclosingElement()) {
+      require(!element.getModifiers().contains(Modifier.PRIVATE),
+          "private types unsupported: " + type);
+    }
+  }
+
+  private boolean isObjectMethod(ExecutableElement method) {
+    final TypeElement object = elements.getTypeElement("java.lang.Object");
+    return ElementFilter.methodsIn(object.getEnclosedElements()).stream()
+        .anyMatch(candidate -> candidate.getSimpleName().equals(method.getSimpleName())
+            && candidate.getParameters().size() == method.getParameters().size()
+            && elements.overrides(method, candidate, (TypeElement) method.getEnclosingElement()));
+  }
+
+  private static boolean isHttpMethod(String name) {
+    try {
+      HttpMethod.valueOf(name);
+      return true;
+    } catch (final IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private static AnnotationMirror annotation(Element element, String annotationName) {
+    for (final AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      if (annotationName(annotation).equals(annotationName)) {
+        return annotation;
+      }
+    }
+    return null;
+  }
+
+  private static String annotationName(AnnotationMirror annotation) {
+    return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+        .toString();
+  }
+
+  /**
+   * Annotation values with defaults: strings, booleans, class and enum constant names, and lists
+   * of those.
+   */
+  private Map<String, Object> values(AnnotationMirror annotation) {
+    final Map<String, Object> values = new HashMap<>();
+    elements.getElementValuesWithDefaults(annotation)
+        .forEach((name, value) -> values.put(name.getSimpleName().toString(), unwrap(value)));
+    return values;
+  }
+
+  private Object value(AnnotationMirror annotation, String name) {
+    return elements.getElementValuesWithDefaults(annotation).entrySet().stream()
+        .filter(entry -> entry.getKey().getSimpleName().contentEquals(name))
+        .map(entry -> entry.getValue().getValue())
+        .findFirst()
+        .orElseThrow(() -> new Unsupported("no " + name + " on " + annotation));
+  }
+
+  private Object unwrap(AnnotationValue value) {
+    final Object unwrapped = value.getValue();
+    if (unwrapped instanceof TypeMirror) {
+      return sourceName(types.erasure((TypeMirror) unwrapped));
+    }
+    if (unwrapped instanceof VariableElement) {
+      return ((VariableElement) unwrapped).getSimpleName().toString();
+    }
+    if (unwrapped instanceof List) {
+      return ((List<?>) unwrapped).stream()
+          .map(element -> unwrap((AnnotationValue) element))
+          .collect(Collectors.toList());
+    }
+    return unwrapped;
+  }
+
+  private String literal(String value) {
+    return elements.getConstantExpression(value);
+  }
+
+  private String literals(Object values) {
+    return ((List<?>) values).stream()
+        .map(value -> ", " + literal((String) value))
+        .collect(Collectors.joining());
+  }
+
+  private static void require(boolean condition, String reason) {
+    if (!condition) {
+      throw new Unsupported(reason);
+    }
+  }
+
+  private static final class Unsupported extends RuntimeException {
+
+    Unsupported(String reason) {
+      super(reason);
+    }
+  }
+}
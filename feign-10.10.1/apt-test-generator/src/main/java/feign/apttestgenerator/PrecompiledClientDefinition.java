@@ -0,0 +1,36 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.apttestgenerator;
+
+import java.util.List;
+
+public class PrecompiledClientDefinition {
+
+  public final String jpackage;
+  public final String className;
+  public final String iface;
+  public final List<PrecompiledMethodDefinition> methods;
+  public final String fingerprint;
+
+  public PrecompiledClientDefinition(String jpackage, String className, String iface,
+      List<PrecompiledMethodDefinition> methods, String fingerprint) {
+    super();
+    this.jpackage = jpackage;
+    this.className = className;
+    this.iface = iface;
+    this.methods = methods;
+    this.fingerprint = fingerprint;
+  }
+
+}
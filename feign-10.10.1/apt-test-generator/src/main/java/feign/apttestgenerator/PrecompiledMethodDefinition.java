@@ -0,0 +1,39 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.apttestgenerator;
+
+import java.util.List;
+
+public class PrecompiledMethodDefinition {
+
+  public final int index;
+  public final String lookup;
+  /**
+   * Statements building the method metadata, {@code null} for default methods.
+   */
+  public final List<String> statements;
+  public final String signature;
+  public final String dispatch;
+
+  public PrecompiledMethodDefinition(int index, String lookup, List<String> statements,
+      String signature, String dispatch) {
+    super();
+    this.index = index;
+    this.lookup = lookup;
+    this.statements = statements;
+    this.signature = signature;
+    this.dispatch = dispatch;
+  }
+
+}
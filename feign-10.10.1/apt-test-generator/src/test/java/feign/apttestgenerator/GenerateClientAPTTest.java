@@ -0,0 +1,220 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.apttestgenerator;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+import static org.assertj.core.api.Assertions.assertThat;
+import com.google.common.io.ByteStreams;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import feign.*;
+import org.junit.Test;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Test for {@link GenerateClientAPT}
+ */
+public class GenerateClientAPTTest {
+
+  private final File main = new File("../example-github/src/main/java/").getAbsoluteFile();
+
+  @Headers("X-Base: base")
+  interface Base {
+  }
+
+  @Headers({"Accept: application/json", "X-Base: overridden"})
+  interface Api extends Base {
+
+    @RequestLine("GET /repos/{owner}?sort={sort}")
+    List<Map<String, ? extends Number>> repos(@Param("owner") String owner,
+                                              @Param(value = "sort",
+                                                  expander = UpperCase.class) String sort);
+
+    @RequestLine(value = "POST /{id}", decodeSlash = false,
+        collectionFormat = CollectionFormat.CSV)
+    @Headers("Content-Type: text/plain")
+    @Body("id={id}")
+    int create(@Param("id") long id, @HeaderMap Map<String, Object> headers);
+
+    @RequestLine("PUT")
+    String[] update(URI uri, List<String> body, Request.Options options) throws IOException;
+
+    @RequestLine("GET /search")
+    void search(@QueryMap Map<String, String> query);
+
+    default String firstRepo(String owner) {
+      return repos(owner, "asc").get(0).keySet().iterator().next();
+    }
+  }
+
+  public static class UpperCase implements Param.Expander {
+
+    @Override
+    public String expand(Object value) {
+      return value.toString().toUpperCase();
+    }
+  }
+
+  @Test
+  public void generatesMetadataForGitHubExample() throws Exception {
+    final Compilation compilation =
+        javac()
+            .withProcessors(new GenerateClientAPT())
+            .withOptions("-Afeign.generateClients=true")
+            .compile(JavaFileObjects.forResource(
+                new File(main, "example/github/GitHubExample.java")
+                    .toURI()
+                    .toURL()));
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("example.github.GitHubExample$GitHub$$FeignMetadata");
+  }
+
+  @Test
+  public void generatesNothingUnlessEnabled() throws Exception {
+    final Compilation compilation =
+        javac()
+            .withProcessors(new GenerateClientAPT())
+            .compile(JavaFileObjects.forResource(
+                new File(main, "example/github/GitHubExample.java")
+                    .toURI()
+                    .toURL()));
+    assertThat(compilation).succeeded();
+    assertThat(compilation.generatedSourceFiles()).isEmpty();
+  }
+
+  @Test
+  public void staleMetadataIsNotUsed() throws Exception {
+    final Compilation generated = javac()
+        .withProcessors(new GenerateClientAPT())
+        .withOptions("-Afeign.generateClients=true")
+        .compile(staleApi("GET /before/{id}"));
+    assertThat(generated).succeeded();
+    final JavaFileObject metadata =
+        generated.generatedSourceFile("stale.StaleApi$$FeignMetadata").get();
+
+    // same methods, so only the fingerprint tells the metadata is out of date
+    final Compilation changed = javac().compile(staleApi("GET /after/{id}"), metadata);
+    assertThat(changed).succeeded();
+    final Class<?> type = classLoader(changed).loadClass("stale.StaleApi");
+    assertThat(Class.forName("stale.StaleApi$$FeignMetadata", false, type.getClassLoader()))
+        .isNotNull();
+
+    final List<MethodMetadata> methods = new PrecompiledContract().parseAndValidateMetadata(type);
+    assertThat(methods).hasSize(1);
+    assertThat(methods.get(0).template().url()).isEqualTo("/after/{id}");
+  }
+
+  private static JavaFileObject staleApi(String requestLine) {
+    return JavaFileObjects.forSourceLines("stale.StaleApi",
+        "package stale;",
+        "import feign.*;",
+        "public interface StaleApi {",
+        "  @RequestLine(\"" + requestLine + "\")",
+        "  String get(@Param(\"id\") String id);",
+        "}");
+  }
+
+  private static ClassLoader classLoader(Compilation compilation) {
+    return new ClassLoader(GenerateClientAPTTest.class.getClassLoader()) {
+      @Override
+      protected Class<?> findClass(String name) throws ClassNotFoundException {
+        final JavaFileObject file = compilation.generatedFile(StandardLocation.CLASS_OUTPUT,
+            name.replace('.', '/') + ".class")
+            .orElseThrow(() -> new ClassNotFoundException(name));
+        try (InputStream in = file.openInputStream()) {
+          final byte[] bytes = ByteStreams.toByteArray(in);
+          return defineClass(name, bytes, 0, bytes.length);
+        } catch (final IOException e) {
+          throw new ClassNotFoundException(name, e);
+        }
+      }
+    };
+  }
+
+  @Test
+  public void metadataMatchesDefaultContract() {
+    final List<MethodMetadata> expected = new Contract.Default().parseAndValidateMetadata(Api.class);
+    final List<MethodMetadata> actual = new PrecompiledContract().parseAndValidateMetadata(Api.class);
+
+    assertThat(actual).hasSameSizeAs(expected);
+    for (final MethodMetadata expectedMethod : expected) {
+      final MethodMetadata actualMethod = actual.stream()
+          .filter(md -> md.configKey().equals(expectedMethod.configKey()))
+          .findFirst()
+          .orElseThrow(AssertionError::new);
+      assertThat(actualMethod.method()).isEqualTo(expectedMethod.method());
+      assertThat(actualMethod.targetType()).isEqualTo(expectedMethod.targetType());
+      assertThat(actualMethod.returnType()).isEqualTo(expectedMethod.returnType());
+      assertThat(actualMethod.returnType().hashCode())
+          .isEqualTo(expectedMethod.returnType().hashCode());
+      assertThat(actualMethod.bodyIndex()).isEqualTo(expectedMethod.bodyIndex());
+      assertThat(actualMethod.bodyType()).isEqualTo(expectedMethod.bodyType());
+      assertThat(actualMethod.urlIndex()).isEqualTo(expectedMethod.urlIndex());
+      assertThat(actualMethod.queryMapIndex()).isEqualTo(expectedMethod.queryMapIndex());
+      assertThat(actualMethod.headerMapIndex()).isEqualTo(expectedMethod.headerMapIndex());
+      assertThat(actualMethod.indexToName()).isEqualTo(expectedMethod.indexToName());
+      assertThat(actualMethod.indexToExpanderClass())
+          .isEqualTo(expectedMethod.indexToExpanderClass());
+      assertThat(actualMethod.formParams()).isEqualTo(expectedMethod.formParams());
+      assertThat(actualMethod.template().method()).isEqualTo(expectedMethod.template().method());
+      assertThat(actualMethod.template().url()).isEqualTo(expectedMethod.template().url());
+      assertThat(actualMethod.template().headers())
+          .isEqualTo(expectedMethod.template().headers());
+      assertThat(actualMethod.template().bodyTemplate())
+          .isEqualTo(expectedMethod.template().bodyTemplate());
+      assertThat(actualMethod.template().decodeSlash())
+          .isEqualTo(expectedMethod.template().decodeSlash());
+      assertThat(actualMethod.template().collectionFormat())
+          .isEqualTo(expectedMethod.template().collectionFormat());
+    }
+  }
+
+  @Test
+  public void buildsClientsFromGeneratedCode() {
+    final AtomicReference<Request> lastRequest = new AtomicReference<>();
+    final Api api = Feign.builder()
+        .contract(new PrecompiledContract())
+        .generatedDispatch()
+        .client((request, options) -> {
+          lastRequest.set(request);
+          return Response.builder()
+              .status(200)
+              .request(request)
+              .headers(Collections.emptyMap())
+              .body("42", StandardCharsets.UTF_8)
+              .build();
+        })
+        .decoder((response, type) -> 42)
+        .target(Api.class, "http://localhost");
+
+    assertThat(api.getClass().getName()).isEqualTo(Api.class.getName() + "$$FeignMetadata$Client");
+    assertThat(api.create(7, Collections.singletonMap("X-Id", 7))).isEqualTo(42);
+    assertThat(lastRequest.get().url()).isEqualTo("http://localhost/7");
+    assertThat(lastRequest.get().headers()).containsEntry("X-Id", Collections.singletonList("7"))
+        .containsEntry("X-Base", Collections.singletonList("base"));
+    assertThat(new String(lastRequest.get().body(), StandardCharsets.UTF_8)).isEqualTo("id=7");
+  }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Util;
+import feign.jackson.JacksonDecoder;
+import feign.jackson.JacksonEncoder;
+
+/**
+ * How much does the compact, cached and byte level Jackson codec gain over the one that indented
+ * output, resolved a writer per call and decoded through a Reader?
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class JacksonCodecBenchmarks {
+
+  private static final Type CARS = new TypeReference<List<Car>>() {}.getType();
+  private static final Request REQUEST =
+      Request.create(Request.HttpMethod.GET, "/", Collections.emptyMap(), Request.Body.empty(),
+          null);
+
+  private List<Car> cars;
+  private byte[] json;
+  private ObjectMapper indentingMapper;
+  private ObjectMapper readingMapper;
+  private JacksonEncoder compactEncoder;
+  private JacksonDecoder decoder;
+
+  @Setup
+  public void setup() throws IOException {
+    cars = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      cars.add(new Car("car-" + i, "make-" + i % 7, 2000 + i % 20, i * 1000L));
+    }
+    indentingMapper = new ObjectMapper()
+        .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+        .configure(SerializationFeature.INDENT_OUTPUT, true);
+    readingMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    compactEncoder = JacksonEncoder.compact();
+    decoder = new JacksonDecoder();
+    json = new ObjectMapper().writeValueAsBytes(cars);
+  }
+
+  /**
+   * The encoder as it was: indented output and a writer resolved on every call.
+   */
+  @Benchmark
+  public RequestTemplate encode_indentedPerCallWriter() throws IOException {
+    RequestTemplate template = new RequestTemplate();
+    template.body(indentingMapper.writerFor(indentingMapper.getTypeFactory().constructType(CARS))
+        .writeValueAsBytes(cars), Util.UTF_8);
+    return template;
+  }
+
+  @Benchmark
+  public RequestTemplate encode_compactCachedWriter() {
+    RequestTemplate template = new RequestTemplate();
+    compactEncoder.encode(cars, CARS, template);
+    return template;
+  }
+
+  /**
+   * The decoder as it was: a 1 char buffered Reader over the body and a type resolved per call.
+   */
+  @Benchmark
+  public Object decode_reader() throws IOException {
+    Reader reader = response().body().asReader(Util.UTF_8);
+    if (!reader.markSupported()) {
+      reader = new BufferedReader(reader, 1);
+    }
+    reader.mark(1);
+    if (reader.read() == -1) {
+      return null;
+    }
+    reader.reset();
+    return readingMapper.readValue(reader, readingMapper.constructType(CARS));
+  }
+
+  @Benchmark
+  public Object decode_bytes() throws IOException {
+    return decoder.decode(response(), CARS);
+  }
+
+  private Response response() {
+    return Response.builder()
+        .status(200)
+        .reason("OK")
+        .request(REQUEST)
+        .headers(Collections.emptyMap())
+        .body(json)
+        .build();
+  }
+
+  public static class Car {
+
+    public String name;
+    public String make;
+    public int year;
+    public long price;
+
+    public Car() {}
+
+    Car(String name, String make, int year, long price) {
+      this.name = name;
+      this.make = make;
+      this.year = year;
+      this.price = price;
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import feign.Client;
+import feign.Feign;
+import feign.RequestLine;
+import feign.Response;
+import feign.Util;
+import feign.micrometer.MicrometerCapability;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * What does metering with {@link MicrometerCapability} add to a call that goes through the
+ * encoder, the client and the decoder, without considering network?
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class MeteredCallBenchmarks {
+
+  private MeteredApi unmetered;
+  private MeteredApi metered;
+
+  @Setup
+  public void setup() {
+    Client fakeClient = (request, options) -> Response.builder()
+        .body("ok", Util.UTF_8)
+        .status(200)
+        .headers(Collections.emptyMap())
+        .reason("ok")
+        .request(request)
+        .build();
+    unmetered = Feign.builder()
+        .client(fakeClient)
+        .target(MeteredApi.class, "http://localhost");
+    metered = Feign.builder()
+        .client(fakeClient)
+        .addCapability(new MicrometerCapability(new SimpleMeterRegistry()))
+        .target(MeteredApi.class, "http://localhost");
+  }
+
+  @Benchmark
+  public String unmetered() {
+    return unmetered.post("body");
+  }
+
+  @Benchmark
+  public String metered() {
+    return metered.post("body");
+  }
+
+  interface MeteredApi {
+
+    @RequestLine("POST /")
+    String post(String body);
+  }
+}
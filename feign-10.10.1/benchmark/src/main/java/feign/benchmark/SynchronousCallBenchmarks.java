@@ -0,0 +1,90 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import feign.Feign;
+import feign.Param;
+import feign.Request;
+import feign.RequestLine;
+import feign.Response;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Per-call cost of the blocking path, from argument binding to decoding, against a client that
+ * answers immediately. Run with {@code -prof gc} to compare allocations per call.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class SynchronousCallBenchmarks {
+
+  interface Api {
+
+    @RequestLine("GET /users/{id}")
+    String get(@Param("id") int id);
+
+    @RequestLine("GET /users/{id}")
+    String getWithOptions(@Param("id") int id, Request.Options options);
+
+    @RequestLine("GET /users/{id}")
+    Response getResponse(@Param("id") int id);
+  }
+
+  private Api api;
+  private Request.Options options;
+
+  @Setup
+  public void setup() {
+    options = new Request.Options();
+    api = Feign.builder()
+        .client((request, options) -> Response.builder()
+            .status(200)
+            .reason("OK")
+            .request(request)
+            .headers(Collections.emptyMap())
+            .body("ok", UTF_8)
+            .build())
+        .target(Api.class, "http://localhost");
+  }
+
+  @Benchmark
+  public String decode() {
+    return api.get(1);
+  }
+
+  @Benchmark
+  public String decodeWithOptions() {
+    return api.getWithOptions(1, options);
+  }
+
+  @Benchmark
+  public Response response() {
+    return api.getResponse(1);
+  }
+}
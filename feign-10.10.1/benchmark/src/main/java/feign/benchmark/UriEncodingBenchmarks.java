@@ -0,0 +1,113 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import feign.Util;
+import feign.template.UriUtils;
+import org.openjdk.jmh.annotations.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * This test shows how fast pct-encoding of typical query values is, comparing the single pass
+ * {@link UriUtils} encoder with the regex and byte stream based encoder it replaced.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class UriEncodingBenchmarks {
+
+  private static final Pattern PCT_ENCODED_PATTERN = Pattern.compile("%[0-9A-Fa-f][0-9A-Fa-f]");
+
+  @Param({"netflix", "2020-01-01T10:00:00Z", "Magnum P.I.", "name=James;loc=England&Britain?",
+      "Citroën C4", "already%20encoded"})
+  private String value;
+
+  private final StringBuilder builder = new StringBuilder(64);
+
+  /**
+   * How fast is the encoder we replaced?
+   */
+  @Benchmark
+  public String legacy() {
+    return legacyEncodeChunk(value, Util.UTF_8, false);
+  }
+
+  /**
+   * How fast is the single pass encoder, returning a String?
+   */
+  @Benchmark
+  public String singlePass() {
+    return UriUtils.encode(value, Util.UTF_8);
+  }
+
+  /**
+   * How fast is the single pass encoder, appending to a reused builder?
+   */
+  @Benchmark
+  public StringBuilder singlePass_builder() {
+    builder.setLength(0);
+    return UriUtils.encode(value, Util.UTF_8, builder);
+  }
+
+  /* the encoder UriUtils used before, kept here as the baseline */
+
+  private static String legacyEncodeChunk(String value, Charset charset, boolean allowReserved) {
+    if (legacyIsEncoded(value, charset)) {
+      return value;
+    }
+
+    byte[] data = value.getBytes(charset);
+    try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+      for (byte b : data) {
+        if (isUnreserved((char) b)) {
+          bos.write(b);
+        } else if (isReserved((char) b) && allowReserved) {
+          bos.write(b);
+        } else {
+          bos.write('%');
+          bos.write(Character.toUpperCase(Character.forDigit((b >> 4) & 0xF, 16)));
+          bos.write(Character.toUpperCase(Character.forDigit(b & 0xF, 16)));
+        }
+      }
+      return new String(bos.toByteArray(), charset);
+    } catch (IOException ioe) {
+      throw new IllegalStateException(ioe);
+    }
+  }
+
+  private static boolean legacyIsEncoded(String value, Charset charset) {
+    for (byte b : value.getBytes(charset)) {
+      if (!isUnreserved((char) b) && b != '%') {
+        return false;
+      }
+    }
+    return PCT_ENCODED_PATTERN.matcher(value).find();
+  }
+
+  private static boolean isUnreserved(int c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+        || c == '-' || c == '.' || c == '_' || c == '~';
+  }
+
+  private static boolean isReserved(int c) {
+    return ":/?#[]@!$&'()*+,;=".indexOf(c) != -1;
+  }
+}
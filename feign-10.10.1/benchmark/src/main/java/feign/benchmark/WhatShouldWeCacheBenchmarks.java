@@ -29,6 +29,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import feign.Capability;
 import feign.Client;
 import feign.Contract;
 import feign.Feign;
@@ -50,6 +51,7 @@ public class WhatShouldWeCacheBenchmarks {
   private Client fakeClient;
   private Feign cachedFakeFeign;
   private FeignTestInterface cachedFakeApi;
+  private Capability capability;
 
   @Setup
   public void setup() {
@@ -74,6 +76,12 @@ public class WhatShouldWeCacheBenchmarks {
             .build();
       }
     };
+    capability = new Capability() {
+      @Override
+      public Client enrich(Client client) {
+        return client;
+      }
+    };
     cachedFakeFeign = Feign.builder().client(fakeClient).build();
     cachedFakeApi = cachedFakeFeign.newInstance(
         new HardCodedTarget<FeignTestInterface>(FeignTestInterface.class, "http://localhost"));
@@ -106,6 +114,43 @@ public class WhatShouldWeCacheBenchmarks {
         .target(FeignTestInterface.class, "http://localhost").query();
   }
 
+  /**
+   * How fast is creating a feign instance for each http request, when the contract is new each time
+   * and its metadata can't be shared with previous instances?
+   */
+  @Benchmark
+  public Response buildAndQuery_fake_uncachedContract() {
+    return Feign.builder().contract(new Contract.Default() {}).client(fakeClient)
+        .target(FeignTestInterface.class, "http://localhost").query();
+  }
+
+  /**
+   * How fast is creating per-tenant instances of an interface whose metadata is already shared?
+   */
+  @Benchmark
+  public FeignTestInterface build_sharedMetadata() {
+    return Feign.builder().client(fakeClient)
+        .target(FeignTestInterface.class, "http://localhost");
+  }
+
+  /**
+   * How fast is creating per-tenant instances when each one parses the interface again?
+   */
+  @Benchmark
+  public FeignTestInterface build_uncachedContract() {
+    return Feign.builder().contract(new Contract.Default() {}).client(fakeClient)
+        .target(FeignTestInterface.class, "http://localhost");
+  }
+
+  /**
+   * How fast is creating per-tenant instances with a capability enriching every component?
+   */
+  @Benchmark
+  public FeignTestInterface build_withCapability() {
+    return Feign.builder().client(fakeClient).addCapability(capability)
+        .target(FeignTestInterface.class, "http://localhost");
+  }
+
   /**
    * How fast re-parsing the annotated http api for each http request, without considering network?
    */
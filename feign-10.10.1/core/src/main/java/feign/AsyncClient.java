@@ -16,7 +16,6 @@ package feign;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 import feign.Request.Options;
 
 /**
@@ -43,31 +42,26 @@ public interface AsyncClient<C> {
   class Default<C> implements AsyncClient<C> {
 
     private final Client client;
-    private final ExecutorService executorService;
+    private final ExecutionStrategy executionStrategy;
 
     public Default(Client client, ExecutorService executorService) {
+      this(client, ExecutionStrategy.of(executorService));
+    }
+
+    /**
+     * @param client to run the blocking calls with.
+     * @param executionStrategy decides where and how many calls run at once.
+     */
+    public Default(Client client, ExecutionStrategy executionStrategy) {
       this.client = client;
-      this.executorService = executorService;
+      this.executionStrategy = executionStrategy;
     }
 
     @Override
     public CompletableFuture<Response> execute(Request request,
                                                Options options,
                                                Optional<C> requestContext) {
-      final CompletableFuture<Response> result = new CompletableFuture<>();
-      final Future<?> future = executorService.submit(() -> {
-        try {
-          result.complete(client.execute(request, options));
-        } catch (final Exception e) {
-          result.completeExceptionally(e);
-        }
-      });
-      result.whenComplete((response, throwable) -> {
-        if (result.isCancelled()) {
-          future.cancel(true);
-        }
-      });
-      return result;
+      return executionStrategy.submit(request, () -> client.execute(request, options));
     }
   }
 
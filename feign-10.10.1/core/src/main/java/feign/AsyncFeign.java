@@ -15,9 +15,12 @@ package feign;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.*;
 import java.util.function.Supplier;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import feign.Logger.NoOpLogger;
 import feign.Request.Options;
 import feign.Target.HardCodedTarget;
@@ -30,10 +33,10 @@ import feign.codec.ErrorDecoder;
  * session cookies or tokens) is explicit, as calls for the same session may be done across several
  * threads. <br>
  * <br>
- * {@link Retryer} is not supported in this model, as that is a blocking API.
+ * {@link Retryer} is not supported in this model, as that is a blocking API. Use an
+ * {@link AsyncRetryer} instead, which schedules the next attempt rather than sleeping.
  * {@link ExceptionPropagationPolicy} is made redundant as {@link RetryableException} is never
  * thrown. <br>
- * Alternative approaches to retrying can be handled through {@link AsyncClient clients}. <br>
  * <br>
  * Target interface methods must return {@link CompletableFuture} with a non-wildcard type. As the
  * completion is done by the {@link AsyncClient}, it is important that any subsequent processing on
@@ -48,20 +51,16 @@ public abstract class AsyncFeign<C> extends Feign {
     return new AsyncBuilder<>();
   }
 
-  private static class LazyInitializedExecutorService {
-
-    private static final ExecutorService instance = Executors.newCachedThreadPool(r -> {
-      final Thread result = new Thread(r);
-      result.setDaemon(true);
-      return result;
-    });
-  }
-
   public static class AsyncBuilder<C> {
 
     private final Builder builder;
     private Supplier<C> defaultContextSupplier = () -> null;
     private AsyncClient<C> client;
+    private ExecutionStrategy executionStrategy;
+    private AsyncRetryer retryer = AsyncRetryer.NEVER_RETRY;
+    private ScheduledExecutorService retryScheduler;
+    private CollapsingCapability collapsing;
+    private final List<Capability> capabilities = new ArrayList<>();
 
     private final Logger.Level logLevel = Logger.Level.NONE;
     private final Logger logger = new NoOpLogger();
@@ -86,6 +85,55 @@ public abstract class AsyncFeign<C> extends Feign {
       return this;
     }
 
+    /**
+     * Where the blocking calls of the default client run, ignored when a {@link #client(AsyncClient)
+     * client} is set. Defaults to {@link ExecutionStrategy#defaultStrategy()}.
+     */
+    public AsyncBuilder<C> executionStrategy(ExecutionStrategy executionStrategy) {
+      this.executionStrategy = executionStrategy;
+      return this;
+    }
+
+    /**
+     * Retries calls failing with an {@link IOException} or a {@link RetryableException} from the
+     * {@link ErrorDecoder}, scheduling attempts on {@link AsyncRetryer#defaultScheduler()}.
+     * Defaults to {@link AsyncRetryer#NEVER_RETRY}.
+     */
+    public AsyncBuilder<C> retryer(AsyncRetryer retryer) {
+      return retryer(retryer, AsyncRetryer.defaultScheduler());
+    }
+
+    /**
+     * @param scheduler where the next attempt is submitted to the client once its delay expires;
+     *        it should not block, as the client call is made on its thread.
+     */
+    public AsyncBuilder<C> retryer(AsyncRetryer retryer, ScheduledExecutorService scheduler) {
+      this.retryer = retryer;
+      this.retryScheduler = scheduler;
+      return this;
+    }
+
+    /**
+     * Collapses the methods annotated with {@link Collapse}, blocking ones as well as those
+     * returning a {@code CompletableFuture}. Unlike {@link Builder#addCapability(Capability)}, the
+     * capability does not enrich the underlying {@link Feign}, whose method handlers only stage
+     * the calls of this client.
+     */
+    public AsyncBuilder<C> collapsing(CollapsingCapability collapsing) {
+      this.collapsing = collapsing;
+      return this;
+    }
+
+    /**
+     * Enriches the {@link AsyncClient} with the capability. Other components are not enriched: the
+     * underlying {@link Feign} only stages the calls of this client, so wrapping its
+     * {@link Client} would not wrap the actual calls.
+     */
+    public AsyncBuilder<C> addCapability(Capability capability) {
+      this.capabilities.add(capability);
+      return this;
+    }
+
     /**
      * @see Builder#mapAndDecode(ResponseMapper, Decoder)
      */
@@ -142,7 +190,7 @@ public abstract class AsyncFeign<C> extends Feign {
     private AsyncBuilder<C> lazyInits() {
       if (client == null) {
         client = new AsyncClient.Default<>(new Client.Default(null, null),
-            LazyInitializedExecutorService.instance);
+            executionStrategy != null ? executionStrategy : ExecutionStrategy.defaultStrategy());
       }
 
       return this;
@@ -234,6 +282,9 @@ public abstract class AsyncFeign<C> extends Feign {
 
   private final Supplier<C> defaultContextSupplier;
   private final AsyncClient<C> client;
+  private final AsyncRetryer retryer;
+  private final ScheduledExecutorService retryScheduler;
+  final CollapsingCapability collapsing;
 
   private final Logger.Level logLevel;
   private final Logger logger;
@@ -244,7 +295,15 @@ public abstract class AsyncFeign<C> extends Feign {
     this.activeContext = new ThreadLocal<>();
 
     this.defaultContextSupplier = asyncBuilder.defaultContextSupplier;
-    this.client = asyncBuilder.client;
+    AsyncClient<C> client = asyncBuilder.client;
+    for (Capability capability : asyncBuilder.capabilities) {
+      // called directly: the client may also be a Client, which would select another enrich
+      client = capability.enrich(client);
+    }
+    this.client = client;
+    this.retryer = asyncBuilder.retryer;
+    this.retryScheduler = asyncBuilder.retryScheduler;
+    this.collapsing = asyncBuilder.collapsing;
 
     this.logLevel = asyncBuilder.logLevel;
     this.logger = asyncBuilder.logger;
@@ -272,6 +331,7 @@ public abstract class AsyncFeign<C> extends Feign {
 
     final AsyncInvocation<C> invocationContext = activeContext.get();
 
+    invocationContext.setRequest(request, options);
     invocationContext.setResponseFuture(
         client.execute(request, options, Optional.ofNullable(invocationContext.context())));
 
@@ -290,24 +350,11 @@ public abstract class AsyncFeign<C> extends Feign {
 
     final CompletableFuture<Object> result = new CompletableFuture<>();
 
-    invocationContext.responseFuture().whenComplete((r, t) -> {
-      final long elapsedTime = elapsedTime(invocationContext.startNanos());
-
-      if (t != null) {
-        if (logLevel != Logger.Level.NONE && t instanceof IOException) {
-          final IOException e = (IOException) t;
-          logger.logIOException(invocationContext.configKey(), logLevel, e, elapsedTime);
-        }
-        result.completeExceptionally(t);
-      } else {
-        responseHandler.handleResponse(result, invocationContext.configKey(), r,
-            invocationContext.underlyingType(), elapsedTime);
-      }
-    });
+    handleAttempt(invocationContext, result, 1);
 
     result.whenComplete((r, t) -> {
       if (result.isCancelled()) {
-        invocationContext.responseFuture().cancel(true);
+        invocationContext.cancel();
       }
     });
 
@@ -327,6 +374,97 @@ public abstract class AsyncFeign<C> extends Feign {
   }
 
 
+  private void handleAttempt(AsyncInvocation<C> invocationContext,
+                             CompletableFuture<Object> result,
+                             int attempt) {
+    invocationContext.responseFuture().whenComplete((r, t) -> {
+      final long elapsedTime = elapsedTime(invocationContext.startNanos());
+
+      if (t != null) {
+        final Throwable cause = unwrap(t);
+        if (cause instanceof IOException) {
+          final IOException e = (IOException) cause;
+          if (logLevel != Logger.Level.NONE) {
+            logger.logIOException(invocationContext.configKey(), logLevel, e, elapsedTime);
+          }
+          final RetryableException retryable =
+              (RetryableException) FeignException.errorExecuting(invocationContext.request(), e);
+          retryOrPropagate(invocationContext, result, attempt, retryable, e);
+        } else {
+          result.completeExceptionally(t);
+        }
+        return;
+      }
+      try {
+        result.complete(responseHandler.handleResponse(invocationContext.configKey(), r,
+            invocationContext.underlyingType(), elapsedTime));
+      } catch (final RetryableException e) {
+        retryOrPropagate(invocationContext, result, attempt, e, e);
+      } catch (final Exception e) {
+        result.completeExceptionally(e);
+      }
+    });
+  }
+
+  /**
+   * The failure of a client that composes futures, as they wrap it in a
+   * {@link CompletionException} or an {@link ExecutionException}.
+   */
+  private static Throwable unwrap(Throwable t) {
+    Throwable cause = t;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  /**
+   * Schedules the next attempt instead of completing the result with {@code failure}, when the
+   * retryer allows it and the call was not cancelled meanwhile.
+   */
+  private void retryOrPropagate(AsyncInvocation<C> invocationContext,
+                                CompletableFuture<Object> result,
+                                int attempt,
+                                RetryableException e,
+                                Throwable failure) {
+    final long delay = result.isDone() ? -1 : retryer.nextDelayMillis(e, attempt);
+    if (delay < 0) {
+      result.completeExceptionally(failure);
+      return;
+    }
+    if (logLevel != Logger.Level.NONE) {
+      logger.logRetry(invocationContext.configKey(), logLevel);
+    }
+    final Runnable nextAttempt = () -> {
+      if (result.isDone()) {
+        return;
+      }
+      try {
+        invocationContext.setResponseFuture(client.execute(invocationContext.request(),
+            invocationContext.options(), Optional.ofNullable(invocationContext.context())));
+      } catch (final RuntimeException rejected) {
+        result.completeExceptionally(rejected);
+        return;
+      }
+      if (result.isCancelled()) {
+        invocationContext.cancel();
+        return;
+      }
+      handleAttempt(invocationContext, result, attempt + 1);
+    };
+    try {
+      invocationContext.setPendingRetry(retryScheduler.schedule(nextAttempt, delay, MILLISECONDS));
+    } catch (final RejectedExecutionException rejected) {
+      result.completeExceptionally(failure);
+      return;
+    }
+    // cancelled while scheduling
+    if (result.isCancelled()) {
+      invocationContext.cancel();
+    }
+  }
+
   protected void setInvocationContext(AsyncInvocation<C> invocationContext) {
     activeContext.set(invocationContext);
   }
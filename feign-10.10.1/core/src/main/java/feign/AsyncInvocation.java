@@ -15,6 +15,8 @@ package feign;
 
 import java.lang.reflect.Type;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import feign.Request.Options;
 
 /**
  * A specific invocation of an APU
@@ -25,7 +27,10 @@ class AsyncInvocation<C> {
   private final C context;
   private final MethodInfo methodInfo;
   private final long startNanos;
-  private CompletableFuture<Response> responseFuture;
+  private Request request;
+  private Options options;
+  private volatile CompletableFuture<Response> responseFuture;
+  private volatile Future<?> pendingRetry;
 
   AsyncInvocation(C context, MethodInfo methodInfo) {
     super();
@@ -54,6 +59,37 @@ class AsyncInvocation<C> {
     return methodInfo.isAsyncReturnType();
   }
 
+  void setRequest(Request request, Options options) {
+    this.request = request;
+    this.options = options;
+  }
+
+  Request request() {
+    return request;
+  }
+
+  Options options() {
+    return options;
+  }
+
+  void setPendingRetry(Future<?> pendingRetry) {
+    this.pendingRetry = pendingRetry;
+  }
+
+  /**
+   * Stops the attempt in flight and any attempt scheduled after it.
+   */
+  void cancel() {
+    final Future<?> retry = pendingRetry;
+    if (retry != null) {
+      retry.cancel(false);
+    }
+    final CompletableFuture<Response> response = responseFuture;
+    if (response != null) {
+      response.cancel(true);
+    }
+  }
+
   void setResponseFuture(CompletableFuture<Response> responseFuture) {
     this.responseFuture = responseFuture;
   }
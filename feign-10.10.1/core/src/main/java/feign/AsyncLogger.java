@@ -0,0 +1,348 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import static feign.Util.UTF_8;
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import static feign.Util.valuesOrEmpty;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Moves the logging of another {@link Logger} off the calling thread. Messages are queued with
+ * their arguments and formatted by the delegate on a single daemon thread; when {@code capacity}
+ * messages are already waiting, new ones are dropped and counted in {@link #droppedCount()} rather
+ * than slowing the call down.
+ *
+ * <p>
+ * Response bodies are not read into memory to be logged: the caller gets a stream that copies at
+ * most {@code maxBodyBytes} aside as it is read, and the body and its length are logged once the
+ * caller reaches its end or closes it. Request bodies at {@link Level#FULL} are likewise cut to
+ * {@code maxBodyBytes}.
+ *
+ * <p>
+ * The delegate still decides what is written, for example {@code Slf4jLogger} only writes when its
+ * logger has debug enabled, but that check now happens on the logging thread. Use
+ * {@link Level#NONE} for clients that should not log at all.
+ */
+@Experimental
+public class AsyncLogger extends Logger implements Closeable {
+
+  private final Logger delegate;
+  private final int maxBodyBytes;
+  private final BlockingQueue<Record> records;
+  private final LongAdder droppedCount = new LongAdder();
+  private final Thread consumer;
+  private volatile boolean closed;
+
+  /**
+   * Queues up to 8192 messages and logs up to 4096 bytes of each body.
+   */
+  public AsyncLogger(Logger delegate) {
+    this(delegate, 8192, 4096);
+  }
+
+  public AsyncLogger(Logger delegate, int capacity, int maxBodyBytes) {
+    checkArgument(capacity > 0, "capacity must be positive");
+    checkArgument(maxBodyBytes >= 0, "maxBodyBytes must not be negative");
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.maxBodyBytes = maxBodyBytes;
+    this.records = new ArrayBlockingQueue<>(capacity);
+    this.consumer = DaemonThreads.named("feign-logger-").newThread(this::drain);
+    this.consumer.start();
+  }
+
+  /**
+   * Messages dropped because the queue was full or the logger closed.
+   */
+  public long droppedCount() {
+    return droppedCount.sum();
+  }
+
+  @Override
+  protected void log(String configKey, String format, Object... args) {
+    if (closed || !records.offer(new Record(configKey, format, args))) {
+      droppedCount.increment();
+    }
+  }
+
+  @Override
+  protected void logRequest(String configKey, Level logLevel, Request request) {
+    // a streaming body is logged as "Streaming data" rather than buffered
+    if (logLevel.ordinal() < Level.FULL.ordinal() || request.isStreaming()
+        || request.body() == null) {
+      super.logRequest(configKey, logLevel, request);
+      return;
+    }
+    log(configKey, "---> %s %s HTTP/1.1", request.httpMethod().name(), request.url());
+    for (String field : request.headers().keySet()) {
+      for (String value : valuesOrEmpty(request.headers(), field)) {
+        log(configKey, "%s: %s", field, value);
+      }
+    }
+    final byte[] body = request.body();
+    log(configKey, ""); // CRLF
+    log(configKey, "%s", request.charset() != null
+        ? new BodyText(body, Math.min(body.length, maxBodyBytes), body.length, request.charset())
+        : "Binary data");
+    log(configKey, "---> END HTTP (%s-byte body)", request.length());
+  }
+
+  @Override
+  protected Response logAndRebufferResponse(String configKey,
+                                            Level logLevel,
+                                            Response response,
+                                            long elapsedTime)
+      throws IOException {
+    final String reason =
+        response.reason() != null && logLevel.compareTo(Level.NONE) > 0 ? " " + response.reason()
+            : "";
+    final int status = response.status();
+    log(configKey, "<--- HTTP/1.1 %s%s (%sms)", status, reason, elapsedTime);
+    if (logLevel.ordinal() < Level.HEADERS.ordinal()) {
+      return response;
+    }
+    for (String field : response.headers().keySet()) {
+      for (String value : valuesOrEmpty(response.headers(), field)) {
+        log(configKey, "%s: %s", field, value);
+      }
+    }
+    if (response.body() == null || status == 204 || status == 205) {
+      log(configKey, "<--- END HTTP (%s-byte body)", 0);
+      return response;
+    }
+    final boolean full = logLevel.ordinal() >= Level.FULL.ordinal();
+    if (full) {
+      log(configKey, ""); // CRLF
+    }
+    final Integer length = response.body().length();
+    final int capture = !full ? 0
+        : length != null && length >= 0 ? Math.min(length, maxBodyBytes) : maxBodyBytes;
+    return response.toBuilder()
+        .body(new TeeInputStream(configKey, response.body().asInputStream(), capture), length)
+        .build();
+  }
+
+  @Override
+  protected IOException logIOException(String configKey,
+                                       Level logLevel,
+                                       IOException ioe,
+                                       long elapsedTime) {
+    log(configKey, "<--- ERROR %s: %s (%sms)", ioe.getClass().getSimpleName(), ioe.getMessage(),
+        elapsedTime);
+    if (logLevel.ordinal() >= Level.FULL.ordinal()) {
+      log(configKey, "%s", new StackTrace(ioe));
+      log(configKey, "<--- END ERROR");
+    }
+    return ioe;
+  }
+
+  /**
+   * Stops accepting messages and waits until those already queued are logged.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      consumer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void drain() {
+    final List<Record> batch = new ArrayList<>();
+    while (!closed || !records.isEmpty()) {
+      try {
+        final Record first = records.poll(100, MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+      } catch (InterruptedException e) {
+        return;
+      }
+      records.drainTo(batch);
+      for (Record record : batch) {
+        try {
+          delegate.log(record.configKey, record.format, record.args);
+        } catch (RuntimeException ignored) {
+          // a message that cannot be formatted must not stop the others
+        }
+      }
+      batch.clear();
+    }
+  }
+
+  private static final class Record {
+
+    final String configKey;
+    final String format;
+    final Object[] args;
+
+    Record(String configKey, String format, Object[] args) {
+      this.configKey = configKey;
+      this.format = format;
+      this.args = args;
+    }
+  }
+
+  /**
+   * Copies the first bytes read aside, and logs them with the count read once the caller is done.
+   */
+  private final class TeeInputStream extends FilterInputStream {
+
+    private final String configKey;
+    private final byte[] captured;
+    private int capturedLength;
+    private long count;
+    private boolean eof;
+    private boolean logged;
+
+    TeeInputStream(String configKey, InputStream in, int capture) {
+      super(in);
+      this.configKey = configKey;
+      this.captured = new byte[capture];
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int b = in.read();
+      if (b == -1) {
+        eof = true;
+        end();
+      } else {
+        if (capturedLength < captured.length) {
+          captured[capturedLength++] = (byte) b;
+        }
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      final int n = in.read(b, off, len);
+      if (n == -1) {
+        eof = true;
+        end();
+      } else {
+        final int copied = Math.min(n, captured.length - capturedLength);
+        System.arraycopy(b, off, captured, capturedLength, copied);
+        capturedLength += copied;
+        count += n;
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      final long skipped = in.skip(n);
+      count += skipped;
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        end();
+      } finally {
+        in.close();
+      }
+    }
+
+    private void end() {
+      if (logged) {
+        return;
+      }
+      logged = true;
+      if (captured.length > 0 && count > 0) {
+        log(configKey, "%s", new BodyText(captured, capturedLength, count, UTF_8));
+      }
+      if (eof) {
+        log(configKey, "<--- END HTTP (%s-byte body)", count);
+      } else {
+        log(configKey, "<--- END HTTP (%s bytes read before close)", count);
+      }
+    }
+  }
+
+  /**
+   * Decodes a captured body when the message is formatted.
+   */
+  private static final class BodyText {
+
+    private final byte[] data;
+    private final int length;
+    private final long total;
+    private final Charset charset;
+
+    BodyText(byte[] data, int length, long total, Charset charset) {
+      this.data = data;
+      this.length = length;
+      this.total = total;
+      this.charset = charset;
+    }
+
+    @Override
+    public String toString() {
+      final boolean truncated = total > length;
+      final CharsetDecoder decoder = charset.newDecoder();
+      final CharBuffer chars =
+          CharBuffer.allocate((int) Math.ceil(length * (double) decoder.maxCharsPerByte()));
+      // a truncated body may end inside a character, which is then left out
+      if (decoder.decode(ByteBuffer.wrap(data, 0, length), chars, !truncated).isError()) {
+        return "Binary data";
+      }
+      chars.flip();
+      return truncated ? chars + "... (" + (total - length) + " more bytes)" : chars.toString();
+    }
+  }
+
+  private static final class StackTrace {
+
+    private final Throwable throwable;
+
+    StackTrace(Throwable throwable) {
+      this.throwable = throwable;
+    }
+
+    @Override
+    public String toString() {
+      final StringWriter sw = new StringWriter();
+      throwable.printStackTrace(new PrintWriter(sw));
+      return sw.toString();
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.concurrent.ScheduledExecutorService;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Decides if and when {@link AsyncFeign} retries a call that failed with a
+ * {@link RetryableException}. Unlike {@link Retryer} it never sleeps: it returns the delay, and the
+ * next attempt is scheduled on a {@link ScheduledExecutorService}, so no thread is held while
+ * waiting between attempts.
+ *
+ * <p>
+ * Implementations are shared by all calls of a client and must be thread safe; the attempt number
+ * is passed in instead of being kept in the retryer.
+ */
+@Experimental
+public interface AsyncRetryer {
+
+  /**
+   * @param e why the attempt failed.
+   * @param attempt number of the attempt that failed, starting at 1.
+   * @return milliseconds to wait before the next attempt, or a negative value to propagate the
+   *         failure.
+   */
+  long nextDelayMillis(RetryableException e, int attempt);
+
+  /**
+   * The scheduler attempts are delayed on unless one is given to
+   * {@link AsyncFeign.AsyncBuilder#retryer(AsyncRetryer, ScheduledExecutorService)}: a single
+   * daemon thread that only resubmits calls to the {@link AsyncClient}.
+   */
+  static ScheduledExecutorService defaultScheduler() {
+    return DefaultRetryScheduler.INSTANCE;
+  }
+
+  /**
+   * Same backoff as {@link Retryer.Default}: the interval grows by 1.5 each attempt up to
+   * {@code maxPeriod}, and {@link RetryableException#retryAfter()} wins when present.
+   */
+  class Default implements AsyncRetryer {
+
+    private final long period;
+    private final long maxPeriod;
+    private final int maxAttempts;
+
+    public Default() {
+      this(100, SECONDS.toMillis(1), 5);
+    }
+
+    public Default(long period, long maxPeriod, int maxAttempts) {
+      this.period = period;
+      this.maxPeriod = maxPeriod;
+      this.maxAttempts = maxAttempts;
+    }
+
+    // visible for testing;
+    protected long currentTimeMillis() {
+      return System.currentTimeMillis();
+    }
+
+    @Override
+    public long nextDelayMillis(RetryableException e, int attempt) {
+      if (attempt >= maxAttempts) {
+        return -1;
+      }
+      if (e.retryAfter() != null) {
+        long interval = e.retryAfter().getTime() - currentTimeMillis();
+        return Math.max(0, Math.min(interval, maxPeriod));
+      }
+      long interval = (long) (period * Math.pow(1.5, attempt - 1));
+      return interval > maxPeriod ? maxPeriod : interval;
+    }
+  }
+
+  /**
+   * Implementation that never retries request. It propagates the RetryableException.
+   */
+  AsyncRetryer NEVER_RETRY = (e, attempt) -> -1;
+}
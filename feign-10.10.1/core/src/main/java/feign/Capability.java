@@ -19,7 +19,6 @@ import feign.codec.Decoder;
 import feign.codec.Encoder;
 
 import java.lang.reflect.InvocationTargetException;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -53,11 +52,31 @@ public interface Capability {
             (component, enrichedComponent) -> enrichedComponent);
   }
 
+  /**
+   * Like {@link #enrich(Object, List)}, but chooses the {@code enrich} method by the declared
+   * {@code componentType} instead of the runtime class of the component, which may implement
+   * several component types, such as a client that is both a {@link Client} and an
+   * {@link AsyncClient}.
+   */
+  static <E> E enrich(E componentToEnrich,
+                      Class<? super E> componentType,
+                      List<Capability> capabilities) {
+    E component = componentToEnrich;
+    for (Capability capability : capabilities) {
+      component = invoke(component, componentType, capability);
+    }
+    return component;
+  }
+
   static <E> E invoke(E target, Capability capability) {
-    return Arrays.stream(capability.getClass().getMethods())
-        .filter(method -> method.getName().equals("enrich"))
-        .filter(method -> method.getReturnType().isInstance(target))
-        .findFirst()
+    return target == null ? null : invoke(target, target.getClass(), capability);
+  }
+
+  static <E> E invoke(E target, Class<?> componentType, Capability capability) {
+    if (target == null) {
+      return null;
+    }
+    return CapabilityMethods.enrichMethod(capability.getClass(), componentType)
         .map(method -> {
           try {
             return (E) method.invoke(capability, target);
@@ -73,6 +92,14 @@ public interface Capability {
     return client;
   }
 
+  /**
+   * Only called by {@link AsyncFeign.AsyncBuilder#addCapability(Capability)}.
+   */
+  @Experimental
+  default <C> AsyncClient<C> enrich(AsyncClient<C> asyncClient) {
+    return asyncClient;
+  }
+
   default Retryer enrich(Retryer retryer) {
     return retryer;
   }
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memoizes the {@code enrich} method {@link Capability#invoke(Object, Capability)} calls for a
+ * capability and component type, instead of scanning {@link Class#getMethods()} on every build.
+ */
+final class CapabilityMethods {
+
+  private static final ClassValue<Map<Class<?>, Optional<Method>>> ENRICH_METHODS =
+      new ClassValue<Map<Class<?>, Optional<Method>>>() {
+        @Override
+        protected Map<Class<?>, Optional<Method>> computeValue(Class<?> capabilityType) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  private CapabilityMethods() {}
+
+  /**
+   * @return the {@code enrich} method of the capability taking exactly the component type, else
+   *         the first one returning a supertype of it.
+   */
+  static Optional<Method> enrichMethod(Class<?> capabilityType, Class<?> componentType) {
+    return ENRICH_METHODS.get(capabilityType).computeIfAbsent(componentType, type -> {
+      final Method[] enrichMethods = Arrays.stream(capabilityType.getMethods())
+          .filter(method -> method.getName().equals("enrich"))
+          .filter(method -> method.getParameterCount() == 1)
+          .toArray(Method[]::new);
+      final Optional<Method> exact = Arrays.stream(enrichMethods)
+          .filter(method -> method.getParameterTypes()[0] == type)
+          .findFirst();
+      return exact.isPresent() ? exact
+          : Arrays.stream(enrichMethods)
+              .filter(method -> method.getReturnType().isAssignableFrom(type))
+              .findFirst();
+    });
+  }
+}
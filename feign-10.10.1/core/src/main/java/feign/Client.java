@@ -185,7 +185,7 @@ public interface Client {
         connection.addRequestProperty("Accept", "*/*");
       }
 
-      if (request.body() != null) {
+      if (request.isStreaming() || request.body() != null) {
         if (disableRequestBuffering) {
           if (contentLength != null) {
             connection.setFixedLengthStreamingMode(contentLength);
@@ -201,7 +201,7 @@ public interface Client {
           out = new DeflaterOutputStream(out);
         }
         try {
-          out.write(request.body());
+          request.writeBody(out);
         } finally {
           try {
             out.close();
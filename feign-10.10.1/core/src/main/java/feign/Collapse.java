@@ -0,0 +1,58 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Lets a {@link CollapsingCapability} collapse calls of a single-key method into calls of a bulk
+ * method of the same interface. The annotated method takes the key as its only parameter; the bulk
+ * method takes a {@code List}, {@code Set} or {@code Collection} of keys and returns a {@code Map}
+ * of the values by key. Both return a {@code CompletableFuture} on {@link AsyncFeign} clients.
+ * <br>
+ *
+ * <pre>
+ * &#64;Collapse(batchMethod = "getUsers", windowMillis = 5, maxBatchSize = 50)
+ * &#64;RequestLine("GET /users/{id}")
+ * User getUser(&#64;Param("id") long id);
+ *
+ * &#64;RequestLine("POST /users/batch")
+ * Map&lt;Long, User&gt; getUsers(List&lt;Long&gt; ids);
+ * </pre>
+ */
+@Experimental
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Collapse {
+
+  /**
+   * Name of the bulk method.
+   */
+  String batchMethod();
+
+  /**
+   * How long the first call of a batch waits for others.
+   */
+  long windowMillis() default 10;
+
+  /**
+   * Distinct keys at which a batch is sent without waiting for the window.
+   */
+  int maxBatchSize() default 100;
+}
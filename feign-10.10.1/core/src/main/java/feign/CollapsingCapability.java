@@ -0,0 +1,183 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.RequestCollapser.BatchCall;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+import static feign.Util.checkNotNull;
+import static feign.Util.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Collapses calls of the methods annotated with {@link Collapse} into calls of their bulk method,
+ * through a {@link RequestCollapser} per method and client. {@link Feign} clients are collapsed in
+ * their {@link MethodHandler} dispatch, by {@link #enrich(InvocationHandlerFactory)};
+ * {@link AsyncFeign} clients take the capability through
+ * {@link AsyncFeign.AsyncBuilder#collapsing(CollapsingCapability)} instead, as their batch calls
+ * must go through their own invocation handler.
+ */
+@Experimental
+public class CollapsingCapability implements Capability {
+
+  private final ScheduledExecutorService scheduler;
+  // 只汇总计数，不持有 collapser，它们随所属的客户端一起回收
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder batchedKeys = new LongAdder();
+
+  /**
+   * Sends the batches of asynchronous methods from {@link AsyncRetryer#defaultScheduler()}.
+   */
+  public CollapsingCapability() {
+    this(AsyncRetryer.defaultScheduler());
+  }
+
+  /**
+   * @param scheduler see {@link RequestCollapser#RequestCollapser(BatchCall, long,
+   *        java.util.concurrent.TimeUnit, int, ScheduledExecutorService)}.
+   */
+  public CollapsingCapability(ScheduledExecutorService scheduler) {
+    this.scheduler = checkNotNull(scheduler, "scheduler");
+  }
+
+  /**
+   * Calls collapsed across all clients built with this capability.
+   */
+  public long callCount() {
+    return calls.sum();
+  }
+
+  /**
+   * Batch calls made across all clients built with this capability.
+   */
+  public long batchCount() {
+    return batches.sum();
+  }
+
+  /**
+   * @see RequestCollapser#batchedKeyCount()
+   */
+  public long batchedKeyCount() {
+    return batchedKeys.sum();
+  }
+
+  @Override
+  public InvocationHandlerFactory enrich(InvocationHandlerFactory invocationHandlerFactory) {
+    return (target, dispatch) -> {
+      final Map<Method, RequestCollapser<Object, Object>> collapsers = collapsers(target.type(),
+          (method, args) -> dispatch.get(method).invoke(args));
+      if (collapsers.isEmpty()) {
+        return invocationHandlerFactory.create(target, dispatch);
+      }
+      final Map<Method, MethodHandler> collapsed = new LinkedHashMap<>(dispatch);
+      collapsers.forEach((method, collapser) -> collapsed.put(method,
+          argv -> invoke(method, collapser, argv)));
+      return invocationHandlerFactory.create(target, collapsed);
+    };
+  }
+
+  /**
+   * Collapsers of the methods of {@code type} annotated with {@link Collapse}, calling their bulk
+   * method through {@code dispatch}.
+   */
+  Map<Method, RequestCollapser<Object, Object>> collapsers(Class<?> type, Dispatch dispatch) {
+    final Map<Method, RequestCollapser<Object, Object>> collapsers = new LinkedHashMap<>();
+    for (Method method : type.getMethods()) {
+      final Collapse collapse = method.getAnnotation(Collapse.class);
+      if (collapse == null || Util.isDefault(method)) {
+        continue;
+      }
+      final Method batchMethod = batchMethod(type, method, collapse);
+      collapsers.put(method, collapser(collapse, keys -> {
+        final Object values = dispatch.invoke(batchMethod,
+            new Object[] {batchArgument(batchMethod, keys)});
+        // 异步的批量方法返回的是future，同步的批量方法已经返回了结果
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<Map<Object, Object>> result = isAsync(batchMethod)
+            ? (CompletableFuture<Map<Object, Object>>) values
+            : CompletableFuture.completedFuture((Map<Object, Object>) values);
+        return result;
+      }));
+    }
+    return collapsers;
+  }
+
+  /**
+   * Calls a collapsed method: asynchronous methods get the future of their key, blocking ones wait
+   * for it.
+   */
+  static Object invoke(Method method, RequestCollapser<Object, Object> collapser, Object[] args)
+      throws Throwable {
+    return isAsync(method) ? collapser.submit(args[0]) : collapser.execute(args[0]);
+  }
+
+  private RequestCollapser<Object, Object> collapser(Collapse collapse,
+                                                     BatchCall<Object, Object> batchCall) {
+    return new RequestCollapser<>(batchCall, collapse.windowMillis(), MILLISECONDS,
+        collapse.maxBatchSize(), scheduler, calls, batches, batchedKeys);
+  }
+
+  private static boolean isAsync(Method method) {
+    return CompletableFuture.class.isAssignableFrom(method.getReturnType());
+  }
+
+  private static Method batchMethod(Class<?> type, Method method, Collapse collapse) {
+    checkState(method.getParameterCount() == 1,
+        "Collapsed method %s must take the key as its only parameter", method);
+    for (Method candidate : type.getMethods()) {
+      if (candidate.getName().equals(collapse.batchMethod())
+          && candidate.getParameterCount() == 1) {
+        checkState(isAsync(candidate) == isAsync(method),
+            "Batch method %s must return a CompletableFuture only if %s does", candidate, method);
+        checkState(isAsync(candidate) || Map.class.isAssignableFrom(candidate.getReturnType()),
+            "Batch method %s must return a Map of the values by key", candidate);
+        batchArgument(candidate, Collections.emptyList());
+        return candidate;
+      }
+    }
+    throw new IllegalStateException("No batch method " + collapse.batchMethod()
+        + " with a single parameter found on " + type.getName() + " for " + method);
+  }
+
+  private static Object batchArgument(Method batchMethod, List<Object> keys) {
+    final Class<?> parameterType = batchMethod.getParameterTypes()[0];
+    if (parameterType.isAssignableFrom(List.class)) {
+      return keys;
+    }
+    if (parameterType.isAssignableFrom(Set.class)) {
+      return new LinkedHashSet<>(keys);
+    }
+    throw new IllegalStateException(
+        "Batch method " + batchMethod + " must take a List, Set or Collection of keys");
+  }
+
+  /**
+   * Calls a method of a client, as its invocation handler would.
+   */
+  @FunctionalInterface
+  interface Dispatch {
+
+    Object invoke(Method method, Object[] args) throws Throwable;
+  }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import feign.ConcurrencyLimiter.Algorithm;
+import feign.ConcurrencyLimiter.Permit;
+import feign.Request.Options;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import static feign.Util.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Wraps the {@link Client}, or the {@link AsyncClient} when added to an
+ * {@link AsyncFeign.AsyncBuilder}, so calls go through a {@link ConcurrencyLimiter} per target,
+ * or per method and target. Calls rejected by their limiter fail with a
+ * {@link ConcurrencyLimitExceededException} without being sent.
+ *
+ * <p>
+ * {@link IOException IO errors} and {@code 429} or {@code 503} responses count as drops and lower
+ * the limit; other responses feed their round trip time to the {@link Algorithm}.
+ */
+@Experimental
+public class ConcurrencyLimitCapability implements Capability {
+
+  private final Supplier<Algorithm> algorithm;
+  private final boolean perMethod;
+  private final long maxQueueWait;
+  private final TimeUnit unit;
+  private final ConcurrentMap<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+  /**
+   * A {@link Algorithm#gradient() gradient} limit per target, rejecting calls as soon as it is
+   * reached.
+   */
+  public ConcurrencyLimitCapability() {
+    this(Algorithm::gradient, false, 0, MILLISECONDS);
+  }
+
+  /**
+   * @param algorithm creates the algorithm of each limiter.
+   * @param perMethod whether each method of a target gets its own limiter.
+   * @param maxQueueWait how long a call waits for a permit once the limit is reached.
+   */
+  public ConcurrencyLimitCapability(Supplier<Algorithm> algorithm, boolean perMethod,
+      long maxQueueWait, TimeUnit unit) {
+    this.algorithm = checkNotNull(algorithm, "algorithm");
+    this.perMethod = perMethod;
+    this.maxQueueWait = maxQueueWait;
+    this.unit = checkNotNull(unit, "unit");
+  }
+
+  /**
+   * The limiters created so far, by target URL, followed by the {@link MethodMetadata#configKey()
+   * config key} when limiting per method, for exporting their limit, calls in flight and
+   * rejections.
+   */
+  public Map<String, ConcurrencyLimiter> limiters() {
+    return Collections.unmodifiableMap(limiters);
+  }
+
+  @Override
+  public Client enrich(Client client) {
+    return new LimitedClient(client);
+  }
+
+  @Override
+  public <C> AsyncClient<C> enrich(AsyncClient<C> asyncClient) {
+    return new LimitedAsyncClient<>(asyncClient);
+  }
+
+  private ConcurrencyLimiter limiter(Request request) {
+    return limiters.computeIfAbsent(key(request), k -> new ConcurrencyLimiter(algorithm.get(),
+        maxQueueWait, unit, AsyncRetryer.defaultScheduler()));
+  }
+
+  private String key(Request request) {
+    final RequestTemplate template = request.requestTemplate();
+    final Target<?> feignTarget = template != null ? template.feignTarget() : null;
+    // EmptyTarget没有URL，请求的URL来自URI参数
+    final String target = feignTarget != null && !(feignTarget instanceof Target.EmptyTarget)
+        ? feignTarget.url()
+        : origin(request.url());
+    if (perMethod && template != null && template.methodMetadata() != null) {
+      return target + " " + template.methodMetadata().configKey();
+    }
+    return target;
+  }
+
+  private static String origin(String url) {
+    final URI uri = URI.create(url);
+    return uri.getScheme() + "://" + uri.getRawAuthority();
+  }
+
+  private static void release(Permit permit, Response response) {
+    if (response.status() == 429 || response.status() == 503) {
+      permit.dropped();
+    } else {
+      permit.success();
+    }
+  }
+
+  private final class LimitedClient implements Client {
+
+    private final Client delegate;
+
+    LimitedClient(Client delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Response execute(Request request, Options options) throws IOException {
+      final ConcurrencyLimiter limiter = limiter(request);
+      final Permit permit = limiter.acquire();
+      if (permit == null) {
+        throw new ConcurrencyLimitExceededException(limiter.limit(), request);
+      }
+      final Response response;
+      try {
+        response = delegate.execute(request, options);
+      } catch (IOException e) {
+        permit.dropped();
+        throw e;
+      } catch (RuntimeException | Error e) {
+        permit.ignore();
+        throw e;
+      }
+      release(permit, response);
+      return response;
+    }
+  }
+
+  private final class LimitedAsyncClient<C> implements AsyncClient<C> {
+
+    private final AsyncClient<C> delegate;
+
+    LimitedAsyncClient(AsyncClient<C> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request,
+                                               Options options,
+                                               Optional<C> requestContext) {
+      final ConcurrencyLimiter limiter = limiter(request);
+      // 不用thenCompose，取消需传给底层请求，异常也原样传给AsyncFeign
+      final CompletableFuture<Response> result = new CompletableFuture<>();
+      limiter.acquireAsync().thenAccept(permit -> {
+        if (permit == null) {
+          result.completeExceptionally(
+              new ConcurrencyLimitExceededException(limiter.limit(), request));
+          return;
+        }
+        final CompletableFuture<Response> response;
+        try {
+          response = delegate.execute(request, options, requestContext);
+        } catch (RuntimeException e) {
+          permit.ignore();
+          result.completeExceptionally(e);
+          return;
+        }
+        result.whenComplete((r, error) -> {
+          if (result.isCancelled()) {
+            response.cancel(true);
+          }
+        });
+        response.whenComplete((r, error) -> {
+          if (r != null) {
+            release(permit, r);
+            result.complete(r);
+            return;
+          }
+          if (error instanceof IOException || error instanceof CompletionException
+              && error.getCause() instanceof IOException) {
+            permit.dropped();
+          } else {
+            permit.ignore();
+          }
+          result.completeExceptionally(error);
+        });
+      });
+      return result;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+/**
+ * Thrown instead of sending a request when its {@link ConcurrencyLimiter} has no permit left. It is
+ * not retried by a {@link Retryer}, since retrying would add load to a dependency already at its
+ * limit.
+ */
+@Experimental
+public class ConcurrencyLimitExceededException extends FeignException {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * @param limit the limit of the calls in flight that was reached.
+   */
+  public ConcurrencyLimitExceededException(int limit, Request request) {
+    super(-1, "Concurrency limit of " + limit + " reached for " + request.httpMethod() + " "
+        + request.url(), request);
+  }
+}
@@ -0,0 +1,386 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Limits the calls in flight to a dependency to a limit that an {@link Algorithm} adapts to the
+ * round trip times measured, so calls are refused early instead of queueing up in a dependency
+ * that slows down. A call that finds the limit reached waits up to {@code maxQueueWait} for a
+ * permit, then is rejected.
+ *
+ * <p>
+ * Every {@link Permit} must be released once, by {@link Permit#success()}, {@link Permit#dropped()}
+ * or {@link Permit#ignore()}.
+ *
+ * @see ConcurrencyLimitCapability
+ */
+@Experimental
+public final class ConcurrencyLimiter {
+
+  private final Algorithm algorithm;
+  private final long maxQueueNanos;
+  private final ScheduledExecutorService scheduler;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Queue<CompletableFuture<Permit>> waiters = new ConcurrentLinkedQueue<>();
+  private final LongAdder rejected = new LongAdder();
+  private volatile int limit;
+
+  /**
+   * Rejects calls as soon as the limit is reached.
+   */
+  public ConcurrencyLimiter(Algorithm algorithm) {
+    this(algorithm, 0, NANOSECONDS, AsyncRetryer.defaultScheduler());
+  }
+
+  /**
+   * @param scheduler where {@link #acquireAsync() asynchronous} waits time out.
+   */
+  public ConcurrencyLimiter(Algorithm algorithm, long maxQueueWait, TimeUnit unit,
+      ScheduledExecutorService scheduler) {
+    checkArgument(maxQueueWait >= 0, "maxQueueWait must not be negative");
+    this.algorithm = checkNotNull(algorithm, "algorithm");
+    this.maxQueueNanos = unit.toNanos(maxQueueWait);
+    this.scheduler = checkNotNull(scheduler, "scheduler");
+    this.limit = Math.max(1, algorithm.initialLimit());
+  }
+
+  /**
+   * @return a permit, or {@code null} when none was released within {@code maxQueueWait}.
+   */
+  public Permit acquire() {
+    final Permit permit = tryAcquire();
+    if (permit != null || maxQueueNanos == 0) {
+      return permit != null ? permit : reject();
+    }
+    final CompletableFuture<Permit> waiter = enqueue();
+    Permit handed;
+    try {
+      handed = waiter.get(maxQueueNanos, NANOSECONDS);
+    } catch (TimeoutException e) {
+      handed = giveUp(waiter);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      handed = giveUp(waiter);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+    return handed != null ? handed : reject();
+  }
+
+  /**
+   * Like {@link #acquire()} without blocking the caller.
+   *
+   * @return the permit, completed with {@code null} when none was released within
+   *         {@code maxQueueWait}.
+   */
+  public CompletableFuture<Permit> acquireAsync() {
+    final Permit permit = tryAcquire();
+    if (permit != null || maxQueueNanos == 0) {
+      return CompletableFuture.completedFuture(permit != null ? permit : reject());
+    }
+    final CompletableFuture<Permit> waiter = enqueue();
+    if (!waiter.isDone()) {
+      try {
+        scheduler.schedule(() -> giveUp(waiter), maxQueueNanos, NANOSECONDS);
+      } catch (RejectedExecutionException e) {
+        giveUp(waiter);
+      }
+    }
+    return waiter.thenApply(handed -> handed != null ? handed : reject());
+  }
+
+  /**
+   * The current limit.
+   */
+  public int limit() {
+    return limit;
+  }
+
+  /**
+   * Calls holding a permit.
+   */
+  public int inFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * Calls rejected since the limiter was created.
+   */
+  public long rejectedCount() {
+    return rejected.sum();
+  }
+
+  private Permit tryAcquire() {
+    for (;;) {
+      final int current = inFlight.get();
+      if (current >= limit) {
+        return null;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return new Permit(current + 1);
+      }
+    }
+  }
+
+  private Permit reject() {
+    rejected.increment();
+    return null;
+  }
+
+  private CompletableFuture<Permit> enqueue() {
+    final CompletableFuture<Permit> waiter = new CompletableFuture<>();
+    waiters.add(waiter);
+    // 入队前释放的许可没有交给任何等待者，这里补一次
+    drain();
+    return waiter;
+  }
+
+  /**
+   * Completes {@code waiter} with {@code null}, unless a permit was handed to it meanwhile.
+   */
+  private Permit giveUp(CompletableFuture<Permit> waiter) {
+    if (waiter.complete(null)) {
+      waiters.remove(waiter);
+      return null;
+    }
+    return waiter.join();
+  }
+
+  /**
+   * Hands free permits to the waiters, oldest first.
+   */
+  private void drain() {
+    while (!waiters.isEmpty()) {
+      final Permit permit = tryAcquire();
+      if (permit == null) {
+        return;
+      }
+      CompletableFuture<Permit> waiter;
+      do {
+        waiter = waiters.poll();
+      } while (waiter != null && !waiter.complete(permit));
+      if (waiter == null) {
+        inFlight.decrementAndGet();
+      }
+    }
+  }
+
+  private void release(Permit permit, long rttNanos, boolean dropped, boolean sample) {
+    if (sample) {
+      limit = Math.max(1, algorithm.update(rttNanos, permit.inFlight, dropped));
+    }
+    inFlight.decrementAndGet();
+    if (!waiters.isEmpty()) {
+      drain();
+    }
+  }
+
+  /**
+   * The right to make one call, measuring its round trip time from when it was handed out.
+   */
+  public final class Permit {
+
+    private final int inFlight;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(int inFlight) {
+      this.inFlight = inFlight;
+    }
+
+    /**
+     * The call got a response; its round trip time is used to adapt the limit.
+     */
+    public void success() {
+      release(false, true);
+    }
+
+    /**
+     * The call timed out or was refused by an overloaded dependency; the limit is lowered.
+     */
+    public void dropped() {
+      release(true, true);
+    }
+
+    /**
+     * The call failed for a reason that says nothing about the load of the dependency.
+     */
+    public void ignore() {
+      release(false, false);
+    }
+
+    private void release(boolean dropped, boolean sample) {
+      if (released.compareAndSet(false, true)) {
+        ConcurrencyLimiter.this.release(this, System.nanoTime() - startNanos, dropped, sample);
+      }
+    }
+  }
+
+  /**
+   * Adapts the limit to the calls made. Implementations are called concurrently by the calls of a
+   * limiter and are not shared between limiters.
+   */
+  public interface Algorithm {
+
+    int initialLimit();
+
+    /**
+     * @param rttNanos round trip time of a call.
+     * @param inFlight calls in flight when the call started, itself included.
+     * @param dropped whether the call timed out or was refused.
+     * @return the new limit.
+     */
+    int update(long rttNanos, int inFlight, boolean dropped);
+
+    /**
+     * {@link Vegas} starting at 20 calls, at most 1000.
+     */
+    static Algorithm vegas() {
+      return new Vegas(20, 1000);
+    }
+
+    /**
+     * {@link Gradient} starting at 20 calls, at most 1000.
+     */
+    static Algorithm gradient() {
+      return new Gradient(20, 1000);
+    }
+  }
+
+  /**
+   * Estimates the calls queued in the dependency from how much the round trip time exceeds the
+   * lowest one seen, and grows the limit while the queue is short, shrinking it once it is long.
+   * The lowest round trip time is measured again every {@value #PROBE_EVERY} calls, as the
+   * dependency may have changed.
+   */
+  public static final class Vegas implements Algorithm {
+
+    static final int PROBE_EVERY = 1000;
+
+    private final int initialLimit;
+    private final int maxLimit;
+    private int limit;
+    private long rttNoLoadNanos;
+    private int samples;
+
+    public Vegas(int initialLimit, int maxLimit) {
+      checkArgument(initialLimit > 0 && initialLimit <= maxLimit,
+          "initialLimit must be in [1, maxLimit]");
+      this.initialLimit = initialLimit;
+      this.maxLimit = maxLimit;
+      this.limit = initialLimit;
+    }
+
+    @Override
+    public int initialLimit() {
+      return initialLimit;
+    }
+
+    @Override
+    public synchronized int update(long rttNanos, int inFlight, boolean dropped) {
+      final int log = Math.max(1, (int) Math.log10(limit));
+      if (dropped) {
+        limit = Math.max(1, limit - log);
+        return limit;
+      }
+      if (++samples >= PROBE_EVERY || rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos) {
+        samples = 0;
+        rttNoLoadNanos = Math.max(1, rttNanos);
+        return limit;
+      }
+      // 在途请求不到上限一半时，延迟反映不了上限是否合适
+      if (inFlight * 2 < limit) {
+        return limit;
+      }
+      final int queue = (int) Math.ceil(limit * (1 - (double) rttNoLoadNanos / rttNanos));
+      if (queue <= log) {
+        limit += 6 * log;
+      } else if (queue < 3 * log) {
+        limit += log;
+      } else if (queue > 6 * log) {
+        limit -= log;
+      }
+      limit = Math.max(1, Math.min(maxLimit, limit));
+      return limit;
+    }
+  }
+
+  /**
+   * Scales the limit by the ratio of a long term average round trip time to the latest one, at
+   * most halving it per call, plus the square root of the limit as headroom for bursts; the
+   * result is smoothed. Drops cut the limit by a tenth.
+   */
+  public static final class Gradient implements Algorithm {
+
+    static final double TOLERANCE = 1.5;
+    static final double SMOOTHING = 0.2;
+    static final int LONG_WINDOW = 100;
+
+    private final int initialLimit;
+    private final int maxLimit;
+    private double limit;
+    private double longRttNanos;
+
+    public Gradient(int initialLimit, int maxLimit) {
+      checkArgument(initialLimit > 0 && initialLimit <= maxLimit,
+          "initialLimit must be in [1, maxLimit]");
+      this.initialLimit = initialLimit;
+      this.maxLimit = maxLimit;
+      this.limit = initialLimit;
+    }
+
+    @Override
+    public int initialLimit() {
+      return initialLimit;
+    }
+
+    @Override
+    public synchronized int update(long rttNanos, int inFlight, boolean dropped) {
+      final double rtt = Math.max(1, rttNanos);
+      if (longRttNanos == 0) {
+        longRttNanos = rtt;
+      } else {
+        longRttNanos += (rtt - longRttNanos) / LONG_WINDOW;
+        // 负载下降后让长期均值尽快回落，否则上限会一直偏高
+        if (longRttNanos / rtt > 2) {
+          longRttNanos *= 0.95;
+        }
+      }
+      if (dropped) {
+        limit = limit * 0.9;
+      } else if (inFlight * 2 >= limit) {
+        final double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / rtt));
+        final double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+      }
+      limit = Math.max(1, Math.min(maxLimit, limit));
+      return (int) limit;
+    }
+  }
+}
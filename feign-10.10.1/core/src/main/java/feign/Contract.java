@@ -325,7 +325,24 @@ public interface Contract {
             });
         }
 
-        private static Map<String, Collection<String>> toMap(String[] input) {
+        /**
+         * 无状态，所有实例解析结果相同，因此共享 {@link MetadataCache} 中的元数据；
+         * 子类可能注册了别的注解，按实例区分
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (getClass() != Default.class) {
+                return this == obj;
+            }
+            return obj != null && obj.getClass() == Default.class;
+        }
+
+        @Override
+        public int hashCode() {
+            return getClass() != Default.class ? System.identityHashCode(this) : Default.class.hashCode();
+        }
+
+        static Map<String, Collection<String>> toMap(String[] input) {
             final Map<String, Collection<String>> result =
                     new LinkedHashMap<String, Collection<String>>(input.length);
             for (final String header : input) {
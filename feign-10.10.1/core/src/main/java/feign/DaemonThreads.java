@@ -0,0 +1,38 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Names the daemon threads of the executors and schedulers core creates for itself, which must not
+ * keep the JVM alive.
+ */
+final class DaemonThreads {
+
+  private DaemonThreads() {}
+
+  /**
+   * @param prefix of the thread names, followed by a number per thread.
+   */
+  static ThreadFactory named(String prefix) {
+    final AtomicInteger count = new AtomicInteger();
+    return r -> {
+      final Thread thread = new Thread(r, prefix + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import feign.ExecutionStrategy.RejectionPolicy;
+
+/**
+ * Holds {@link ExecutionStrategy#defaultStrategy()}, created on first use.
+ */
+final class DefaultExecutionStrategy {
+
+  static final ExecutionStrategy INSTANCE = VirtualThreads.available()
+      ? ExecutionStrategy.virtualThreads()
+      : ExecutionStrategy.bounded(Math.max(16, Runtime.getRuntime().availableProcessors() * 8),
+          1024, RejectionPolicy.ABORT);
+
+  private DefaultExecutionStrategy() {}
+}
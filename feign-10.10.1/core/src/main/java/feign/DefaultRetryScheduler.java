@@ -0,0 +1,35 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Holds {@link AsyncRetryer#defaultScheduler()}, created on first use.
+ */
+final class DefaultRetryScheduler {
+
+  static final ScheduledExecutorService INSTANCE = create();
+
+  private DefaultRetryScheduler() {}
+
+  private static ScheduledExecutorService create() {
+    final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+        DaemonThreads.named("feign-retry-"));
+    // cancelled calls must not leave their pending attempts in the queue
+    scheduler.setRemoveOnCancelPolicy(true);
+    return scheduler;
+  }
+}
@@ -0,0 +1,587 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import feign.GeneratedDispatch.Slot;
+import feign.InvocationHandlerFactory.MethodHandler;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Emits, once per target interface, a final class extending {@link GeneratedDispatch} that
+ * implements every method of the interface by boxing its arguments and calling the {@link Slot} in
+ * a final field of its own. The methods are straight-line code, so Java 8 class files without stack
+ * map frames are enough.
+ *
+ * <p>
+ * On Java 9+ the class is defined in the package of the interface through
+ * {@code MethodHandles.privateLookupIn}, so package-private interfaces are supported. On Java 8 it
+ * is defined by a child class loader, which only works for public interfaces whose method
+ * signatures only use public types. Whenever a class can't be generated, {@link #newInstance}
+ * returns {@code null} and callers fall back to {@link java.lang.reflect.Proxy}; the reason is
+ * logged as a warning once per interface, as the fallback is otherwise invisible.
+ *
+ * <p>
+ * Interfaces with {@link PrecompiledMetadata} use the client written at compile time instead.
+ */
+final class DispatchGenerator {
+
+  private static final String SUPER_NAME = internalName(GeneratedDispatch.class);
+  private static final String SLOT_NAME = internalName(Slot.class);
+  private static final String SLOT_DESCRIPTOR = descriptor(Slot.class);
+  private static final AtomicInteger COUNTER = new AtomicInteger();
+  private static final java.util.logging.Logger logger =
+      java.util.logging.Logger.getLogger(DispatchGenerator.class.getName());
+
+  private static final ClassValue<Generated> GENERATED = new ClassValue<Generated>() {
+    @Override
+    protected Generated computeValue(Class<?> type) {
+      return generate(type);
+    }
+  };
+
+  private DispatchGenerator() {}
+
+  /**
+   * @return an instance of the generated class for the target type dispatching to
+   *         {@code methodToHandler}, or {@code null} if no class could be generated for it.
+   */
+  @SuppressWarnings("unchecked")
+  static <T> T newInstance(Target<T> target, Map<Method, MethodHandler> methodToHandler) {
+    Generated generated = GENERATED.get(target.type());
+    if (generated.methods == null) {
+      return null;
+    }
+    Slot[] slots = new Slot[generated.methods.length];
+    for (int i = 0; i < slots.length; i++) {
+      Method method = generated.methods[i];
+      slots[i] = new Slot(methodToHandler.get(method), method.getExceptionTypes());
+    }
+    if (generated.precompiled != null) {
+      return (T) generated.precompiled.newClient(target, slots);
+    }
+    try {
+      return (T) generated.type.getConstructor(Target.class, Slot[].class)
+          .newInstance(target, slots);
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException(e.getCause());
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Generated generate(Class<?> type) {
+    if (!type.isInterface()) {
+      return unsupported(type, "it is not an interface", null);
+    }
+    PrecompiledMetadata precompiled = PrecompiledMetadata.forType(type);
+    if (precompiled != null) {
+      return new Generated(precompiled, precompiled.dispatchOrder());
+    }
+    Map<String, Method> byDescriptor = new LinkedHashMap<>();
+    for (Method method : type.getMethods()) {
+      if (Modifier.isStatic(method.getModifiers()) || isObjectMethod(method)) {
+        continue;
+      }
+      // the same signature inherited from several interfaces is implemented once
+      byDescriptor.putIfAbsent(method.getName() + methodDescriptor(method), method);
+    }
+    Method[] methods = byDescriptor.values().toArray(new Method[0]);
+    if (methods.length > Short.MAX_VALUE) {
+      return unsupported(type, "it has more than " + Short.MAX_VALUE + " methods", null);
+    }
+    String name = type.getName() + "$$FeignDispatch" + COUNTER.incrementAndGet();
+    try {
+      byte[] bytes = new ClassFile(internalName(name), type, methods).toByteArray();
+      Class<?> generated = define(type, name, methods, bytes);
+      return generated != null ? new Generated(generated, methods)
+          : unsupported(type, "Java 8 only supports public interfaces and signatures", null);
+    } catch (IOException | LinkageError | ReflectiveOperationException | RuntimeException e) {
+      return unsupported(type, "its class could not be defined", e);
+    }
+  }
+
+  private static Generated unsupported(Class<?> type, String reason, Throwable cause) {
+    logger.log(Level.WARNING, "Generated dispatch is not used for " + type.getName() + " as "
+        + reason + ", falling back to java.lang.reflect.Proxy", cause);
+    return Generated.UNSUPPORTED;
+  }
+
+  private static Class<?> define(Class<?> type, String name, Method[] methods, byte[] bytes)
+      throws ReflectiveOperationException {
+    Method privateLookupIn;
+    try {
+      privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class,
+          MethodHandles.Lookup.class);
+    } catch (NoSuchMethodException java8) {
+      if (!isPublic(type, methods)) {
+        return null;
+      }
+      return new DispatchClassLoader(type.getClassLoader()).define(name, bytes);
+    }
+    Object lookup = privateLookupIn.invoke(null, type, MethodHandles.lookup());
+    return (Class<?>) MethodHandles.Lookup.class.getMethod("defineClass", byte[].class)
+        .invoke(lookup, bytes);
+  }
+
+  private static boolean isObjectMethod(Method method) {
+    try {
+      Object.class.getMethod(method.getName(), method.getParameterTypes());
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static boolean isPublic(Class<?> type, Method[] methods) {
+    if (!isPublic(type)) {
+      return false;
+    }
+    for (Method method : methods) {
+      if (!isPublic(method.getReturnType())) {
+        return false;
+      }
+      for (Class<?> parameterType : method.getParameterTypes()) {
+        if (!isPublic(parameterType)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean isPublic(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+  }
+
+  private static String internalName(Class<?> type) {
+    return internalName(type.getName());
+  }
+
+  private static String internalName(String className) {
+    return className.replace('.', '/');
+  }
+
+  private static String descriptor(Class<?> type) {
+    if (type.isArray()) {
+      return internalName(type);
+    }
+    if (type.isPrimitive()) {
+      return String.valueOf(Primitive.of(type).descriptor);
+    }
+    return "L" + internalName(type) + ";";
+  }
+
+  private static String methodDescriptor(Method method) {
+    StringBuilder builder = new StringBuilder("(");
+    for (Class<?> parameterType : method.getParameterTypes()) {
+      builder.append(descriptor(parameterType));
+    }
+    return builder.append(')').append(descriptor(method.getReturnType())).toString();
+  }
+
+  private static final class Generated {
+
+    static final Generated UNSUPPORTED = new Generated((Class<?>) null, null);
+
+    final Class<?> type;
+    final PrecompiledMetadata precompiled;
+    final Method[] methods;
+
+    Generated(Class<?> type, Method[] methods) {
+      this.type = type;
+      this.precompiled = null;
+      this.methods = methods;
+    }
+
+    Generated(PrecompiledMetadata precompiled, Method[] methods) {
+      this.type = null;
+      this.precompiled = precompiled;
+      this.methods = methods;
+    }
+  }
+
+  /**
+   * Resolves feign classes through the loader of feign itself when the interface's loader can't
+   * see them.
+   */
+  private static final class DispatchClassLoader extends ClassLoader {
+
+    DispatchClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      return Class.forName(name, false, GeneratedDispatch.class.getClassLoader());
+    }
+
+    Class<?> define(String name, byte[] bytes) {
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+  }
+
+  private enum Primitive {
+    BOOLEAN(boolean.class, Boolean.class, 'Z', Opcodes.ILOAD, Opcodes.IRETURN, 1),
+    BYTE(byte.class, Byte.class, 'B', Opcodes.ILOAD, Opcodes.IRETURN, 1),
+    CHAR(char.class, Character.class, 'C', Opcodes.ILOAD, Opcodes.IRETURN, 1),
+    SHORT(short.class, Short.class, 'S', Opcodes.ILOAD, Opcodes.IRETURN, 1),
+    INT(int.class, Integer.class, 'I', Opcodes.ILOAD, Opcodes.IRETURN, 1),
+    LONG(long.class, Long.class, 'J', Opcodes.LLOAD, Opcodes.LRETURN, 2),
+    FLOAT(float.class, Float.class, 'F', Opcodes.FLOAD, Opcodes.FRETURN, 1),
+    DOUBLE(double.class, Double.class, 'D', Opcodes.DLOAD, Opcodes.DRETURN, 2),
+    VOID(void.class, Void.class, 'V', -1, Opcodes.RETURN, 0);
+
+    final Class<?> type;
+    final Class<?> wrapper;
+    final char descriptor;
+    final int load;
+    final int returns;
+    final int size;
+
+    Primitive(Class<?> type, Class<?> wrapper, char descriptor, int load, int returns, int size) {
+      this.type = type;
+      this.wrapper = wrapper;
+      this.descriptor = descriptor;
+      this.load = load;
+      this.returns = returns;
+      this.size = size;
+    }
+
+    static Primitive of(Class<?> type) {
+      for (Primitive primitive : values()) {
+        if (primitive.type == type) {
+          return primitive;
+        }
+      }
+      throw new IllegalArgumentException(type.getName());
+    }
+
+    String unboxName() {
+      return type.getName() + "Value";
+    }
+  }
+
+  private static final class Opcodes {
+
+    static final int ACONST_NULL = 0x01;
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int ILOAD = 0x15;
+    static final int LLOAD = 0x16;
+    static final int FLOAD = 0x17;
+    static final int DLOAD = 0x18;
+    static final int ALOAD = 0x19;
+    static final int AALOAD = 0x32;
+    static final int AASTORE = 0x53;
+    static final int POP = 0x57;
+    static final int DUP = 0x59;
+    static final int IRETURN = 0xac;
+    static final int LRETURN = 0xad;
+    static final int FRETURN = 0xae;
+    static final int DRETURN = 0xaf;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+    static final int GETFIELD = 0xb4;
+    static final int PUTFIELD = 0xb5;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int ANEWARRAY = 0xbd;
+    static final int CHECKCAST = 0xc0;
+    static final int WIDE = 0xc4;
+
+    private Opcodes() {}
+  }
+
+  /**
+   * Just enough of the class file format for the generated dispatch classes.
+   */
+  private static final class ClassFile {
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private final ConstantPool pool = new ConstantPool();
+    private final String name;
+    private final Class<?> type;
+    private final Method[] methods;
+
+    ClassFile(String name, Class<?> type, Method[] methods) {
+      this.name = name;
+      this.type = type;
+      this.methods = methods;
+    }
+
+    byte[] toByteArray() throws IOException {
+      int thisClass = pool.type(name);
+      int superClass = pool.type(SUPER_NAME);
+      int iface = pool.type(internalName(type));
+      int code = pool.utf8("Code");
+      List<byte[]> bodies = new ArrayList<>();
+      bodies.add(constructor(code));
+      for (int i = 0; i < methods.length; i++) {
+        bodies.add(method(code, i, methods[i]));
+      }
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0);
+      out.writeShort(52);
+      pool.writeTo(out);
+      out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(1);
+      out.writeShort(iface);
+      out.writeShort(methods.length);
+      for (int i = 0; i < methods.length; i++) {
+        out.writeShort(ACC_PRIVATE | ACC_FINAL);
+        out.writeShort(pool.utf8(slotField(i)));
+        out.writeShort(pool.utf8(SLOT_DESCRIPTOR));
+        out.writeShort(0);
+      }
+      out.writeShort(bodies.size());
+      for (byte[] body : bodies) {
+        out.write(body);
+      }
+      out.writeShort(0);
+      return bytes.toByteArray();
+    }
+
+    /**
+     * {@code (Target target, Slot[] slots)}: passes the target up and stores each slot in its
+     * field.
+     */
+    private byte[] constructor(int code) throws IOException {
+      Code body = new Code();
+      body.op(0x2a); // aload_0
+      body.op(0x2b); // aload_1
+      body.op(Opcodes.INVOKESPECIAL).u2(pool.methodRef(SUPER_NAME, "<init>",
+          "(" + descriptor(Target.class) + ")V"));
+      for (int i = 0; i < methods.length; i++) {
+        body.op(0x2a); // aload_0
+        body.op(0x2c); // aload_2
+        body.push(i);
+        body.op(Opcodes.AALOAD);
+        body.op(Opcodes.PUTFIELD).u2(pool.fieldRef(name, slotField(i), SLOT_DESCRIPTOR));
+      }
+      body.op(Opcodes.RETURN);
+      return body.method(ACC_PUBLIC, pool.utf8("<init>"),
+          pool.utf8("(" + descriptor(Target.class) + "[" + SLOT_DESCRIPTOR + ")V"), code, 3, 3);
+    }
+
+    /**
+     * {@code return (R) slot.invoke(new Object[] {args...})}, unboxing primitive results.
+     */
+    private byte[] method(int code, int index, Method method) throws IOException {
+      Class<?>[] parameterTypes = method.getParameterTypes();
+      Code body = new Code();
+      body.op(0x2a); // aload_0
+      body.op(Opcodes.GETFIELD).u2(pool.fieldRef(name, slotField(index), SLOT_DESCRIPTOR));
+      int local = 1;
+      if (parameterTypes.length == 0) {
+        // Proxy passes null for methods without parameters, handlers expect the same
+        body.op(Opcodes.ACONST_NULL);
+      } else {
+        body.push(parameterTypes.length);
+        body.op(Opcodes.ANEWARRAY).u2(pool.type("java/lang/Object"));
+        for (int i = 0; i < parameterTypes.length; i++) {
+          body.op(Opcodes.DUP);
+          body.push(i);
+          Class<?> parameterType = parameterTypes[i];
+          if (parameterType.isPrimitive()) {
+            Primitive primitive = Primitive.of(parameterType);
+            body.local(primitive.load, local);
+            body.op(Opcodes.INVOKESTATIC).u2(pool.methodRef(internalName(primitive.wrapper),
+                "valueOf", "(" + primitive.descriptor + ")" + descriptor(primitive.wrapper)));
+            local += primitive.size;
+          } else {
+            body.local(Opcodes.ALOAD, local);
+            local++;
+          }
+          body.op(Opcodes.AASTORE);
+        }
+      }
+      body.op(Opcodes.INVOKEVIRTUAL).u2(pool.methodRef(SLOT_NAME, "invoke",
+          "([Ljava/lang/Object;)Ljava/lang/Object;"));
+
+      Class<?> returnType = method.getReturnType();
+      if (returnType == void.class) {
+        body.op(Opcodes.POP);
+        body.op(Opcodes.RETURN);
+      } else if (returnType.isPrimitive()) {
+        Primitive primitive = Primitive.of(returnType);
+        String wrapper = internalName(primitive.wrapper);
+        body.op(Opcodes.CHECKCAST).u2(pool.type(wrapper));
+        body.op(Opcodes.INVOKEVIRTUAL).u2(pool.methodRef(wrapper, primitive.unboxName(),
+            "()" + primitive.descriptor));
+        body.op(primitive.returns);
+      } else {
+        if (returnType != Object.class) {
+          body.op(Opcodes.CHECKCAST).u2(pool.type(internalName(returnType)));
+        }
+        body.op(Opcodes.ARETURN);
+      }
+      // receiver, array, array copy, index and a two slot value at most
+      int maxStack = parameterTypes.length == 0 ? 2 : 6;
+      return body.method(ACC_PUBLIC, pool.utf8(method.getName()),
+          pool.utf8(methodDescriptor(method)), code, maxStack, local);
+    }
+
+    private static String slotField(int index) {
+      return "slot" + index;
+    }
+
+    private final class Code {
+
+      private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+      Code op(int opcode) {
+        bytes.write(opcode);
+        return this;
+      }
+
+      Code u2(int value) {
+        bytes.write(value >>> 8);
+        bytes.write(value);
+        return this;
+      }
+
+      void push(int value) {
+        if (value <= 5) {
+          op(Opcodes.ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+          op(Opcodes.BIPUSH).op(value);
+        } else {
+          op(Opcodes.SIPUSH).u2(value);
+        }
+      }
+
+      void local(int opcode, int index) {
+        if (index <= 0xff) {
+          op(opcode).op(index);
+        } else {
+          op(Opcodes.WIDE).op(opcode).u2(index);
+        }
+      }
+
+      byte[] method(int access, int name, int descriptor, int codeAttribute, int maxStack,
+                    int maxLocals)
+          throws IOException {
+        byte[] code = bytes.toByteArray();
+        ByteArrayOutputStream method = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(method);
+        out.writeShort(access);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(codeAttribute);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+        return method.toByteArray();
+      }
+    }
+  }
+
+  private static final class ConstantPool {
+
+    private static final int UTF8 = 1;
+    private static final int CLASS = 7;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private int count = 1;
+
+    int utf8(String value) throws IOException {
+      Integer index = indexes.get("U" + value);
+      if (index == null) {
+        out.writeByte(UTF8);
+        out.writeUTF(value);
+        index = add("U" + value);
+      }
+      return index;
+    }
+
+    int type(String internalName) throws IOException {
+      return reference(CLASS, "C" + internalName, utf8(internalName), -1);
+    }
+
+    int fieldRef(String owner, String name, String descriptor) throws IOException {
+      return reference(FIELD_REF, "F" + owner + "." + name + ":" + descriptor, type(owner),
+          nameAndType(name, descriptor));
+    }
+
+    int methodRef(String owner, String name, String descriptor) throws IOException {
+      return reference(METHOD_REF, "M" + owner + "." + name + ":" + descriptor, type(owner),
+          nameAndType(name, descriptor));
+    }
+
+    private int nameAndType(String name, String descriptor) throws IOException {
+      return reference(NAME_AND_TYPE, "N" + name + ":" + descriptor, utf8(name), utf8(descriptor));
+    }
+
+    private int reference(int tag, String key, int first, int second) throws IOException {
+      Integer index = indexes.get(key);
+      if (index == null) {
+        out.writeByte(tag);
+        out.writeShort(first);
+        if (second >= 0) {
+          out.writeShort(second);
+        }
+        index = add(key);
+      }
+      return index;
+    }
+
+    private int add(String key) {
+      int index = count++;
+      indexes.put(key, index);
+      return index;
+    }
+
+    void writeTo(DataOutputStream target) throws IOException {
+      target.writeShort(count);
+      target.write(bytes.toByteArray());
+    }
+  }
+}
@@ -0,0 +1,336 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+
+/**
+ * Decides where the blocking {@link Client} calls of an {@link AsyncClient.Default} run. Use
+ * {@link #bounded(int, int, RejectionPolicy)} to cap threads and queued calls,
+ * {@link #virtualThreads()} on JDK 21+ and {@link #perTargetLimit(int)} to cap the calls in flight
+ * against a single {@link Target}.
+ */
+@Experimental
+public interface ExecutionStrategy {
+
+  /**
+   * Runs the call without blocking the caller.
+   *
+   * @param request the call is made for, used to find its {@link Target}.
+   * @param call to run.
+   * @return completed with the result of the call, or exceptionally, with a
+   *         {@link RejectedExecutionException} if the call was not accepted. Cancelling it
+   *         interrupts the call.
+   */
+  <T> CompletableFuture<T> submit(Request request, Callable<T> call);
+
+  /**
+   * Current state of this strategy.
+   */
+  Metrics metrics();
+
+  /**
+   * Limits the calls in flight against each {@link Target} to {@code maxConcurrent}. Calls over
+   * the limit are rejected, they do not wait for a permit.
+   */
+  default ExecutionStrategy perTargetLimit(int maxConcurrent) {
+    return new PerTargetLimit(this, maxConcurrent);
+  }
+
+  /**
+   * A pool of at most {@code maxThreads} daemon threads, with up to {@code queueCapacity} calls
+   * waiting for a thread.
+   */
+  static ExecutionStrategy bounded(int maxThreads, int queueCapacity, RejectionPolicy policy) {
+    return new Bounded(maxThreads, queueCapacity, policy);
+  }
+
+  /**
+   * One virtual thread per call.
+   *
+   * @throws IllegalStateException if the runtime does not support virtual threads.
+   * @see #virtualThreadsAvailable()
+   */
+  static ExecutionStrategy virtualThreads() {
+    if (!virtualThreadsAvailable()) {
+      throw new IllegalStateException("virtual threads require JDK 21 or later");
+    }
+    return new Unbounded(VirtualThreads.newExecutor());
+  }
+
+  /**
+   * If the runtime supports virtual threads, detected once.
+   */
+  static boolean virtualThreadsAvailable() {
+    return VirtualThreads.available();
+  }
+
+  /**
+   * Runs calls on an executor managed by the caller, as {@link AsyncClient.Default} did before
+   * strategies existed.
+   */
+  static ExecutionStrategy of(ExecutorService executorService) {
+    return new Unbounded(executorService);
+  }
+
+  /**
+   * Used by {@link AsyncFeign} when no client is configured: virtual threads where available,
+   * otherwise a bounded pool that rejects calls once it is saturated.
+   */
+  static ExecutionStrategy defaultStrategy() {
+    return DefaultExecutionStrategy.INSTANCE;
+  }
+
+  /**
+   * What happens to a call submitted while all threads are busy and the queue is full.
+   */
+  enum RejectionPolicy {
+    /**
+     * Complete the call exceptionally with a {@link RejectedExecutionException}.
+     */
+    ABORT,
+    /**
+     * Run the call on the submitting thread, slowing the caller down.
+     */
+    CALLER_RUNS
+  }
+
+  /**
+   * Point in time view, suitable for gauges.
+   */
+  interface Metrics {
+
+    /**
+     * Calls waiting for a thread.
+     */
+    int queueDepth();
+
+    /**
+     * Calls currently running.
+     */
+    int activeCount();
+
+    /**
+     * Calls rejected since the strategy was created.
+     */
+    long rejectedCount();
+  }
+
+  final class Bounded implements ExecutionStrategy, Metrics {
+
+    private final ThreadPoolExecutor executor;
+    private final RejectionPolicy policy;
+    private final AtomicLong rejected = new AtomicLong();
+
+    Bounded(int maxThreads, int queueCapacity, RejectionPolicy policy) {
+      checkArgument(maxThreads > 0, "maxThreads must be positive");
+      checkArgument(queueCapacity >= 0, "queueCapacity must not be negative");
+      this.policy = checkNotNull(policy, "policy");
+      this.executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+          queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity),
+          DaemonThreads.named("feign-async-"), new ThreadPoolExecutor.AbortPolicy());
+      this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Request request, Callable<T> call) {
+      final CompletableFuture<T> result = new CompletableFuture<>();
+      try {
+        final Future<?> future = executor.submit(() -> complete(result, call));
+        result.whenComplete((r, t) -> {
+          if (result.isCancelled()) {
+            future.cancel(true);
+          }
+        });
+      } catch (final RejectedExecutionException e) {
+        rejected.incrementAndGet();
+        if (policy == RejectionPolicy.CALLER_RUNS && !executor.isShutdown()) {
+          complete(result, call);
+        } else {
+          result.completeExceptionally(e);
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public Metrics metrics() {
+      return this;
+    }
+
+    @Override
+    public int queueDepth() {
+      return executor.getQueue().size();
+    }
+
+    @Override
+    public int activeCount() {
+      return executor.getActiveCount();
+    }
+
+    @Override
+    public long rejectedCount() {
+      return rejected.get();
+    }
+
+    static <T> void complete(CompletableFuture<T> result, Callable<T> call) {
+      try {
+        result.complete(call.call());
+      } catch (final Throwable e) {
+        result.completeExceptionally(e);
+      }
+    }
+  }
+
+  final class Unbounded implements ExecutionStrategy, Metrics {
+
+    private final ExecutorService executor;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    Unbounded(ExecutorService executor) {
+      this.executor = checkNotNull(executor, "executor");
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Request request, Callable<T> call) {
+      final CompletableFuture<T> result = new CompletableFuture<>();
+      try {
+        final Future<?> future = executor.submit(() -> {
+          active.incrementAndGet();
+          try {
+            Bounded.complete(result, call);
+          } finally {
+            active.decrementAndGet();
+          }
+        });
+        result.whenComplete((r, t) -> {
+          if (result.isCancelled()) {
+            future.cancel(true);
+          }
+        });
+      } catch (final RejectedExecutionException e) {
+        rejected.incrementAndGet();
+        result.completeExceptionally(e);
+      }
+      return result;
+    }
+
+    @Override
+    public Metrics metrics() {
+      return this;
+    }
+
+    @Override
+    public int queueDepth() {
+      return executor instanceof ThreadPoolExecutor
+          ? ((ThreadPoolExecutor) executor).getQueue().size()
+          : 0;
+    }
+
+    @Override
+    public int activeCount() {
+      return active.get();
+    }
+
+    @Override
+    public long rejectedCount() {
+      return rejected.get();
+    }
+  }
+
+  final class PerTargetLimit implements ExecutionStrategy, Metrics {
+
+    private final ExecutionStrategy delegate;
+    private final int maxConcurrent;
+    /**
+     * Calls in flight per target. An entry is removed when its count drops to 0, so the map only
+     * holds targets with calls in flight.
+     */
+    final Map<String, Integer> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+
+    PerTargetLimit(ExecutionStrategy delegate, int maxConcurrent) {
+      checkArgument(maxConcurrent > 0, "maxConcurrent must be positive");
+      this.delegate = checkNotNull(delegate, "delegate");
+      this.maxConcurrent = maxConcurrent;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Request request, Callable<T> call) {
+      final String target = targetOf(request);
+      if (!acquire(target)) {
+        rejected.incrementAndGet();
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        result.completeExceptionally(new RejectedExecutionException(
+            "more than " + maxConcurrent + " calls in flight to " + target));
+        return result;
+      }
+      final CompletableFuture<T> result = delegate.submit(request, call);
+      result.whenComplete((r, t) -> release(target));
+      return result;
+    }
+
+    private boolean acquire(String target) {
+      final boolean[] acquired = new boolean[1];
+      inFlight.compute(target, (key, count) -> {
+        final int current = count != null ? count : 0;
+        acquired[0] = current < maxConcurrent;
+        return acquired[0] ? current + 1 : count;
+      });
+      return acquired[0];
+    }
+
+    private void release(String target) {
+      inFlight.computeIfPresent(target, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    @Override
+    public Metrics metrics() {
+      return this;
+    }
+
+    @Override
+    public int queueDepth() {
+      return delegate.metrics().queueDepth();
+    }
+
+    @Override
+    public int activeCount() {
+      return delegate.metrics().activeCount();
+    }
+
+    @Override
+    public long rejectedCount() {
+      return rejected.get() + delegate.metrics().rejectedCount();
+    }
+
+    private static String targetOf(Request request) {
+      final RequestTemplate template = request.requestTemplate();
+      if (template != null && template.feignTarget() != null
+          && !(template.feignTarget() instanceof Target.EmptyTarget)) {
+        return template.feignTarget().name();
+      }
+      // the URL comes from a URI argument, its path and query would give every call its own key
+      final URI uri = URI.create(request.url());
+      return uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+  }
+}
@@ -116,6 +116,7 @@ public abstract class Feign {
     private boolean closeAfterDecode = true;
     private ExceptionPropagationPolicy propagationPolicy = NONE;
     private boolean forceDecoding = false;
+    private boolean generatedDispatch = false;
     private List<Capability> capabilities = new ArrayList<>();
 
     public Builder logLevel(Logger.Level logLevel) {
@@ -249,6 +250,22 @@ public abstract class Feign {
       return this;
     }
 
+    /**
+     * Implement target interfaces with a class generated once per interface, whose methods call
+     * their {@link InvocationHandlerFactory.MethodHandler} directly instead of going through
+     * {@link java.lang.reflect.Proxy} and a {@code Map<Method, MethodHandler>} lookup. Only
+     * applies with the default {@link InvocationHandlerFactory}; when a class can't be generated
+     * for an interface, a {@link java.lang.reflect.Proxy} is used as before and a warning saying
+     * why is logged to {@code java.util.logging}, once per interface.
+     *
+     * @see GeneratedDispatch
+     */
+    @Experimental
+    public Builder generatedDispatch() {
+      this.generatedDispatch = true;
+      return this;
+    }
+
     public Builder addCapability(Capability capability) {
       this.capabilities.add(capability);
       return this;
@@ -272,27 +289,29 @@ public abstract class Feign {
 
     public Feign build() {
       // 客户端
-      Client client = Capability.enrich(this.client, capabilities);
+      Client client = Capability.enrich(this.client, Client.class, capabilities);
       // 重试器
-      Retryer retryer = Capability.enrich(this.retryer, capabilities);
+      Retryer retryer = Capability.enrich(this.retryer, Retryer.class, capabilities);
       // 请求拦截器
       List<RequestInterceptor> requestInterceptors = this.requestInterceptors.stream()
-          .map(ri -> Capability.enrich(ri, capabilities))
+          .map(ri -> Capability.enrich(ri, RequestInterceptor.class, capabilities))
           .collect(Collectors.toList());
       // 日志
-      Logger logger = Capability.enrich(this.logger, capabilities);
+      Logger logger = Capability.enrich(this.logger, Logger.class, capabilities);
       // 契约
-      Contract contract = Capability.enrich(this.contract, capabilities);
-      Options options = Capability.enrich(this.options, capabilities);
+      Contract contract = Capability.enrich(this.contract, Contract.class, capabilities);
+      Options options = Capability.enrich(this.options, Options.class, capabilities);
       // 编码器
-      Encoder encoder = Capability.enrich(this.encoder, capabilities);
+      Encoder encoder = Capability.enrich(this.encoder, Encoder.class, capabilities);
       // 解码器
-      Decoder decoder = Capability.enrich(this.decoder, capabilities);
+      Decoder decoder = Capability.enrich(this.decoder, Decoder.class, capabilities);
       // 调用处理器工厂
       InvocationHandlerFactory invocationHandlerFactory =
-          Capability.enrich(this.invocationHandlerFactory, capabilities);
+          Capability.enrich(this.invocationHandlerFactory, InvocationHandlerFactory.class,
+              capabilities);
       // 将对象转换成Map的编码器
-      QueryMapEncoder queryMapEncoder = Capability.enrich(this.queryMapEncoder, capabilities);
+      QueryMapEncoder queryMapEncoder =
+          Capability.enrich(this.queryMapEncoder, QueryMapEncoder.class, capabilities);
 
       // 同步的方法处理器工厂
       SynchronousMethodHandler.Factory synchronousMethodHandlerFactory =
@@ -302,7 +321,8 @@ public abstract class Feign {
       ParseHandlersByName handlersByName =
           new ParseHandlersByName(contract, options, encoder, decoder, queryMapEncoder,
               errorDecoder, synchronousMethodHandlerFactory);
-      return new ReflectiveFeign(handlersByName, invocationHandlerFactory, queryMapEncoder);
+      return new ReflectiveFeign(handlersByName, invocationHandlerFactory, queryMapEncoder,
+          generatedDispatch);
     }
   }
 
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import feign.InvocationHandlerFactory.MethodHandler;
+import java.lang.reflect.UndeclaredThrowableException;
+import static feign.Util.checkNotNull;
+
+/**
+ * Superclass of the implementations {@link DispatchGenerator} emits for target interfaces. Each
+ * generated method calls the {@link Slot} held in its own final field, with no reflection and no
+ * map lookup. Public only so that classes generated in the package of the target interface can
+ * extend it; not meant to be used directly.
+ *
+ * @see Feign.Builder#generatedDispatch()
+ */
+@Experimental
+public abstract class GeneratedDispatch {
+
+  private final Target<?> target;
+
+  protected GeneratedDispatch(Target<?> target) {
+    this.target = checkNotNull(target, "target");
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof GeneratedDispatch) {
+      GeneratedDispatch other = (GeneratedDispatch) obj;
+      return target.equals(other.target);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return target.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return target.toString();
+  }
+
+  /**
+   * The {@link MethodHandler} of one method, rethrowing what the method declares and wrapping any
+   * other checked exception, as {@link java.lang.reflect.Proxy} does.
+   */
+  public static final class Slot {
+
+    private final MethodHandler handler;
+    private final Class<?>[] exceptionTypes;
+
+    Slot(MethodHandler handler, Class<?>[] exceptionTypes) {
+      this.handler = handler;
+      this.exceptionTypes = exceptionTypes;
+    }
+
+    public Object invoke(Object[] argv) {
+      try {
+        return handler.invoke(argv);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        for (Class<?> exceptionType : exceptionTypes) {
+          if (exceptionType.isInstance(e)) {
+            throw Slot.<RuntimeException>sneakyThrow(e);
+          }
+        }
+        throw new UndeclaredThrowableException(e);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> T sneakyThrow(Throwable e) throws T {
+      throw (T) e;
+    }
+  }
+}
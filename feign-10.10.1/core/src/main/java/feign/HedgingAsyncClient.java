@@ -0,0 +1,248 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import static feign.Util.ensureClosed;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Sends a second attempt of an idempotent request when the first has not answered within a
+ * {@link HedgeDelay delay}, and completes with whichever response arrives first. The other attempt
+ * is left to finish, as cancelling the future of a call does not stop most clients, and its
+ * response is closed when it arrives. Hedges are only sent while the {@link RetryBudget} allows
+ * them, so they add a bounded share of load.
+ *
+ * <p>
+ * Delays are kept per method, by {@link MethodMetadata#configKey()}. Each attempt is a new call to
+ * the delegate, so a delegate built on a load balancing client, such as an
+ * {@link AsyncClient.Default} around Spring Cloud's {@code FeignBlockingLoadBalancerClient},
+ * usually sends the hedge to another instance.
+ */
+@Experimental
+public final class HedgingAsyncClient<C> implements AsyncClient<C> {
+
+  private static final Set<HttpMethod> IDEMPOTENT = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD,
+      HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.OPTIONS, HttpMethod.TRACE);
+
+  private final AsyncClient<C> delegate;
+  private final HedgeDelay delay;
+  private final RetryBudget budget;
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Schedules hedges on {@link AsyncRetryer#defaultScheduler()}.
+   */
+  public HedgingAsyncClient(AsyncClient<C> delegate, HedgeDelay delay, RetryBudget budget) {
+    this(delegate, delay, budget, AsyncRetryer.defaultScheduler());
+  }
+
+  /**
+   * @param scheduler where hedges are submitted to the delegate once their delay expires; it should
+   *        not block, as the delegate is called on its thread.
+   */
+  public HedgingAsyncClient(AsyncClient<C> delegate, HedgeDelay delay, RetryBudget budget,
+      ScheduledExecutorService scheduler) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.delay = checkNotNull(delay, "delay");
+    this.budget = checkNotNull(budget, "budget");
+    this.scheduler = checkNotNull(scheduler, "scheduler");
+  }
+
+  @Override
+  public CompletableFuture<Response> execute(Request request,
+                                             Options options,
+                                             Optional<C> requestContext) {
+    if (!IDEMPOTENT.contains(request.httpMethod())) {
+      return delegate.execute(request, options, requestContext);
+    }
+    budget.deposit();
+    final Hedge hedge = new Hedge(key(request));
+    hedge.attempt(request, options, requestContext);
+    if (!hedge.result.isDone()) {
+      try {
+        hedge.scheduled = scheduler.schedule(() -> {
+          if (!hedge.result.isDone() && budget.tryWithdraw()) {
+            hedge.attempt(request, options, requestContext);
+          }
+        }, delay.delayNanos(hedge.key), NANOSECONDS);
+      } catch (RejectedExecutionException ignored) {
+        // no hedge, the first attempt still answers
+      }
+    }
+    return hedge.result;
+  }
+
+  private static String key(Request request) {
+    final RequestTemplate template = request.requestTemplate();
+    if (template != null && template.methodMetadata() != null) {
+      return template.methodMetadata().configKey();
+    }
+    return request.httpMethod().name();
+  }
+
+  /**
+   * The attempts of one call and the result they race to complete.
+   */
+  private final class Hedge {
+
+    final String key;
+    final CompletableFuture<Response> result = new CompletableFuture<>();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final long start = System.nanoTime();
+    volatile Future<?> scheduled;
+
+    Hedge(String key) {
+      this.key = key;
+      result.whenComplete((response, error) -> {
+        final Future<?> pending = scheduled;
+        if (pending != null) {
+          pending.cancel(false);
+        }
+        // the whole call rather than the winning attempt, so hedged tails still count
+        if (response != null) {
+          delay.record(key, System.nanoTime() - start);
+        }
+      });
+    }
+
+    void attempt(Request request, Options options, Optional<C> requestContext) {
+      inFlight.incrementAndGet();
+      final CompletableFuture<Response> attempt;
+      try {
+        attempt = delegate.execute(request, options, requestContext);
+      } catch (RuntimeException e) {
+        failed(e);
+        return;
+      }
+      attempt.whenComplete((response, error) -> {
+        if (error != null) {
+          failed(error);
+          return;
+        }
+        inFlight.decrementAndGet();
+        if (!result.complete(response)) {
+          ensureClosed(response);
+        }
+      });
+    }
+
+    /**
+     * Fails the call once no attempt is left to answer it.
+     */
+    private void failed(Throwable error) {
+      if (inFlight.decrementAndGet() == 0) {
+        result.completeExceptionally(error);
+      }
+    }
+  }
+
+  /**
+   * How long to wait for the first attempt before hedging, per {@link MethodMetadata#configKey()
+   * method}.
+   */
+  @FunctionalInterface
+  public interface HedgeDelay {
+
+    long delayNanos(String configKey);
+
+    /**
+     * Called with the latency of every call that got a response, from its first attempt to the
+     * response, whichever attempt it came from.
+     */
+    default void record(String configKey, long latencyNanos) {}
+
+    static HedgeDelay fixed(long delay, TimeUnit unit) {
+      final long delayNanos = unit.toNanos(delay);
+      return configKey -> delayNanos;
+    }
+
+    /**
+     * Hedges once an attempt takes longer than {@code percentile} of the recent calls of the
+     * method, for example {@code 0.95}, and after {@code initialDelay} until enough were seen.
+     */
+    static HedgeDelay percentile(double percentile, long initialDelay, TimeUnit unit) {
+      return new Percentile(percentile, unit.toNanos(initialDelay));
+    }
+  }
+
+  static final class Percentile implements HedgeDelay {
+
+    private final double percentile;
+    private final long initialDelayNanos;
+    private final ConcurrentHashMap<String, Latencies> latencies = new ConcurrentHashMap<>();
+
+    Percentile(double percentile, long initialDelayNanos) {
+      checkArgument(percentile > 0 && percentile <= 1, "percentile must be in (0, 1]");
+      this.percentile = percentile;
+      this.initialDelayNanos = initialDelayNanos;
+    }
+
+    @Override
+    public long delayNanos(String configKey) {
+      final Latencies method = latencies.get(configKey);
+      final long delayNanos = method != null ? method.percentileNanos : -1;
+      return delayNanos >= 0 ? delayNanos : initialDelayNanos;
+    }
+
+    @Override
+    public void record(String configKey, long latencyNanos) {
+      latencies.computeIfAbsent(configKey, k -> new Latencies()).record(latencyNanos, percentile);
+    }
+  }
+
+  /**
+   * The last {@link #SIZE} latencies of a method, with the percentile recomputed every
+   * {@link #RECOMPUTE_EVERY} samples rather than on every call.
+   */
+  static final class Latencies {
+
+    static final int SIZE = 128;
+    static final int RECOMPUTE_EVERY = 32;
+
+    private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+    private final AtomicLong count = new AtomicLong();
+    volatile long percentileNanos = -1;
+
+    void record(long latencyNanos, double percentile) {
+      final long n = count.getAndIncrement();
+      samples.set((int) (n % SIZE), latencyNanos);
+      if ((n + 1) % RECOMPUTE_EVERY == 0) {
+        final long[] sorted = new long[(int) Math.min(n + 1, SIZE)];
+        for (int i = 0; i < sorted.length; i++) {
+          sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        final int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        percentileNanos = sorted[Math.max(0, index)];
+      }
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.concurrent.ThreadLocalRandom;
+import static feign.Util.checkNotNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A {@link Retryer} for callers that may retry together: each wait is drawn at random between
+ * {@code period} and three times the previous wait ("decorrelated jitter"), so callers failing at
+ * the same moment spread their retries, and every retry must be allowed by a {@link RetryBudget}
+ * shared by all clones, so retries stay a bounded share of the load when a dependency slows down.
+ *
+ * <p>
+ * Each {@link #clone()} is one call and {@link RetryBudget#deposit() deposits} into the budget.
+ * {@link RetryableException#retryAfter()} is honoured as by {@link Retryer.Default}.
+ */
+@Experimental
+public class JitteredRetryer implements Retryer {
+
+  private final long period;
+  private final long maxPeriod;
+  private final int maxAttempts;
+  private final RetryBudget budget;
+  private long previousInterval;
+  int attempt;
+  long sleptForMillis;
+
+  public JitteredRetryer() {
+    this(100, SECONDS.toMillis(1), 5, new RetryBudget());
+  }
+
+  public JitteredRetryer(long period, long maxPeriod, int maxAttempts, RetryBudget budget) {
+    this.period = period;
+    this.maxPeriod = maxPeriod;
+    this.maxAttempts = maxAttempts;
+    this.budget = checkNotNull(budget, "budget");
+    this.previousInterval = period;
+    this.attempt = 1;
+  }
+
+  public RetryBudget budget() {
+    return budget;
+  }
+
+  // visible for testing;
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  @Override
+  public void continueOrPropagate(RetryableException e) {
+    if (attempt++ >= maxAttempts || !budget.tryWithdraw()) {
+      throw e;
+    }
+
+    long interval;
+    if (e.retryAfter() != null) {
+      interval = e.retryAfter().getTime() - currentTimeMillis();
+      if (interval > maxPeriod) {
+        interval = maxPeriod;
+      }
+      if (interval < 0) {
+        return;
+      }
+    } else {
+      interval = nextInterval();
+    }
+    try {
+      Thread.sleep(interval);
+    } catch (InterruptedException ignored) {
+      Thread.currentThread().interrupt();
+      throw e;
+    }
+    sleptForMillis += interval;
+  }
+
+  /**
+   * @return a random interval between {@code period} and three times the previous one, at most
+   *         {@code maxPeriod}.
+   */
+  long nextInterval() {
+    final long upper = Math.min(maxPeriod, previousInterval * 3);
+    previousInterval = upper > period
+        ? ThreadLocalRandom.current().nextLong(period, upper + 1)
+        : Math.min(period, maxPeriod);
+    return previousInterval;
+  }
+
+  @Override
+  public Retryer clone() {
+    budget.deposit();
+    return new JitteredRetryer(period, maxPeriod, maxAttempts, budget);
+  }
+
+  @Override
+  public String toString() {
+    return "JitteredRetryer(period=" + period + ", maxPeriod=" + maxPeriod + ", maxAttempts="
+        + maxAttempts + ", " + budget + ")";
+  }
+}
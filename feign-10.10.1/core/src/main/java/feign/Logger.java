@@ -52,7 +52,14 @@ public abstract class Logger {
       }
 
       int bodyLength = 0;
-      if (request.body() != null) {
+      if (request.isStreaming()) {
+        // reading the body would buffer it, and stop it from being streamed
+        bodyLength = -1;
+        if (logLevel.ordinal() >= Level.FULL.ordinal()) {
+          log(configKey, ""); // CRLF
+          log(configKey, "%s", "Streaming data");
+        }
+      } else if (request.body() != null) {
         bodyLength = request.length();
         if (logLevel.ordinal() >= Level.FULL.ordinal()) {
           String bodyText =
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Process-wide cache of the {@link MethodMetadata} parsed by a {@link Contract} for an interface,
+ * so that building many clients of the same interface parses it once. The interface keys a
+ * {@link ClassValue}. Below it, the stateless {@link Contract.Default} has one slot held as long as
+ * the interface, and other contracts are weak keys, so their entries live as long as an
+ * {@link Object#equals(Object) equal} contract is reachable.
+ *
+ * <p>
+ * Metadata is shared between all clients built from the same entry and must not be modified once
+ * parsed.
+ */
+final class MetadataCache {
+
+  private static final ClassValue<Entry> CACHE = new ClassValue<Entry>() {
+    @Override
+    protected Entry computeValue(Class<?> type) {
+      return new Entry();
+    }
+  };
+
+  private MetadataCache() {}
+
+  static List<MethodMetadata> parseAndValidateMetadata(Contract contract, Class<?> targetType) {
+    final Entry entry = CACHE.get(targetType);
+    if (contract.getClass() == Contract.Default.class) {
+      List<MethodMetadata> metadata = entry.defaultContract;
+      if (metadata == null) {
+        // 并发首次解析时可能解析多次，结果相同
+        metadata = Collections.unmodifiableList(contract.parseAndValidateMetadata(targetType));
+        entry.defaultContract = metadata;
+      }
+      return metadata;
+    }
+    List<MethodMetadata> metadata = entry.byContract.get(contract);
+    if (metadata == null) {
+      // 解析在锁外进行，并发首次解析时以先写入者为准
+      metadata = Collections.unmodifiableList(contract.parseAndValidateMetadata(targetType));
+      final List<MethodMetadata> existing = entry.byContract.putIfAbsent(contract, metadata);
+      if (existing != null) {
+        metadata = existing;
+      }
+    }
+    return metadata;
+  }
+
+  private static final class Entry {
+
+    volatile List<MethodMetadata> defaultContract;
+
+    final Map<Contract, List<MethodMetadata>> byContract =
+        Collections.synchronizedMap(new WeakHashMap<>());
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.List;
+import static feign.Util.checkNotNull;
+
+/**
+ * {@link Contract.Default} for interfaces processed at compile time by the
+ * {@code feign-apt-test-generator} client processor: their {@link MethodMetadata} comes from the
+ * generated {@link PrecompiledMetadata}, so annotations are only read to check it is up to date.
+ * Interfaces without generated metadata, or whose metadata is out of date, are parsed by the
+ * fallback contract.
+ *
+ * <pre>
+ * GitHub github = Feign.builder()
+ *     .contract(new PrecompiledContract())
+ *     .generatedDispatch()
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ *
+ * Generated metadata mirrors {@link Contract.Default}, only use a different fallback if it reads
+ * the same annotations the same way.
+ */
+@Experimental
+public final class PrecompiledContract implements Contract {
+
+  private final Contract fallback;
+
+  public PrecompiledContract() {
+    this(new Contract.Default());
+  }
+
+  public PrecompiledContract(Contract fallback) {
+    this.fallback = checkNotNull(fallback, "fallback");
+  }
+
+  @Override
+  public List<MethodMetadata> parseAndValidateMetadata(Class<?> targetType) {
+    final PrecompiledMetadata precompiled = PrecompiledMetadata.forType(targetType);
+    return precompiled != null
+        ? precompiled.methods()
+        : fallback.parseAndValidateMetadata(targetType);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof PrecompiledContract
+        && fallback.equals(((PrecompiledContract) obj).fallback);
+  }
+
+  @Override
+  public int hashCode() {
+    return fallback.hashCode();
+  }
+}
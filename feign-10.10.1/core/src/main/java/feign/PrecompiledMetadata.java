@@ -0,0 +1,337 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import feign.GeneratedDispatch.Slot;
+import feign.Param.Expander;
+import feign.Request.HttpMethod;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static feign.Util.checkState;
+import static feign.Util.emptyToNull;
+
+/**
+ * Superclass of the {@code <interface binary name>$$FeignMetadata} classes an annotation processor
+ * writes at compile time for interfaces annotated as {@link Contract.Default} expects. They hold
+ * the result of parsing the interface, so {@link PrecompiledContract} returns its
+ * {@link MethodMetadata} without parsing annotations or resolving types, and a client
+ * implementation {@link Feign.Builder#generatedDispatch()} uses instead of generating one.
+ *
+ * <p>
+ * The protected static methods apply annotations the way {@link Contract.Default} does and are
+ * meant to be called from generated code only.
+ */
+@Experimental
+public abstract class PrecompiledMetadata {
+
+  static final String SUFFIX = "$$FeignMetadata";
+
+  private static final ClassValue<PrecompiledMetadata> PRECOMPILED =
+      new ClassValue<PrecompiledMetadata>() {
+        @Override
+        protected PrecompiledMetadata computeValue(Class<?> type) {
+          return load(type);
+        }
+      };
+
+  /**
+   * The metadata of every method {@link Contract.Default} would parse, freshly built as it is
+   * mutable.
+   */
+  protected abstract List<MethodMetadata> methods();
+
+  /**
+   * Every method the client implements, in the order of the slots passed to
+   * {@link #newClient(Target, Slot[])}.
+   */
+  protected abstract Method[] dispatchOrder();
+
+  protected abstract Object newClient(Target<?> target, Slot[] slots);
+
+  /**
+   * {@link #fingerprint(Class, Method[])} of the interface the metadata was generated from.
+   */
+  protected abstract long fingerprint();
+
+  /**
+   * @return the metadata generated for the interface, or {@code null} if there is none or it no
+   *         longer matches the interface.
+   */
+  static PrecompiledMetadata forType(Class<?> type) {
+    return PRECOMPILED.get(type);
+  }
+
+  private static PrecompiledMetadata load(Class<?> type) {
+    if (!type.isInterface() || type.getClassLoader() == null) {
+      return null;
+    }
+    try {
+      Class<?> generated = Class.forName(type.getName() + SUFFIX, true, type.getClassLoader());
+      if (!PrecompiledMetadata.class.isAssignableFrom(generated)) {
+        return null;
+      }
+      PrecompiledMetadata metadata =
+          (PrecompiledMetadata) generated.getConstructor().newInstance();
+      // 接口在生成之后被修改过时，回退到运行时解析
+      final Method[] methods = metadata.dispatchOrder();
+      return methods.length == countMethods(type)
+          && metadata.fingerprint() == fingerprint(type, methods) ? metadata : null;
+    } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static int countMethods(Class<?> type) {
+    final Set<List<Object>> signatures = new HashSet<>();
+    for (Method method : type.getMethods()) {
+      if (method.getDeclaringClass() != Object.class && !Modifier.isStatic(method.getModifiers())) {
+        signatures.add(Arrays.asList(method.getName(), Arrays.asList(method.getParameterTypes())));
+      }
+    }
+    return signatures.size();
+  }
+
+  /**
+   * FNV-1a hash of the signatures of {@code methods} and of the annotation values
+   * {@link Contract.Default} reads from them and from {@code type}. The annotation processor hashes
+   * the same declarations from the source, so metadata generated before a request line, header or
+   * parameter changed is not used.
+   */
+  static long fingerprint(Class<?> type, Method[] methods) {
+    final StringBuilder declarations = new StringBuilder();
+    for (Class<?> parent : type.getInterfaces()) {
+      headers(parent.getAnnotation(Headers.class), declarations);
+    }
+    headers(type.getAnnotation(Headers.class), declarations);
+    for (Method method : methods) {
+      append(declarations, method.getName(), typeName(method.getGenericReturnType()));
+      final RequestLine requestLine = method.getAnnotation(RequestLine.class);
+      if (requestLine != null) {
+        append(declarations, "@RequestLine", requestLine.value(),
+            String.valueOf(requestLine.decodeSlash()), requestLine.collectionFormat().name());
+      }
+      final Body body = method.getAnnotation(Body.class);
+      if (body != null) {
+        append(declarations, "@Body", body.value());
+      }
+      headers(method.getAnnotation(Headers.class), declarations);
+      final Type[] parameterTypes = method.getGenericParameterTypes();
+      final Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+      for (int i = 0; i < parameterTypes.length; i++) {
+        append(declarations, typeName(parameterTypes[i]));
+        for (Annotation annotation : parameterAnnotations[i]) {
+          if (annotation instanceof Param) {
+            final Param param = (Param) annotation;
+            append(declarations, "@Param", param.value(), param.expander().getName());
+          } else if (annotation instanceof QueryMap) {
+            append(declarations, "@QueryMap",
+                String.valueOf(((QueryMap) annotation).encoded()));
+          } else if (annotation instanceof HeaderMap) {
+            append(declarations, "@HeaderMap");
+          }
+        }
+      }
+    }
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < declarations.length(); i++) {
+      hash = (hash ^ declarations.charAt(i)) * 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  private static void headers(Headers headers, StringBuilder declarations) {
+    if (headers != null) {
+      append(declarations, "@Headers");
+      append(declarations, headers.value());
+    }
+  }
+
+  private static void append(StringBuilder declarations, String... values) {
+    for (String value : values) {
+      declarations.append(value).append('\0');
+    }
+  }
+
+  /**
+   * Binary names with type arguments, the way the annotation processor writes them.
+   */
+  private static String typeName(Type type) {
+    if (type instanceof Class) {
+      final Class<?> raw = (Class<?>) type;
+      return raw.isArray() ? typeName(raw.getComponentType()) + "[]" : raw.getName();
+    }
+    if (type instanceof ParameterizedType) {
+      final ParameterizedType parameterized = (ParameterizedType) type;
+      final StringBuilder name = new StringBuilder(typeName(parameterized.getRawType()));
+      final Type[] arguments = parameterized.getActualTypeArguments();
+      for (int i = 0; i < arguments.length; i++) {
+        name.append(i == 0 ? '<' : ',').append(typeName(arguments[i]));
+      }
+      return name.append('>').toString();
+    }
+    if (type instanceof GenericArrayType) {
+      return typeName(((GenericArrayType) type).getGenericComponentType()) + "[]";
+    }
+    if (type instanceof WildcardType) {
+      final WildcardType wildcard = (WildcardType) type;
+      if (wildcard.getLowerBounds().length > 0) {
+        return "? super " + typeName(wildcard.getLowerBounds()[0]);
+      }
+      final Type upperBound = wildcard.getUpperBounds()[0];
+      return upperBound == Object.class ? "?" : "? extends " + typeName(upperBound);
+    }
+    return type.getTypeName();
+  }
+
+  protected static Method method(Class<?> type, String name, Class<?>... parameterTypes) {
+    try {
+      return type.getMethod(name, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("Precompiled metadata out of date for " + type, e);
+    }
+  }
+
+  protected static Type parameterized(Class<?> rawType, Type... typeArguments) {
+    return new Types.ParameterizedTypeImpl(rawType.getEnclosingClass(), rawType, typeArguments);
+  }
+
+  protected static Type arrayOf(Type componentType) {
+    return new Types.GenericArrayTypeImpl(componentType);
+  }
+
+  protected static Type subtypeOf(Type upperBound) {
+    return new Types.WildcardTypeImpl(new Type[] {upperBound}, new Type[0]);
+  }
+
+  protected static Type supertypeOf(Type lowerBound) {
+    return new Types.WildcardTypeImpl(new Type[] {Object.class}, new Type[] {lowerBound});
+  }
+
+  protected static MethodMetadata metadata(Class<?> targetType,
+                                           Method method,
+                                           Type returnType,
+                                           String configKey) {
+    return new MethodMetadata()
+        .targetType(targetType)
+        .method(method)
+        .returnType(returnType)
+        .configKey(configKey);
+  }
+
+  /**
+   * {@link Headers} on the target interface or the interface it extends.
+   */
+  protected static void classHeaders(MethodMetadata data, String... headersOnType) {
+    checkState(headersOnType.length > 0, "Headers annotation was empty on type %s.",
+        data.configKey());
+    final Map<String, Collection<String>> headers = Contract.Default.toMap(headersOnType);
+    headers.putAll(data.template().headers());
+    data.template().headers(null); // to clear
+    data.template().headers(headers);
+  }
+
+  /**
+   * {@link RequestLine}, split into method and uri at compile time.
+   */
+  protected static void requestLine(MethodMetadata data,
+                                    HttpMethod method,
+                                    String uri,
+                                    boolean decodeSlash,
+                                    CollectionFormat collectionFormat) {
+    data.template().method(method);
+    data.template().uri(uri);
+    data.template().decodeSlash(decodeSlash);
+    data.template().collectionFormat(collectionFormat);
+  }
+
+  protected static void body(MethodMetadata data, String body) {
+    checkState(emptyToNull(body) != null, "Body annotation was empty on method %s.",
+        data.configKey());
+    if (body.indexOf('{') == -1) {
+      data.template().body(body);
+    } else {
+      data.template().bodyTemplate(body);
+    }
+  }
+
+  protected static void methodHeaders(MethodMetadata data, String... headersOnMethod) {
+    checkState(headersOnMethod.length > 0, "Headers annotation was empty on method %s.",
+        data.configKey());
+    data.template().headers(Contract.Default.toMap(headersOnMethod));
+  }
+
+  /**
+   * {@link Param}, with {@code expander} left {@code null} for {@link Param.ToStringExpander}.
+   */
+  protected static void param(MethodMetadata data,
+                              int paramIndex,
+                              String name,
+                              Class<? extends Expander> expander) {
+    checkState(emptyToNull(name) != null, "Param annotation was empty on param %s.", paramIndex);
+    final Collection<String> names = data.indexToName().computeIfAbsent(paramIndex,
+        i -> new ArrayList<>());
+    names.add(name);
+    if (expander != null) {
+      data.indexToExpanderClass().put(paramIndex, expander);
+    }
+    if (!data.template().hasRequestVariable(name)) {
+      data.formParams().add(name);
+    }
+  }
+
+  protected static void queryMap(MethodMetadata data, int paramIndex, boolean encoded) {
+    checkState(data.queryMapIndex() == null,
+        "QueryMap annotation was present on multiple parameters.");
+    data.queryMapIndex(paramIndex);
+    data.queryMapEncoded(encoded);
+  }
+
+  protected static void headerMap(MethodMetadata data, int paramIndex) {
+    checkState(data.headerMapIndex() == null,
+        "HeaderMap annotation was present on multiple parameters.");
+    data.headerMapIndex(paramIndex);
+  }
+
+  /**
+   * A parameter that is neither annotated, an {@link java.net.URI} nor {@link Request.Options}.
+   */
+  protected static void bodyParam(MethodMetadata data, int paramIndex, Type bodyType) {
+    checkState(data.formParams().isEmpty(),
+        "Body parameters cannot be used with form parameters.%s", data.warnings());
+    checkState(data.bodyIndex() == null,
+        "Method has too many Body parameters: %s%s", data.method(), data.warnings());
+    data.bodyIndex(paramIndex);
+    data.bodyType(bodyType);
+  }
+
+  /**
+   * A parameter consumed by an annotation, that is not an {@link java.net.URI}.
+   */
+  protected static void annotatedParam(MethodMetadata data) {
+    checkState(data.formParams().isEmpty() || data.bodyIndex() == null,
+        "Body parameters cannot be used with form parameters.%s", data.warnings());
+  }
+}
@@ -14,6 +14,7 @@
 package feign;
 
 import java.lang.reflect.*;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -28,11 +29,14 @@ public class ReflectiveAsyncFeign<C> extends AsyncFeign<C> {
     private final Class<T> type;
     private final T instance;
     private final C context;
+    private final Map<Method, RequestCollapser<Object, Object>> collapsers;
 
     AsyncFeignInvocationHandler(Class<T> type, T instance, C context) {
       this.type = type;
       this.instance = instance;
       this.context = context;
+      this.collapsers = collapsing != null ? collapsing.collapsers(type, this::dispatch)
+          : Collections.emptyMap();
     }
 
     @Override
@@ -52,6 +56,14 @@ public class ReflectiveAsyncFeign<C> extends AsyncFeign<C> {
         return toString();
       }
 
+      final RequestCollapser<Object, Object> collapser = collapsers.get(method);
+      if (collapser != null) {
+        return CollapsingCapability.invoke(method, collapser, args);
+      }
+      return dispatch(method, args);
+    }
+
+    private Object dispatch(Method method, Object[] args) throws Throwable {
       final MethodInfo methodInfo =
           methodInfoLookup.computeIfAbsent(method, m -> new MethodInfo(type, m));
 
@@ -36,12 +36,19 @@ public class ReflectiveFeign extends Feign {
     private final ParseHandlersByName targetToHandlersByName;
     private final InvocationHandlerFactory factory;
     private final QueryMapEncoder queryMapEncoder;
+    private final boolean generatedDispatch;
 
     ReflectiveFeign(ParseHandlersByName targetToHandlersByName, InvocationHandlerFactory factory,
                     QueryMapEncoder queryMapEncoder) {
+        this(targetToHandlersByName, factory, queryMapEncoder, false);
+    }
+
+    ReflectiveFeign(ParseHandlersByName targetToHandlersByName, InvocationHandlerFactory factory,
+                    QueryMapEncoder queryMapEncoder, boolean generatedDispatch) {
         this.targetToHandlersByName = targetToHandlersByName;
         this.factory = factory;
         this.queryMapEncoder = queryMapEncoder;
+        this.generatedDispatch = generatedDispatch;
     }
 
     /**
@@ -73,11 +80,18 @@ public class ReflectiveFeign extends Feign {
             }
         }
 
-        // 工厂创建InvocationHandler
-        InvocationHandler handler = factory.create(target, methodToHandler);
-        // 创建代理
-        T proxy = (T) Proxy.newProxyInstance(target.type().getClassLoader(),
-                new Class<?>[]{target.type()}, handler);
+        T proxy = null;
+        // 默认的InvocationHandler才能由生成的实现类替代，自定义的工厂仍然走Proxy
+        if (generatedDispatch && factory instanceof InvocationHandlerFactory.Default) {
+            proxy = DispatchGenerator.newInstance(target, methodToHandler);
+        }
+        if (proxy == null) {
+            // 工厂创建InvocationHandler
+            InvocationHandler handler = factory.create(target, methodToHandler);
+            // 创建代理
+            proxy = (T) Proxy.newProxyInstance(target.type().getClassLoader(),
+                    new Class<?>[]{target.type()}, handler);
+        }
 
         for (DefaultMethodHandler defaultMethodHandler : defaultMethodHandlers) {
             // 将接口默认方法绑定到代理类上
@@ -169,7 +183,8 @@ public class ReflectiveFeign extends Feign {
 
         public Map<String, MethodHandler> apply(Target target) {
             // Force-Spring 重点：Spring MVC 注解SpringMvcContract的解析入口
-            List<MethodMetadata> metadata = contract.parseAndValidateMetadata(target.type());
+            List<MethodMetadata> metadata =
+                    MetadataCache.parseAndValidateMetadata(contract, target.type());
             // 名称与方法处理器到映射
             Map<String, MethodHandler> result = new LinkedHashMap<String, MethodHandler>();
             for (MethodMetadata md : metadata) {
@@ -204,6 +219,14 @@ public class ReflectiveFeign extends Feign {
         protected final MethodMetadata metadata;
         protected final Target<?> target;
         private final Map<Integer, Expander> indexToExpander = new LinkedHashMap<Integer, Expander>();
+        // 变量名与槽位的映射，仅在构建时使用
+        protected final Map<String, Integer> nameToSlot = new LinkedHashMap<String, Integer>();
+        // 参数下标、对应的槽位及Expander，按indexToName的顺序排列
+        private final int[] argIndexes;
+        private final int[][] argSlots;
+        private final Expander[] argExpanders;
+        // 预编译的模板，解析时无需复制模板和构建变量Map
+        private final RequestTemplate.Plan plan;
 
         private BuildTemplateByResolvingArgs(MethodMetadata metadata, QueryMapEncoder queryMapEncoder,
                                              Target target) {
@@ -212,53 +235,73 @@ public class ReflectiveFeign extends Feign {
             this.queryMapEncoder = queryMapEncoder;
             if (metadata.indexToExpander() != null) {
                 indexToExpander.putAll(metadata.indexToExpander());
-                return;
-            }
-            if (metadata.indexToExpanderClass().isEmpty()) {
-                return;
+            } else {
+                for (Entry<Integer, Class<? extends Expander>> indexToExpanderClass : metadata
+                        .indexToExpanderClass().entrySet()) {
+                    try {
+                        indexToExpander
+                                .put(indexToExpanderClass.getKey(), indexToExpanderClass.getValue().newInstance());
+                    } catch (InstantiationException e) {
+                        throw new IllegalStateException(e);
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
             }
-            for (Entry<Integer, Class<? extends Expander>> indexToExpanderClass : metadata
-                    .indexToExpanderClass().entrySet()) {
-                try {
-                    indexToExpander
-                            .put(indexToExpanderClass.getKey(), indexToExpanderClass.getValue().newInstance());
-                } catch (InstantiationException e) {
-                    throw new IllegalStateException(e);
-                } catch (IllegalAccessException e) {
-                    throw new IllegalStateException(e);
+
+            int size = metadata.indexToName().size();
+            this.argIndexes = new int[size];
+            this.argSlots = new int[size][];
+            this.argExpanders = new Expander[size];
+            int arg = 0;
+            for (Entry<Integer, Collection<String>> entry : metadata.indexToName().entrySet()) {
+                int[] slots = new int[entry.getValue().size()];
+                int i = 0;
+                for (String name : entry.getValue()) {
+                    Integer slot = nameToSlot.get(name);
+                    if (slot == null) {
+                        slot = nameToSlot.size();
+                        nameToSlot.put(name, slot);
+                    }
+                    slots[i++] = slot;
                 }
+                argIndexes[arg] = entry.getKey();
+                argSlots[arg] = slots;
+                argExpanders[arg] = indexToExpander.get(entry.getKey());
+                arg++;
             }
+            this.plan = metadata.template().compile(nameToSlot);
         }
 
         @Override
         public RequestTemplate create(Object[] argv) {
-            // 复制一份
-            RequestTemplate mutable = RequestTemplate.from(metadata.template());
-            mutable.feignTarget(target);
-            if (metadata.urlIndex() != null) {
-                int urlIndex = metadata.urlIndex();
-                checkArgument(argv[urlIndex] != null, "URI parameter %s was null", urlIndex);
-                // 获取uri
-                mutable.target(String.valueOf(argv[urlIndex]));
-            }
-            Map<String, Object> varBuilder = new LinkedHashMap<String, Object>();
-            for (Entry<Integer, Collection<String>> entry : metadata.indexToName().entrySet()) {
-                int i = entry.getKey();
-                Object value = argv[entry.getKey()];
+            // 按槽位收集变量值
+            Object[] variables = new Object[nameToSlot.size()];
+            for (int i = 0; i < argIndexes.length; i++) {
+                Object value = argv[argIndexes[i]];
                 if (value != null) { // Null values are skipped.
                     // 存在拓展Expander
-                    if (indexToExpander.containsKey(i)) {
+                    if (argExpanders[i] != null) {
                         // 参数转换
-                        value = expandElements(indexToExpander.get(i), value);
+                        value = expandElements(argExpanders[i], value);
                     }
-                    for (String name : entry.getValue()) {
-                        varBuilder.put(name, value);
+                    for (int slot : argSlots[i]) {
+                        variables[slot] = value;
                     }
                 }
             }
 
             // 解析
-            RequestTemplate template = resolve(argv, mutable, varBuilder);
+            RequestTemplate template = plan.resolve(variables);
+            template.feignTarget(target);
+            if (metadata.urlIndex() != null) {
+                int urlIndex = metadata.urlIndex();
+                checkArgument(argv[urlIndex] != null, "URI parameter %s was null", urlIndex);
+                // 获取uri
+                template.target(String.valueOf(argv[urlIndex]));
+            }
+
+            template = encode(argv, variables, template);
             // 存在@QueryMap
             if (metadata.queryMapIndex() != null) {
                 // 在初始解析后添加查询映射参数，以便它们优先于任何预定义值
@@ -357,41 +400,54 @@ public class ReflectiveFeign extends Feign {
             return mutable;
         }
 
-        protected RequestTemplate resolve(Object[] argv,
-                                          RequestTemplate mutable,
-                                          Map<String, Object> variables) {
-            return mutable.resolve(variables);
+        protected RequestTemplate encode(Object[] argv,
+                                         Object[] variables,
+                                         RequestTemplate resolved) {
+            return resolved;
         }
     }
 
     private static class BuildFormEncodedTemplateFromArgs extends BuildTemplateByResolvingArgs {
 
         private final Encoder encoder;
+        private final String[] formNames;
+        private final int[] formSlots;
 
         private BuildFormEncodedTemplateFromArgs(MethodMetadata metadata, Encoder encoder,
                                                  QueryMapEncoder queryMapEncoder, Target target) {
             super(metadata, queryMapEncoder, target);
             this.encoder = encoder;
+            List<String> names = new ArrayList<String>();
+            for (String name : nameToSlot.keySet()) {
+                if (metadata.formParams().contains(name)) {
+                    names.add(name);
+                }
+            }
+            this.formNames = names.toArray(new String[0]);
+            this.formSlots = new int[formNames.length];
+            for (int i = 0; i < formNames.length; i++) {
+                formSlots[i] = nameToSlot.get(formNames[i]);
+            }
         }
 
         @Override
-        protected RequestTemplate resolve(Object[] argv,
-                                          RequestTemplate mutable,
-                                          Map<String, Object> variables) {
-            Map<String, Object> formVariables = new LinkedHashMap<String, Object>();
-            for (Entry<String, Object> entry : variables.entrySet()) {
-                if (metadata.formParams().contains(entry.getKey())) {
-                    formVariables.put(entry.getKey(), entry.getValue());
+        protected RequestTemplate encode(Object[] argv,
+                                         Object[] variables,
+                                         RequestTemplate resolved) {
+            Map<String, Object> formVariables = new LinkedHashMap<String, Object>(formNames.length * 2);
+            for (int i = 0; i < formNames.length; i++) {
+                if (variables[formSlots[i]] != null) {
+                    formVariables.put(formNames[i], variables[formSlots[i]]);
                 }
             }
             try {
-                encoder.encode(formVariables, Encoder.MAP_STRING_WILDCARD, mutable);
+                encoder.encode(formVariables, Encoder.MAP_STRING_WILDCARD, resolved);
             } catch (EncodeException e) {
                 throw e;
             } catch (RuntimeException e) {
                 throw new EncodeException(e.getMessage(), e);
             }
-            return super.resolve(argv, mutable, variables);
+            return super.encode(argv, variables, resolved);
         }
     }
 
@@ -406,19 +462,19 @@ public class ReflectiveFeign extends Feign {
         }
 
         @Override
-        protected RequestTemplate resolve(Object[] argv,
-                                          RequestTemplate mutable,
-                                          Map<String, Object> variables) {
+        protected RequestTemplate encode(Object[] argv,
+                                         Object[] variables,
+                                         RequestTemplate resolved) {
             Object body = argv[metadata.bodyIndex()];
             checkArgument(body != null, "Body parameter %s was null", metadata.bodyIndex());
             try {
-                encoder.encode(body, metadata.bodyType(), mutable);
+                encoder.encode(body, metadata.bodyType(), resolved);
             } catch (EncodeException e) {
                 throw e;
             } catch (RuntimeException e) {
                 throw new EncodeException(e.getMessage(), e);
             }
-            return super.resolve(argv, mutable, variables);
+            return super.encode(argv, variables, resolved);
         }
     }
 }
@@ -13,6 +13,10 @@
  */
 package feign;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
 import java.nio.charset.Charset;
 import java.util.Collection;
@@ -182,12 +186,35 @@ public final class Request {
 
   /**
    * If present, this is the replayable body to send to the server. In some cases, this may be
-   * interpretable as text.
+   * interpretable as text. A {@link #isStreaming() streaming} body is buffered on first access.
    *
    * @see #charset()
    */
   public byte[] body() {
-    return body.data;
+    return body.asBytes();
+  }
+
+  /**
+   * If the body is produced by a {@link Body.Writer} and has not been buffered yet. Clients that
+   * can write to the transport directly should prefer {@link #writeBody(OutputStream)} over
+   * {@link #body()} in this case.
+   *
+   * @return {@literal true} if the body is streamed.
+   */
+  public boolean isStreaming() {
+    return body != null && body.isStreaming();
+  }
+
+  /**
+   * Writes the body to the stream provided, without an intermediate copy when it is streamed.
+   *
+   * @param out to write the body to, will not be closed.
+   * @throws IOException if the body could not be written.
+   */
+  public void writeBody(OutputStream out) throws IOException {
+    if (body != null) {
+      body.writeTo(out);
+    }
   }
 
   public boolean isBinary() {
@@ -197,7 +224,7 @@ public final class Request {
   /**
    * Request Length.
    *
-   * @return size of the request body.
+   * @return size of the request body, {@literal -1} if it is streamed and the length is unknown.
    */
   public int length() {
     return this.body.length();
@@ -378,6 +405,8 @@ public final class Request {
 
     private Charset encoding;
     private byte[] data;
+    private Writer writer;
+    private int length;
 
     private Body() {
       super();
@@ -392,27 +421,68 @@ public final class Request {
       this.encoding = encoding;
     }
 
+    private Body(Writer writer, int length, Charset encoding) {
+      this.writer = writer;
+      this.length = length;
+      this.encoding = encoding;
+    }
+
     public Optional<Charset> getEncoding() {
       return Optional.ofNullable(this.encoding);
     }
 
     public int length() {
       /* calculate the content length based on the data provided */
-      return data != null ? data.length : 0;
+      if (data != null) {
+        return data.length;
+      }
+      return writer != null ? length : 0;
     }
 
     public byte[] asBytes() {
+      if (data == null && writer != null) {
+        /* buffer once, so loggers and clients that need the bytes do not serialize again */
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(length > 0 ? length : 256);
+        try {
+          writer.writeTo(buffer);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        data = buffer.toByteArray();
+      }
       return data;
     }
 
+    /**
+     * Writes this body to the stream provided. Streamed bodies are written straight from their
+     * {@link Writer}, other bodies write their data.
+     *
+     * @param out to write to, will not be closed.
+     * @throws IOException if the body could not be written.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+      if (data != null) {
+        out.write(data);
+      } else if (writer != null) {
+        writer.writeTo(out);
+      }
+    }
+
+    public boolean isStreaming() {
+      return data == null && writer != null;
+    }
+
     public String asString() {
+      if (isStreaming()) {
+        return "Streaming data";
+      }
       return !isBinary()
           ? new String(data, encoding)
           : "Binary data";
     }
 
     public boolean isBinary() {
-      return encoding == null || data == null;
+      return encoding == null || (data == null && writer == null);
     }
 
     public static Body create(String data) {
@@ -431,6 +501,18 @@ public final class Request {
       return new Body(data, charset);
     }
 
+    /**
+     * Creates a new Request Body that is written directly to the transport.
+     *
+     * @param writer that produces the body, must be repeatable so the request can be retried.
+     * @param length of the body in bytes, or {@literal -1} if unknown.
+     * @param charset of the body, if {@literal null} then the body is considered binary.
+     * @return a new streaming Request.Body instance.
+     */
+    public static Body create(Writer writer, int length, Charset charset) {
+      return new Body(checkNotNull(writer, "writer"), length, charset);
+    }
+
     /**
      * Creates a new Request Body with charset encoded data.
      *
@@ -450,5 +532,20 @@ public final class Request {
       return new Body();
     }
 
+    /**
+     * Produces the body directly into the transport's output stream.
+     */
+    @FunctionalInterface
+    public interface Writer {
+
+      /**
+       * Writes the body. May be invoked more than once when a request is retried.
+       *
+       * @param out to write to, must not be closed.
+       * @throws IOException if the body could not be written.
+       */
+      void writeTo(OutputStream out) throws IOException;
+    }
+
   }
 }
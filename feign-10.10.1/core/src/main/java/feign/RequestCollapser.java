@@ -0,0 +1,274 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Buffers single-key calls for up to a window, or until {@code maxBatchSize} distinct keys are
+ * waiting, then makes one {@link BatchCall} for all of them and completes each caller with the
+ * value of its key. Callers asking for the same key in a window share one slot of the batch; keys
+ * missing from the result complete with {@code null}.
+ *
+ * <p>
+ * {@link #execute(Object)} is for blocking callers: the first caller of a batch waits for the
+ * window and makes the batch call on its own thread. {@link #submit(Object)} is for asynchronous
+ * callers: the batch call is made on the scheduler when the window expires, so it must not block.
+ * A collapser should be used through one of the two only.
+ *
+ * @see CollapsingCapability
+ */
+@Experimental
+public final class RequestCollapser<K, V> {
+
+  private final BatchCall<K, V> batchCall;
+  private final long windowNanos;
+  private final int maxBatchSize;
+  private final ScheduledExecutorService scheduler;
+  private final Object lock = new Object();
+  private final LongAdder calls;
+  private final LongAdder batches;
+  private final LongAdder batchedKeys;
+  private Batch current;
+
+  /**
+   * @param scheduler where {@link #submit(Object) submitted} batches are called once their window
+   *        expires; unused by {@link #execute(Object)}.
+   */
+  public RequestCollapser(BatchCall<K, V> batchCall, long window, TimeUnit unit, int maxBatchSize,
+      ScheduledExecutorService scheduler) {
+    this(batchCall, window, unit, maxBatchSize, scheduler, new LongAdder(), new LongAdder(),
+        new LongAdder());
+  }
+
+  /**
+   * Counts into the given adders, which may be shared with other collapsers.
+   */
+  RequestCollapser(BatchCall<K, V> batchCall, long window, TimeUnit unit, int maxBatchSize,
+      ScheduledExecutorService scheduler, LongAdder calls, LongAdder batches,
+      LongAdder batchedKeys) {
+    this.calls = calls;
+    this.batches = batches;
+    this.batchedKeys = batchedKeys;
+    checkArgument(window >= 0, "window must not be negative");
+    checkArgument(maxBatchSize > 0, "maxBatchSize must be positive");
+    this.batchCall = checkNotNull(batchCall, "batchCall");
+    this.windowNanos = unit.toNanos(window);
+    this.maxBatchSize = maxBatchSize;
+    this.scheduler = checkNotNull(scheduler, "scheduler");
+  }
+
+  /**
+   * Adds {@code key} to the current batch and blocks until the batch answered.
+   *
+   * @throws Throwable what the batch call failed with.
+   */
+  public V execute(K key) throws Throwable {
+    final Batch batch;
+    final CompletableFuture<V> result;
+    final boolean leader;
+    synchronized (lock) {
+      leader = current == null;
+      if (leader) {
+        current = new Batch();
+      }
+      batch = current;
+      result = batch.add(key);
+      if (batch.size() >= maxBatchSize) {
+        current = null;
+        lock.notifyAll();
+      }
+    }
+    calls.increment();
+    if (leader) {
+      awaitWindow(batch);
+      flush(batch);
+    }
+    try {
+      return result.get();
+    } catch (ExecutionException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Adds {@code key} to the current batch.
+   *
+   * @return the value of {@code key}, completed once the batch answered.
+   */
+  public CompletableFuture<V> submit(K key) {
+    final Batch batch;
+    final CompletableFuture<V> result;
+    final boolean first;
+    boolean full = false;
+    synchronized (lock) {
+      first = current == null;
+      if (first) {
+        current = new Batch();
+      }
+      batch = current;
+      result = batch.add(key);
+      if (batch.size() >= maxBatchSize) {
+        current = null;
+        full = true;
+      }
+    }
+    calls.increment();
+    if (full) {
+      flush(batch);
+    } else if (first) {
+      try {
+        scheduler.schedule(() -> {
+          close(batch);
+          flush(batch);
+        }, windowNanos, NANOSECONDS);
+      } catch (RejectedExecutionException e) {
+        close(batch);
+        flush(batch);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Calls collapsed since the collapser was created.
+   */
+  public long callCount() {
+    return calls.sum();
+  }
+
+  /**
+   * Batch calls made since the collapser was created.
+   */
+  public long batchCount() {
+    return batches.sum();
+  }
+
+  /**
+   * Distinct keys sent in batch calls since the collapser was created; divided by
+   * {@link #batchCount()} it gives the average batch size.
+   */
+  public long batchedKeyCount() {
+    return batchedKeys.sum();
+  }
+
+  /**
+   * Waits until the window expired or the batch is full, and closes it. An interrupted leader still
+   * closes the batch, as the others wait on its call.
+   */
+  private void awaitWindow(Batch batch) {
+    final long deadline = System.nanoTime() + windowNanos;
+    boolean interrupted = false;
+    synchronized (lock) {
+      long remaining = windowNanos;
+      while (current == batch && remaining > 0 && !interrupted) {
+        try {
+          NANOSECONDS.timedWait(lock, remaining);
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+        remaining = deadline - System.nanoTime();
+      }
+      if (current == batch) {
+        current = null;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void close(Batch batch) {
+    synchronized (lock) {
+      if (current == batch) {
+        current = null;
+      }
+    }
+  }
+
+  private void flush(Batch batch) {
+    // 窗口到期与批次满员可能同时触发，只有一方发出批量调用
+    if (!batch.flushed.compareAndSet(false, true)) {
+      return;
+    }
+    final List<K> keys = new ArrayList<>(batch.results.keySet());
+    batches.increment();
+    batchedKeys.add(keys.size());
+    final CompletableFuture<Map<K, V>> values;
+    try {
+      values = checkNotNull(batchCall.call(keys), "batch call result");
+    } catch (Throwable e) {
+      batch.fail(e);
+      return;
+    }
+    values.whenComplete((byKey, error) -> {
+      if (error != null) {
+        batch.fail(error);
+      } else {
+        batch.complete(byKey);
+      }
+    });
+  }
+
+  /**
+   * The call made for a whole batch.
+   */
+  @FunctionalInterface
+  public interface BatchCall<K, V> {
+
+    /**
+     * @param keys the distinct keys of the batch, in the order they were first asked.
+     * @return the values by key, completed once the call answered.
+     */
+    CompletableFuture<Map<K, V>> call(List<K> keys) throws Throwable;
+  }
+
+  private final class Batch {
+
+    final Map<K, CompletableFuture<V>> results = new LinkedHashMap<>();
+    final AtomicBoolean flushed = new AtomicBoolean();
+
+    /**
+     * Guarded by {@link RequestCollapser#lock} until the batch is closed.
+     */
+    CompletableFuture<V> add(K key) {
+      return results.computeIfAbsent(key, k -> new CompletableFuture<>());
+    }
+
+    int size() {
+      return results.size();
+    }
+
+    void complete(Map<K, V> byKey) {
+      results.forEach((key, result) -> result.complete(byKey != null ? byKey.get(key) : null));
+    }
+
+    void fail(Throwable error) {
+      results.values().forEach(result -> result.completeExceptionally(error));
+    }
+  }
+}
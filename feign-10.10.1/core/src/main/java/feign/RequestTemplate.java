@@ -167,89 +167,34 @@ public final class RequestTemplate implements Serializable {
      * @return a new Request Template with all of the variables resolved.
      */
     public RequestTemplate resolve(Map<String, ?> variables) {
-
-        StringBuilder uri = new StringBuilder();
-
-        /* create a new template form this one, but explicitly */
-        RequestTemplate resolved = RequestTemplate.from(this);
-
+        if (variables == null) {
+            throw new IllegalArgumentException("variable map is required.");
+        }
         if (this.uriTemplate == null) {
             /* create a new uri template using the default root */
             this.uriTemplate = UriTemplate.create("", !this.decodeSlash, this.charset);
         }
 
-        String expanded = this.uriTemplate.expand(variables);
-        if (expanded != null) {
-            uri.append(expanded);
-        }
-
-        /*
-         * for simplicity, combine the queries into the uri and use the resulting uri to seed the
-         * resolved template.
-         */
-        if (!this.queries.isEmpty()) {
-            /*
-             * since we only want to keep resolved query values, reset any queries on the resolved copy
-             */
-            resolved.queries(Collections.emptyMap());
-            StringBuilder query = new StringBuilder();
-            Iterator<QueryTemplate> queryTemplates = this.queries.values().iterator();
-
-            while (queryTemplates.hasNext()) {
-                QueryTemplate queryTemplate = queryTemplates.next();
-                String queryExpanded = queryTemplate.expand(variables);
-                if (Util.isNotBlank(queryExpanded)) {
-                    query.append(queryExpanded);
-                    if (queryTemplates.hasNext()) {
-                        query.append("&");
-                    }
-                }
-            }
-
-            String queryString = query.toString();
-            if (!queryString.isEmpty()) {
-                Matcher queryMatcher = QUERY_STRING_PATTERN.matcher(uri);
-                if (queryMatcher.find()) {
-                    /* the uri already has a query, so any additional queries should be appended */
-                    uri.append("&");
-                } else {
-                    uri.append("?");
-                }
-                uri.append(queryString);
-            }
-        }
-
-        /* add the uri to result */
-        resolved.uri(uri.toString());
-
-        /* headers */
-        if (!this.headers.isEmpty()) {
-            /*
-             * same as the query string, we only want to keep resolved values, so clear the header map on
-             * the resolved instance
-             */
-            resolved.headers(Collections.emptyMap());
-            for (HeaderTemplate headerTemplate : this.headers.values()) {
-                /* resolve the header */
-                String header = headerTemplate.expand(variables);
-                if (!header.isEmpty()) {
-                    /* split off the header values and add it to the resolved template */
-                    String headerValues = header.substring(header.indexOf(" ") + 1);
-                    if (!headerValues.isEmpty()) {
-                        /* append the header as a new literal as the value has already been expanded. */
-                        resolved.header(headerTemplate.getName(), Literal.create(headerValues));
-                    }
-                }
-            }
-        }
-
-        if (this.bodyTemplate != null) {
-            resolved.body(this.bodyTemplate.expand(variables));
+        /* assign each variable a slot and resolve through a plan compiled for this call */
+        Map<String, Integer> slots = new HashMap<>();
+        Object[] values = new Object[variables.size()];
+        for (Entry<String, ?> variable : variables.entrySet()) {
+            values[slots.size()] = variable.getValue();
+            slots.put(variable.getKey(), slots.size());
         }
+        return this.compile(slots).resolve(values);
+    }
 
-        /* mark the new template resolved */
-        resolved.resolved = true;
-        return resolved;
+    /**
+     * Compile this template into a {@link Plan} that resolves expressions from positional values. The
+     * uri, query, header and body templates are bound to their slots once, so resolving the plan
+     * requires neither a variable map nor a copy of this template.
+     *
+     * @param slots containing the slot index for each variable name.
+     * @return a Plan for this template.
+     */
+    Plan compile(Map<String, Integer> slots) {
+        return new Plan(this, slots);
     }
 
     /**
@@ -689,6 +634,33 @@ public final class RequestTemplate implements Serializable {
         return Collections.unmodifiableMap(queryMap);
     }
 
+    /**
+     * Return the values of one Query Parameter, without copying the others.
+     *
+     * @param name of the parameter.
+     * @return its values, empty if the parameter is not registered.
+     */
+    @Experimental
+    public Collection<String> queryValues(String name) {
+        QueryTemplate queryTemplate = this.queries.get(name);
+        return queryTemplate != null ? queryTemplate.getValues() : Collections.emptyList();
+    }
+
+    /**
+     * Replace the values of a registered Query Parameter, keeping its position in the query line.
+     * Parameters that are not registered are left absent.
+     *
+     * @param name of the parameter.
+     * @param values for the parameter, may be expressions.
+     * @return a RequestTemplate for chaining.
+     */
+    @Experimental
+    public RequestTemplate replaceQuery(String name, Iterable<String> values) {
+        this.queries.computeIfPresent(name, (key, queryTemplate) -> QueryTemplate.create(name,
+                values, this.charset, this.collectionFormat, this.decodeSlash));
+        return this;
+    }
+
     /**
      * @see RequestTemplate#header(String, Iterable)
      */
@@ -837,6 +809,20 @@ public final class RequestTemplate implements Serializable {
         return this;
     }
 
+    /**
+     * Set a streaming Body for this request. The writer is invoked by the client with the
+     * transport's output stream, so the body is never held in memory as a whole.
+     *
+     * @param writer that produces the body, must be repeatable.
+     * @param length of the body in bytes, or {@literal -1} if unknown.
+     * @param charset of the body, can be null for binary data.
+     * @return a RequestTemplate for chaining.
+     */
+    public RequestTemplate body(Request.Body.Writer writer, int length, Charset charset) {
+        this.body(Request.Body.create(writer, length, charset));
+        return this;
+    }
+
     /**
      * Set the Body for this request.
      *
@@ -881,6 +867,28 @@ public final class RequestTemplate implements Serializable {
         return body.asBytes();
     }
 
+    /**
+     * If the Request Body is written by a {@link Request.Body.Writer} when the request is sent.
+     * {@link #body()} buffers such a body as a whole.
+     *
+     * @return true if the body is streamed.
+     */
+    @Experimental
+    public boolean isStreaming() {
+        return body.isStreaming();
+    }
+
+    /**
+     * The length of the Request Body, read without buffering it: a {@link #isStreaming() streamed}
+     * body reports the length it was declared with.
+     *
+     * @return the body length, 0 if there is no body.
+     */
+    @Experimental
+    public int bodyLength() {
+        return body.length();
+    }
+
     /**
      * The Request.Body internal object.
      *
@@ -1047,6 +1055,126 @@ public final class RequestTemplate implements Serializable {
         return feignTarget;
     }
 
+    /**
+     * A {@link RequestTemplate} compiled against a fixed set of variable slots. Resolving a plan
+     * writes the expanded uri, queries, headers and body straight into a new template.
+     */
+    static final class Plan {
+
+        private final RequestTemplate template;
+        private final UriTemplate uriTemplate;
+        private final int[] uriSlots;
+        private final QueryTemplate[] queries;
+        private final int[][][] querySlots;
+        private final HeaderTemplate[] headers;
+        private final int[][] headerSlots;
+        private final int[] bodySlots;
+
+        private Plan(RequestTemplate template, Map<String, Integer> slots) {
+            this.template = template;
+            this.uriTemplate = (template.uriTemplate != null)
+                    ? template.uriTemplate
+                    : UriTemplate.create("", !template.decodeSlash, template.charset);
+            this.uriSlots = this.uriTemplate.bind(slots);
+
+            this.queries = template.queries.values().toArray(new QueryTemplate[0]);
+            this.querySlots = new int[this.queries.length][][];
+            for (int i = 0; i < this.queries.length; i++) {
+                this.querySlots[i] = this.queries[i].bind(slots);
+            }
+
+            this.headers = template.headers.values().toArray(new HeaderTemplate[0]);
+            this.headerSlots = new int[this.headers.length][];
+            for (int i = 0; i < this.headers.length; i++) {
+                this.headerSlots[i] = this.headers[i].bind(slots);
+            }
+
+            this.bodySlots = (template.bodyTemplate != null) ? template.bodyTemplate.bind(slots) : null;
+        }
+
+        /**
+         * Resolve all expressions using the positional values provided. Variable values will be
+         * pct-encoded, if they are not already.
+         *
+         * @param values containing the variable values, indexed by slot.
+         * @return a new Request Template with all of the variables resolved.
+         */
+        RequestTemplate resolve(Object[] values) {
+            StringBuilder uri = new StringBuilder();
+            String expanded = this.uriTemplate.expand(values, this.uriSlots);
+            if (expanded != null) {
+                uri.append(expanded);
+            }
+
+            /*
+             * for simplicity, combine the queries into the uri and use the resulting uri to seed the
+             * resolved template.
+             */
+            if (this.queries.length > 0) {
+                StringBuilder query = new StringBuilder();
+                for (int i = 0; i < this.queries.length; i++) {
+                    String queryExpanded = this.queries[i].expand(values, this.querySlots[i]);
+                    if (Util.isNotBlank(queryExpanded)) {
+                        query.append(queryExpanded);
+                        if (i < this.queries.length - 1) {
+                            query.append("&");
+                        }
+                    }
+                }
+
+                if (query.length() > 0) {
+                    Matcher queryMatcher = QUERY_STRING_PATTERN.matcher(uri);
+                    if (queryMatcher.find()) {
+                        /* the uri already has a query, so any additional queries should be appended */
+                        uri.append("&");
+                    } else {
+                        uri.append("?");
+                    }
+                    uri.append(query);
+                }
+            }
+
+            /* only resolved queries and headers are kept, so start from an empty template */
+            RequestTemplate resolved = new RequestTemplate(
+                    this.template.target,
+                    this.template.fragment,
+                    this.template.uriTemplate,
+                    this.template.bodyTemplate,
+                    this.template.method,
+                    this.template.charset,
+                    this.template.body,
+                    this.template.decodeSlash,
+                    this.template.collectionFormat,
+                    this.template.methodMetadata,
+                    this.template.feignTarget);
+
+            /* add the uri to result */
+            resolved.uri(uri.toString());
+
+            /* headers */
+            for (int i = 0; i < this.headers.length; i++) {
+                /* resolve the header */
+                String header = this.headers[i].expand(values, this.headerSlots[i]);
+                if (!header.isEmpty()) {
+                    /* split off the header values and add it to the resolved template */
+                    String headerValues = header.substring(header.indexOf(" ") + 1);
+                    if (!headerValues.isEmpty()) {
+                        /* append the header as a new literal as the value has already been expanded. */
+                        resolved.header(this.headers[i].getName(), Literal.create(headerValues));
+                    }
+                }
+            }
+
+            if (this.bodySlots != null) {
+                resolved.body(this.template.bodyTemplate.expand(values, this.bodySlots));
+            }
+
+            /* mark the new template resolved */
+            resolved.resolved = true;
+            return resolved;
+        }
+    }
+
     /**
      * Factory for creating RequestTemplate.
      */
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import static feign.Util.checkArgument;
+
+/**
+ * Caps retries at a share of the calls made recently, so a slow dependency sees at most
+ * {@code 1 + retryRatio} times its normal load instead of one call per attempt. Calls deposit
+ * {@code retryRatio} tokens and retries withdraw one, over a sliding window of
+ * {@code windowSeconds}; {@code minRetriesPerSecond} lets clients with little traffic still retry.
+ *
+ * <p>
+ * A budget is thread safe and meant to be shared by every call to a target, for example by the
+ * clones of a {@link JitteredRetryer}.
+ */
+@Experimental
+public final class RetryBudget {
+
+  private final double retryRatio;
+  private final int minRetriesPerSecond;
+  private final LongSupplier nanoTime;
+  private final AtomicReferenceArray<Window> windows;
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * 20% of the calls of the last 10 seconds, and at least 10 retries a second.
+   */
+  public RetryBudget() {
+    this(0.2, 10, 10);
+  }
+
+  public RetryBudget(double retryRatio, int minRetriesPerSecond, int windowSeconds) {
+    this(retryRatio, minRetriesPerSecond, windowSeconds, System::nanoTime);
+  }
+
+  // visible for testing
+  RetryBudget(double retryRatio, int minRetriesPerSecond, int windowSeconds,
+      LongSupplier nanoTime) {
+    checkArgument(retryRatio >= 0, "retryRatio must not be negative");
+    checkArgument(minRetriesPerSecond >= 0, "minRetriesPerSecond must not be negative");
+    checkArgument(windowSeconds > 0, "windowSeconds must be positive");
+    this.retryRatio = retryRatio;
+    this.minRetriesPerSecond = minRetriesPerSecond;
+    this.nanoTime = nanoTime;
+    this.windows = new AtomicReferenceArray<>(windowSeconds);
+  }
+
+  /**
+   * Records a call, which earns {@code retryRatio} retries for the length of the window.
+   */
+  public void deposit() {
+    window(currentSecond()).calls.incrementAndGet();
+    calls.increment();
+  }
+
+  /**
+   * @return {@code true} and records the retry if the budget allows one more, {@code false}
+   *         otherwise.
+   */
+  public boolean tryWithdraw() {
+    final long second = currentSecond();
+    final Window current = window(second);
+    if (available(second) < 1) {
+      rejected.increment();
+      return false;
+    }
+    current.retries.incrementAndGet();
+    retries.increment();
+    return true;
+  }
+
+  /**
+   * Retries the budget currently allows.
+   */
+  public int availableRetries() {
+    return (int) Math.max(0, Math.floor(available(currentSecond())));
+  }
+
+  /**
+   * Calls recorded since the budget was created.
+   */
+  public long callCount() {
+    return calls.sum();
+  }
+
+  /**
+   * Retries allowed since the budget was created.
+   */
+  public long retryCount() {
+    return retries.sum();
+  }
+
+  /**
+   * Retries refused since the budget was created.
+   */
+  public long rejectedCount() {
+    return rejected.sum();
+  }
+
+  private double available(long second) {
+    long windowCalls = 0;
+    long windowRetries = 0;
+    for (int i = 0; i < windows.length(); i++) {
+      final Window window = windows.get(i);
+      if (window != null && window.second > second - windows.length()) {
+        windowCalls += window.calls.get();
+        windowRetries += window.retries.get();
+      }
+    }
+    return (double) minRetriesPerSecond * windows.length() + windowCalls * retryRatio
+        - windowRetries;
+  }
+
+  private long currentSecond() {
+    return TimeUnit.NANOSECONDS.toSeconds(nanoTime.getAsLong());
+  }
+
+  private Window window(long second) {
+    final int index = (int) Math.floorMod(second, (long) windows.length());
+    Window window = windows.get(index);
+    // 过期的槽位被新的一秒替换，并发替换时以先写入者为准
+    while (window == null || window.second < second) {
+      final Window fresh = new Window(second);
+      if (windows.compareAndSet(index, window, fresh)) {
+        return fresh;
+      }
+      window = windows.get(index);
+    }
+    return window;
+  }
+
+  private static final class Window {
+
+    final long second;
+    final AtomicLong calls = new AtomicLong();
+    final AtomicLong retries = new AtomicLong();
+
+    Window(long second) {
+      this.second = second;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "RetryBudget(retryRatio=" + retryRatio + ", minRetriesPerSecond=" + minRetriesPerSecond
+        + ", windowSeconds=" + windows.length() + ")";
+  }
+}
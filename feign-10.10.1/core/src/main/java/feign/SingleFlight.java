@@ -0,0 +1,39 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Lets a {@link SingleFlightClient} coalesce concurrent identical GET requests of the method: while
+ * one is in flight, the others wait for it and share its buffered response instead of going over
+ * the wire. Only suits methods whose responses are the same for every caller and small enough to
+ * buffer. <br>
+ *
+ * <pre>
+ * &#64;SingleFlight
+ * &#64;RequestLine("GET /config/{key}")
+ * String config(&#64;Param("key") String key);
+ * </pre>
+ */
+@Experimental
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface SingleFlight {
+}
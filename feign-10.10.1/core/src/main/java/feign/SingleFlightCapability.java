@@ -0,0 +1,67 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Wraps the {@link Client} of the clients it is added to in a {@link SingleFlightClient}, for
+ * methods annotated with {@link SingleFlight} or named in {@code methods}.
+ */
+@Experimental
+public class SingleFlightCapability implements Capability {
+
+  private final Predicate<MethodMetadata> coalesced;
+  private final Collection<String> varyHeaders;
+  private final LongAdder coalescedCount = new LongAdder();
+
+  /**
+   * Coalesces methods annotated with {@link SingleFlight} when all their headers match.
+   */
+  public SingleFlightCapability() {
+    this(Collections.emptyList(), Collections.emptyList());
+  }
+
+  /**
+   * @param methods names or {@link MethodMetadata#configKey() config keys} of methods to coalesce
+   *        in addition to the annotated ones.
+   * @param varyHeaders see {@link SingleFlightClient#SingleFlightClient(Client, Predicate,
+   *        Collection)}.
+   */
+  public SingleFlightCapability(Collection<String> methods, Collection<String> varyHeaders) {
+    final Set<String> names = new HashSet<>(methods);
+    this.coalesced = SingleFlightClient.annotated()
+        .or(metadata -> names.contains(metadata.configKey())
+            || metadata.method() != null && names.contains(metadata.method().getName()));
+    this.varyHeaders = varyHeaders;
+  }
+
+  /**
+   * Requests that waited for another instead of being sent, across all clients built with this
+   * capability.
+   */
+  public long coalescedCount() {
+    return coalescedCount.sum();
+  }
+
+  @Override
+  public Client enrich(Client client) {
+    return new SingleFlightClient(client, coalesced, varyHeaders, coalescedCount);
+  }
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import static feign.Util.checkNotNull;
+import static feign.Util.ensureClosed;
+
+/**
+ * Coalesces concurrent identical GET requests: the first goes to the delegate and the others, with
+ * the same url and {@code varyHeaders}, wait for it and get a copy of its response, whose body is
+ * read into memory and shared. A request arriving after the response is back starts a new call.
+ *
+ * <p>
+ * Only methods selected by the predicate are coalesced, by default those annotated with
+ * {@link SingleFlight}. Waiting requests give up after their own connect and read timeouts.
+ */
+@Experimental
+public final class SingleFlightClient implements Client {
+
+  private final Client delegate;
+  private final Predicate<MethodMetadata> coalesced;
+  private final Set<String> varyHeaders;
+  private final ConcurrentHashMap<Key, CompletableFuture<Response>> inFlight =
+      new ConcurrentHashMap<>();
+  private final LongAdder coalescedCount;
+
+  /**
+   * Coalesces methods annotated with {@link SingleFlight} when all their headers match.
+   */
+  public SingleFlightClient(Client delegate) {
+    this(delegate, annotated(), Collections.emptyList());
+  }
+
+  /**
+   * @param coalesced selects the methods to coalesce.
+   * @param varyHeaders names of the headers that must match for requests to be coalesced, or empty
+   *        for all of them. Naming them lets requests carrying per-call headers, such as trace ids,
+   *        be coalesced.
+   */
+  public SingleFlightClient(Client delegate, Predicate<MethodMetadata> coalesced,
+      Collection<String> varyHeaders) {
+    this(delegate, coalesced, varyHeaders, new LongAdder());
+  }
+
+  SingleFlightClient(Client delegate, Predicate<MethodMetadata> coalesced,
+      Collection<String> varyHeaders, LongAdder coalescedCount) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.coalesced = checkNotNull(coalesced, "coalesced");
+    this.varyHeaders = varyHeaders.isEmpty() ? null : lowerCase(varyHeaders);
+    this.coalescedCount = coalescedCount;
+  }
+
+  /**
+   * Selects the methods annotated with {@link SingleFlight}.
+   */
+  public static Predicate<MethodMetadata> annotated() {
+    return metadata -> metadata.method() != null
+        && metadata.method().isAnnotationPresent(SingleFlight.class);
+  }
+
+  /**
+   * Requests that waited for another instead of being sent.
+   */
+  public long coalescedCount() {
+    return coalescedCount.sum();
+  }
+
+  /**
+   * Distinct requests currently in flight.
+   */
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+
+  @Override
+  public Response execute(Request request, Options options) throws IOException {
+    if (request.httpMethod() != HttpMethod.GET || !isCoalesced(request)) {
+      return delegate.execute(request, options);
+    }
+    final Key key = new Key(request.url(), headers(request));
+    final CompletableFuture<Response> call = new CompletableFuture<>();
+    final CompletableFuture<Response> existing = inFlight.putIfAbsent(key, call);
+    if (existing != null) {
+      coalescedCount.increment();
+      return await(existing, request, options);
+    }
+    try {
+      final Response buffered = buffer(delegate.execute(request, options));
+      inFlight.remove(key, call);
+      call.complete(buffered);
+      return buffered;
+    } catch (IOException | RuntimeException | Error e) {
+      inFlight.remove(key, call);
+      call.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private boolean isCoalesced(Request request) {
+    final RequestTemplate template = request.requestTemplate();
+    return template != null && template.methodMetadata() != null
+        && coalesced.test(template.methodMetadata());
+  }
+
+  private Map<String, Collection<String>> headers(Request request) {
+    final Map<String, Collection<String>> headers = new HashMap<>();
+    for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+      final String name = header.getKey().toLowerCase(Locale.ROOT);
+      if (varyHeaders == null || varyHeaders.contains(name)) {
+        headers.put(name, new ArrayList<>(header.getValue()));
+      }
+    }
+    return headers;
+  }
+
+  private static Response buffer(Response response) throws IOException {
+    if (response.body() == null) {
+      return response;
+    }
+    try {
+      return response.toBuilder()
+          .body(Util.toByteArray(response.body().asInputStream()))
+          .build();
+    } finally {
+      ensureClosed(response.body());
+    }
+  }
+
+  private static Response await(CompletableFuture<Response> call, Request request,
+                                Options options)
+      throws IOException {
+    final Response response;
+    try {
+      response = call.get(options.connectTimeoutMillis() + (long) options.readTimeoutMillis(),
+          TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted waiting for " + request.url());
+    } catch (TimeoutException e) {
+      throw new SocketTimeoutException("timed out waiting for " + request.url());
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw new IOException(cause.getMessage(), cause);
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw (RuntimeException) cause;
+    }
+    // 共享同一份已缓冲的 body，仅替换为各自的请求
+    return response.toBuilder().request(request).build();
+  }
+
+  private static Set<String> lowerCase(Collection<String> names) {
+    final Set<String> set = new HashSet<>();
+    for (String name : names) {
+      set.add(name.toLowerCase(Locale.ROOT));
+    }
+    return set;
+  }
+
+  private static final class Key {
+
+    private final String url;
+    private final Map<String, Collection<String>> headers;
+    private final int hashCode;
+
+    Key(String url, Map<String, Collection<String>> headers) {
+      this.url = url;
+      this.headers = headers;
+      this.hashCode = Arrays.hashCode(new Object[] {url, headers});
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return url.equals(other.url) && headers.equals(other.headers);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
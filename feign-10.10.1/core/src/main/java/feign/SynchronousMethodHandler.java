@@ -19,11 +19,10 @@ import feign.codec.Decoder;
 import feign.codec.ErrorDecoder;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Stream;
 
 import static feign.ExceptionPropagationPolicy.UNWRAP;
 import static feign.FeignException.errorExecuting;
@@ -43,6 +42,8 @@ final class SynchronousMethodHandler implements MethodHandler {
     private final RequestTemplate.Factory buildTemplateFromArgs;
     private final Options options;
     private final ExceptionPropagationPolicy propagationPolicy;
+    // 在构建时确定 Options 参数所在下标，调用时无需扫描全部参数
+    private final int[] optionsIndexes;
 
     // only one of decoder and asyncResponseHandler will be non-null
     private final Decoder decoder;
@@ -68,6 +69,7 @@ final class SynchronousMethodHandler implements MethodHandler {
         this.buildTemplateFromArgs = checkNotNull(buildTemplateFromArgs, "metadata for %s", target);
         this.options = checkNotNull(options, "options for %s", target);
         this.propagationPolicy = propagationPolicy;
+        this.optionsIndexes = optionsIndexes(metadata.method());
 
         if (forceDecoding) {
             // internal only: usual handling will be short-circuited, and all responses will be passed to
@@ -126,10 +128,13 @@ final class SynchronousMethodHandler implements MethodHandler {
             // 执行请求
             response = client.execute(request, options);
             // ensure the request is set. TODO: remove in Feign 12
-            response = response.toBuilder()
-                    .request(request)
-                    .requestTemplate(template)
-                    .build();
+            // 客户端已回填同一请求时无需重建，避免再次复制响应头
+            if (response.request() != request) {
+                response = response.toBuilder()
+                        .request(request)
+                        .requestTemplate(template)
+                        .build();
+            }
         } catch (IOException e) {
             if (logLevel != Logger.Level.NONE) {
                 logger.logIOException(metadata.configKey(), logLevel, e, elapsedTime(start));
@@ -143,22 +148,8 @@ final class SynchronousMethodHandler implements MethodHandler {
             // 进行解码，找到加解密拓展口
             return decoder.decode(response, metadata.returnType());
 
-        CompletableFuture<Object> resultFuture = new CompletableFuture<>();
-        // ForkJoin任务拆分执行
-        asyncResponseHandler.handleResponse(resultFuture, metadata.configKey(), response,
+        return asyncResponseHandler.handleResponse(metadata.configKey(), response,
                 metadata.returnType(), elapsedTime);
-
-        try {
-            if (!resultFuture.isDone())
-                throw new IllegalStateException("Response handling not done");
-
-            return resultFuture.join();
-        } catch (CompletionException e) {
-            Throwable cause = e.getCause();
-            if (cause != null)
-                throw cause;
-            throw e;
-        }
     }
 
     long elapsedTime(long start) {
@@ -177,11 +168,40 @@ final class SynchronousMethodHandler implements MethodHandler {
         if (argv == null || argv.length == 0) {
             return this.options;
         }
-        return Stream.of(argv)
-                .filter(Options.class::isInstance)
-                .map(Options.class::cast)
-                .findFirst()
-                .orElse(this.options);
+        final int[] candidates = optionsIndexes != null ? optionsIndexes : allIndexes(argv.length);
+        for (int index : candidates) {
+            if (index < argv.length && argv[index] instanceof Options) {
+                return (Options) argv[index];
+            }
+        }
+        return this.options;
+    }
+
+    /**
+     * 可能传入 {@link Options} 的参数下标，即声明类型为 Options 或其父类型的参数；
+     * 方法未知时为 null，每次调用逐个检查
+     */
+    private static int[] optionsIndexes(Method method) {
+        if (method == null) {
+            return null;
+        }
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        int count = 0;
+        final int[] indexes = new int[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i].isAssignableFrom(Options.class)) {
+                indexes[count++] = i;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    private static int[] allIndexes(int length) {
+        final int[] indexes = new int[length];
+        for (int i = 0; i < length; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
     }
 
     static class Factory {
@@ -368,7 +368,7 @@ public final class Types {
     }
   }
 
-  private static final class GenericArrayTypeImpl implements GenericArrayType {
+  static final class GenericArrayTypeImpl implements GenericArrayType {
 
     private final Type componentType;
 
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reaches {@code Executors.newVirtualThreadPerTaskExecutor()} reflectively, so that core still
+ * runs on JDK 8. Support is detected once.
+ */
+final class VirtualThreads {
+
+  private static final Method FACTORY = lookup();
+
+  private VirtualThreads() {}
+
+  static boolean available() {
+    return FACTORY != null;
+  }
+
+  static ExecutorService newExecutor() {
+    try {
+      return (ExecutorService) FACTORY.invoke(null);
+    } catch (final ReflectiveOperationException e) {
+      throw new IllegalStateException("could not create a virtual thread executor", e);
+    }
+  }
+
+  private static Method lookup() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (final NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The directives of {@code Cache-Control} headers, and HTTP-date parsing.
+ */
+final class CacheControl {
+
+  static final CacheControl NONE = new CacheControl(Collections.emptyMap());
+
+  private final Map<String, String> directives;
+
+  private CacheControl(Map<String, String> directives) {
+    this.directives = directives;
+  }
+
+  static CacheControl parse(Collection<String> headers) {
+    if (headers == null || headers.isEmpty()) {
+      return NONE;
+    }
+    final Map<String, String> directives = new HashMap<>();
+    for (String header : headers) {
+      for (String directive : header.split(",")) {
+        final int equals = directive.indexOf('=');
+        final String token = equals < 0 ? directive : directive.substring(0, equals);
+        final String name = token.trim().toLowerCase(Locale.ROOT);
+        if (name.isEmpty()) {
+          continue;
+        }
+        String value = equals < 0 ? null : directive.substring(equals + 1).trim();
+        if (value != null && value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+          value = value.substring(1, value.length() - 1);
+        }
+        directives.putIfAbsent(name, value);
+      }
+    }
+    return new CacheControl(directives);
+  }
+
+  boolean has(String directive) {
+    return directives.containsKey(directive);
+  }
+
+  /**
+   * @return the directive as seconds, or {@code -1} if absent or invalid.
+   */
+  long seconds(String directive) {
+    final String value = directives.get(directive);
+    if (value == null) {
+      return -1;
+    }
+    try {
+      return Math.max(0, Long.parseLong(value));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * @return the first value of the header as epoch millis, or {@code null} if absent or invalid.
+   */
+  static Long httpDate(Map<String, Collection<String>> headers, String name) {
+    final Collection<String> values = headers.get(name);
+    if (values == null || values.isEmpty()) {
+      return null;
+    }
+    try {
+      return ZonedDateTime.parse(values.iterator().next().trim(),
+          DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  static String first(Map<String, Collection<String>> headers, String name) {
+    final Collection<String> values = headers.get(name);
+    return values == null || values.isEmpty() ? null : values.iterator().next();
+  }
+}
@@ -0,0 +1,288 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import feign.Experimental;
+import feign.Request;
+import feign.Response;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A response kept by a {@link ResponseStore}, with the request headers it {@code Vary}s on and
+ * what {@link CachingClient} needs to compute its freshness as RFC 7234 describes for a shared
+ * cache. Instances are immutable but for the flag marking a background revalidation in progress.
+ */
+@Experimental
+public final class CachedResponse {
+
+  /**
+   * Upper bound of heuristic freshness, computed from {@code Last-Modified} when a response has no
+   * explicit expiration.
+   */
+  private static final long MAX_HEURISTIC_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+  private final int status;
+  private final String reason;
+  private final Map<String, Collection<String>> headers;
+  private final byte[] heapBody;
+  private final ByteBuffer directBody;
+  private final Map<String, Collection<String>> varyHeaders;
+  private final long responseTimeMillis;
+  private final long correctedInitialAgeMillis;
+  private final long freshnessLifetimeMillis;
+  private final long staleWhileRevalidateMillis;
+  private final boolean noCache;
+  private final boolean mustRevalidate;
+  private final long weight;
+  private final AtomicBoolean revalidating = new AtomicBoolean();
+
+  private CachedResponse(int status, String reason, Map<String, Collection<String>> headers,
+      byte[] heapBody, ByteBuffer directBody, Map<String, Collection<String>> varyHeaders,
+      long requestTimeMillis, long responseTimeMillis) {
+    this.status = status;
+    this.reason = reason;
+    this.headers = headers;
+    this.heapBody = heapBody;
+    this.directBody = directBody;
+    this.varyHeaders = varyHeaders;
+    this.responseTimeMillis = responseTimeMillis;
+
+    final CacheControl cacheControl = CacheControl.parse(headers.get("Cache-Control"));
+    final Long date = CacheControl.httpDate(headers, "Date");
+    final long dateMillis = date != null ? date : responseTimeMillis;
+
+    // RFC 7234 4.2.3
+    final long apparentAge = Math.max(0, responseTimeMillis - dateMillis);
+    long ageValue = 0;
+    try {
+      final String age = CacheControl.first(headers, "Age");
+      ageValue = age != null ? TimeUnit.SECONDS.toMillis(Long.parseLong(age.trim())) : 0;
+    } catch (NumberFormatException ignored) {
+      // an invalid Age is ignored
+    }
+    this.correctedInitialAgeMillis =
+        Math.max(apparentAge, ageValue + (responseTimeMillis - requestTimeMillis));
+
+    // RFC 7234 4.2.1, as a shared cache
+    if (cacheControl.seconds("s-maxage") >= 0) {
+      this.freshnessLifetimeMillis = TimeUnit.SECONDS.toMillis(cacheControl.seconds("s-maxage"));
+    } else if (cacheControl.seconds("max-age") >= 0) {
+      this.freshnessLifetimeMillis = TimeUnit.SECONDS.toMillis(cacheControl.seconds("max-age"));
+    } else if (headers.containsKey("Expires")) {
+      // an invalid Expires means already expired
+      final Long expires = CacheControl.httpDate(headers, "Expires");
+      this.freshnessLifetimeMillis = expires != null ? Math.max(0, expires - dateMillis) : 0;
+    } else {
+      final Long lastModified = CacheControl.httpDate(headers, "Last-Modified");
+      this.freshnessLifetimeMillis = lastModified != null
+          ? Math.min(MAX_HEURISTIC_MILLIS, Math.max(0, (dateMillis - lastModified) / 10))
+          : 0;
+    }
+    this.staleWhileRevalidateMillis =
+        TimeUnit.SECONDS.toMillis(Math.max(0, cacheControl.seconds("stale-while-revalidate")));
+    this.noCache = cacheControl.has("no-cache");
+    this.mustRevalidate = cacheControl.has("must-revalidate")
+        || cacheControl.has("proxy-revalidate") || cacheControl.has("s-maxage");
+    this.weight = weigh(headers, heapBody != null ? heapBody.length : 0);
+  }
+
+  static CachedResponse of(Request request, Response response, byte[] body,
+                           Collection<String> varyNames, long requestTimeMillis,
+                           long responseTimeMillis) {
+    return new CachedResponse(response.status(), response.reason(), response.headers(), body,
+        null, selectHeaders(request.headers(), varyNames), requestTimeMillis, responseTimeMillis);
+  }
+
+  /**
+   * The entry updated with the headers of a {@code 304 Not Modified} answering its revalidation.
+   */
+  CachedResponse revalidated(Response notModified, long requestTimeMillis,
+                             long responseTimeMillis) {
+    final Map<String, Collection<String>> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    merged.putAll(headers);
+    merged.putAll(notModified.headers());
+    merged.remove("Age");
+    return new CachedResponse(status, reason, Collections.unmodifiableMap(merged), heapBody,
+        directBody, varyHeaders, requestTimeMillis, responseTimeMillis);
+  }
+
+  /**
+   * A copy of this entry with the body in a direct buffer, outside of the Java heap.
+   */
+  CachedResponse offHeap() {
+    if (directBody != null || heapBody == null) {
+      return this;
+    }
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(heapBody.length);
+    buffer.put(heapBody);
+    // Buffer.flip() as ByteBuffer.flip() only exists since Java 9
+    ((Buffer) buffer).flip();
+    return new CachedResponse(this, buffer);
+  }
+
+  private CachedResponse(CachedResponse source, ByteBuffer directBody) {
+    this.status = source.status;
+    this.reason = source.reason;
+    this.headers = source.headers;
+    this.heapBody = null;
+    this.directBody = directBody;
+    this.varyHeaders = source.varyHeaders;
+    this.responseTimeMillis = source.responseTimeMillis;
+    this.correctedInitialAgeMillis = source.correctedInitialAgeMillis;
+    this.freshnessLifetimeMillis = source.freshnessLifetimeMillis;
+    this.staleWhileRevalidateMillis = source.staleWhileRevalidateMillis;
+    this.noCache = source.noCache;
+    this.mustRevalidate = source.mustRevalidate;
+    this.weight = source.weight;
+  }
+
+  boolean matches(Request request) {
+    return varyHeaders.equals(selectHeaders(request.headers(), varyHeaders.keySet()));
+  }
+
+  long currentAgeMillis(long nowMillis) {
+    return correctedInitialAgeMillis + Math.max(0, nowMillis - responseTimeMillis);
+  }
+
+  boolean isFresh(long nowMillis) {
+    return !noCache && currentAgeMillis(nowMillis) < freshnessLifetimeMillis;
+  }
+
+  /**
+   * Stale, but may still be served while it is revalidated in the background.
+   */
+  boolean isStaleWhileRevalidate(long nowMillis) {
+    return !noCache && !mustRevalidate
+        && currentAgeMillis(nowMillis) < freshnessLifetimeMillis + staleWhileRevalidateMillis;
+  }
+
+  boolean startRevalidation() {
+    return revalidating.compareAndSet(false, true);
+  }
+
+  void endRevalidation() {
+    revalidating.set(false);
+  }
+
+  String etag() {
+    return CacheControl.first(headers, "ETag");
+  }
+
+  String lastModified() {
+    return CacheControl.first(headers, "Last-Modified");
+  }
+
+  /**
+   * Bytes this entry holds, bodies and headers, for the store to account.
+   */
+  public long weight() {
+    return weight;
+  }
+
+  private static long weigh(Map<String, Collection<String>> headers, int bodyLength) {
+    long weight = 64 + bodyLength;
+    for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+      weight += header.getKey().length() * 2L;
+      for (String value : header.getValue()) {
+        weight += value.length() * 2L;
+      }
+    }
+    return weight;
+  }
+
+  public int status() {
+    return status;
+  }
+
+  public Map<String, Collection<String>> headers() {
+    return headers;
+  }
+
+  public int bodyLength() {
+    return heapBody != null ? heapBody.length : directBody != null ? directBody.remaining() : 0;
+  }
+
+  Response toResponse(Request request, long nowMillis) {
+    final Map<String, Collection<String>> responseHeaders =
+        new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    responseHeaders.putAll(headers);
+    responseHeaders.put("Age", Collections.singletonList(
+        Long.toString(TimeUnit.MILLISECONDS.toSeconds(currentAgeMillis(nowMillis)))));
+    final Response.Builder builder = Response.builder()
+        .status(status)
+        .reason(reason)
+        .headers(responseHeaders)
+        .request(request);
+    if (heapBody != null) {
+      builder.body(heapBody);
+    } else if (directBody != null) {
+      builder.body(new BufferInputStream(directBody.duplicate()), directBody.remaining());
+    }
+    return builder.build();
+  }
+
+  private static Map<String, Collection<String>> selectHeaders(
+      Map<String, Collection<String>> requestHeaders, Collection<String> names) {
+    if (names.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    final Map<String, Collection<String>> selected = new HashMap<>();
+    for (String name : names) {
+      final Collection<String> values = CachingClient.header(requestHeaders, name);
+      selected.put(name.toLowerCase(Locale.ROOT),
+          values != null ? new ArrayList<>(values) : null);
+    }
+    return selected;
+  }
+
+  private static final class BufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    BufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      final int read = Math.min(len, buffer.remaining());
+      buffer.get(b, off, read);
+      return read;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import feign.Capability;
+import feign.Client;
+import feign.Experimental;
+import java.util.concurrent.Executor;
+
+/**
+ * Puts a {@link CachingClient} in front of the {@link Client} of the clients it is added to, all
+ * sharing its {@link ResponseStore}.
+ */
+@Experimental
+public class CachingCapability implements Capability {
+
+  private final ResponseStore store;
+  private final Executor revalidationExecutor;
+
+  public CachingCapability(ResponseStore store) {
+    this(store, null);
+  }
+
+  /**
+   * @see CachingClient#CachingClient(Client, ResponseStore, Executor)
+   */
+  public CachingCapability(ResponseStore store, Executor revalidationExecutor) {
+    this.store = store;
+    this.revalidationExecutor = revalidationExecutor;
+  }
+
+  public ResponseStore store() {
+    return store;
+  }
+
+  @Override
+  public Client enrich(Client client) {
+    return new CachingClient(client, store, revalidationExecutor);
+  }
+}
@@ -0,0 +1,306 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import feign.Client;
+import feign.Experimental;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import feign.Response;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import static feign.Util.checkNotNull;
+import static feign.Util.ensureClosed;
+
+/**
+ * Caches GET responses the way RFC 7234 describes for a shared cache, in front of any
+ * {@link Client}. Fresh entries are answered without calling the delegate; stale ones with a
+ * {@code ETag} or {@code Last-Modified} are revalidated with {@code If-None-Match} or
+ * {@code If-Modified-Since}, and a {@code 304} answer refreshes them. Given an executor, entries
+ * within their {@code stale-while-revalidate} window are answered at once and revalidated in the
+ * background.
+ *
+ * <p>
+ * Freshness comes from {@code s-maxage}, {@code max-age}, {@code Expires}, or a tenth of the time
+ * since {@code Last-Modified}. Responses marked {@code no-store} or {@code private}, varying on
+ * {@code *}, or answering a request with {@code Authorization} that are not explicitly shareable
+ * are not stored. Successful unsafe requests, such as POST, invalidate the entry of their url.
+ */
+@Experimental
+public final class CachingClient implements Client {
+
+  private static final Set<Integer> CACHEABLE_STATUSES =
+      new HashSet<>(Arrays.asList(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501));
+
+  private final Client delegate;
+  private final ResponseStore store;
+  private final Executor revalidationExecutor;
+  private final LongSupplier currentTimeMillis;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder revalidations = new LongAdder();
+
+  public CachingClient(Client delegate, ResponseStore store) {
+    this(delegate, store, null);
+  }
+
+  /**
+   * @param revalidationExecutor runs the background revalidations of
+   *        {@code stale-while-revalidate}, or {@code null} to always revalidate before answering.
+   */
+  public CachingClient(Client delegate, ResponseStore store, Executor revalidationExecutor) {
+    this(delegate, store, revalidationExecutor, System::currentTimeMillis);
+  }
+
+  // visible for testing
+  CachingClient(Client delegate, ResponseStore store, Executor revalidationExecutor,
+      LongSupplier currentTimeMillis) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.store = checkNotNull(store, "store");
+    this.revalidationExecutor = revalidationExecutor;
+    this.currentTimeMillis = currentTimeMillis;
+  }
+
+  /**
+   * Requests answered from the store without calling the delegate.
+   */
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Requests sent to the delegate unconditionally.
+   */
+  public long missCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Stale entries the origin confirmed with a {@code 304 Not Modified}.
+   */
+  public long revalidatedCount() {
+    return revalidations.sum();
+  }
+
+  @Override
+  public Response execute(Request request, Options options) throws IOException {
+    if (request.httpMethod() != HttpMethod.GET) {
+      final Response response = delegate.execute(request, options);
+      if (isUnsafe(request.httpMethod()) && response.status() < 400) {
+        store.remove(request.url());
+      }
+      return response;
+    }
+    final CacheControl requestCacheControl =
+        CacheControl.parse(header(request.headers(), "Cache-Control"));
+    if (requestCacheControl.has("no-store")) {
+      return delegate.execute(request, options);
+    }
+    final boolean noCache = requestCacheControl.has("no-cache") || isPragmaNoCache(request);
+
+    CachedResponse cached = store.get(request.url());
+    if (cached != null && !cached.matches(request)) {
+      cached = null;
+    }
+    if (cached != null && !noCache) {
+      final long now = currentTimeMillis.getAsLong();
+      if (cached.isFresh(now)) {
+        hits.increment();
+        return cached.toResponse(request, now);
+      }
+      // 已有后台重新验证在进行时，同样直接返回旧值
+      if (revalidationExecutor != null && cached.isStaleWhileRevalidate(now)
+          && (!cached.startRevalidation() || revalidateInBackground(request, options, cached))) {
+        hits.increment();
+        return cached.toResponse(request, now);
+      }
+    }
+    if (cached != null && (cached.etag() != null || cached.lastModified() != null)) {
+      return revalidate(request, options, cached);
+    }
+    misses.increment();
+    final long requestTime = currentTimeMillis.getAsLong();
+    return store(request, delegate.execute(request, options), requestTime);
+  }
+
+  private boolean revalidateInBackground(Request request, Options options, CachedResponse cached) {
+    try {
+      revalidationExecutor.execute(() -> {
+        try {
+          ensureClosed(revalidate(request, options, cached));
+        } catch (IOException | RuntimeException ignored) {
+          // the stale entry stays until the next request revalidates it
+        } finally {
+          cached.endRevalidation();
+        }
+      });
+      return true;
+    } catch (RejectedExecutionException e) {
+      cached.endRevalidation();
+      return false;
+    }
+  }
+
+  private Response revalidate(Request request, Options options, CachedResponse cached)
+      throws IOException {
+    final Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+    if (cached.etag() != null) {
+      headers.put("If-None-Match", Collections.singletonList(cached.etag()));
+    }
+    if (cached.lastModified() != null) {
+      headers.put("If-Modified-Since", Collections.singletonList(cached.lastModified()));
+    }
+    final Request conditional = Request.create(request.httpMethod(), request.url(), headers,
+        request.body(), request.charset(), request.requestTemplate());
+
+    final long requestTime = currentTimeMillis.getAsLong();
+    final Response response = delegate.execute(conditional, options);
+    if (response.status() != 304) {
+      misses.increment();
+      return store(request, response.toBuilder().request(request).build(), requestTime);
+    }
+    ensureClosed(response);
+    final long responseTime = currentTimeMillis.getAsLong();
+    final CachedResponse refreshed = cached.revalidated(response, requestTime, responseTime);
+    store.put(request.url(), refreshed);
+    revalidations.increment();
+    return refreshed.toResponse(request, responseTime);
+  }
+
+  /**
+   * Buffers and stores a cacheable response, unless its body is larger than the store accepts.
+   */
+  private Response store(Request request, Response response, long requestTime)
+      throws IOException {
+    final Collection<String> vary = varyNames(response);
+    if (vary == null || !isCacheable(request, response)) {
+      return response;
+    }
+    byte[] body = null;
+    if (response.body() != null) {
+      final Integer length = response.body().length();
+      if (length != null && length > store.maxEntryBytes()) {
+        return response;
+      }
+      final InputStream in = response.body().asInputStream();
+      final ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+      final byte[] chunk = new byte[8192];
+      int read;
+      while ((read = in.read(chunk)) != -1) {
+        buffered.write(chunk, 0, read);
+        if (buffered.size() > store.maxEntryBytes()) {
+          // too large to keep: hand back what was read followed by the rest of the stream
+          return response.toBuilder()
+              .body(new SequenceInputStream(new ByteArrayInputStream(buffered.toByteArray()), in),
+                  length)
+              .build();
+        }
+      }
+      ensureClosed(response.body());
+      body = buffered.toByteArray();
+    }
+    final long responseTime = currentTimeMillis.getAsLong();
+    final CachedResponse entry =
+        CachedResponse.of(request, response, body, vary, requestTime, responseTime);
+    store.put(request.url(), entry);
+    return entry.toResponse(request, responseTime);
+  }
+
+  private static boolean isCacheable(Request request, Response response) {
+    if (!CACHEABLE_STATUSES.contains(response.status())) {
+      return false;
+    }
+    final CacheControl cacheControl =
+        CacheControl.parse(response.headers().get("Cache-Control"));
+    if (cacheControl.has("no-store") || cacheControl.has("private")) {
+      return false;
+    }
+    // RFC 7234 3.2
+    if (header(request.headers(), "Authorization") != null && !cacheControl.has("public")
+        && !cacheControl.has("s-maxage") && !cacheControl.has("must-revalidate")) {
+      return false;
+    }
+    return cacheControl.seconds("s-maxage") >= 0 || cacheControl.seconds("max-age") >= 0
+        || cacheControl.has("no-cache") || response.headers().containsKey("Expires")
+        || response.headers().containsKey("ETag")
+        || response.headers().containsKey("Last-Modified");
+  }
+
+  /**
+   * @return the lower-cased request headers the response varies on, or {@code null} for
+   *         {@code Vary: *}.
+   */
+  private static Collection<String> varyNames(Response response) {
+    final Collection<String> vary = response.headers().get("Vary");
+    if (vary == null || vary.isEmpty()) {
+      return Collections.emptySet();
+    }
+    final Set<String> names = new LinkedHashSet<>();
+    for (String value : vary) {
+      for (String name : value.split(",")) {
+        final String trimmed = name.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.equals("*")) {
+          return null;
+        }
+        if (!trimmed.isEmpty()) {
+          names.add(trimmed);
+        }
+      }
+    }
+    return names;
+  }
+
+  private static boolean isUnsafe(HttpMethod method) {
+    return method != HttpMethod.HEAD && method != HttpMethod.OPTIONS
+        && method != HttpMethod.TRACE;
+  }
+
+  private static boolean isPragmaNoCache(Request request) {
+    final Collection<String> pragma = header(request.headers(), "Pragma");
+    return pragma != null && pragma.stream().anyMatch(value -> value.contains("no-cache"));
+  }
+
+  /**
+   * Request headers are not necessarily case insensitive, unlike those of {@link Response}.
+   */
+  static Collection<String> header(Map<String, Collection<String>> headers, String name) {
+    final Collection<String> values = headers.get(name);
+    if (values != null) {
+      return values;
+    }
+    for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+      if (header.getKey().equalsIgnoreCase(name)) {
+        return header.getValue();
+      }
+    }
+    return null;
+  }
+}
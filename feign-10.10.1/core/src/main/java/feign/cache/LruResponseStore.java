@@ -0,0 +1,111 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import feign.Experimental;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static feign.Util.checkArgument;
+
+/**
+ * Keeps responses up to a number of bytes, counting bodies and headers, and evicts the least
+ * recently used first. Bodies stay on the Java heap, or in direct buffers outside of it when
+ * {@code offHeap} is set, which keeps large caches out of garbage collection.
+ */
+@Experimental
+public final class LruResponseStore implements ResponseStore {
+
+  private final long maxBytes;
+  private final long maxEntryBytes;
+  private final boolean offHeap;
+  private final LinkedHashMap<String, CachedResponse> entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+  private long sizeBytes;
+  private long evictionCount;
+
+  /**
+   * @param maxBytes held at most; a single entry may take an eighth of them.
+   */
+  public LruResponseStore(long maxBytes, boolean offHeap) {
+    this(maxBytes, maxBytes / 8, offHeap);
+  }
+
+  public LruResponseStore(long maxBytes, long maxEntryBytes, boolean offHeap) {
+    checkArgument(maxBytes > 0, "maxBytes must be positive");
+    checkArgument(maxEntryBytes > 0 && maxEntryBytes <= maxBytes,
+        "maxEntryBytes must be positive and at most maxBytes");
+    this.maxBytes = maxBytes;
+    this.maxEntryBytes = maxEntryBytes;
+    this.offHeap = offHeap;
+  }
+
+  @Override
+  public synchronized CachedResponse get(String url) {
+    return entries.get(url);
+  }
+
+  @Override
+  public void put(String url, CachedResponse response) {
+    if (response.weight() > maxEntryBytes) {
+      remove(url);
+      return;
+    }
+    // 堆外拷贝在锁外完成
+    final CachedResponse stored = offHeap ? response.offHeap() : response;
+    synchronized (this) {
+      final CachedResponse previous = entries.put(url, stored);
+      if (previous != null) {
+        sizeBytes -= weight(url, previous);
+      }
+      sizeBytes += weight(url, stored);
+      final Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+      while (sizeBytes > maxBytes && eldest.hasNext()) {
+        final Map.Entry<String, CachedResponse> entry = eldest.next();
+        sizeBytes -= weight(entry.getKey(), entry.getValue());
+        eldest.remove();
+        evictionCount++;
+      }
+    }
+  }
+
+  @Override
+  public synchronized void remove(String url) {
+    final CachedResponse previous = entries.remove(url);
+    if (previous != null) {
+      sizeBytes -= weight(url, previous);
+    }
+  }
+
+  @Override
+  public long maxEntryBytes() {
+    return maxEntryBytes;
+  }
+
+  public synchronized long sizeBytes() {
+    return sizeBytes;
+  }
+
+  public synchronized int entryCount() {
+    return entries.size();
+  }
+
+  public synchronized long evictionCount() {
+    return evictionCount;
+  }
+
+  private static long weight(String url, CachedResponse response) {
+    return url.length() * 2L + response.weight();
+  }
+}
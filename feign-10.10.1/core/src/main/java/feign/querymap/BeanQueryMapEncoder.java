@@ -13,15 +13,13 @@
  */
 package feign.querymap;
 
-import feign.Param;
 import feign.QueryMapEncoder;
 import feign.codec.EncodeException;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * the query map will be generated using java beans accessible getter property as query parameter
@@ -34,24 +32,14 @@ import java.util.*;
  */
 public class BeanQueryMapEncoder implements QueryMapEncoder {
   private final Map<Class<?>, ObjectParamMetadata> classToMetadata =
-      new HashMap<Class<?>, ObjectParamMetadata>();
+      new ConcurrentHashMap<Class<?>, ObjectParamMetadata>();
 
   @Override
   public Map<String, Object> encode(Object object) throws EncodeException {
     try {
       ObjectParamMetadata metadata = getMetadata(object.getClass());
-      Map<String, Object> propertyNameToValue = new HashMap<String, Object>();
-      for (PropertyDescriptor pd : metadata.objectProperties) {
-        Method method = pd.getReadMethod();
-        Object value = method.invoke(object);
-        if (value != null && value != object) {
-          Param alias = method.getAnnotation(Param.class);
-          String name = alias != null ? alias.value() : pd.getName();
-          propertyNameToValue.put(name, value);
-        }
-      }
-      return propertyNameToValue;
-    } catch (IllegalAccessException | IntrospectionException | InvocationTargetException e) {
+      return QueryMapProperty.encode(object, metadata.objectProperties);
+    } catch (IntrospectionException e) {
       throw new EncodeException("Failure encoding object into query map", e);
     }
   }
@@ -59,28 +47,32 @@ public class BeanQueryMapEncoder implements QueryMapEncoder {
   private ObjectParamMetadata getMetadata(Class<?> objectType) throws IntrospectionException {
     ObjectParamMetadata metadata = classToMetadata.get(objectType);
     if (metadata == null) {
+      // parsed outside of the map, a concurrent parse of the same type is harmless
       metadata = ObjectParamMetadata.parseObjectType(objectType);
-      classToMetadata.put(objectType, metadata);
+      ObjectParamMetadata existing = classToMetadata.putIfAbsent(objectType, metadata);
+      if (existing != null) {
+        metadata = existing;
+      }
     }
     return metadata;
   }
 
   private static class ObjectParamMetadata {
 
-    private final List<PropertyDescriptor> objectProperties;
+    private final List<QueryMapProperty> objectProperties;
 
-    private ObjectParamMetadata(List<PropertyDescriptor> objectProperties) {
+    private ObjectParamMetadata(List<QueryMapProperty> objectProperties) {
       this.objectProperties = Collections.unmodifiableList(objectProperties);
     }
 
     private static ObjectParamMetadata parseObjectType(Class<?> type)
         throws IntrospectionException {
-      List<PropertyDescriptor> properties = new ArrayList<PropertyDescriptor>();
+      List<QueryMapProperty> properties = new ArrayList<QueryMapProperty>();
 
       for (PropertyDescriptor pd : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
         boolean isGetterMethod = pd.getReadMethod() != null && !"class".equals(pd.getName());
         if (isGetterMethod) {
-          properties.add(pd);
+          properties.add(QueryMapProperty.of(pd.getName(), pd.getReadMethod()));
         }
       }
 
@@ -13,11 +13,11 @@
  */
 package feign.querymap;
 
-import feign.Param;
 import feign.QueryMapEncoder;
 import feign.codec.EncodeException;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -31,41 +31,27 @@ import java.util.stream.Collectors;
 public class FieldQueryMapEncoder implements QueryMapEncoder {
 
   private final Map<Class<?>, ObjectParamMetadata> classToMetadata =
-      new HashMap<Class<?>, ObjectParamMetadata>();
+      new ConcurrentHashMap<Class<?>, ObjectParamMetadata>();
 
   @Override
   public Map<String, Object> encode(Object object) throws EncodeException {
-    try {
-      ObjectParamMetadata metadata = getMetadata(object.getClass());
-      Map<String, Object> fieldNameToValue = new HashMap<String, Object>();
-      for (Field field : metadata.objectFields) {
-        Object value = field.get(object);
-        if (value != null && value != object) {
-          Param alias = field.getAnnotation(Param.class);
-          String name = alias != null ? alias.value() : field.getName();
-          fieldNameToValue.put(name, value);
-        }
-      }
-      return fieldNameToValue;
-    } catch (IllegalAccessException e) {
-      throw new EncodeException("Failure encoding object into query map", e);
-    }
+    ObjectParamMetadata metadata = getMetadata(object.getClass());
+    return QueryMapProperty.encode(object, metadata.objectFields);
   }
 
   private ObjectParamMetadata getMetadata(Class<?> objectType) {
     ObjectParamMetadata metadata = classToMetadata.get(objectType);
     if (metadata == null) {
-      metadata = ObjectParamMetadata.parseObjectType(objectType);
-      classToMetadata.put(objectType, metadata);
+      metadata = classToMetadata.computeIfAbsent(objectType, ObjectParamMetadata::parseObjectType);
     }
     return metadata;
   }
 
   private static class ObjectParamMetadata {
 
-    private final List<Field> objectFields;
+    private final List<QueryMapProperty> objectFields;
 
-    private ObjectParamMetadata(List<Field> objectFields) {
+    private ObjectParamMetadata(List<QueryMapProperty> objectFields) {
       this.objectFields = Collections.unmodifiableList(objectFields);
     }
 
@@ -79,7 +65,7 @@ public class FieldQueryMapEncoder implements QueryMapEncoder {
 
       return new ObjectParamMetadata(allFields.stream()
           .filter(field -> !field.isSynthetic())
-          .peek(field -> field.setAccessible(true))
+          .map(QueryMapProperty::of)
           .collect(Collectors.toList()));
     }
   }
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.querymap;
+
+import feign.Param;
+import feign.codec.EncodeException;
+import org.jvnet.animal_sniffer.IgnoreJRERequirement;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A field or getter of a query map object, with its query parameter name and a method handle to
+ * read it, both resolved once per class.
+ */
+// the signature check does not know invokeExact is signature polymorphic
+@IgnoreJRERequirement
+final class QueryMapProperty {
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private final String name;
+  private final MethodHandle getter;
+
+  private QueryMapProperty(String name, MethodHandle getter) {
+    this.name = name;
+    this.getter = getter;
+  }
+
+  static QueryMapProperty of(Field field) {
+    field.setAccessible(true);
+    Param alias = field.getAnnotation(Param.class);
+    try {
+      MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+      if (Modifier.isStatic(field.getModifiers())) {
+        getter = MethodHandles.dropArguments(getter, 0, Object.class);
+      }
+      return new QueryMapProperty(alias != null ? alias.value() : field.getName(),
+          getter.asType(GETTER_TYPE));
+    } catch (IllegalAccessException e) {
+      throw new EncodeException("Failure encoding object into query map", e);
+    }
+  }
+
+  static QueryMapProperty of(String propertyName, Method readMethod) {
+    try {
+      readMethod.setAccessible(true);
+    } catch (RuntimeException e) {
+      // public getter of a class in a closed module, unreflect checks what is left
+    }
+    Param alias = readMethod.getAnnotation(Param.class);
+    try {
+      return new QueryMapProperty(alias != null ? alias.value() : propertyName,
+          MethodHandles.lookup().unreflect(readMethod).asType(GETTER_TYPE));
+    } catch (IllegalAccessException e) {
+      throw new EncodeException("Failure encoding object into query map", e);
+    }
+  }
+
+  /**
+   * Reads the non null values of {@code properties} on {@code object} into a map sized for all of
+   * them.
+   */
+  static Map<String, Object> encode(Object object, List<QueryMapProperty> properties) {
+    Map<String, Object> nameToValue = new HashMap<>((int) (properties.size() / 0.75f) + 1);
+    for (QueryMapProperty property : properties) {
+      Object value = property.get(object);
+      if (value != null && value != object) {
+        nameToValue.put(property.name, value);
+      }
+    }
+    return nameToValue;
+  }
+
+  private Object get(Object object) {
+    try {
+      return (Object) getter.invokeExact(object);
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new EncodeException("Failure encoding object into query map", e);
+    }
+  }
+}
@@ -59,7 +59,15 @@ public final class BodyTemplate extends Template {
 
   @Override
   public String expand(Map<String, ?> variables) {
-    String expanded = super.expand(variables);
+    return this.restoreJsonTokens(super.expand(variables));
+  }
+
+  @Override
+  public String expand(Object[] values, int[] slots) {
+    return this.restoreJsonTokens(super.expand(values, slots));
+  }
+
+  private String restoreJsonTokens(String expanded) {
     if (this.json) {
       /* restore all start and end tokens */
       expanded = expanded.replaceAll(JSON_TOKEN_START_ENCODED, JSON_TOKEN_START);
@@ -68,5 +76,4 @@ public final class BodyTemplate extends Template {
     return expanded;
   }
 
-
 }
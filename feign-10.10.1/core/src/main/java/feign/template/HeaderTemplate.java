@@ -140,8 +140,15 @@ public final class HeaderTemplate extends Template {
 
   @Override
   public String expand(Map<String, ?> variables) {
-    String result = super.expand(variables);
+    return this.formatValues(super.expand(variables));
+  }
+
+  @Override
+  public String expand(Object[] values, int[] slots) {
+    return this.formatValues(super.expand(values, slots));
+  }
 
+  private String formatValues(String result) {
     /* remove any trailing commas */
     while (result.endsWith(",")) {
       result = result.replaceAll(",$", "");
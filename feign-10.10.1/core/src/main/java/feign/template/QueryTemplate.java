@@ -181,15 +181,57 @@ public final class QueryTemplate {
    * @return the expanded template.
    */
   public String expand(Map<String, ?> variables) {
-    String name = this.name.expand(variables);
+    if (variables == null) {
+      throw new IllegalArgumentException("variable map is required.");
+    }
+    return this.expand(variables, null, null);
+  }
+
+  /**
+   * Expand this template using positional values. Unresolved variables are removed.
+   *
+   * @param values containing the values for expansion, indexed by slot.
+   * @param slots for the name and each value template, as returned by {@link #bind(Map)}.
+   * @return the expanded template.
+   */
+  public String expand(Object[] values, int[][] slots) {
+    if (values == null || slots == null) {
+      throw new IllegalArgumentException("values and slots are required.");
+    }
+    return this.expand(null, values, slots);
+  }
+
+  /**
+   * Assigns the expressions in the name and each value template to their registered slots.
+   *
+   * @param slots containing the slot index for each variable name.
+   * @return the slots for the name, followed by the slots for each value template.
+   * @see Template#bind(Map)
+   */
+  public int[][] bind(Map<String, Integer> slots) {
+    int[][] bound = new int[this.values.size() + 1][];
+    bound[0] = this.name.bind(slots);
+    for (int i = 0; i < this.values.size(); i++) {
+      bound[i + 1] = this.values.get(i).bind(slots);
+    }
+    return bound;
+  }
+
+  private String expand(Map<String, ?> variables, Object[] slotValues, int[][] slots) {
+    String name = (variables != null)
+        ? this.name.expand(variables)
+        : this.name.expand(slotValues, slots[0]);
 
     if (this.pure) {
       return name;
     }
 
     List<String> expanded = new ArrayList<>();
-    for (Template template : this.values) {
-      String result = template.expand(variables);
+    for (int i = 0; i < this.values.size(); i++) {
+      Template template = this.values.get(i);
+      String result = (variables != null)
+          ? template.expand(variables)
+          : template.expand(slotValues, slots[i + 1]);
       if (result == null) {
         continue;
       }
@@ -32,6 +32,7 @@ public class Template {
 
   private static final Logger logger = Logger.getLogger(Template.class.getName());
   private static final Pattern QUERY_STRING_PATTERN = Pattern.compile("(?<!\\{)(\\?)");
+  private static final int UNBOUND = -1;
   private final String template;
   private final boolean allowUnresolved;
   private final EncodingOptions encode;
@@ -90,13 +91,57 @@ public class Template {
     if (variables == null) {
       throw new IllegalArgumentException("variable map is required.");
     }
+    return this.expand(variables, null, null);
+  }
+
+  /**
+   * Expand the template using positional values. Each expression reads its value from the slot
+   * assigned to it by {@link #bind(Map)}, avoiding a variable map lookup per expression.
+   *
+   * @param values containing the values for expansion, indexed by slot.
+   * @param slots for each chunk in this template, as returned by {@link #bind(Map)}.
+   * @return a fully qualified URI with the variables expanded.
+   */
+  public String expand(Object[] values, int[] slots) {
+    if (values == null || slots == null) {
+      throw new IllegalArgumentException("values and slots are required.");
+    }
+    return this.expand(null, values, slots);
+  }
+
+  /**
+   * Assigns each expression in this template to the slot registered for its variable name.
+   * Literals, and expressions without a registered slot, are marked as unbound.
+   *
+   * @param slots containing the slot index for each variable name.
+   * @return the slot for each chunk in this template.
+   */
+  public int[] bind(Map<String, Integer> slots) {
+    int[] bound = new int[this.templateChunks.size()];
+    for (int i = 0; i < bound.length; i++) {
+      TemplateChunk chunk = this.templateChunks.get(i);
+      Integer slot = null;
+      if (chunk instanceof Expression) {
+        slot = slots.get(((Expression) chunk).getName());
+      }
+      bound[i] = (slot != null) ? slot : UNBOUND;
+    }
+    return bound;
+  }
 
+  private String expand(Map<String, ?> variables, Object[] values, int[] slots) {
     /* resolve all expressions within the template */
     StringBuilder resolved = null;
-    for (TemplateChunk chunk : this.templateChunks) {
+    for (int i = 0; i < this.templateChunks.size(); i++) {
+      TemplateChunk chunk = this.templateChunks.get(i);
       String expanded;
       if (chunk instanceof Expression) {
-        expanded = this.resolveExpression((Expression) chunk, variables);
+        if (variables != null) {
+          expanded = this.resolveExpression((Expression) chunk, variables);
+        } else {
+          Object value = (slots[i] != UNBOUND) ? values[slots[i]] : null;
+          expanded = this.resolveValue((Expression) chunk, value);
+        }
       } else {
         /* chunk is a literal value */
         expanded = chunk.getValue();
@@ -123,8 +168,11 @@ public class Template {
   protected String resolveExpression(
                                      Expression expression,
                                      Map<String, ?> variables) {
+    return this.resolveValue(expression, variables.get(expression.getName()));
+  }
+
+  private String resolveValue(Expression expression, Object value) {
     String resolved = null;
-    Object value = variables.get(expression.getName());
     if (value != null) {
       String expanded = expression.expand(
           value, this.encode.isEncodingRequired());
@@ -14,17 +14,25 @@
 package feign.template;
 
 import feign.Util;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.nio.charset.StandardCharsets;
 
 public class UriUtils {
 
-  private static final Pattern PCT_ENCODED_PATTERN = Pattern.compile("%[0-9A-Fa-f][0-9A-Fa-f]");
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  /* lookup tables for the US-ASCII range, indexed by character */
+  private static final boolean[] UNRESERVED = new boolean[128];
+  private static final boolean[] RESERVED = new boolean[128];
+
+  static {
+    for (int c = 0; c < 128; c++) {
+      UNRESERVED[c] = isUnreserved(c);
+      RESERVED[c] = isReserved(c);
+    }
+  }
 
   /**
    * Determines if the value is already pct-encoded.
@@ -33,13 +41,20 @@ public class UriUtils {
    * @return {@literal true} if the value is already pct-encoded
    */
   public static boolean isEncoded(String value, Charset charset) {
-    for (byte b : value.getBytes(charset)) {
-      if (!isUnreserved((char) b) && b != '%') {
+    if (!isAsciiCompatible(charset)) {
+      return isEncoded(value.getBytes(charset));
+    }
+    boolean encoded = false;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '%') {
+        encoded |= isPctEncoded(value, i);
+      } else if (c >= 128 || !UNRESERVED[c]) {
         /* break if there are any unreserved character */
         return false;
       }
     }
-    return PCT_ENCODED_PATTERN.matcher(value).find();
+    return encoded;
   }
 
   /**
@@ -63,6 +78,22 @@ public class UriUtils {
     return encodeChunk(value, charset, false);
   }
 
+  /**
+   * Uri Encode the value, appending the result to the provided builder. Already encoded values are
+   * appended as is.
+   *
+   * @param value to encode.
+   * @param charset to use.
+   * @param encoded to append the encoded value to.
+   * @return the builder, for chaining.
+   */
+  public static StringBuilder encode(String value, Charset charset, StringBuilder encoded) {
+    if (isEncoded(value, charset)) {
+      return encoded.append(value);
+    }
+    return appendEncoded(value, 0, charset, false, false, encoded);
+  }
+
   public static String encode(String value, boolean allowReservedCharacters) {
     return encodeInternal(value, Util.UTF_8, allowReservedCharacters);
   }
@@ -71,6 +102,27 @@ public class UriUtils {
     return encodeInternal(value, charset, allowReservedCharacters);
   }
 
+  /**
+   * Uri Encode the value, appending the result to the provided builder. Values that are already
+   * pct-encoded are preserved.
+   *
+   * @param value to encode.
+   * @param charset to use.
+   * @param allowReservedCharacters if reserved characters should be preserved.
+   * @param encoded to append the encoded value to.
+   * @return the builder, for chaining.
+   * @see #encodeInternal(String, Charset, boolean)
+   */
+  public static StringBuilder encode(String value,
+                                     Charset charset,
+                                     boolean allowReservedCharacters,
+                                     StringBuilder encoded) {
+    if (!containsPctEncoded(value)) {
+      return appendEncoded(value, 0, charset, true, false, encoded);
+    }
+    return appendEncoded(value, 0, charset, allowReservedCharacters, true, encoded);
+  }
+
   /**
    * Uri Decode the value.
    *
@@ -106,39 +158,25 @@ public class UriUtils {
    *
    * @param value inspect.
    * @param charset to use.
-   * @return a new String with the reserved characters preserved.
+   * @return a new String with the reserved characters preserved, or the value itself if nothing
+   *         required encoding.
    */
   public static String encodeInternal(String value,
                                       Charset charset,
                                       boolean allowReservedCharacters) {
-    /* value is encoded, we need to split it up and skip the parts that are already encoded */
-    Matcher matcher = PCT_ENCODED_PATTERN.matcher(value);
-
-    if (!matcher.find()) {
+    if (!containsPctEncoded(value)) {
       return encodeChunk(value, charset, true);
     }
 
-    int length = value.length();
-    StringBuilder encoded = new StringBuilder(length + 8);
-    int index = 0;
-    do {
-      /* split out the value before the encoded value */
-      String before = value.substring(index, matcher.start());
-
-      /* encode it */
-      encoded.append(encodeChunk(before, charset, allowReservedCharacters));
-
-      /* append the encoded value */
-      encoded.append(matcher.group());
-
-      /* update the string search index */
-      index = matcher.end();
-    } while (matcher.find());
-
-    /* append the rest of the string */
-    String tail = value.substring(index, length);
-    encoded.append(encodeChunk(tail, charset, allowReservedCharacters));
-    return encoded.toString();
+    /* value is encoded, skip the parts that are already encoded */
+    int index = indexOfUnsafe(value, charset, allowReservedCharacters, true);
+    if (index == -1) {
+      return value;
+    }
+    StringBuilder encoded = new StringBuilder(value.length() + 16);
+    encoded.append(value, 0, index);
+    return appendEncoded(value, index, charset, allowReservedCharacters, true, encoded)
+        .toString();
   }
 
   /**
@@ -146,46 +184,177 @@ public class UriUtils {
    *
    * @param value to encode.
    * @param charset to use.
-   * @return an encoded uri chunk.
+   * @return an encoded uri chunk, or the value itself if nothing required encoding.
    */
   private static String encodeChunk(String value, Charset charset, boolean allowReserved) {
     if (isEncoded(value, charset)) {
       return value;
     }
 
-    byte[] data = value.getBytes(charset);
-    try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-      for (byte b : data) {
-        if (isUnreserved((char) b)) {
-          bos.write(b);
-        } else if (isReserved((char) b) && allowReserved) {
-          bos.write(b);
+    int index = indexOfUnsafe(value, charset, allowReserved, false);
+    if (index == -1) {
+      return value;
+    }
+    StringBuilder encoded = new StringBuilder(value.length() + 16);
+    encoded.append(value, 0, index);
+    return appendEncoded(value, index, charset, allowReserved, false, encoded).toString();
+  }
+
+  /**
+   * Find the first character that cannot be copied to the encoded value as is.
+   *
+   * @param value to inspect.
+   * @param charset to use.
+   * @param allowReserved if reserved characters should be preserved.
+   * @param preserveEncoded if pct-encoded triplets should be preserved.
+   * @return the index of the first character to encode, or {@literal -1} if there is none.
+   */
+  private static int indexOfUnsafe(String value,
+                                   Charset charset,
+                                   boolean allowReserved,
+                                   boolean preserveEncoded) {
+    if (!isAsciiCompatible(charset)) {
+      return value.isEmpty() ? -1 : 0;
+    }
+    int index = 0;
+    while (index < value.length()) {
+      char c = value.charAt(index);
+      if (preserveEncoded && c == '%' && isPctEncoded(value, index)) {
+        index += 3;
+      } else if (c < 128 && (UNRESERVED[c] || (allowReserved && RESERVED[c]))) {
+        index++;
+      } else {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Encode the value in a single pass, starting at the provided index.
+   *
+   * @param value to encode.
+   * @param from index of the first character to encode.
+   * @param charset to use.
+   * @param allowReserved if reserved characters should be preserved.
+   * @param preserveEncoded if pct-encoded triplets should be preserved.
+   * @param encoded to append the encoded value to.
+   * @return the builder, for chaining.
+   */
+  private static StringBuilder appendEncoded(String value,
+                                             int from,
+                                             Charset charset,
+                                             boolean allowReserved,
+                                             boolean preserveEncoded,
+                                             StringBuilder encoded) {
+    boolean ascii = isAsciiCompatible(charset);
+    boolean utf8 = StandardCharsets.UTF_8.equals(charset);
+    int length = value.length();
+    int index = from;
+    while (index < length) {
+      char c = value.charAt(index);
+      if (preserveEncoded && c == '%' && isPctEncoded(value, index)) {
+        encoded.append(value, index, index + 3);
+        index += 3;
+      } else if (ascii && c < 128) {
+        if (UNRESERVED[c] || (allowReserved && RESERVED[c])) {
+          encoded.append(c);
         } else {
-          pctEncode(b, bos);
+          pctEncode((byte) c, encoded);
         }
+        index++;
+      } else if (utf8 && !Character.isSurrogate(c)) {
+        /* two or three byte utf-8 sequence */
+        if (c < 0x800) {
+          pctEncode((byte) (0xC0 | (c >> 6)), encoded);
+        } else {
+          pctEncode((byte) (0xE0 | (c >> 12)), encoded);
+          pctEncode((byte) (0x80 | ((c >> 6) & 0x3F)), encoded);
+        }
+        pctEncode((byte) (0x80 | (c & 0x3F)), encoded);
+        index++;
+      } else {
+        /* let the charset encode the run of characters we cannot map directly */
+        int end = index + 1;
+        while (end < length && !isRunBoundary(value, end, ascii, preserveEncoded)) {
+          end++;
+        }
+        for (byte b : value.substring(index, end).getBytes(charset)) {
+          if (b >= 0 && (UNRESERVED[b] || (allowReserved && RESERVED[b]))) {
+            encoded.append((char) b);
+          } else {
+            pctEncode(b, encoded);
+          }
+        }
+        index = end;
       }
-      return new String(bos.toByteArray(), charset);
-    } catch (IOException ioe) {
-      throw new IllegalStateException("Error occurred during encoding of the uri: "
-          + ioe.getMessage(), ioe);
     }
+    return encoded;
+  }
+
+  private static boolean isRunBoundary(String value,
+                                       int index,
+                                       boolean ascii,
+                                       boolean preserveEncoded) {
+    char c = value.charAt(index);
+    return (ascii && c < 128) || (preserveEncoded && c == '%' && isPctEncoded(value, index));
   }
 
   /**
    * Percent Encode the provided byte.
    *
    * @param data to encode
-   * @param bos with the output stream to use.
+   * @param encoded to append the encoded byte to.
+   */
+  private static void pctEncode(byte data, StringBuilder encoded) {
+    encoded.append('%')
+        .append(HEX_DIGITS[(data >> 4) & 0xF])
+        .append(HEX_DIGITS[data & 0xF]);
+  }
+
+  private static boolean isEncoded(byte[] data) {
+    boolean encoded = false;
+    for (int i = 0; i < data.length; i++) {
+      if (data[i] == '%') {
+        encoded |= i + 2 < data.length && isHexDigit(data[i + 1]) && isHexDigit(data[i + 2]);
+      } else if (data[i] < 0 || !UNRESERVED[data[i]]) {
+        return false;
+      }
+    }
+    return encoded;
+  }
+
+  /**
+   * Determines if a pct-encoded triplet starts at the provided index.
    */
-  private static void pctEncode(byte data, ByteArrayOutputStream bos) {
-    bos.write('%');
-    char hex1 = Character.toUpperCase(Character.forDigit((data >> 4) & 0xF, 16));
-    char hex2 = Character.toUpperCase(Character.forDigit(data & 0xF, 16));
-    bos.write(hex1);
-    bos.write(hex2);
+  private static boolean isPctEncoded(String value, int index) {
+    return index + 2 < value.length()
+        && value.charAt(index) == '%'
+        && isHexDigit(value.charAt(index + 1))
+        && isHexDigit(value.charAt(index + 2));
   }
 
+  private static boolean containsPctEncoded(String value) {
+    for (int i = value.indexOf('%'); i != -1; i = value.indexOf('%', i + 1)) {
+      if (isPctEncoded(value, i)) {
+        return true;
+      }
+    }
+    return false;
+  }
 
+  /**
+   * Charsets that encode US-ASCII characters as single, identical bytes.
+   */
+  private static boolean isAsciiCompatible(Charset charset) {
+    return StandardCharsets.UTF_8.equals(charset)
+        || StandardCharsets.ISO_8859_1.equals(charset)
+        || StandardCharsets.US_ASCII.equals(charset);
+  }
+
+  private static boolean isHexDigit(int c) {
+    return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
 
   private static boolean isAlpha(int c) {
     return (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z');
@@ -37,6 +37,8 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Rule;
@@ -518,6 +520,63 @@ public class AsyncFeignTest {
     unwrap(cf);
   }
 
+  @Test
+  public void retriesOnRetryAfterWithoutBlocking() throws Throwable {
+    server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "0"));
+    server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "0"));
+    server.enqueue(new MockResponse().setBody("success!"));
+
+    TestInterfaceAsync api = AsyncFeign.asyncBuilder()
+        .retryer(new AsyncRetryer.Default())
+        .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+    assertEquals("success!", unwrap(api.post()));
+    assertEquals(3, server.getRequestCount());
+  }
+
+  @Test
+  public void propagatesLastFailureOnceRetriesAreExhausted() throws Throwable {
+    server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "0"));
+    server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "0"));
+    thrown.expect(RetryableException.class);
+
+    TestInterfaceAsync api = AsyncFeign.asyncBuilder()
+        .retryer(new AsyncRetryer.Default(1, 1, 2))
+        .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+    try {
+      unwrap(api.post());
+    } finally {
+      assertEquals(2, server.getRequestCount());
+    }
+  }
+
+  @Test
+  public void cancellingRemovesTheScheduledAttempt() throws Throwable {
+    server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "0"));
+    ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+    scheduler.setRemoveOnCancelPolicy(true);
+    try {
+      TestInterfaceAsync api = new TestInterfaceAsyncBuilder()
+          .retryer((e, attempt) -> TimeUnit.MINUTES.toMillis(1), scheduler)
+          .target("http://localhost:" + server.getPort());
+
+      CompletableFuture<String> cf = api.post();
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (scheduler.getQueue().isEmpty() && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      assertThat(scheduler.getQueue()).hasSize(1);
+
+      cf.cancel(true);
+
+      assertThat(scheduler.getQueue()).isEmpty();
+      assertEquals(1, server.getRequestCount());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
   @Test
   public void throwsFeignExceptionIncludingBody() throws Throwable {
     server.enqueue(new MockResponse().setBody("success!"));
@@ -1021,6 +1080,11 @@ public class AsyncFeignTest {
       return this;
     }
 
+    TestInterfaceAsyncBuilder retryer(AsyncRetryer retryer, ScheduledExecutorService scheduler) {
+      delegate.retryer(retryer, scheduler);
+      return this;
+    }
+
     TestInterfaceAsyncBuilder decode404() {
       delegate.decode404();
       return this;
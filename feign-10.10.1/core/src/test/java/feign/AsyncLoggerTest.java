@@ -0,0 +1,162 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import feign.Logger.Level;
+
+public class AsyncLoggerTest {
+
+  interface Api {
+
+    @RequestLine("POST /")
+    String post(String body);
+  }
+
+  private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+  private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+  private final CountDownLatch blocked = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private volatile boolean blocking;
+
+  private final Logger recording = new Logger() {
+    @Override
+    protected void log(String configKey, String format, Object... args) {
+      if (blocking) {
+        blocked.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      threads.add(Thread.currentThread().getName());
+      messages.add((methodTag(configKey) + String.format(format, args))
+          .replaceAll("\\(\\d+ms\\)", "(Nms)"));
+    }
+  };
+
+  private AsyncLogger logger = new AsyncLogger(recording, 64, 4);
+
+  @After
+  public void close() {
+    release.countDown();
+    logger.close();
+  }
+
+  private Api api(Level level, String responseBody) {
+    return Feign.builder()
+        .client((request, options) -> Response.builder()
+            .status(200)
+            .reason("OK")
+            .request(request)
+            .headers(Collections.singletonMap("Content-Type",
+                Collections.singletonList("text/plain")))
+            .body(new ByteArrayInputStream(responseBody.getBytes(UTF_8)), null)
+            .build())
+        .logger(logger)
+        .logLevel(level)
+        .target(Api.class, "http://localhost");
+  }
+
+  @Test
+  public void logsOnAnotherThreadAndTruncatesBodies() {
+    assertThat(api(Level.FULL, "0123456789").post("abcdefgh")).isEqualTo("0123456789");
+    logger.close();
+
+    assertThat(messages).containsExactly(
+        "[Api#post] ---> POST http://localhost/ HTTP/1.1",
+        "[Api#post] Content-Length: 8",
+        "[Api#post] ",
+        "[Api#post] abcd... (4 more bytes)",
+        "[Api#post] ---> END HTTP (8-byte body)",
+        "[Api#post] <--- HTTP/1.1 200 OK (Nms)",
+        "[Api#post] content-type: text/plain",
+        "[Api#post] ",
+        "[Api#post] 0123... (6 more bytes)",
+        "[Api#post] <--- END HTTP (10-byte body)");
+    assertThat(threads).allMatch(name -> name.startsWith("feign-logger-"));
+    assertThat(logger.droppedCount()).isZero();
+  }
+
+  @Test
+  public void headersLevelStreamsTheBody() throws IOException {
+    final Request request = Request.create(Request.HttpMethod.GET, "http://localhost/",
+        Collections.emptyMap(), null, UTF_8, null);
+    final Response response = Response.builder()
+        .status(200)
+        .request(request)
+        .headers(Collections.emptyMap())
+        .body(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5}), 5)
+        .build();
+
+    final Response logged = logger.logAndRebufferResponse("Api#get()", Level.HEADERS, response, 1);
+
+    assertThat(logged.body().isRepeatable()).isFalse();
+    assertThat(logged.body().length()).isEqualTo(5);
+    try (InputStream body = logged.body().asInputStream()) {
+      assertThat(body.read(new byte[2])).isEqualTo(2);
+    }
+    logger.close();
+    assertThat(messages).containsExactly(
+        "[Api#get] <--- HTTP/1.1 200 (Nms)",
+        "[Api#get] <--- END HTTP (2 bytes read before close)");
+  }
+
+  @Test
+  public void fullLevelDoesNotBufferStreamingBodies() {
+    final Request request = Request.create(Request.HttpMethod.POST, "http://localhost/",
+        Collections.emptyMap(), Request.Body.create(out -> {
+          throw new AssertionError("body must not be read");
+        }, 80, UTF_8), null);
+
+    logger.logRequest("Api#post(String)", Level.FULL, request);
+    logger.close();
+
+    assertThat(request.isStreaming()).isTrue();
+    assertThat(messages).containsExactly(
+        "[Api#post] ---> POST http://localhost/ HTTP/1.1",
+        "[Api#post] ",
+        "[Api#post] Streaming data",
+        "[Api#post] ---> END HTTP (-1-byte body)");
+  }
+
+  @Test
+  public void dropsWhenFull() throws InterruptedException {
+    logger.close();
+    logger = new AsyncLogger(recording, 2, 0);
+    blocking = true;
+    logger.log("Api#get()", "first");
+    assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+    for (int i = 0; i < 10; i++) {
+      logger.log("Api#get()", "%s", i);
+    }
+    release.countDown();
+    logger.close();
+
+    assertThat(logger.droppedCount()).isEqualTo(8);
+    assertThat(messages).containsExactly("[Api#get] first", "[Api#get] 0", "[Api#get] 1");
+  }
+}
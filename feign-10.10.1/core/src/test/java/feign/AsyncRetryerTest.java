@@ -0,0 +1,69 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.junit.Assert.assertEquals;
+import feign.Request.HttpMethod;
+import java.util.Collections;
+import java.util.Date;
+import org.junit.Test;
+
+public class AsyncRetryerTest {
+
+  private static final Request REQUEST = Request
+      .create(HttpMethod.GET, "/", Collections.emptyMap(), null, Util.UTF_8);
+
+  @Test
+  public void backsOffLikeTheBlockingRetryer() {
+    AsyncRetryer retryer = new AsyncRetryer.Default();
+    RetryableException e = new RetryableException(-1, null, null, null, REQUEST);
+
+    assertEquals(100, retryer.nextDelayMillis(e, 1));
+    assertEquals(150, retryer.nextDelayMillis(e, 2));
+    assertEquals(225, retryer.nextDelayMillis(e, 3));
+    assertEquals(337, retryer.nextDelayMillis(e, 4));
+    assertEquals(-1, retryer.nextDelayMillis(e, 5));
+  }
+
+  @Test
+  public void honoursRetryAfterUpToMaxPeriod() {
+    AsyncRetryer retryer = new AsyncRetryer.Default() {
+      @Override
+      protected long currentTimeMillis() {
+        return 0;
+      }
+    };
+
+    assertEquals(800, retryer.nextDelayMillis(retryAfter(800), 1));
+    assertEquals(1000, retryer.nextDelayMillis(retryAfter(5000), 1));
+  }
+
+  @Test
+  public void retriesImmediatelyWhenRetryAfterHasPassed() {
+    AsyncRetryer retryer = new AsyncRetryer.Default();
+
+    assertEquals(0, retryer.nextDelayMillis(retryAfter(0), 1));
+  }
+
+  @Test
+  public void neverRetry() {
+    RetryableException e = new RetryableException(-1, null, null, null, REQUEST);
+
+    assertEquals(-1, AsyncRetryer.NEVER_RETRY.nextDelayMillis(e, 1));
+  }
+
+  private static RetryableException retryAfter(long millis) {
+    return new RetryableException(-1, null, HttpMethod.GET, new Date(millis), REQUEST);
+  }
+}
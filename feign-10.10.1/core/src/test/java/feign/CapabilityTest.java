@@ -19,6 +19,7 @@ import org.hamcrest.CoreMatchers;
 import org.junit.Test;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 import feign.Request.Options;
 
 public class CapabilityTest {
@@ -66,4 +67,24 @@ public class CapabilityTest {
     assertThat(enriched, CoreMatchers.instanceOf(BClient.class));
   }
 
+  @Test
+  public void enrichUsesTheRuntimeTypeOfEachComponent() {
+    Capability capability = new Capability() {
+      @Override
+      public Client enrich(Client client) {
+        return new AClient(client);
+      }
+    };
+
+    List<Capability> capabilities = Arrays.asList(capability);
+
+    assertThat(Capability.enrich((Client) new Client.Default(null, null), capabilities),
+        CoreMatchers.instanceOf(AClient.class));
+    assertThat(Capability.enrich((Client) new AClient(null), capabilities),
+        CoreMatchers.instanceOf(AClient.class));
+    assertThat(Capability.enrich(Logger.Level.FULL, capabilities),
+        CoreMatchers.is(Logger.Level.FULL));
+    assertThat(Capability.enrich((Client) null, capabilities), nullValue());
+  }
+
 }
@@ -0,0 +1,257 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import feign.ConcurrencyLimiter.Algorithm;
+import feign.ConcurrencyLimiter.Permit;
+import org.junit.After;
+import org.junit.Test;
+
+public class ConcurrencyLimiterTest {
+
+  interface Api {
+
+    @RequestLine("GET /")
+    String get();
+  }
+
+  interface UriApi {
+
+    @RequestLine("GET")
+    String get(URI uri);
+  }
+
+  interface AsyncApi {
+
+    @RequestLine("GET /")
+    CompletableFuture<String> get();
+  }
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void rejectsOnceTheLimitIsReached() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(fixed(2));
+
+    Permit first = limiter.acquire();
+    Permit second = limiter.acquire();
+
+    assertThat(first).isNotNull();
+    assertThat(second).isNotNull();
+    assertThat(limiter.acquire()).isNull();
+    assertThat(limiter.inFlight()).isEqualTo(2);
+    assertThat(limiter.rejectedCount()).isEqualTo(1);
+
+    first.success();
+    first.success();
+    assertThat(limiter.inFlight()).isEqualTo(1);
+    assertThat(limiter.acquire()).isNotNull();
+  }
+
+  @Test
+  public void queuedCallGetsTheNextReleasedPermit() throws Exception {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(fixed(1), 5, SECONDS, scheduler);
+    Permit held = limiter.acquire();
+
+    AtomicReference<Thread> waiting = new AtomicReference<>();
+    Future<Permit> queued = executor.submit(() -> {
+      waiting.set(Thread.currentThread());
+      return limiter.acquire();
+    });
+    // the blocking call must queue before the asynchronous one
+    while (waiting.get() == null || waiting.get().getState() != Thread.State.TIMED_WAITING) {
+      Thread.sleep(5);
+    }
+    CompletableFuture<Permit> queuedAsync = limiter.acquireAsync();
+    assertThat(queued.isDone()).isFalse();
+
+    held.success();
+    Permit handed = queued.get(5, SECONDS);
+    assertThat(handed).isNotNull();
+    assertThat(queuedAsync).isNotDone();
+
+    handed.ignore();
+    assertThat(queuedAsync.get(5, SECONDS)).isNotNull();
+    assertThat(limiter.inFlight()).isEqualTo(1);
+    assertThat(limiter.rejectedCount()).isZero();
+  }
+
+  @Test
+  public void queuedCallIsRejectedAfterMaxQueueWait() throws Exception {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(fixed(1), 20, MILLISECONDS, scheduler);
+    limiter.acquire();
+
+    assertThat(limiter.acquire()).isNull();
+    assertThat(limiter.acquireAsync().get(5, SECONDS)).isNull();
+    assertThat(limiter.rejectedCount()).isEqualTo(2);
+    assertThat(limiter.inFlight()).isEqualTo(1);
+  }
+
+  @Test
+  public void vegasGrowsWhileLatencyHoldsAndShrinksOnDrops() {
+    ConcurrencyLimiter.Vegas vegas = new ConcurrencyLimiter.Vegas(10, 100);
+    vegas.update(MILLISECONDS.toNanos(10), 10, false);
+
+    int limit = 10;
+    for (int i = 0; i < 5; i++) {
+      limit = vegas.update(MILLISECONDS.toNanos(10), limit, false);
+    }
+    assertThat(limit).isGreaterThan(10);
+
+    int queued = limit;
+    for (int i = 0; i < 5; i++) {
+      queued = vegas.update(MILLISECONDS.toNanos(100), queued, false);
+    }
+    assertThat(queued).isLessThan(limit);
+    assertThat(vegas.update(MILLISECONDS.toNanos(10), queued, true)).isLessThan(queued);
+  }
+
+  @Test
+  public void gradientShrinksWhenLatencyRises() {
+    ConcurrencyLimiter.Gradient gradient = new ConcurrencyLimiter.Gradient(50, 100);
+    int limit = 50;
+    for (int i = 0; i < 50; i++) {
+      limit = gradient.update(MILLISECONDS.toNanos(10), limit, false);
+    }
+    int steady = limit;
+
+    for (int i = 0; i < 20; i++) {
+      limit = gradient.update(MILLISECONDS.toNanos(200), limit, false);
+    }
+    assertThat(limit).isLessThan(steady);
+  }
+
+  @Test
+  public void limitIsNotUpdatedByCallsMadeWellBelowIt() {
+    ConcurrencyLimiter.Gradient gradient = new ConcurrencyLimiter.Gradient(50, 100);
+    gradient.update(MILLISECONDS.toNanos(10), 1, false);
+
+    assertThat(gradient.update(MILLISECONDS.toNanos(500), 1, false)).isEqualTo(50);
+  }
+
+  @Test
+  public void capabilityRejectsCallsBeyondTheLimitWithoutSendingThem() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch sent = new CountDownLatch(1);
+    ConcurrencyLimitCapability capability =
+        new ConcurrencyLimitCapability(() -> fixed(1), false, 0, MILLISECONDS);
+    Api api = Feign.builder()
+        .client((request, options) -> {
+          sent.countDown();
+          try {
+            release.await(5, SECONDS);
+          } catch (InterruptedException e) {
+            throw new IOException(e);
+          }
+          return ok(request);
+        })
+        .addCapability(capability)
+        .target(Api.class, "http://localhost:8080");
+
+    Future<String> first = executor.submit(api::get);
+    sent.await(5, SECONDS);
+
+    assertThatThrownBy(api::get).isInstanceOf(ConcurrencyLimitExceededException.class);
+    release.countDown();
+    assertThat(first.get(5, SECONDS)).isEqualTo("ok");
+    ConcurrencyLimiter limiter = capability.limiters().get("http://localhost:8080");
+    assertThat(limiter.rejectedCount()).isEqualTo(1);
+    assertThat(limiter.inFlight()).isZero();
+  }
+
+  @Test
+  public void asyncClientsPassIOExceptionsThroughAndDropThem() throws Exception {
+    IOException failure = new IOException("timeout");
+    ConcurrencyLimitCapability capability = new ConcurrencyLimitCapability(
+        () -> new ConcurrencyLimiter.Vegas(10, 100), true, 0, MILLISECONDS);
+    AsyncApi api = AsyncFeign.<Void>asyncBuilder()
+        .client((request, options, context) -> {
+          CompletableFuture<Response> response = new CompletableFuture<>();
+          response.completeExceptionally(failure);
+          return response;
+        })
+        .addCapability(capability)
+        .target(AsyncApi.class, "http://localhost:8080");
+
+    assertThatThrownBy(() -> api.get().get(5, SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCause(failure);
+    ConcurrencyLimiter limiter = capability.limiters().get("http://localhost:8080 AsyncApi#get()");
+    assertThat(limiter.limit()).isLessThan(10);
+    assertThat(limiter.inFlight()).isZero();
+  }
+
+  @Test
+  public void emptyTargetsAreLimitedByTheOriginOfTheUri() {
+    ConcurrencyLimitCapability capability =
+        new ConcurrencyLimitCapability(() -> fixed(1), false, 0, MILLISECONDS);
+    UriApi api = Feign.builder()
+        .client((request, options) -> ok(request))
+        .addCapability(capability)
+        .target(Target.EmptyTarget.create(UriApi.class));
+
+    assertThat(api.get(URI.create("http://localhost:8080/a?b=c"))).isEqualTo("ok");
+    assertThat(api.get(URI.create("http://localhost:8080/d"))).isEqualTo("ok");
+    assertThat(capability.limiters()).containsOnlyKeys("http://localhost:8080");
+  }
+
+  private static Response ok(Request request) {
+    return Response.builder()
+        .status(200)
+        .request(request)
+        .headers(Collections.emptyMap())
+        .body("ok", Util.UTF_8)
+        .build();
+  }
+
+  /**
+   * Keeps the limit at {@code limit}.
+   */
+  private static Algorithm fixed(int limit) {
+    return new Algorithm() {
+      @Override
+      public int initialLimit() {
+        return limit;
+      }
+
+      @Override
+      public int update(long rttNanos, int inFlight, boolean dropped) {
+        return limit;
+      }
+    };
+  }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import org.junit.Test;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import feign.ExecutionStrategy.RejectionPolicy;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ExecutionStrategyTest {
+
+  private final static Request REQUEST = Request
+      .create(Request.HttpMethod.GET, "http://localhost/", Collections.emptyMap(), null,
+          Util.UTF_8);
+
+  @Test
+  public void boundedAbortsWhenSaturated() throws Exception {
+    ExecutionStrategy strategy = ExecutionStrategy.bounded(1, 1, RejectionPolicy.ABORT);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+
+    CompletableFuture<String> running = strategy.submit(REQUEST, () -> {
+      started.countDown();
+      release.await();
+      return "running";
+    });
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<String> queued = strategy.submit(REQUEST, () -> "queued");
+    CompletableFuture<String> rejected = strategy.submit(REQUEST, () -> "rejected");
+
+    assertEquals(1, strategy.metrics().activeCount());
+    assertEquals(1, strategy.metrics().queueDepth());
+    assertEquals(1, strategy.metrics().rejectedCount());
+    assertRejected(rejected);
+
+    release.countDown();
+    assertEquals("running", running.get(5, TimeUnit.SECONDS));
+    assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void boundedRunsOnCallerWhenSaturated() throws Exception {
+    ExecutionStrategy strategy = ExecutionStrategy.bounded(1, 0, RejectionPolicy.CALLER_RUNS);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+
+    strategy.submit(REQUEST, () -> {
+      started.countDown();
+      return release.await(5, TimeUnit.SECONDS);
+    });
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    Thread caller = Thread.currentThread();
+    CompletableFuture<Thread> ranOn = strategy.submit(REQUEST, Thread::currentThread);
+
+    assertThat(ranOn).isCompletedWithValue(caller);
+    assertEquals(1, strategy.metrics().rejectedCount());
+    release.countDown();
+  }
+
+  @Test
+  public void perTargetLimitRejectsOverLimitAndReleasesPermits() throws Exception {
+    ExecutionStrategy strategy =
+        ExecutionStrategy.bounded(4, 0, RejectionPolicy.ABORT).perTargetLimit(1);
+    Request other = Request
+        .create(Request.HttpMethod.GET, "http://other/", Collections.emptyMap(), null,
+            Util.UTF_8);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<Boolean> first =
+        strategy.submit(REQUEST, () -> release.await(5, TimeUnit.SECONDS));
+    assertRejected(strategy.submit(REQUEST, () -> true));
+    CompletableFuture<String> otherTarget = strategy.submit(other, () -> "other");
+    assertEquals("other", otherTarget.get(5, TimeUnit.SECONDS));
+    assertEquals(1, strategy.metrics().rejectedCount());
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    assertEquals("again", strategy.submit(REQUEST, () -> "again").get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void perTargetLimitKeysUriCallsByOriginAndForgetsIdleTargets() throws Exception {
+    ExecutionStrategy.PerTargetLimit strategy = (ExecutionStrategy.PerTargetLimit) ExecutionStrategy
+        .bounded(4, 0, RejectionPolicy.ABORT).perTargetLimit(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<Boolean> first = strategy.submit(get("http://host:8080/a?id=1"),
+        () -> release.await(5, TimeUnit.SECONDS));
+    assertRejected(strategy.submit(get("http://host:8080/b?id=2"), () -> true));
+    assertThat(strategy.inFlight).containsOnlyKeys("http://host:8080");
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!strategy.inFlight.isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.yield();
+    }
+    assertThat(strategy.inFlight).isEmpty();
+  }
+
+  private static Request get(String url) {
+    return Request.create(Request.HttpMethod.GET, url, Collections.emptyMap(),
+        Request.Body.empty(), null);
+  }
+
+  @Test
+  public void exceptionsCompleteTheFuture() throws Exception {
+    ExecutionStrategy strategy = ExecutionStrategy.bounded(1, 1, RejectionPolicy.ABORT);
+    CompletableFuture<Object> result = strategy.submit(REQUEST, () -> {
+      throw new java.io.IOException("boom");
+    });
+    try {
+      result.get(5, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(java.io.IOException.class).hasMessage("boom");
+    }
+  }
+
+  private static void assertRejected(CompletableFuture<?> future) throws Exception {
+    try {
+      future.get(5, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+    }
+  }
+}
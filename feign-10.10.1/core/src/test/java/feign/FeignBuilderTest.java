@@ -444,6 +444,39 @@ public class FeignBuilderTest {
     assertTrue("Responses must be closed when the decoder fails", closed.get());
   }
 
+  @Test
+  public void reusesParsedMetadataAcrossBuilders() {
+    AtomicInteger parsed = new AtomicInteger();
+    Contract contract = targetType -> {
+      parsed.incrementAndGet();
+      return new Contract.Default().parseAndValidateMetadata(targetType);
+    };
+
+    String url = "http://localhost:" + server.getPort();
+    Feign.builder().contract(contract).target(TestInterface.class, url);
+    Feign.builder().contract(contract).target(TestInterface.class, url);
+    assertEquals(1, parsed.get());
+
+    Feign.builder().contract(new Contract.Default()).target(TestInterface.class, url);
+    Feign.builder().contract(new Contract.Default()).target(TestInterface.class, url);
+    assertEquals(new Contract.Default(), new Contract.Default());
+    assertNotEquals(new Contract.Default(), new Contract.Default() {});
+  }
+
+  @Test
+  public void defaultContractMetadataSurvivesGarbageCollection() {
+    String url = "http://localhost:" + server.getPort();
+    Feign.builder().target(TestInterface.class, url);
+    List<MethodMetadata> parsed =
+        MetadataCache.parseAndValidateMetadata(new Contract.Default(), TestInterface.class);
+
+    System.gc();
+    Feign.builder().target(TestInterface.class, url);
+
+    assertSame(parsed,
+        MetadataCache.parseAndValidateMetadata(new Contract.Default(), TestInterface.class));
+  }
+
   interface TestInterface {
     @RequestLine("GET")
     Response getNoPath();
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Target.HardCodedTarget;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Rule;
+import org.junit.Test;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GeneratedDispatchTest {
+
+  @Rule
+  public final MockWebServer server = new MockWebServer();
+
+  interface Calculator {
+
+    long add(int a, long b);
+
+    double scale(double value, float factor);
+
+    boolean negate(boolean value);
+
+    char upper(char c, byte ignored, short alsoIgnored);
+
+    String join(String[] parts, Object separator);
+
+    int[] range(int size);
+
+    void run() throws IOException;
+
+    String unsupported();
+
+    default String describe(int a) {
+      return "sum " + add(a, 1);
+    }
+  }
+
+  @Test
+  public void dispatchesEveryParameterAndReturnType() throws Exception {
+    Map<Method, MethodHandler> dispatch = new HashMap<>();
+    handle(dispatch, "add", args -> (Integer) args[0] + (Long) args[1]);
+    handle(dispatch, "scale", args -> (Double) args[0] * (Float) args[1]);
+    handle(dispatch, "negate", args -> !(Boolean) args[0]);
+    handle(dispatch, "upper", args -> Character.toUpperCase((Character) args[0]));
+    handle(dispatch, "join", args -> String.join((String) args[1], (String[]) args[0]));
+    handle(dispatch, "range", args -> new int[(Integer) args[0]]);
+    handle(dispatch, "run", args -> {
+      assertThat(args).isNull();
+      throw new IOException("declared");
+    });
+    handle(dispatch, "unsupported", args -> {
+      throw new TimeoutException("undeclared");
+    });
+
+    Calculator calculator = DispatchGenerator
+        .newInstance(new HardCodedTarget<>(Calculator.class, "http://localhost"), dispatch);
+
+    assertThat(calculator).isNotNull().isInstanceOf(GeneratedDispatch.class);
+    assertThat(Proxy.isProxyClass(calculator.getClass())).isFalse();
+    assertThat(calculator.add(1, Long.MAX_VALUE - 1)).isEqualTo(Long.MAX_VALUE);
+    assertThat(calculator.scale(2.5d, 2f)).isEqualTo(5d);
+    assertThat(calculator.negate(true)).isFalse();
+    assertThat(calculator.upper('a', (byte) 1, (short) 2)).isEqualTo('A');
+    assertThat(calculator.join(new String[] {"a", "b"}, "-")).isEqualTo("a-b");
+    assertThat(calculator.range(3)).hasSize(3);
+    assertThatThrownBy(calculator::run).isInstanceOf(IOException.class).hasMessage("declared");
+    assertThatThrownBy(calculator::unsupported)
+        .isInstanceOf(UndeclaredThrowableException.class)
+        .hasCauseInstanceOf(TimeoutException.class);
+  }
+
+  @Test
+  public void equalityFollowsTheTarget() {
+    Target<Calculator> target = new HardCodedTarget<>(Calculator.class, "http://localhost");
+    Calculator first = DispatchGenerator.newInstance(target, new HashMap<>());
+    Calculator second = DispatchGenerator.newInstance(
+        new HardCodedTarget<>(Calculator.class, "http://localhost"), new HashMap<>());
+
+    assertThat(first).isEqualTo(second).isNotSameAs(second);
+    assertThat(first.getClass()).isSameAs(second.getClass());
+    assertThat(first.hashCode()).isEqualTo(target.hashCode());
+    assertThat(first.toString()).isEqualTo(target.toString());
+  }
+
+  interface Api {
+
+    @RequestLine("POST /{id}")
+    String post(@Param("id") int id, String body);
+
+    default String twice(int id) {
+      return post(id, "a") + post(id, "b");
+    }
+  }
+
+  @Test
+  public void feignClientsUseGeneratedDispatch() throws Exception {
+    server.enqueue(new MockResponse().setBody("1"));
+    server.enqueue(new MockResponse().setBody("2"));
+
+    Api api = Feign.builder()
+        .generatedDispatch()
+        .target(Api.class, "http://localhost:" + server.getPort());
+
+    assertThat(api).isInstanceOf(GeneratedDispatch.class);
+    assertThat(api.twice(7)).isEqualTo("12");
+    assertThat(server.takeRequest().getPath()).isEqualTo("/7");
+    assertThat(server.takeRequest().getBody().readUtf8()).isEqualTo("b");
+  }
+
+  @Test
+  public void customInvocationHandlerFactoriesKeepProxies() {
+    Api api = Feign.builder()
+        .generatedDispatch()
+        .invocationHandlerFactory(ReflectiveFeign.FeignInvocationHandler::new)
+        .target(Api.class, "http://localhost");
+
+    assertThat(Proxy.isProxyClass(api.getClass())).isTrue();
+  }
+
+  @Test
+  public void unsupportedInterfacesAreLoggedOnce() {
+    java.util.logging.Logger logger =
+        java.util.logging.Logger.getLogger(DispatchGenerator.class.getName());
+    List<LogRecord> records = new CopyOnWriteArrayList<>();
+    Handler handler = new Handler() {
+      @Override
+      public void publish(LogRecord record) {
+        records.add(record);
+      }
+
+      @Override
+      public void flush() {}
+
+      @Override
+      public void close() {}
+    };
+    logger.addHandler(handler);
+    try {
+      // a class can't be defined in java.lang, whichever way it is defined
+      Target<Runnable> target = new HardCodedTarget<>(Runnable.class, "http://localhost");
+      assertThat(DispatchGenerator.newInstance(target, new HashMap<>())).isNull();
+      assertThat(DispatchGenerator.newInstance(target, new HashMap<>())).isNull();
+    } finally {
+      logger.removeHandler(handler);
+    }
+
+    assertThat(records).hasSize(1);
+    assertThat(records.get(0).getLevel()).isEqualTo(Level.WARNING);
+    assertThat(records.get(0).getMessage()).contains("java.lang.Runnable");
+  }
+
+  private static void handle(Map<Method, MethodHandler> dispatch, String name,
+                             MethodHandler handler) {
+    Method method = Arrays.stream(Calculator.class.getMethods())
+        .filter(m -> m.getName().equals(name))
+        .findFirst()
+        .get();
+    dispatch.put(method, handler);
+  }
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import feign.HedgingAsyncClient.HedgeDelay;
+import feign.Request.HttpMethod;
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Test;
+
+public class HedgingAsyncClientTest {
+
+  private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+  private final List<CompletableFuture<Response>> attempts = new CopyOnWriteArrayList<>();
+  private final AsyncClient<Void> delegate = (request, options, context) -> {
+    CompletableFuture<Response> attempt = new CompletableFuture<>();
+    attempts.add(attempt);
+    return attempt;
+  };
+
+  {
+    scheduler.setRemoveOnCancelPolicy(true);
+  }
+
+  @After
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void hedgeWinsWhenTheFirstAttemptIsSlow() throws Exception {
+    HedgingAsyncClient<Void> client = new HedgingAsyncClient<>(delegate,
+        HedgeDelay.fixed(10, TimeUnit.MILLISECONDS), new RetryBudget(), scheduler);
+
+    CompletableFuture<Response> result = client.execute(request(HttpMethod.GET), null,
+        Optional.empty());
+    awaitAttempts(2);
+    Response hedged = response();
+    attempts.get(1).complete(hedged);
+
+    assertThat(result.get(1, TimeUnit.SECONDS)).isSameAs(hedged);
+  }
+
+  @Test
+  public void losingResponseIsClosedWhenItArrives() throws Exception {
+    AtomicBoolean closed = new AtomicBoolean();
+    HedgingAsyncClient<Void> client = new HedgingAsyncClient<>(delegate,
+        HedgeDelay.fixed(1, TimeUnit.MILLISECONDS), new RetryBudget(), scheduler);
+
+    CompletableFuture<Response> result = client.execute(request(HttpMethod.GET), null,
+        Optional.empty());
+    awaitAttempts(2);
+    Response hedged = response();
+    attempts.get(1).complete(hedged);
+    assertThat(result.get(1, TimeUnit.SECONDS)).isSameAs(hedged);
+
+    attempts.get(0).complete(Response.builder()
+        .status(200)
+        .request(request(HttpMethod.GET))
+        .body(new ByteArrayInputStream(new byte[0]) {
+          @Override
+          public void close() {
+            closed.set(true);
+          }
+        }, 0)
+        .build());
+
+    assertThat(closed).isTrue();
+  }
+
+  @Test
+  public void latencyIsRecordedFromTheFirstAttempt() throws Exception {
+    List<Long> recorded = new CopyOnWriteArrayList<>();
+    HedgeDelay delay = new HedgeDelay() {
+      @Override
+      public long delayNanos(String configKey) {
+        return TimeUnit.MILLISECONDS.toNanos(20);
+      }
+
+      @Override
+      public void record(String configKey, long latencyNanos) {
+        recorded.add(latencyNanos);
+      }
+    };
+    HedgingAsyncClient<Void> client =
+        new HedgingAsyncClient<>(delegate, delay, new RetryBudget(), scheduler);
+
+    CompletableFuture<Response> result = client.execute(request(HttpMethod.GET), null,
+        Optional.empty());
+    awaitAttempts(2);
+    attempts.get(1).complete(response());
+    result.get(1, TimeUnit.SECONDS);
+    attempts.get(0).complete(response());
+
+    assertThat(recorded).hasSize(1);
+    assertThat(recorded.get(0)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+  }
+
+  @Test
+  public void firstAttemptAnsweringInTimeIsNotHedged() throws Exception {
+    HedgingAsyncClient<Void> client = new HedgingAsyncClient<>(delegate,
+        HedgeDelay.fixed(1, TimeUnit.MINUTES), new RetryBudget(), scheduler);
+
+    CompletableFuture<Response> result = client.execute(request(HttpMethod.GET), null,
+        Optional.empty());
+    attempts.get(0).complete(response());
+
+    assertThat(result.get(1, TimeUnit.SECONDS)).isNotNull();
+    assertThat(scheduler.getQueue()).isEmpty();
+    assertThat(attempts).hasSize(1);
+  }
+
+  @Test
+  public void nonIdempotentMethodsAreNotHedged() throws Exception {
+    HedgingAsyncClient<Void> client = new HedgingAsyncClient<>(delegate,
+        HedgeDelay.fixed(0, TimeUnit.MILLISECONDS), new RetryBudget(), scheduler);
+
+    client.execute(request(HttpMethod.POST), null, Optional.empty());
+    Thread.sleep(50);
+
+    assertThat(attempts).hasSize(1);
+  }
+
+  @Test
+  public void hedgesAreCappedByTheBudget() throws Exception {
+    RetryBudget budget = new RetryBudget(0, 0, 10);
+    HedgingAsyncClient<Void> client = new HedgingAsyncClient<>(delegate,
+        HedgeDelay.fixed(0, TimeUnit.MILLISECONDS), budget, scheduler);
+
+    client.execute(request(HttpMethod.GET), null, Optional.empty());
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (budget.rejectedCount() == 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+
+    assertThat(budget.rejectedCount()).isEqualTo(1);
+    assertThat(attempts).hasSize(1);
+  }
+
+  @Test
+  public void failsOnceNoAttemptIsLeft() {
+    HedgingAsyncClient<Void> client = new HedgingAsyncClient<>(delegate,
+        HedgeDelay.fixed(1, TimeUnit.MINUTES), new RetryBudget(), scheduler);
+
+    CompletableFuture<Response> result = client.execute(request(HttpMethod.GET), null,
+        Optional.empty());
+    attempts.get(0).completeExceptionally(new IllegalStateException("boom"));
+
+    assertThat(result).isCompletedExceptionally();
+    assertThat(scheduler.getQueue()).isEmpty();
+  }
+
+  @Test
+  public void percentileDelayFollowsRecentLatencies() {
+    HedgeDelay delay = HedgeDelay.percentile(0.95, 5, TimeUnit.MILLISECONDS);
+    for (int i = 1; i < HedgingAsyncClient.Latencies.RECOMPUTE_EVERY; i++) {
+      delay.record("Api#get()", i);
+    }
+    assertThat(delay.delayNanos("Api#get()")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+
+    delay.record("Api#get()", 32);
+
+    assertThat(delay.delayNanos("Api#get()")).isEqualTo(31);
+    assertThat(delay.delayNanos("Api#other()")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+  }
+
+  private void awaitAttempts(int count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (attempts.size() < count && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertThat(attempts).hasSize(count);
+  }
+
+  private static Request request(HttpMethod method) {
+    return Request.create(method, "http://localhost/", Collections.emptyMap(), null, Util.UTF_8);
+  }
+
+  private static Response response() {
+    return Response.builder()
+        .status(200)
+        .request(request(HttpMethod.GET))
+        .body(new byte[0])
+        .build();
+  }
+}
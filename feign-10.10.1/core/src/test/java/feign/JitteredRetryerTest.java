@@ -0,0 +1,95 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.Collections;
+import java.util.Date;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class JitteredRetryerTest {
+
+  @Rule
+  public final MockWebServer server = new MockWebServer();
+
+  private static final Request REQUEST = Request
+      .create(Request.HttpMethod.GET, "/", Collections.emptyMap(), null, Util.UTF_8);
+
+  @Test
+  public void intervalsAreDecorrelatedAndBounded() {
+    JitteredRetryer retryer = new JitteredRetryer(10, 1000, 5, new RetryBudget());
+
+    long previous = 10;
+    for (int i = 0; i < 100; i++) {
+      long interval = retryer.nextInterval();
+      assertThat(interval).isBetween(10L, Math.min(1000L, previous * 3));
+      previous = interval;
+    }
+  }
+
+  @Test
+  public void stopsAfterMaxAttempts() {
+    RetryableException e = new RetryableException(-1, null, null, new Date(0), REQUEST);
+    JitteredRetryer retryer =
+        (JitteredRetryer) new JitteredRetryer(1, 1, 3, new RetryBudget()).clone();
+
+    retryer.continueOrPropagate(e);
+    retryer.continueOrPropagate(e);
+    assertThatThrownBy(() -> retryer.continueOrPropagate(e)).isSameAs(e);
+    assertThat(retryer.sleptForMillis).isZero();
+  }
+
+  @Test
+  public void clonesShareTheBudget() {
+    RetryBudget budget = new RetryBudget(1, 0, 10);
+    JitteredRetryer prototype = new JitteredRetryer(1, 1, 5, budget);
+    RetryableException e = new RetryableException(-1, null, null, new Date(0), REQUEST);
+
+    Retryer first = prototype.clone();
+    Retryer second = prototype.clone();
+    first.continueOrPropagate(e);
+    second.continueOrPropagate(e);
+
+    assertThatThrownBy(() -> first.continueOrPropagate(e)).isSameAs(e);
+    assertThat(budget.callCount()).isEqualTo(2);
+    assertThat(budget.retryCount()).isEqualTo(2);
+    assertThat(budget.rejectedCount()).isEqualTo(1);
+  }
+
+  interface TestInterface {
+
+    @RequestLine("GET /")
+    String get();
+  }
+
+  @Test
+  public void exhaustedBudgetStopsRetries() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "0"));
+    server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "0"));
+    server.enqueue(new MockResponse().setBody("success!"));
+
+    RetryBudget budget = new RetryBudget(0, 0, 10);
+    TestInterface api = Feign.builder()
+        .retryer(new JitteredRetryer(1, 1, 5, budget))
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    assertThatThrownBy(api::get).isInstanceOf(RetryableException.class);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+    assertThat(budget.rejectedCount()).isEqualTo(1);
+  }
+}
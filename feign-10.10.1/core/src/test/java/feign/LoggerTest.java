@@ -13,6 +13,7 @@
  */
 package feign;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.assertj.core.api.SoftAssertions;
@@ -24,6 +25,7 @@ import org.junit.rules.RuleChain;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 import org.junit.runners.model.Statement;
@@ -381,6 +383,27 @@ public class LoggerTest {
     }
   }
 
+  @RunWith(BlockJUnit4ClassRunner.class)
+  public static class StreamingBodyTest extends LoggerTest {
+
+    @Test
+    public void streamingBodyIsNotBuffered() {
+      logger.expectMessages(Arrays.asList(
+          "\\[SendsStuff#login\\] ---> POST http://localhost/ HTTP/1.1",
+          "\\[SendsStuff#login\\] ",
+          "\\[SendsStuff#login\\] Streaming data",
+          "\\[SendsStuff#login\\] ---> END HTTP \\(-1-byte body\\)"));
+      Request request = Request.create(Request.HttpMethod.POST, "http://localhost/",
+          Collections.emptyMap(), Request.Body.create(out -> {
+            throw new AssertionError("body must not be read");
+          }, 80, Util.UTF_8), null);
+
+      logger.logRequest("SendsStuff#login(String,String,String)", Level.FULL, request);
+
+      assertThat(request.isStreaming()).isTrue();
+    }
+  }
+
   private static final class RecordingLogger extends Logger implements TestRule {
 
     private final List<String> messages = new ArrayList<>();
@@ -18,7 +18,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import java.net.SocketTimeoutException;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -35,6 +37,12 @@ public class OptionsTest {
 
     @RequestLine("GET /")
     String get();
+
+    @RequestLine("GET /{id}")
+    String get(@Param("id") String id, Request.Options options);
+
+    @RequestLine("POST /")
+    String post(Object body);
   }
 
   @Rule
@@ -66,4 +74,35 @@ public class OptionsTest {
 
     assertThat(api.get(new Request.Options(1000, 4 * 1000))).isEqualTo("foo");
   }
+
+  @Test
+  public void optionsArgumentIsPassedToTheClient() {
+    final AtomicReference<Request.Options> used = new AtomicReference<>();
+    final Request.Options defaults = new Request.Options(1000, 1000);
+    final OptionsInterface api = Feign.builder()
+        .options(defaults)
+        .encoder((object, bodyType, template) -> {
+        })
+        .client((request, options) -> {
+          used.set(options);
+          return Response.builder()
+              .status(200)
+              .request(request)
+              .headers(Collections.emptyMap())
+              .body("foo", Util.UTF_8)
+              .build();
+        })
+        .target(OptionsInterface.class, "http://localhost");
+
+    final Request.Options custom = new Request.Options(2000, 2000);
+    api.get("1", custom);
+    assertThat(used.get()).isSameAs(custom);
+
+    api.get("1", null);
+    assertThat(used.get()).isSameAs(defaults);
+
+    // also found when declared as a supertype
+    api.post(custom);
+    assertThat(used.get()).isSameAs(custom);
+  }
 }
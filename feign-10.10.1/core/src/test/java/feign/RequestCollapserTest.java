@@ -0,0 +1,297 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import org.junit.After;
+import org.junit.Test;
+
+public class RequestCollapserTest {
+
+  interface UserApi {
+
+    @Collapse(batchMethod = "getUsers", windowMillis = 100, maxBatchSize = 3)
+    @RequestLine("GET /users/{id}")
+    String getUser(@Param("id") String id);
+
+    @RequestLine("POST /users")
+    Map<String, String> getUsers(List<String> ids);
+  }
+
+  interface AsyncUserApi {
+
+    @Collapse(batchMethod = "getUsers", windowMillis = 50)
+    @RequestLine("GET /users/{id}")
+    CompletableFuture<String> getUser(@Param("id") String id);
+
+    @RequestLine("POST /users")
+    CompletableFuture<Map<String, String>> getUsers(Set<String> ids);
+  }
+
+  interface NoBatchMethodApi {
+
+    @Collapse(batchMethod = "getUsers")
+    @RequestLine("GET /users/{id}")
+    String getUser(@Param("id") String id);
+  }
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final List<String> batches = Collections.synchronizedList(new ArrayList<>());
+
+  /**
+   * Answers {@code POST /users} with {@code id=user-id} lines for the ids of the body, and single
+   * gets with {@code user-id}.
+   */
+  private final Client server = (request, options) -> {
+    final String body;
+    if (request.httpMethod() == Request.HttpMethod.POST) {
+      final String ids = new String(request.body(), Util.UTF_8);
+      batches.add(ids);
+      final StringBuilder users = new StringBuilder();
+      for (String id : ids.split(",")) {
+        if (!id.equals("missing")) {
+          users.append(id).append("=user-").append(id).append('\n');
+        }
+      }
+      body = users.toString();
+    } else {
+      body = "user-" + request.url().substring(request.url().lastIndexOf('/') + 1);
+    }
+    return Response.builder()
+        .status(200)
+        .request(request)
+        .headers(Collections.emptyMap())
+        .body(body, Util.UTF_8)
+        .build();
+  };
+
+  private final Encoder encoder = (object, bodyType, template) -> template
+      .body(String.join(",", (Iterable<String>) object));
+
+  private final Decoder decoder = (response, type) -> {
+    final String body = Util.toString(response.body().asReader(Util.UTF_8));
+    if (type == String.class) {
+      return body;
+    }
+    final Map<String, String> users = new LinkedHashMap<>();
+    for (String line : body.split("\n")) {
+      if (!line.isEmpty()) {
+        users.put(line.substring(0, line.indexOf('=')), line.substring(line.indexOf('=') + 1));
+      }
+    }
+    return users;
+  };
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void concurrentCallsShareOneBatchCall() throws Exception {
+    CollapsingCapability collapsing = new CollapsingCapability(scheduler);
+    UserApi api = Feign.builder()
+        .client(server)
+        .encoder(encoder)
+        .decoder(decoder)
+        .addCapability(collapsing)
+        .target(UserApi.class, "http://localhost");
+
+    List<Future<String>> users = new ArrayList<>();
+    for (String id : Arrays.asList("1", "2", "1")) {
+      users.add(executor.submit(() -> api.getUser(id)));
+    }
+
+    assertThat(users.get(0).get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+    assertThat(users.get(1).get(5, TimeUnit.SECONDS)).isEqualTo("user-2");
+    assertThat(users.get(2).get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+    assertThat(batches).hasSize(1);
+    assertThat(batches.get(0).split(",")).containsExactlyInAnyOrder("1", "2");
+    assertThat(collapsing.callCount()).isEqualTo(3);
+    assertThat(collapsing.batchCount()).isEqualTo(1);
+    assertThat(collapsing.batchedKeyCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void fullBatchIsSentBeforeTheWindowExpires() throws Exception {
+    RequestCollapser<String, String> collapser = new RequestCollapser<>(
+        keys -> CompletableFuture.completedFuture(byKey(keys)), 1, TimeUnit.HOURS, 2, scheduler);
+
+    CompletableFuture<String> first = collapser.submit("a");
+    CompletableFuture<String> second = collapser.submit("b");
+    CompletableFuture<String> third = collapser.submit("c");
+
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("value-a");
+    assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("value-b");
+    assertThat(third).isNotDone();
+    assertThat(collapser.batchCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void blockingLeaderSendsAFullBatchWithoutWaitingForTheWindow() throws Exception {
+    CountDownLatch called = new CountDownLatch(1);
+    RequestCollapser<String, String> collapser = new RequestCollapser<>(keys -> {
+      called.countDown();
+      return CompletableFuture.completedFuture(byKey(keys));
+    }, 1, TimeUnit.HOURS, 2, scheduler);
+
+    Future<String> leader = executor.submit(() -> {
+      try {
+        return collapser.execute("a");
+      } catch (Throwable e) {
+        throw new AssertionError(e);
+      }
+    });
+    while (collapser.callCount() == 0) {
+      Thread.sleep(1);
+    }
+    Future<String> follower = executor.submit(() -> {
+      try {
+        return collapser.execute("b");
+      } catch (Throwable e) {
+        throw new AssertionError(e);
+      }
+    });
+
+    assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("value-a");
+    assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("value-b");
+    assertThat(called.getCount()).isZero();
+  }
+
+  @Test
+  public void missingKeysCompleteWithNull() throws Throwable {
+    CollapsingCapability collapsing = new CollapsingCapability(scheduler);
+    UserApi api = Feign.builder()
+        .client(server)
+        .encoder(encoder)
+        .decoder(decoder)
+        .addCapability(collapsing)
+        .target(UserApi.class, "http://localhost");
+
+    assertThat(api.getUser("missing")).isNull();
+  }
+
+  @Test
+  public void batchFailureFailsEveryCaller() throws Exception {
+    IOException failure = new IOException("down");
+    RequestCollapser<String, String> collapser = new RequestCollapser<>(keys -> {
+      throw failure;
+    }, 10, TimeUnit.MILLISECONDS, 10, scheduler);
+
+    CompletableFuture<String> first = collapser.submit("a");
+    CompletableFuture<String> second = collapser.submit("b");
+
+    assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCause(failure);
+    assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCause(failure);
+  }
+
+  @Test
+  public void asyncClientsCollapseThroughTheirInvocationHandler() throws Exception {
+    CollapsingCapability collapsing = new CollapsingCapability(scheduler);
+    AsyncUserApi api = AsyncFeign.<Void>asyncBuilder()
+        .client(new AsyncClient.Default<>(server, executor))
+        .encoder(encoder)
+        .decoder(decoder)
+        .collapsing(collapsing)
+        .target(AsyncUserApi.class, "http://localhost");
+
+    CompletableFuture<String> first = api.getUser("1");
+    CompletableFuture<String> second = api.getUser("2");
+
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+    assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("user-2");
+    assertThat(batches).containsExactly("1,2");
+    assertThat(collapsing.batchCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void perContextInstancesAreNotRetainedByTheCapability() throws Exception {
+    CollapsingCapability collapsing = new CollapsingCapability(scheduler);
+    AsyncFeign<String> feign = AsyncFeign.<String>asyncBuilder()
+        .client(new AsyncClient.Default<>(server, executor))
+        .encoder(encoder)
+        .decoder(decoder)
+        .collapsing(collapsing)
+        .build();
+
+    AsyncUserApi api = feign.newInstance(
+        new Target.HardCodedTarget<>(AsyncUserApi.class, "http://localhost"), "session-1");
+    assertThat(api.getUser("1").get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+    // the collapsers dispatch through the invocation handler, which holds the context
+    WeakReference<Object> handler = new WeakReference<>(Proxy.getInvocationHandler(api));
+    api = null;
+
+    for (int i = 0; i < 10 && handler.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertThat(handler.get()).isNull();
+    assertThat(collapsing.callCount()).isEqualTo(1);
+    assertThat(collapsing.batchCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void annotatedMethodWithoutBatchMethodFailsOnCreation() {
+    assertThatThrownBy(() -> Feign.builder()
+        .addCapability(new CollapsingCapability(scheduler))
+        .target(NoBatchMethodApi.class, "http://localhost"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("No batch method getUsers");
+  }
+
+  @Test
+  public void withoutTheCapabilityCallsAreNotCollapsed() {
+    UserApi api = Feign.builder()
+        .client(server)
+        .encoder(encoder)
+        .decoder(decoder)
+        .target(UserApi.class, "http://localhost");
+
+    assertThat(api.getUser("1")).isEqualTo("user-1");
+    assertThat(batches).isEmpty();
+  }
+
+  private static Map<String, String> byKey(List<String> keys) {
+    final Map<String, String> values = new LinkedHashMap<>();
+    keys.forEach(key -> values.put(key, "value-" + key));
+    return values;
+  }
+}
@@ -110,6 +110,23 @@ public class RequestTemplateTest {
         .hasUrl("/hostedzone/Z1PA6795UKMFR9");
   }
 
+  @Test
+  public void streamingBodyOnlySetsKnownContentLength() {
+    RequestTemplate template = new RequestTemplate().method(HttpMethod.POST)
+        .body(out -> out.write("streamed".getBytes(Util.UTF_8)), -1, Util.UTF_8);
+
+    assertThat(template.headers()).doesNotContainKey("Content-Length");
+    assertThat(template.requestBody().isStreaming()).isTrue();
+    assertThat(template.requestBody().asString()).isEqualTo("Streaming data");
+
+    template.body(out -> out.write("streamed".getBytes(Util.UTF_8)), 8, Util.UTF_8);
+
+    assertThat(template)
+        .hasBody("streamed")
+        .hasHeaders(entry("Content-Length", Collections.singletonList("8")));
+    assertThat(template.requestBody().isStreaming()).isFalse();
+  }
+
   @Test
   public void canInsertAbsoluteHref() {
     RequestTemplate template = new RequestTemplate().method(HttpMethod.GET)
@@ -184,6 +201,27 @@ public class RequestTemplateTest {
         .hasHeaders(entry("Auth-Token", Collections.singletonList("1234")));
   }
 
+  @Test
+  public void compiledPlanResolvesFromSlots() {
+    RequestTemplate template = new RequestTemplate().method(HttpMethod.GET)
+        .uri("/repos/{owner}/{repo}?page={page}")
+        .header("Auth-Token", "{authToken}");
+
+    RequestTemplate.Plan plan =
+        template.compile(mapOf("owner", 0, "repo", 1, "authToken", 2));
+    RequestTemplate resolved = plan.resolve(new Object[] {"netflix", "feign", "1234"});
+
+    assertThat(resolved)
+        .hasUrl("/repos/netflix/feign")
+        .hasHeaders(entry("Auth-Token", Collections.singletonList("1234")));
+    assertThat(resolved.resolved()).isTrue();
+
+    /* the plan is reusable, and the compiled template is left untouched */
+    assertThat(plan.resolve(new Object[] {"openfeign", "feign", "5678"}).url())
+        .isEqualTo("/repos/openfeign/feign");
+    assertThat(template.url()).isEqualTo("/repos/{owner}/{repo}?page={page}");
+  }
+
   @Test
   public void resolveTemplateWithHeaderSubstitutionsNotAtStart() {
     RequestTemplate template = new RequestTemplate().method(HttpMethod.GET)
@@ -407,6 +445,20 @@ public class RequestTemplateTest {
     assertThat(template).hasQueries(entry("params[]", Collections.singletonList("foo%20bar")));
   }
 
+  @Test
+  public void queryValues() {
+    RequestTemplate template = new RequestTemplate()
+        .query("param", "not encoded")
+        .query("other", "value");
+
+    assertThat(template.queryValues("param")).containsExactly("not%20encoded");
+    assertThat(template.queryValues("missing")).isEmpty();
+
+    template.replaceQuery("param", Collections.singletonList("replaced"))
+        .replaceQuery("missing", Collections.singletonList("value"));
+    assertThat(template.queryLine()).isEqualTo("?param=replaced&other=value");
+  }
+
   @Test
   public void encodedQueryWithUnsafeCharactersMixedWithUnencoded() {
     RequestTemplate template = new RequestTemplate()
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class RetryBudgetTest {
+
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  @Test
+  public void retriesAreCappedAtAShareOfCalls() {
+    RetryBudget budget = new RetryBudget(0.1, 0, 10, nanoTime::get);
+    for (int i = 0; i < 100; i++) {
+      budget.deposit();
+    }
+
+    assertThat(budget.availableRetries()).isEqualTo(10);
+    for (int i = 0; i < 10; i++) {
+      assertThat(budget.tryWithdraw()).isTrue();
+    }
+    assertThat(budget.tryWithdraw()).isFalse();
+
+    assertThat(budget.callCount()).isEqualTo(100);
+    assertThat(budget.retryCount()).isEqualTo(10);
+    assertThat(budget.rejectedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void minRetriesPerSecondAllowsRetriesWithoutTraffic() {
+    RetryBudget budget = new RetryBudget(0.1, 1, 3, nanoTime::get);
+
+    assertThat(budget.availableRetries()).isEqualTo(3);
+  }
+
+  @Test
+  public void onlyRecentCallsCount() {
+    RetryBudget budget = new RetryBudget(0.5, 0, 2, nanoTime::get);
+    budget.deposit();
+    budget.deposit();
+    assertThat(budget.tryWithdraw()).isTrue();
+
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    budget.deposit();
+    budget.deposit();
+    assertThat(budget.availableRetries()).isEqualTo(1);
+
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    // the first second, with its calls and its retry, left the window
+    assertThat(budget.availableRetries()).isEqualTo(1);
+
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertThat(budget.availableRetries()).isZero();
+    assertThat(budget.tryWithdraw()).isFalse();
+  }
+}
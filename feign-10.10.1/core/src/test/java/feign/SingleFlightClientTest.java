@@ -0,0 +1,165 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Test;
+
+public class SingleFlightClientTest {
+
+  interface Api {
+
+    @SingleFlight
+    @RequestLine("GET /config/{key}")
+    @Headers("X-Tenant: {tenant}")
+    String config(@Param("key") String key, @Param("tenant") String tenant);
+
+    @RequestLine("GET /other")
+    String other();
+  }
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final AtomicInteger calls = new AtomicInteger();
+  private volatile IOException failure;
+
+  private final Client slowServer = (request, options) -> {
+    calls.incrementAndGet();
+    try {
+      release.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return Response.builder()
+        .status(200)
+        .request(request)
+        .headers(Collections.emptyMap())
+        .body(request.url(), Util.UTF_8)
+        .build();
+  };
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void concurrentIdenticalRequestsShareOneCall() throws Exception {
+    SingleFlightCapability singleFlight = new SingleFlightCapability();
+    Api api = api(singleFlight);
+
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      results.add(executor.submit(() -> api.config("hot", "a")));
+    }
+    await(() -> singleFlight.coalescedCount() == 9);
+    release.countDown();
+
+    for (Future<String> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("http://localhost/config/hot");
+    }
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  public void differentVaryHeadersAndUnselectedMethodsAreNotCoalesced() throws Exception {
+    SingleFlightCapability singleFlight = new SingleFlightCapability();
+    Api api = api(singleFlight);
+
+    List<Future<String>> results = new ArrayList<>();
+    results.add(executor.submit(() -> api.config("hot", "a")));
+    results.add(executor.submit(() -> api.config("hot", "b")));
+    results.add(executor.submit(api::other));
+    results.add(executor.submit(api::other));
+    await(() -> calls.get() == 4);
+    release.countDown();
+
+    for (Future<String> result : results) {
+      result.get(5, TimeUnit.SECONDS);
+    }
+    assertThat(singleFlight.coalescedCount()).isZero();
+  }
+
+  @Test
+  public void methodsCanBeSelectedByNameWithVaryHeaders() throws Exception {
+    SingleFlightCapability singleFlight = new SingleFlightCapability(
+        Collections.singletonList("other"), Collections.singletonList("Accept"));
+    Api api = api(singleFlight);
+
+    List<Future<String>> results = new ArrayList<>();
+    results.add(executor.submit(() -> api.config("hot", "a")));
+    results.add(executor.submit(() -> api.config("hot", "b")));
+    results.add(executor.submit(api::other));
+    results.add(executor.submit(api::other));
+    await(() -> singleFlight.coalescedCount() == 2);
+    release.countDown();
+
+    for (Future<String> result : results) {
+      result.get(5, TimeUnit.SECONDS);
+    }
+    assertThat(calls).hasValue(2);
+  }
+
+  @Test
+  public void waitingRequestsFailWithTheSharedCall() throws Exception {
+    SingleFlightCapability singleFlight = new SingleFlightCapability();
+    Api api = api(singleFlight);
+    failure = new IOException("connection reset");
+
+    Future<String> first = executor.submit(() -> api.config("hot", "a"));
+    Future<String> second = executor.submit(() -> api.config("hot", "a"));
+    await(() -> singleFlight.coalescedCount() == 1);
+    release.countDown();
+
+    for (Future<String> result : Arrays.asList(first, second)) {
+      assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+          .hasCauseInstanceOf(RetryableException.class)
+          .hasMessageContaining("connection reset");
+    }
+    assertThat(calls).hasValue(1);
+  }
+
+  private Api api(Capability capability) {
+    return Feign.builder()
+        .client(slowServer)
+        .retryer(Retryer.NEVER_RETRY)
+        .addCapability(capability)
+        .target(Api.class, "http://localhost");
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertThat(condition.getAsBoolean()).isTrue();
+  }
+}
@@ -0,0 +1,270 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import feign.Client;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Response;
+import feign.Util;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class CachingClientTest {
+
+  private static final String URL = "http://localhost/config";
+
+  private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(10_000));
+  private final Deque<Response.Builder> responses = new ArrayDeque<>();
+  private final List<Request> sent = new ArrayList<>();
+  private final Client origin = (request, options) -> {
+    sent.add(request);
+    return responses.remove().request(request).build();
+  };
+  private final LruResponseStore store = new LruResponseStore(1024 * 1024, false);
+
+  @Test
+  public void freshEntriesSkipTheNetwork() throws IOException {
+    CachingClient client = client(null);
+    respond(200, "v1", "Cache-Control", "max-age=60");
+
+    assertThat(body(client.execute(get(), new Request.Options()))).isEqualTo("v1");
+    now.addAndGet(TimeUnit.SECONDS.toMillis(59));
+    Response cached = client.execute(get(), new Request.Options());
+
+    assertThat(body(cached)).isEqualTo("v1");
+    assertThat(cached.headers().get("Age")).containsExactly("59");
+    assertThat(sent).hasSize(1);
+    assertThat(client.hitCount()).isEqualTo(1);
+    assertThat(client.missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void staleEntriesAreRevalidated() throws IOException {
+    CachingClient client = client(null);
+    respond(200, "v1", "Cache-Control", "max-age=10", "ETag", "\"1\"",
+        "Last-Modified", "Tue, 15 Nov 1994 12:45:26 GMT");
+    client.execute(get(), new Request.Options());
+    now.addAndGet(TimeUnit.SECONDS.toMillis(11));
+    respond(304, null, "Cache-Control", "max-age=30");
+
+    Response revalidated = client.execute(get(), new Request.Options());
+
+    assertThat(body(revalidated)).isEqualTo("v1");
+    assertThat(revalidated.request().headers()).doesNotContainKey("If-None-Match");
+    assertThat(sent.get(1).headers())
+        .containsEntry("If-None-Match", Collections.singletonList("\"1\""))
+        .containsEntry("If-Modified-Since",
+            Collections.singletonList("Tue, 15 Nov 1994 12:45:26 GMT"));
+    assertThat(client.revalidatedCount()).isEqualTo(1);
+
+    now.addAndGet(TimeUnit.SECONDS.toMillis(29));
+    assertThat(body(client.execute(get(), new Request.Options()))).isEqualTo("v1");
+    assertThat(sent).hasSize(2);
+  }
+
+  @Test
+  public void changedResourcesReplaceTheEntry() throws IOException {
+    CachingClient client = client(null);
+    respond(200, "v1", "Cache-Control", "no-cache", "ETag", "\"1\"");
+    respond(200, "v2", "Cache-Control", "max-age=60", "ETag", "\"2\"");
+
+    client.execute(get(), new Request.Options());
+
+    assertThat(body(client.execute(get(), new Request.Options()))).isEqualTo("v2");
+    assertThat(body(client.execute(get(), new Request.Options()))).isEqualTo("v2");
+    assertThat(sent).hasSize(2);
+  }
+
+  @Test
+  public void staleWhileRevalidateAnswersAtOnce() throws IOException {
+    List<Runnable> background = new ArrayList<>();
+    CachingClient client = client(background::add);
+    respond(200, "v1", "Cache-Control", "max-age=10, stale-while-revalidate=60", "ETag", "\"1\"");
+    client.execute(get(), new Request.Options());
+    now.addAndGet(TimeUnit.SECONDS.toMillis(30));
+    respond(200, "v2", "Cache-Control", "max-age=10", "ETag", "\"2\"");
+
+    assertThat(body(client.execute(get(), new Request.Options()))).isEqualTo("v1");
+    assertThat(body(client.execute(get(), new Request.Options()))).isEqualTo("v1");
+    assertThat(background).hasSize(1);
+    assertThat(sent).hasSize(1);
+
+    background.get(0).run();
+
+    assertThat(body(client.execute(get(), new Request.Options()))).isEqualTo("v2");
+    assertThat(sent).hasSize(2);
+  }
+
+  @Test
+  public void uncacheableResponsesAreNotStored() throws IOException {
+    CachingClient client = client(null);
+    respond(200, "no-store", "Cache-Control", "no-store, max-age=60");
+    respond(200, "private", "Cache-Control", "private, max-age=60");
+    respond(200, "vary", "Cache-Control", "max-age=60", "Vary", "*");
+    respond(200, "none");
+
+    for (int i = 0; i < 4; i++) {
+      client.execute(get(), new Request.Options());
+    }
+
+    assertThat(store.entryCount()).isZero();
+  }
+
+  @Test
+  public void authorizedRequestsNeedPublicResponses() throws IOException {
+    CachingClient client = client(null);
+    respond(200, "user", "Cache-Control", "max-age=60");
+    respond(200, "public", "Cache-Control", "public, max-age=60");
+
+    client.execute(get("Authorization", "Bearer a"), new Request.Options());
+    assertThat(store.entryCount()).isZero();
+
+    client.execute(get("Authorization", "Bearer a"), new Request.Options());
+    assertThat(store.entryCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void varyingHeadersMustMatch() throws IOException {
+    CachingClient client = client(null);
+    respond(200, "json", "Cache-Control", "max-age=60", "Vary", "Accept");
+    respond(200, "xml", "Cache-Control", "max-age=60", "Vary", "Accept");
+
+    client.execute(get("Accept", "application/json"), new Request.Options());
+
+    assertThat(body(client.execute(get("accept", "application/json"), new Request.Options())))
+        .isEqualTo("json");
+    assertThat(body(client.execute(get("Accept", "application/xml"), new Request.Options())))
+        .isEqualTo("xml");
+    assertThat(sent).hasSize(2);
+  }
+
+  @Test
+  public void requestNoCacheAndUnsafeMethodsBypassTheEntry() throws IOException {
+    CachingClient client = client(null);
+    respond(200, "v1", "Cache-Control", "max-age=60");
+    respond(200, "v2", "Cache-Control", "max-age=60");
+    respond(201, "created");
+    client.execute(get(), new Request.Options());
+
+    assertThat(body(client.execute(get("Cache-Control", "no-cache"), new Request.Options())))
+        .isEqualTo("v2");
+    client.execute(request(HttpMethod.POST), new Request.Options());
+
+    assertThat(store.entryCount()).isZero();
+  }
+
+  @Test
+  public void largeBodiesAreStreamedWithoutStoring() throws IOException {
+    CachingClient client = new CachingClient(origin, new LruResponseStore(4096, 100, false),
+        null, now::get);
+    byte[] large = new byte[1000];
+    Arrays.fill(large, (byte) 'a');
+    responses.add(Response.builder()
+        .status(200)
+        .headers(headers("Cache-Control", "max-age=60"))
+        .body(new ByteArrayInputStream(large), null));
+
+    Response response = client.execute(get(), new Request.Options());
+    assertThat(Util.toByteArray(response.body().asInputStream())).isEqualTo(large);
+    assertThat(client.hitCount()).isZero();
+  }
+
+  @Test
+  public void offHeapEntriesRoundTrip() throws IOException {
+    LruResponseStore offHeap = new LruResponseStore(1024 * 1024, true);
+    CachingClient client = new CachingClient(origin, offHeap, null, now::get);
+    respond(200, "direct", "Cache-Control", "max-age=60");
+
+    client.execute(get(), new Request.Options());
+
+    assertThat(body(client.execute(get(), new Request.Options()))).isEqualTo("direct");
+    assertThat(body(client.execute(get(), new Request.Options()))).isEqualTo("direct");
+    assertThat(offHeap.sizeBytes()).isGreaterThan("direct".length());
+  }
+
+  @Test
+  public void storeEvictsLeastRecentlyUsedByBytes() {
+    LruResponseStore small = new LruResponseStore(1000, 400, false);
+    Request request = get();
+    CachedResponse entry = CachedResponse.of(request, Response.builder()
+        .status(200)
+        .request(request)
+        .headers(Collections.emptyMap())
+        .build(), new byte[300], Collections.emptySet(), 0, 0);
+
+    small.put("a", entry);
+    small.put("b", entry);
+    small.get("a");
+    small.put("c", entry);
+
+    assertThat(small.get("a")).isNotNull();
+    assertThat(small.get("b")).isNull();
+    assertThat(small.get("c")).isNotNull();
+    assertThat(small.evictionCount()).isEqualTo(1);
+    assertThat(small.sizeBytes()).isEqualTo(2 * (entry.weight() + 2));
+
+    small.remove("a");
+    small.remove("c");
+    assertThat(small.sizeBytes()).isZero();
+  }
+
+  private CachingClient client(Executor executor) {
+    return new CachingClient(origin, store, executor, now::get);
+  }
+
+  private void respond(int status, String body, String... headers) {
+    Response.Builder response = Response.builder()
+        .status(status)
+        .headers(headers(headers));
+    if (body != null) {
+      response.body(body, Util.UTF_8);
+    }
+    responses.add(response);
+  }
+
+  private static Map<String, Collection<String>> headers(String... namesAndValues) {
+    Map<String, Collection<String>> headers = new LinkedHashMap<>();
+    for (int i = 0; i < namesAndValues.length; i += 2) {
+      headers.put(namesAndValues[i], Collections.singletonList(namesAndValues[i + 1]));
+    }
+    return headers;
+  }
+
+  private static Request get(String... headers) {
+    return Request.create(HttpMethod.GET, URL, headers(headers), null, Util.UTF_8, null);
+  }
+
+  private static Request request(HttpMethod method) {
+    return Request.create(method, URL, Collections.emptyMap(), null, Util.UTF_8, null);
+  }
+
+  private static String body(Response response) throws IOException {
+    return Util.toString(response.body().asReader(Util.UTF_8));
+  }
+}
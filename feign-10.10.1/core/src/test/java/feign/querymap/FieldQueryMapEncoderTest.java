@@ -17,9 +17,15 @@ import feign.Param;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import feign.QueryMapEncoder;
 import static org.junit.Assert.*;
 
@@ -67,6 +73,28 @@ public class FieldQueryMapEncoderTest {
     assertEquals("@Param ignored", expectedNames, encodedMap.keySet());
   }
 
+  @Test
+  public void testDefaultEncoder_concurrentFirstUse() throws Exception {
+    final QueryMapEncoder fresh = new FieldQueryMapEncoder();
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Map<String, Object>>> results = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        final Object object = i % 2 == 0
+            ? new NormalObject("fooz", "barz")
+            : new NormalObjectWithOverriddenParamName("fooz", "barz");
+        results.add(executor.submit(() -> fresh.encode(object)));
+      }
+      for (int i = 0; i < results.size(); i++) {
+        Map<String, Object> encodedMap = results.get(i).get(5, TimeUnit.SECONDS);
+        assertEquals("fooz", encodedMap.get(i % 2 == 0 ? "foo" : "fooAlias"));
+        assertEquals("barz", encodedMap.get("bar"));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   class NormalObject {
 
     private NormalObject(String foo, String bar) {
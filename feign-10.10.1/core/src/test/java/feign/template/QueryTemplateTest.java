@@ -19,6 +19,8 @@ import feign.CollectionFormat;
 import feign.Util;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.junit.Test;
 
 public class QueryTemplateTest {
@@ -213,4 +215,16 @@ public class QueryTemplateTest {
     /* dollar will be pct-encoded */
     assertThat(expanded).isEqualToIgnoringCase("%24collection=1%2C2");
   }
+
+  @Test
+  public void expandBoundSlots() {
+    QueryTemplate template =
+        QueryTemplate.create("{name}", Arrays.asList("{first}", "{last}"), Util.UTF_8);
+    Map<String, Integer> slots = new LinkedHashMap<>();
+    slots.put("last", 0);
+    slots.put("name", 1);
+    String expanded =
+        template.expand(new Object[] {"Jason", "people"}, template.bind(slots));
+    assertThat(expanded).isEqualToIgnoringCase("people=Jason");
+  }
 }
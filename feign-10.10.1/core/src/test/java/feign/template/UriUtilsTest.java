@@ -41,4 +41,28 @@ public class UriUtilsTest {
     String encoded = UriUtils.encode(withReserved, UTF_8, true);
     assertThat(encoded).isEqualTo("/api/user@host:port#section[a-z]/data");
   }
+
+  /**
+   * values that do not require encoding are returned as is.
+   */
+  @Test
+  public void pctEncodeReturnsValueWhenNothingToEscape() {
+    String value = "feign-core_10.10~1";
+    assertThat(UriUtils.encode(value, UTF_8)).isSameAs(value);
+    assertThat(UriUtils.encode("a%20b", UTF_8)).isEqualTo("a%20b");
+  }
+
+  /**
+   * pct-encode multi-byte characters and preserve existing pct-encoded triplets.
+   */
+  @Test
+  public void pctEncodeIntoBuilder() {
+    StringBuilder encoded = new StringBuilder("q=");
+    UriUtils.encode("caf\u00e9 \u20ac", UTF_8, encoded);
+    assertThat(encoded.toString()).isEqualTo("q=caf%C3%A9%20%E2%82%AC");
+
+    encoded.setLength(0);
+    UriUtils.encode("100% off%2Fnow", UTF_8, false, encoded);
+    assertThat(encoded.toString()).isEqualTo("100%25%20off%2Fnow");
+  }
 }
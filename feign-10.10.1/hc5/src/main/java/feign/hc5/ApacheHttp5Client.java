@@ -20,6 +20,7 @@ import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.*;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
 import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
@@ -127,6 +128,11 @@ public final class ApacheHttp5Client implements Client {
 
     // request body
     // final Body requestBody = request.requestBody();
+    if (request.isStreaming()) {
+      requestBuilder.setEntity(new StreamingEntity(request,
+          request.isBinary() ? null : getContentType(request)));
+      return requestBuilder.build();
+    }
     byte[] data = request.body();
     if (data != null) {
       HttpEntity entity;
@@ -145,6 +151,48 @@ public final class ApacheHttp5Client implements Client {
     return requestBuilder.build();
   }
 
+  /**
+   * Writes a streaming request body straight to the connection, instead of copying it into a
+   * {@link ByteArrayEntity} first.
+   */
+  private static final class StreamingEntity extends AbstractHttpEntity {
+
+    private final Request request;
+
+    StreamingEntity(Request request, ContentType contentType) {
+      super(contentType, null, request.length() < 0);
+      this.request = request;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+      return true;
+    }
+
+    @Override
+    public long getContentLength() {
+      return request.length();
+    }
+
+    @Override
+    public InputStream getContent() {
+      return new ByteArrayInputStream(request.body());
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+      request.writeBody(outStream);
+    }
+
+    @Override
+    public boolean isStreaming() {
+      return false;
+    }
+
+    @Override
+    public void close() {}
+  }
+
   private ContentType getContentType(Request request) {
     ContentType contentType = null;
     for (final Map.Entry<String, Collection<String>> entry : request.headers().entrySet()) {
@@ -25,14 +25,17 @@ import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.util.EntityUtils;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
 import java.net.URI;
@@ -132,7 +135,9 @@ public final class ApacheHttpClient implements Client {
     }
 
     // request body
-    if (request.body() != null) {
+    if (request.isStreaming()) {
+      requestBuilder.setEntity(new StreamingEntity(request, getContentType(request)));
+    } else if (request.body() != null) {
       HttpEntity entity = null;
       if (request.charset() != null) {
         ContentType contentType = getContentType(request);
@@ -150,6 +155,48 @@ public final class ApacheHttpClient implements Client {
     return requestBuilder.build();
   }
 
+  /**
+   * Writes a streaming request body straight to the connection, instead of copying it into a
+   * {@link ByteArrayEntity} first.
+   */
+  private static final class StreamingEntity extends AbstractHttpEntity {
+
+    private final Request request;
+
+    StreamingEntity(Request request, ContentType contentType) {
+      this.request = request;
+      if (contentType != null) {
+        setContentType(contentType.toString());
+      }
+      setChunked(request.length() < 0);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+      return true;
+    }
+
+    @Override
+    public long getContentLength() {
+      return request.length();
+    }
+
+    @Override
+    public InputStream getContent() {
+      return new ByteArrayInputStream(request.body());
+    }
+
+    @Override
+    public void writeTo(OutputStream outstream) throws IOException {
+      request.writeBody(outstream);
+    }
+
+    @Override
+    public boolean isStreaming() {
+      return false;
+    }
+  }
+
   private ContentType getContentType(Request request) {
     ContentType contentType = null;
     for (Map.Entry<String, Collection<String>> entry : request.headers().entrySet())
@@ -16,19 +16,28 @@ package feign.jackson;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.Reader;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.lang.reflect.Type;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import feign.Response;
-import feign.Util;
 import feign.codec.Decoder;
 
 public class JacksonDecoder implements Decoder {
 
+  /**
+   * Bodies of a known length up to this size are read into an array and parsed from there.
+   */
+  private static final int MAX_BUFFERED_LENGTH = 1024 * 1024;
+
   private final ObjectMapper mapper;
+  private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
 
   public JacksonDecoder() {
     this(Collections.<Module>emptyList());
@@ -45,20 +54,26 @@ public class JacksonDecoder implements Decoder {
 
   @Override
   public Object decode(Response response, Type type) throws IOException {
-    if (response.body() == null)
+    Response.Body body = response.body();
+    if (body == null)
       return null;
-    Reader reader = response.body().asReader(Util.UTF_8);
-    if (!reader.markSupported()) {
-      reader = new BufferedReader(reader, 1);
-    }
+    Integer length = body.length();
     try {
+      if (length != null && length <= MAX_BUFFERED_LENGTH) {
+        byte[] bytes = readFully(body.asInputStream(), length);
+        if (bytes.length == 0) {
+          return null; // Eagerly returning null avoids "No content to map due to end-of-input"
+        }
+        return readerFor(type).readValue(bytes);
+      }
+      PushbackInputStream input = new PushbackInputStream(body.asInputStream(), 1);
       // Read the first byte to see if we have any data
-      reader.mark(1);
-      if (reader.read() == -1) {
-        return null; // Eagerly returning null avoids "No content to map due to end-of-input"
+      int first = input.read();
+      if (first == -1) {
+        return null;
       }
-      reader.reset();
-      return mapper.readValue(reader, mapper.constructType(type));
+      input.unread(first);
+      return readerFor(type).readValue(input);
     } catch (RuntimeJsonMappingException e) {
       if (e.getCause() != null && e.getCause() instanceof IOException) {
         throw IOException.class.cast(e.getCause());
@@ -66,4 +81,28 @@ public class JacksonDecoder implements Decoder {
       throw e;
     }
   }
+
+  private ObjectReader readerFor(Type type) {
+    ObjectReader reader = readers.get(type);
+    if (reader == null) {
+      reader = readers.computeIfAbsent(type, key -> mapper.readerFor(mapper.constructType(key)));
+    }
+    return reader;
+  }
+
+  /**
+   * Reads the {@code length} bytes announced for the body, or less if the stream ends early.
+   */
+  private static byte[] readFully(InputStream input, int length) throws IOException {
+    byte[] bytes = new byte[length];
+    int read = 0;
+    while (read < length) {
+      int count = input.read(bytes, read, length - read);
+      if (count == -1) {
+        return Arrays.copyOf(bytes, read);
+      }
+      read += count;
+    }
+    return bytes;
+  }
 }
@@ -15,21 +15,28 @@ package feign.jackson;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import feign.RequestTemplate;
 import feign.Util;
 import feign.codec.EncodeException;
 import feign.codec.Encoder;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
 import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JacksonEncoder implements Encoder {
 
     private final ObjectMapper mapper;
+    private final boolean streaming;
+    private final Map<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
 
     public JacksonEncoder() {
         this(Collections.<Module>emptyList());
@@ -43,16 +50,85 @@ public class JacksonEncoder implements Encoder {
     }
 
     public JacksonEncoder(ObjectMapper mapper) {
+        this(mapper, false);
+    }
+
+    /**
+     * An encoder that writes compact JSON, without the indentation of the default one, for
+     * throughput sensitive clients.
+     */
+    public static JacksonEncoder compact() {
+        return compact(Collections.<Module>emptyList());
+    }
+
+    /**
+     * @see #compact()
+     */
+    public static JacksonEncoder compact(Iterable<Module> modules) {
+        return new JacksonEncoder(new ObjectMapper()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .registerModules(modules));
+    }
+
+    /**
+     * @param mapper    to serialize with.
+     * @param streaming if {@literal true}, the body is serialized straight into the client's output
+     *                  stream when the request is sent, instead of into a byte array up front. The
+     *                  request is then sent without a Content-Length.
+     */
+    public JacksonEncoder(ObjectMapper mapper, boolean streaming) {
         this.mapper = mapper;
+        this.streaming = streaming;
     }
 
     @Override
     public void encode(Object object, Type bodyType, RequestTemplate template) {
+        ObjectWriter writer = writerFor(bodyType);
+        if (streaming) {
+            template.body(out -> {
+                try {
+                    writer.writeValue(new NonClosingOutputStream(out), object);
+                } catch (JsonProcessingException e) {
+                    // 序列化失败不可重试
+                    throw new EncodeException(e.getMessage(), e);
+                }
+            }, -1, Util.UTF_8);
+            return;
+        }
         try {
-            JavaType javaType = mapper.getTypeFactory().constructType(bodyType);
-            template.body(mapper.writerFor(javaType).writeValueAsBytes(object), Util.UTF_8);
+            template.body(writer.writeValueAsBytes(object), Util.UTF_8);
         } catch (JsonProcessingException e) {
             throw new EncodeException(e.getMessage(), e);
         }
     }
+
+    private ObjectWriter writerFor(Type bodyType) {
+        ObjectWriter writer = writers.get(bodyType);
+        if (writer == null) {
+            // 每个类型只解析一次，ObjectWriter 是线程安全的
+            writer = writers.computeIfAbsent(bodyType,
+                    type -> mapper.writerFor(mapper.getTypeFactory().constructType(type)));
+        }
+        return writer;
+    }
+
+    /**
+     * Jackson closes the target when done, the client owns the transport stream though.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
 }
@@ -26,6 +26,7 @@ import feign.Request;
 import feign.Request.HttpMethod;
 import feign.Util;
 import org.junit.Test;
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -88,6 +89,40 @@ public class JacksonCodecTest {
         + "}");
   }
 
+  @Test
+  public void compactEncoderDoesNotIndent() {
+    Map<String, Object> map = new LinkedHashMap<String, Object>();
+    map.put("foo", 1);
+    map.put("bar", null);
+
+    RequestTemplate template = new RequestTemplate();
+    JacksonEncoder.compact().encode(map, map.getClass(), template);
+
+    assertThat(template).hasBody("{\"foo\":1}");
+  }
+
+  @Test
+  public void decodesBodyOfUnknownLength() throws Exception {
+    List<Zone> zones = new LinkedList<>();
+    zones.add(new Zone("denominator.io."));
+    zones.add(new Zone("denominator.io.", "ABCD"));
+
+    Response response = Response.builder()
+        .status(200)
+        .reason("OK")
+        .request(Request.create(HttpMethod.GET, "/api", Collections.emptyMap(), null, Util.UTF_8))
+        .headers(Collections.emptyMap())
+        .body(new ByteArrayInputStream(zonesJson.getBytes(UTF_8)), null)
+        .build();
+    assertEquals(zones,
+        new JacksonDecoder().decode(response, new TypeReference<List<Zone>>() {}.getType()));
+
+    Response empty = response.toBuilder()
+        .body(new ByteArrayInputStream(new byte[0]), null)
+        .build();
+    assertNull(new JacksonDecoder().decode(empty, String.class));
+  }
+
   @Test
   public void decodes() throws Exception {
     List<Zone> zones = new LinkedList<>();
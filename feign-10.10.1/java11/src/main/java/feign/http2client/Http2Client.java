@@ -13,8 +13,11 @@
  */
 package feign.http2client;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
@@ -26,52 +29,147 @@ import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpRequest.Builder;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import feign.*;
 import feign.Request.Options;
 
-public class Http2Client implements Client {
+/**
+ * Client on the JDK 11 {@link HttpClient}. Can be used synchronously as a {@link Client} or
+ * without blocking a thread per request as an {@link AsyncClient}. Response bodies are streamed
+ * and the HTTP version is the one the {@link HttpClient} was built with.
+ *
+ * <p>
+ * {@link Request#isStreaming() Streaming} request bodies are written on an executor while the
+ * client reads them, by default a small pool shared by all clients; requests streaming more bodies
+ * at once wait for a writer.
+ */
+public class Http2Client implements Client, AsyncClient<Object> {
 
   private final HttpClient client;
+  private final Executor bodyWriters;
+
+  /**
+   * Clients with a connect timeout or redirect policy other than the base client's, the JDK
+   * client only supports those per client.
+   */
+  private final ConcurrentMap<ClientKey, HttpClient> derivedClients = new ConcurrentHashMap<>();
 
   public Http2Client() {
+    this(Version.HTTP_2);
+  }
+
+  /**
+   * @param version to prefer, {@link Version#HTTP_1_1} or {@link Version#HTTP_2}.
+   */
+  public Http2Client(Version version) {
     this(HttpClient.newBuilder()
         .followRedirects(Redirect.ALWAYS)
-        .version(Version.HTTP_2)
+        .version(version)
         .build());
   }
 
   public Http2Client(HttpClient client) {
+    this(client, BodyPipe.WRITERS);
+  }
+
+  /**
+   * @param bodyWriters runs the writers of streaming request bodies, one task per body for as long
+   *        as the body is sent.
+   */
+  public Http2Client(HttpClient client, Executor bodyWriters) {
     this.client = Util.checkNotNull(client, "HttpClient must not be null");
+    this.bodyWriters = Util.checkNotNull(bodyWriters, "bodyWriters must not be null");
   }
 
   @Override
   public Response execute(Request request, Options options) throws IOException {
-    final HttpRequest httpRequest = newRequestBuilder(request).build();
+    final HttpRequest httpRequest = newRequestBuilder(request, options).build();
 
-    HttpResponse<byte[]> httpResponse;
+    HttpResponse<InputStream> httpResponse;
     try {
-      httpResponse = client.send(httpRequest, BodyHandlers.ofByteArray());
+      httpResponse = clientFor(options).send(httpRequest, BodyHandlers.ofInputStream());
     } catch (final InterruptedException e) {
-      throw new IOException("Invalid uri " + request.url(), e);
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted executing " + request.url(), e);
+    }
+
+    return toFeignResponse(request, httpResponse);
+  }
+
+  @Override
+  public CompletableFuture<Response> execute(Request request,
+                                             Options options,
+                                             Optional<Object> requestContext) {
+    final HttpRequest httpRequest;
+    try {
+      httpRequest = newRequestBuilder(request, options).build();
+    } catch (final IOException e) {
+      final CompletableFuture<Response> result = new CompletableFuture<>();
+      result.completeExceptionally(e);
+      return result;
     }
 
+    // completes once the headers arrived, the body is read from the stream as it is decoded
+    return clientFor(options)
+        .sendAsync(httpRequest, BodyHandlers.ofInputStream())
+        .thenApply(httpResponse -> toFeignResponse(request, httpResponse));
+  }
+
+  protected Response toFeignResponse(Request request, HttpResponse<InputStream> httpResponse) {
     final OptionalLong length = httpResponse.headers().firstValueAsLong("Content-Length");
 
-    final Response response = Response.builder()
-        .body(new ByteArrayInputStream(httpResponse.body()),
-            length.isPresent() ? (int) length.getAsLong() : null)
+    return Response.builder()
+        .body(httpResponse.body(),
+            length.isPresent() && length.getAsLong() <= Integer.MAX_VALUE
+                ? (int) length.getAsLong()
+                : null)
         .reason(httpResponse.headers().firstValue("Reason-Phrase").orElse("OK"))
         .request(request)
         .status(httpResponse.statusCode())
         .headers(castMapCollectType(httpResponse.headers().map()))
         .build();
-    return response;
   }
 
-  private Builder newRequestBuilder(Request request) throws IOException {
+  private HttpClient clientFor(Options options) {
+    final long connectTimeout = options.connectTimeoutMillis();
+    final Redirect redirect = options.isFollowRedirects() ? Redirect.ALWAYS : Redirect.NEVER;
+    final long clientConnectTimeout =
+        client.connectTimeout().map(Duration::toMillis).orElse(0L);
+    if (connectTimeout == clientConnectTimeout && redirect == client.followRedirects()) {
+      return client;
+    }
+    return derivedClients.computeIfAbsent(new ClientKey(connectTimeout, redirect),
+        key -> {
+          final HttpClient.Builder builder = HttpClient.newBuilder()
+              .followRedirects(key.redirect)
+              .version(client.version())
+              .sslContext(client.sslContext())
+              .sslParameters(client.sslParameters());
+          if (key.connectTimeout > 0) {
+            builder.connectTimeout(Duration.ofMillis(key.connectTimeout));
+          }
+          client.executor().ifPresent(builder::executor);
+          client.proxy().ifPresent(builder::proxy);
+          client.authenticator().ifPresent(builder::authenticator);
+          client.cookieHandler().ifPresent(builder::cookieHandler);
+          return builder.build();
+        });
+  }
+
+  private Builder newRequestBuilder(Request request, Options options) throws IOException {
     URI uri;
     try {
       uri = new URI(request.url());
@@ -80,16 +178,29 @@ public class Http2Client implements Client {
     }
 
     final BodyPublisher body;
-    final byte[] data = request.body();
-    if (data == null) {
-      body = BodyPublishers.noBody();
+    if (request.isStreaming()) {
+      // the publisher pulls, the body writer pushes: the writer fills a bounded pipe on its own
+      // thread while the client reads it, so the body is never held as a whole
+      final long timeoutMillis = options.readTimeoutMillis() > 0
+          ? options.readTimeoutMillis()
+          : BodyPipe.DEFAULT_TIMEOUT_MILLIS;
+      final BodyPublisher pipe = BodyPublishers
+          .ofInputStream(() -> BodyPipe.open(request, bodyWriters, timeoutMillis));
+      body = request.length() > 0 ? BodyPublishers.fromPublisher(pipe, request.length()) : pipe;
     } else {
-      body = BodyPublishers.ofByteArray(data);
+      final byte[] data = request.body();
+      if (data == null) {
+        body = BodyPublishers.noBody();
+      } else {
+        body = BodyPublishers.ofByteArray(data);
+      }
     }
 
     final Builder requestBuilder = HttpRequest.newBuilder()
-        .uri(uri)
-        .version(Version.HTTP_2);
+        .uri(uri);
+    if (options.readTimeoutMillis() > 0) {
+      requestBuilder.timeout(Duration.ofMillis(options.readTimeoutMillis()));
+    }
 
     final Map<String, Collection<String>> headers = filterRestrictedHeaders(request.headers());
     if (!headers.isEmpty()) {
@@ -141,8 +252,9 @@ public class Http2Client implements Client {
   }
 
   private Map<String, Collection<String>> castMapCollectType(Map<String, List<String>> map) {
-    final Map<String, Collection<String>> result = new HashMap<>();
-    map.forEach((key, value) -> result.put(key, new HashSet<>(value)));
+    // keep every value, repeated headers such as Set-Cookie may carry duplicates
+    final Map<String, Collection<String>> result = new LinkedHashMap<>();
+    map.forEach((key, value) -> result.put(key, value));
     return result;
   }
 
@@ -156,4 +268,204 @@ public class Http2Client implements Client {
         .toArray(new String[0]);
   }
 
+  private static final class ClientKey {
+
+    private final long connectTimeout;
+    private final Redirect redirect;
+
+    ClientKey(long connectTimeout, Redirect redirect) {
+      this.connectTimeout = connectTimeout;
+      this.redirect = redirect;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ClientKey)) {
+        return false;
+      }
+      final ClientKey that = (ClientKey) o;
+      return connectTimeout == that.connectTimeout && redirect == that.redirect;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(connectTimeout, redirect);
+    }
+  }
+
+  /**
+   * Hands the chunks a body writer produces to the client as it reads them, holding at most
+   * {@link #CAPACITY} chunks in between. A failure of the writer fails the read that reaches it,
+   * and so the request, rather than sending a truncated body. Either side gives up when the other
+   * did not move for the timeout, as the client may stop reading without closing the pipe.
+   */
+  static final class BodyPipe extends InputStream {
+
+    static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final int CAPACITY = 4;
+    private static final byte[] END = new byte[0];
+    private static final int MAX_WRITERS = 16;
+    static final Executor WRITERS = newWriters();
+
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(CAPACITY);
+    private final long timeoutNanos;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private byte[] current = new byte[0];
+    private int position;
+    private boolean ended;
+
+    private BodyPipe(long timeoutMillis) {
+      this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Called by the client for every send of the request, as the writer can be replayed.
+     */
+    static InputStream open(Request request, Executor writers, long timeoutMillis) {
+      final BodyPipe pipe = new BodyPipe(timeoutMillis);
+      try {
+        writers.execute(() -> pipe.fill(request));
+      } catch (RejectedExecutionException e) {
+        pipe.failure = new IOException("No writer available for the request body", e);
+        pipe.chunks.offer(END);
+      }
+      return pipe;
+    }
+
+    private static Executor newWriters() {
+      final ThreadPoolExecutor writers = new ThreadPoolExecutor(MAX_WRITERS, MAX_WRITERS, 60,
+          TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "feign-http2client-body");
+            thread.setDaemon(true);
+            return thread;
+          });
+      writers.allowCoreThreadTimeOut(true);
+      return writers;
+    }
+
+    private void fill(Request request) {
+      try {
+        final Sink sink = new Sink();
+        request.writeBody(sink);
+        sink.flush();
+      } catch (IOException e) {
+        failure = e;
+      } catch (RuntimeException e) {
+        failure = new IOException("Could not write request body", e);
+      }
+      try {
+        put(END);
+      } catch (IOException ignored) {
+        // the client stopped reading
+      }
+    }
+
+    private void put(byte[] chunk) throws IOException {
+      final long deadline = System.nanoTime() + timeoutNanos;
+      try {
+        while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+          if (closed || System.nanoTime() - deadline > 0) {
+            throw new IOException("Request body is no longer read");
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      final byte[] single = new byte[1];
+      return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      while (position == current.length) {
+        if (ended) {
+          return -1;
+        }
+        try {
+          current = chunks.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
+        }
+        if (current == null) {
+          current = new byte[0];
+          close();
+          throw new UncheckedIOException(
+              new IOException("Request body writer stalled, no data within the timeout"));
+        }
+        position = 0;
+        if (current == END) {
+          ended = true;
+          if (failure != null) {
+            // the JDK 11 publisher ends the body at an IOException, only unchecked ones fail it
+            throw new UncheckedIOException(failure);
+          }
+        }
+      }
+      final int count = Math.min(len, current.length - position);
+      System.arraycopy(current, position, b, off, count);
+      position += count;
+      return count;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      chunks.clear();
+    }
+
+    /**
+     * Collects written bytes into fixed size chunks, handed to the pipe as they fill up.
+     */
+    private final class Sink extends OutputStream {
+
+      private byte[] buffer = new byte[CHUNK_SIZE];
+      private int count;
+
+      @Override
+      public void write(int b) throws IOException {
+        if (count == buffer.length) {
+          flush();
+        }
+        buffer[count++] = (byte) b;
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+          if (count == buffer.length) {
+            flush();
+          }
+          final int copied = Math.min(len, buffer.length - count);
+          System.arraycopy(b, off, buffer, count, copied);
+          count += copied;
+          off += copied;
+          len -= copied;
+        }
+      }
+
+      @Override
+      public void flush() throws IOException {
+        if (count > 0) {
+          put(count == buffer.length ? buffer : Arrays.copyOf(buffer, count));
+          buffer = new byte[CHUNK_SIZE];
+          count = 0;
+        }
+      }
+    }
+  }
+
 }
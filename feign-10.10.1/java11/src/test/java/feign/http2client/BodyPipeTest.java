@@ -0,0 +1,94 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.http2client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.http2client.Http2Client.BodyPipe;
+
+public class BodyPipeTest {
+
+  @Test
+  public void writerGivesUpWhenTheBodyIsNoLongerRead() throws Exception {
+    final CountDownLatch done = new CountDownLatch(1);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final Request request = streaming(out -> {
+      try {
+        for (int i = 0; i < 100; i++) {
+          out.write(new byte[16 * 1024]);
+        }
+      } catch (IOException e) {
+        failure.set(e);
+        throw e;
+      }
+    });
+    final Executor writers = command -> new Thread(() -> {
+      command.run();
+      done.countDown();
+    }).start();
+
+    BodyPipe.open(request, writers, 100);
+
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(failure.get()).hasMessage("Request body is no longer read");
+  }
+
+  @Test
+  public void readerGivesUpWhenTheWriterStalls() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final Request request = streaming(out -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    try (InputStream pipe = BodyPipe.open(request,
+        command -> new Thread(command).start(), 100)) {
+      assertThatThrownBy(pipe::read).isInstanceOf(UncheckedIOException.class);
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  public void rejectedWriterFailsTheRead() throws Exception {
+    final Request request = streaming(out -> out.write(1));
+
+    try (InputStream pipe = BodyPipe.open(request, command -> {
+      throw new RejectedExecutionException();
+    }, 100)) {
+      assertThatThrownBy(pipe::read).isInstanceOf(UncheckedIOException.class)
+          .hasRootCauseInstanceOf(RejectedExecutionException.class);
+    }
+  }
+
+  private static Request streaming(Request.Body.Writer writer) {
+    return Request.create(HttpMethod.POST, "http://localhost", Collections.emptyMap(),
+        Request.Body.create(writer, -1, null), null);
+  }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.http2client.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import java.io.IOException;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpTimeoutException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import feign.*;
+import feign.Request.HttpMethod;
+import feign.http2client.Http2Client;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+/**
+ * Tests {@link Http2Client} as an {@link AsyncClient}, over HTTP/1.1 as the mock server does not
+ * speak cleartext HTTP/2.
+ */
+public class Http2ClientAsyncTest {
+
+  @Rule
+  public final MockWebServer server = new MockWebServer();
+
+  public interface TestInterfaceAsync {
+
+    @RequestLine("GET /")
+    CompletableFuture<Response> get();
+
+    @RequestLine("POST /")
+    CompletableFuture<String> post(String body);
+  }
+
+  @Test
+  public void streamsResponseBody() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    final Response response = newBuilder().target(TestInterfaceAsync.class,
+        "http://localhost:" + server.getPort()).get().get(5, TimeUnit.SECONDS);
+
+    assertThat(response.status()).isEqualTo(200);
+    assertThat(response.body().length()).isEqualTo(3);
+    assertThat(Util.toString(response.body().asReader(Util.UTF_8))).isEqualTo("foo");
+  }
+
+  @Test
+  public void keepsRepeatedHeaderValues() throws Exception {
+    server.enqueue(new MockResponse()
+        .addHeader("Set-Cookie", "a=1")
+        .addHeader("Set-Cookie", "a=1"));
+
+    final Response response = newBuilder().target(TestInterfaceAsync.class,
+        "http://localhost:" + server.getPort()).get().get(5, TimeUnit.SECONDS);
+
+    assertThat(response.headers().get("set-cookie")).containsExactly("a=1", "a=1");
+  }
+
+  @Test
+  public void sendsBody() throws Exception {
+    server.enqueue(new MockResponse().setBody("bar"));
+
+    final String result = newBuilder().target(TestInterfaceAsync.class,
+        "http://localhost:" + server.getPort()).post("foo").get(5, TimeUnit.SECONDS);
+
+    assertThat(result).isEqualTo("bar");
+    assertThat(server.takeRequest().getBody().readUtf8()).isEqualTo("foo");
+  }
+
+  @Test
+  public void streamsRequestBody() throws Exception {
+    server.enqueue(new MockResponse());
+    final byte[] data = new byte[100_000];
+    Arrays.fill(data, (byte) 'a');
+    final Request request = Request.create(HttpMethod.POST, "http://localhost:" + server.getPort(),
+        Collections.emptyMap(), Request.Body.create(out -> {
+          for (int i = 0; i < data.length; i += 1000) {
+            out.write(data, i, 1000);
+          }
+        }, -1, null), null);
+
+    final Response response = new Http2Client(Version.HTTP_1_1)
+        .execute(request, new Request.Options(), Optional.empty()).get(5, TimeUnit.SECONDS);
+
+    assertThat(response.status()).isEqualTo(200);
+    assertThat(server.takeRequest().getBody().readByteArray()).isEqualTo(data);
+  }
+
+  @Test
+  public void failingBodyWriterFailsTheRequest() throws Exception {
+    server.enqueue(new MockResponse());
+    final IOException failure = new IOException("boom");
+    final Request request = Request.create(HttpMethod.POST, "http://localhost:" + server.getPort(),
+        Collections.emptyMap(), Request.Body.create(out -> {
+          out.write(new byte[20_000]);
+          throw failure;
+        }, -1, null), null);
+
+    try {
+      new Http2Client(Version.HTTP_1_1)
+          .execute(request, new Request.Options(), Optional.empty()).get(5, TimeUnit.SECONDS);
+      fail("expected the body writer to fail the request");
+    } catch (final ExecutionException e) {
+      assertThat(e).hasRootCauseInstanceOf(IOException.class);
+    }
+  }
+
+  @Test
+  public void retriesIOExceptionsOfTheComposedFuture() throws Exception {
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+    server.enqueue(new MockResponse().setBody("bar"));
+    final AtomicReference<RetryableException> retried = new AtomicReference<>();
+
+    final TestInterfaceAsync api = newBuilder()
+        .retryer((e, attempt) -> {
+          retried.set(e);
+          return attempt < 2 ? 0 : -1;
+        })
+        .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+    assertThat(api.post("foo").get(5, TimeUnit.SECONDS)).isEqualTo("bar");
+    assertThat(retried.get()).hasCauseInstanceOf(IOException.class);
+  }
+
+  @Test
+  public void appliesReadTimeoutPerRequest() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo").setHeadersDelay(1, TimeUnit.SECONDS));
+
+    final TestInterfaceAsync api = newBuilder()
+        .options(new Request.Options(1, TimeUnit.SECONDS, 100, TimeUnit.MILLISECONDS, true))
+        .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+    try {
+      api.get().get(5, TimeUnit.SECONDS);
+      fail("expected a timeout");
+    } catch (final ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(HttpTimeoutException.class);
+    }
+  }
+
+  @Test
+  public void capabilitiesEnrichTheClientInterfaceBeingBuilt() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo"));
+    server.enqueue(new MockResponse().setBody("bar"));
+    final ConcurrencyLimitCapability limits = new ConcurrencyLimitCapability();
+
+    final TestInterface sync = Feign.builder()
+        .client(new Http2Client(Version.HTTP_1_1))
+        .addCapability(limits)
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+    final TestInterfaceAsync async = newBuilder()
+        .addCapability(new ClientOnlyCapability())
+        .addCapability(limits)
+        .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+    assertThat(sync.post("foo")).isEqualTo("foo");
+    assertThat(async.post("bar").get(5, TimeUnit.SECONDS)).isEqualTo("bar");
+    assertThat(limits.limiters()).hasSize(1);
+  }
+
+  public interface TestInterface {
+
+    @RequestLine("POST /")
+    String post(String body);
+  }
+
+  /**
+   * Only enriches {@link Client}, so must leave an {@link AsyncClient} alone.
+   */
+  public static class ClientOnlyCapability implements Capability {
+
+    @Override
+    public Client enrich(Client client) {
+      return (request, options) -> client.execute(request, options);
+    }
+  }
+
+  private AsyncFeign.AsyncBuilder<Object> newBuilder() {
+    return AsyncFeign.asyncBuilder().client(new Http2Client(Version.HTTP_1_1));
+  }
+
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.micrometer;
+
+import feign.ExecutionStrategy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes queue depth, active count and rejections of an {@link ExecutionStrategy}.
+ */
+public class ExecutionStrategyMetrics implements MeterBinder {
+
+  private final ExecutionStrategy.Metrics metrics;
+  private final Iterable<Tag> tags;
+  private final FeignMetricName metricName;
+
+  public ExecutionStrategyMetrics(ExecutionStrategy executionStrategy, Tag... tags) {
+    this.metrics = executionStrategy.metrics();
+    this.tags = Tags.of(tags);
+    this.metricName = new FeignMetricName(ExecutionStrategy.class);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder(metricName.name("queue.depth"), metrics, ExecutionStrategy.Metrics::queueDepth)
+        .description("Calls waiting for a thread")
+        .tags(tags)
+        .register(registry);
+    Gauge.builder(metricName.name("active"), metrics, ExecutionStrategy.Metrics::activeCount)
+        .description("Calls currently running")
+        .tags(tags)
+        .register(registry);
+    FunctionCounter
+        .builder(metricName.name("rejected"), metrics, ExecutionStrategy.Metrics::rejectedCount)
+        .description("Calls rejected by the strategy")
+        .tags(tags)
+        .register(registry);
+  }
+
+}
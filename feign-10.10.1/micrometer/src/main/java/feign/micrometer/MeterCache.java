@@ -0,0 +1,56 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.micrometer;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import feign.MethodMetadata;
+import feign.Target;
+
+/**
+ * Meters resolved once per client method and target url, so that recording a call neither builds
+ * tags nor looks the meter up in the registry. Lookups on a hit do not allocate.
+ */
+final class MeterCache<M> {
+
+  private final ConcurrentMap<Method, ConcurrentMap<String, M>> meters =
+      new ConcurrentHashMap<>();
+  private final Factory<M> factory;
+
+  MeterCache(Factory<M> factory) {
+    this.factory = factory;
+  }
+
+  M get(MethodMetadata methodMetadata, Target<?> target) {
+    return get(methodMetadata.targetType(), methodMetadata.method(), target.url());
+  }
+
+  M get(Class<?> targetType, Method method, String url) {
+    ConcurrentMap<String, M> byUrl = meters.get(method);
+    if (byUrl == null) {
+      byUrl = meters.computeIfAbsent(method, key -> new ConcurrentHashMap<>(4));
+    }
+    M meter = byUrl.get(url);
+    if (meter == null) {
+      meter = byUrl.computeIfAbsent(url, key -> factory.create(targetType, method, key));
+    }
+    return meter;
+  }
+
+  interface Factory<M> {
+
+    M create(Class<?> targetType, Method method, String url);
+  }
+}
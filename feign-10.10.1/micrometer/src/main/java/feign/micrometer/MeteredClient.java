@@ -14,12 +14,15 @@
 package feign.micrometer;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 import feign.Client;
 import feign.Request;
 import feign.Request.Options;
 import feign.RequestTemplate;
 import feign.Response;
+import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Warp feign {@link Client} with metrics.
@@ -29,26 +32,28 @@ public class MeteredClient implements Client {
   private final Client client;
   private final MeterRegistry meterRegistry;
   private final FeignMetricName metricName;
+  private final Clock clock;
+  private final MeterCache<Timer> timers;
 
   public MeteredClient(Client client, MeterRegistry meterRegistry) {
     this.client = client;
     this.meterRegistry = meterRegistry;
     this.metricName = new FeignMetricName(Client.class);
+    this.clock = meterRegistry.config().clock();
+    this.timers = new MeterCache<>((targetType, method, url) -> meterRegistry.timer(
+        metricName.name(), metricName.tag(targetType, method, url)));
   }
 
   @Override
   public Response execute(Request request, Options options) throws IOException {
     final RequestTemplate template = request.requestTemplate();
+    final Timer timer = timers.get(template.methodMetadata(), template.feignTarget());
 
+    final long start = clock.monotonicTime();
     try {
-      return meterRegistry.timer(
-          metricName.name(),
-          metricName.tag(template.methodMetadata(), template.feignTarget()))
-          .recordCallable(() -> client.execute(request, options));
-    } catch (IOException e) {
-      throw e;
-    } catch (Exception e) {
-      throw new IOException(e);
+      return client.execute(request, options);
+    } finally {
+      timer.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
     }
   }
 
@@ -16,13 +16,16 @@ package feign.micrometer;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import feign.FeignException;
 import feign.RequestTemplate;
 import feign.Response;
 import feign.codec.DecodeException;
 import feign.codec.Decoder;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Warp feign {@link Decoder} with metrics.
@@ -32,38 +35,41 @@ public class MeteredDecoder implements Decoder {
   private final Decoder decoder;
   private final MeterRegistry meterRegistry;
   private final FeignMetricName metricName;
+  private final Clock clock;
+  private final MeterCache<Timer> timers;
+  private final MeterCache<DistributionSummary> responseSizes;
 
   public MeteredDecoder(Decoder decoder, MeterRegistry meterRegistry) {
     this.decoder = decoder;
     this.meterRegistry = meterRegistry;
     this.metricName = new FeignMetricName(Decoder.class);
+    this.clock = meterRegistry.config().clock();
+    this.timers = new MeterCache<>((targetType, method, url) -> meterRegistry.timer(
+        metricName.name(), metricName.tag(targetType, method, url)));
+    this.responseSizes = new MeterCache<>((targetType, method, url) -> meterRegistry.summary(
+        metricName.name("response_size"), metricName.tag(targetType, method, url)));
   }
 
   @Override
   public Object decode(Response response, Type type)
       throws IOException, DecodeException, FeignException {
     final RequestTemplate template = response.request().requestTemplate();
-    final Optional<MeteredBody> body = Optional.ofNullable(response.body())
-        .map(MeteredBody::new);
+    final MeteredBody body = response.body() != null ? new MeteredBody(response.body()) : null;
+    final Response meteredResponse =
+        body != null ? response.toBuilder().body(body).build() : response;
 
-    Response meteredResponse = body.map(b -> response.toBuilder().body(b).build())
-        .orElse(response);
-
-    Object decoded;
+    final Object decoded;
+    final long start = clock.monotonicTime();
     try {
-      decoded = meterRegistry
-          .timer(metricName.name(),
-              metricName.tag(template.methodMetadata(), template.feignTarget()))
-          .recordCallable(() -> decoder.decode(meteredResponse, type));
-    } catch (IOException e) {
-      throw e;
-    } catch (Exception e) {
-      throw new IOException(e);
+      decoded = decoder.decode(meteredResponse, type);
+    } finally {
+      timers.get(template.methodMetadata(), template.feignTarget())
+          .record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
     }
 
-    body.ifPresent(b -> meterRegistry.summary(
-        metricName.name("response_size"),
-        metricName.tag(template.methodMetadata(), template.feignTarget())).record(b.count()));
+    if (body != null) {
+      responseSizes.get(template.methodMetadata(), template.feignTarget()).record(body.count());
+    }
 
     return decoded;
   }
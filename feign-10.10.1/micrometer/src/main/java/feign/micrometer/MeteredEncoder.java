@@ -15,10 +15,14 @@ package feign.micrometer;
 
 
 import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
 import feign.RequestTemplate;
 import feign.codec.EncodeException;
 import feign.codec.Encoder;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Warp feign {@link Encoder} with metrics.
@@ -28,27 +32,47 @@ public class MeteredEncoder implements Encoder {
   private final Encoder encoder;
   private final MeterRegistry meterRegistry;
   private final FeignMetricName metricName;
+  private final Clock clock;
+  private final MeterCache<Timer> timers;
+  private final MeterCache<DistributionSummary> requestSizes;
 
   public MeteredEncoder(Encoder encoder, MeterRegistry meterRegistry) {
     this.encoder = encoder;
     this.meterRegistry = meterRegistry;
     this.metricName = new FeignMetricName(Encoder.class);
+    this.clock = meterRegistry.config().clock();
+    this.timers = new MeterCache<>((targetType, method, url) -> meterRegistry.timer(
+        metricName.name(), metricName.tag(targetType, method, url)));
+    this.requestSizes = new MeterCache<>((targetType, method, url) -> meterRegistry.summary(
+        metricName.name("request_size"), metricName.tag(targetType, method, url)));
   }
 
   @Override
   public void encode(Object object, Type bodyType, RequestTemplate template)
       throws EncodeException {
-    meterRegistry.timer(
-        metricName.name(),
-        metricName.tag(template.methodMetadata(), template.feignTarget()))
-        .record(() -> encoder.encode(object, bodyType, template));
-
-    if (template.body() != null) {
-      meterRegistry.summary(
-          metricName.name("request_size"),
-          metricName.tag(template.methodMetadata(), template.feignTarget()))
-          .record(template.body().length);
+    final long start = clock.monotonicTime();
+    try {
+      encoder.encode(object, bodyType, template);
+    } finally {
+      timers.get(template.methodMetadata(), template.feignTarget())
+          .record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
     }
+
+    final int size = requestSize(template);
+    if (size >= 0) {
+      requestSizes.get(template.methodMetadata(), template.feignTarget()).record(size);
+    }
+  }
+
+  /**
+   * Size of the encoded body, or -1 if there is none. Streaming bodies report the length they were
+   * declared with, as reading them would buffer the whole body.
+   */
+  private static int requestSize(RequestTemplate template) {
+    if (template.isStreaming()) {
+      return template.bodyLength();
+    }
+    return template.body() != null ? template.body().length : -1;
   }
 
 }
@@ -19,13 +19,19 @@ import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import feign.Feign;
 import feign.FeignException;
 import feign.InvocationHandlerFactory;
 import feign.Target;
 import feign.Util;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Warp feign {@link InvocationHandler} with metrics.
@@ -45,11 +51,17 @@ public class MeteredInvocationHandleFactory implements InvocationHandlerFactory
 
   private final FeignMetricName metricName;
 
+  private final Clock clock;
+
+  private final MeterCache<MethodMeters> meters;
+
   public MeteredInvocationHandleFactory(InvocationHandlerFactory invocationHandler,
       MeterRegistry meterRegistry) {
     this.invocationHandler = invocationHandler;
     this.meterRegistry = meterRegistry;
     this.metricName = new FeignMetricName(Feign.class);
+    this.clock = meterRegistry.config().clock();
+    this.meters = new MeterCache<>(MethodMeters::new);
   }
 
   @Override
@@ -64,39 +76,58 @@ public class MeteredInvocationHandleFactory implements InvocationHandlerFactory
         return invocationHandle.invoke(proxy, method, args);
       }
 
+      final MethodMeters methodMeters = meters.get(clientClass, method, target.url());
+      final long start = clock.monotonicTime();
       try {
-        return meterRegistry.timer(
-            metricName.name(),
-            metricName.tag(clientClass, method, target.url()))
-            .recordCallable(() -> {
-              try {
-                return invocationHandle.invoke(proxy, method, args);
-              } catch (Exception e) {
-                throw e;
-              } catch (Throwable e) {
-                throw new Exception(e);
-              }
-            });
+        return invocationHandle.invoke(proxy, method, args);
       } catch (final FeignException e) {
-        meterRegistry.counter(
-            metricName.name("http_error"),
-            metricName.tag(clientClass, method, target.url(),
-                Tag.of("http_status", String.valueOf(e.status())),
-                Tag.of("error_group", e.status() / 100 + "xx")))
-            .increment();
+        methodMeters.httpError(e.status()).increment();
 
         throw e;
       } catch (final Throwable e) {
-        meterRegistry.counter(
-            metricName.name("exception"),
-            metricName.tag(clientClass, method, target.url(),
-                Tag.of("exception_name", e.getClass().getSimpleName())))
-            .increment();
+        methodMeters.exception(e.getClass()).increment();
 
         throw e;
+      } finally {
+        methodMeters.timer.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
       }
     };
   }
 
+  /**
+   * Meters of one client method. Error counters are created on first use, as only a handful of
+   * statuses and exception types show up per method.
+   */
+  private final class MethodMeters {
+
+    private final Class<?> targetType;
+    private final Method method;
+    private final String url;
+    private final Timer timer;
+    private final ConcurrentMap<Integer, Counter> httpErrors = new ConcurrentHashMap<>(8);
+    private final ConcurrentMap<Class<?>, Counter> exceptions = new ConcurrentHashMap<>(8);
+
+    private MethodMeters(Class<?> targetType, Method method, String url) {
+      this.targetType = targetType;
+      this.method = method;
+      this.url = url;
+      this.timer = meterRegistry.timer(metricName.name(), metricName.tag(targetType, method, url));
+    }
+
+    private Counter httpError(int status) {
+      return httpErrors.computeIfAbsent(status, key -> meterRegistry.counter(
+          metricName.name("http_error"),
+          metricName.tag(targetType, method, url,
+              Tag.of("http_status", String.valueOf(status)),
+              Tag.of("error_group", status / 100 + "xx"))));
+    }
+
+    private Counter exception(Class<?> type) {
+      return exceptions.computeIfAbsent(type, key -> meterRegistry.counter(
+          metricName.name("exception"),
+          metricName.tag(targetType, method, url,
+              Tag.of("exception_name", type.getSimpleName()))));
+    }
+  }
 
 }
@@ -16,11 +16,16 @@ package feign.micrometer;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import feign.Feign;
+import feign.FeignException;
 import feign.RequestLine;
+import feign.Response;
 import feign.mock.HttpMethod;
 import feign.mock.MockClient;
 import feign.mock.MockTarget;
@@ -38,6 +43,13 @@ public class MicrometerCapabilityTest {
 
   }
 
+  public interface StreamingSource {
+
+    @RequestLine("POST /post")
+    void post(String body);
+
+  }
+
   @Test
   public void addMetricsCapability() {
     SimpleMeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, new MockClock());
@@ -69,4 +81,79 @@ public class MicrometerCapabilityTest {
         equalTo("")));
   }
 
+  @Test
+  public void reusesMetersAcrossCalls() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, new MockClock());
+
+    final SimpleSource source = Feign.builder()
+        .client(new MockClient(true)
+            .ok(HttpMethod.GET, "/get", "1234567890abcde")
+            .add(HttpMethod.GET, "/get", 503))
+        .addCapability(new MicrometerCapability(registry))
+        .target(new MockTarget<>(MicrometerCapabilityTest.SimpleSource.class));
+
+    source.get("0x3456789");
+    try {
+      source.get("0x3456789");
+    } catch (FeignException e) {
+      // counted below
+    }
+
+    assertThat(registry.get("feign.Feign").timers().size(), equalTo(1));
+    assertThat(registry.get("feign.Feign").timer().count(), equalTo(2L));
+    assertThat(registry.get("feign.Client").timer().count(), equalTo(2L));
+    assertThat(registry.get("feign.Feign.http_error").tag("http_status", "503").counter().count(),
+        equalTo(1.0));
+  }
+
+  @Test
+  public void streamingBodiesAreNotBuffered() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, new MockClock());
+    AtomicInteger writes = new AtomicInteger();
+    List<Boolean> streamed = new ArrayList<>();
+
+    final StreamingSource source = streamingSource(registry, writes, streamed, 9);
+    source.post("0x3456789");
+
+    assertThat(streamed, equalTo(Collections.singletonList(true)));
+    assertThat(writes.get(), equalTo(0));
+    assertThat(registry.get("feign.codec.Encoder.request_size").summary().totalAmount(),
+        equalTo(9.0));
+  }
+
+  @Test
+  public void streamingBodiesOfUnknownLengthHaveNoSize() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, new MockClock());
+    AtomicInteger writes = new AtomicInteger();
+    List<Boolean> streamed = new ArrayList<>();
+
+    final StreamingSource source = streamingSource(registry, writes, streamed, -1);
+    source.post("0x3456789");
+
+    assertThat(streamed, equalTo(Collections.singletonList(true)));
+    assertThat(writes.get(), equalTo(0));
+    assertThat(registry.find("feign.codec.Encoder.request_size").summary(), nullValue());
+  }
+
+  private static StreamingSource streamingSource(SimpleMeterRegistry registry,
+                                                 AtomicInteger writes,
+                                                 List<Boolean> streamed,
+                                                 int length) {
+    return Feign.builder()
+        .encoder((object, bodyType, template) -> template.body(out -> {
+          writes.incrementAndGet();
+          out.write(((String) object).getBytes(StandardCharsets.UTF_8));
+        }, length, StandardCharsets.UTF_8))
+        .client((request, options) -> {
+          streamed.add(request.isStreaming());
+          return Response.builder()
+              .status(200)
+              .request(request)
+              .headers(Collections.emptyMap())
+              .build();
+        })
+        .addCapability(new MicrometerCapability(registry))
+        .target(StreamingSource.class, "http://localhost");
+  }
+
 }
@@ -16,6 +16,7 @@ package feign.okhttp;
 import feign.Client;
 import feign.Request.HttpMethod;
 import okhttp3.*;
+import okio.BufferedSink;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -72,6 +73,13 @@ public final class OkHttpClient implements Client {
             requestBuilder.addHeader("Accept", "*/*");
         }
 
+        if (input.isStreaming()) {
+            // 直接写入 okio 的 sink，不在内存中保留整个 body
+            requestBuilder.removeHeader("Content-Type");
+            requestBuilder.method(input.httpMethod().name(), new StreamingRequestBody(mediaType, input));
+            return requestBuilder.build();
+        }
+
         byte[] inputBody = input.body();
         boolean isMethodWithBody =
                 HttpMethod.POST == input.httpMethod() || HttpMethod.PUT == input.httpMethod()
@@ -90,6 +98,35 @@ public final class OkHttpClient implements Client {
         return requestBuilder.build();
     }
 
+    /**
+     * Writes a streaming {@link feign.Request} body straight into the connection's sink.
+     */
+    private static final class StreamingRequestBody extends RequestBody {
+
+        private final MediaType mediaType;
+        private final feign.Request request;
+
+        StreamingRequestBody(MediaType mediaType, feign.Request request) {
+            this.mediaType = mediaType;
+            this.request = request;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return mediaType;
+        }
+
+        @Override
+        public long contentLength() {
+            return request.length();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            request.writeBody(sink.outputStream());
+        }
+    }
+
     private static feign.Response toFeignResponse(Response response, feign.Request request)
             throws IOException {
         return feign.Response
@@ -20,15 +20,27 @@ import org.reactivestreams.Publisher;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Stream;
 
 public class ReactiveDelegatingContract implements Contract {
 
     private final Contract delegate;
+    private final Class<?> streamedType;
 
     ReactiveDelegatingContract(Contract delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * @param streamedType publisher type whose elements are decoded one by one, as an
+     *        {@link Iterator}, or {@code null} to decode every return type as a whole.
+     */
+    ReactiveDelegatingContract(Contract delegate, Class<?> streamedType) {
         this.delegate = delegate;
+        this.streamedType = streamedType;
     }
 
     @Override
@@ -56,13 +68,22 @@ public class ReactiveDelegatingContract implements Contract {
                     throw new IllegalArgumentException(
                             "Streams are not supported when using Reactive Wrappers");
                 }
-                metadata.returnType(actualTypes[0]);
+                if (isStreamed(type)) {
+                    metadata.returnType(new StreamedType(actualTypes[0]));
+                } else {
+                    metadata.returnType(actualTypes[0]);
+                }
             }
         }
 
         return methodsMetadata;
     }
 
+    private boolean isStreamed(Type type) {
+        return streamedType != null
+                && streamedType.isAssignableFrom(Types.getRawType(type));
+    }
+
     /**
      * Ensure that the type provided implements a Reactive Streams Publisher.
      *
@@ -77,4 +98,50 @@ public class ReactiveDelegatingContract implements Contract {
         Class<?> raw = (Class<?>) parameterizedType.getRawType();
         return Publisher.class.isAssignableFrom(raw);
     }
+
+    /**
+     * {@code Iterator<T>} for a publisher of {@code T} whose elements are streamed.
+     */
+    static final class StreamedType implements ParameterizedType {
+
+        private final Type elementType;
+
+        StreamedType(Type elementType) {
+            this.elementType = elementType;
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return new Type[] {elementType};
+        }
+
+        @Override
+        public Type getRawType() {
+            return Iterator.class;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return null;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ParameterizedType
+                    && Iterator.class.equals(((ParameterizedType) obj).getRawType())
+                    && ((ParameterizedType) obj).getOwnerType() == null
+                    && Arrays.equals(getActualTypeArguments(),
+                            ((ParameterizedType) obj).getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(getActualTypeArguments()) ^ Iterator.class.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return Iterator.class.getName() + "<" + elementType.getTypeName() + ">";
+        }
+    }
 }
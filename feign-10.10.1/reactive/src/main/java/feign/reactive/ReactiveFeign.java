@@ -15,6 +15,14 @@ package feign.reactive;
 
 import feign.Contract;
 import feign.Feign;
+import feign.Feign.ResponseMappingDecoder;
+import feign.Response;
+import feign.ResponseMapper;
+import feign.codec.Decoder;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import static feign.Util.ensureClosed;
 
 abstract class ReactiveFeign {
 
@@ -22,7 +30,18 @@ abstract class ReactiveFeign {
 
   public static class Builder extends Feign.Builder {
 
+    private final Class<?> multiValueType;
     private Contract contract = new Contract.Default();
+    private Decoder decoder = new Decoder.Default();
+    private Decoder streamingDecoder;
+
+    public Builder() {
+      this(null);
+    }
+
+    Builder(Class<?> multiValueType) {
+      this.multiValueType = multiValueType;
+    }
 
     /**
      * Extend the current contract to support Reactive Stream return types.
@@ -36,6 +55,33 @@ abstract class ReactiveFeign {
       return this;
     }
 
+    @Override
+    public Builder decoder(Decoder decoder) {
+      this.decoder = decoder;
+      return this;
+    }
+
+    @Override
+    public Builder mapAndDecode(ResponseMapper mapper, Decoder decoder) {
+      this.decoder = new ResponseMappingDecoder(mapper, decoder);
+      return this;
+    }
+
+    /**
+     * Decode multi-valued return types, such as {@code Flux<Item>}, element by element instead of
+     * as a whole. The decoder is asked for an {@code Iterator<Item>}, like
+     * {@code JacksonIteratorDecoder} returns, and elements are only read as subscribers request
+     * them. If the iterator is {@link java.io.Closeable}, it is closed on completion, error or
+     * cancellation.
+     *
+     * @param streamingDecoder returning an {@link java.util.Iterator} for the element type.
+     * @return a Builder for chaining.
+     */
+    public Builder streamingDecoder(Decoder streamingDecoder) {
+      this.streamingDecoder = streamingDecoder;
+      return this;
+    }
+
     /**
      * Build the Feign instance.
      *
@@ -43,11 +89,19 @@ abstract class ReactiveFeign {
      */
     @Override
     public Feign build() {
+      Class<?> streamedType = streamingDecoder != null ? multiValueType : null;
       if (!(this.contract instanceof ReactiveDelegatingContract)) {
-        super.contract(new ReactiveDelegatingContract(this.contract));
+        super.contract(new ReactiveDelegatingContract(this.contract, streamedType));
       } else {
         super.contract(this.contract);
       }
+      if (streamingDecoder != null) {
+        // the iterator owns the response, every other response is closed by StreamingDecoder
+        super.decoder(new StreamingDecoder(decoder, streamingDecoder));
+        super.doNotCloseAfterDecode();
+      } else {
+        super.decoder(decoder);
+      }
       return super.build();
     }
 
@@ -56,4 +110,40 @@ abstract class ReactiveFeign {
       throw new UnsupportedOperationException("Streaming Decoding is not supported.");
     }
   }
+
+  /**
+   * Sends streamed return types to the streaming decoder and keeps the close after decode contract
+   * for all the others.
+   */
+  static final class StreamingDecoder implements Decoder {
+
+    private final Decoder delegate;
+    private final Decoder streamingDecoder;
+
+    StreamingDecoder(Decoder delegate, Decoder streamingDecoder) {
+      this.delegate = delegate;
+      this.streamingDecoder = streamingDecoder;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+      if (!(type instanceof ReactiveDelegatingContract.StreamedType)) {
+        try {
+          return delegate.decode(response, type);
+        } finally {
+          ensureClosed(response.body());
+        }
+      }
+      boolean streaming = false;
+      try {
+        Object result = streamingDecoder.decode(response, type);
+        streaming = result instanceof Closeable;
+        return result;
+      } finally {
+        if (!streaming) {
+          ensureClosed(response.body());
+        }
+      }
+    }
+  }
 }
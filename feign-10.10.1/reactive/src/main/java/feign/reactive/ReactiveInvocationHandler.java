@@ -18,10 +18,15 @@ import feign.Target;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.io.Closeable;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
+import static feign.Util.ensureClosed;
 
 public abstract class ReactiveInvocationHandler implements InvocationHandler {
 
@@ -96,43 +101,153 @@ public abstract class ReactiveInvocationHandler implements InvocationHandler {
    * @return a Publisher wrapper for the invocation.
    */
   Publisher<?> invokeMethod(MethodHandler methodHandler, Object[] arguments) {
-    return subscriber -> subscriber.onSubscribe(new Subscription() {
-      private final AtomicBoolean isTerminated = new AtomicBoolean(false);
+    return invokeMethod(methodHandler, arguments, false);
+  }
+
+  /**
+   * Invoke the Method Handler as a Publisher.
+   *
+   * @param methodHandler to invoke
+   * @param arguments for the method
+   * @param stream if an {@link Iterator} result is emitted element by element, as subscribers
+   *        request them, instead of as a single value.
+   * @return a Publisher wrapper for the invocation.
+   */
+  Publisher<?> invokeMethod(MethodHandler methodHandler, Object[] arguments, boolean stream) {
+    return subscriber -> subscriber
+        .onSubscribe(new InvocationSubscription(subscriber, methodHandler, arguments, stream));
+  }
 
-      @Override
-      public void request(long n) {
-        if (n <= 0 && !terminated()) {
-          subscriber.onError(new IllegalArgumentException("negative subscription request"));
+  /**
+   * Runs the invocation on the first request and then emits as much of the result as requested.
+   * Signals are serialized with a work-in-progress counter, so only one thread touches the
+   * iterator at a time.
+   */
+  private static final class InvocationSubscription implements Subscription {
+
+    private final Subscriber<? super Object> subscriber;
+    private final MethodHandler methodHandler;
+    private final Object[] arguments;
+    private final boolean stream;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+    private volatile Iterator<?> iterator;
+    private boolean invoked;
+    private boolean done;
+
+    private InvocationSubscription(Subscriber<? super Object> subscriber,
+        MethodHandler methodHandler, Object[] arguments, boolean stream) {
+      this.subscriber = subscriber;
+      this.methodHandler = methodHandler;
+      this.arguments = arguments;
+      this.stream = stream;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("negative subscription request");
+      } else {
+        requested.accumulateAndGet(n, (current, add) -> {
+          long sum = current + add;
+          return sum < 0 ? Long.MAX_VALUE : sum;
+        });
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      // unblocks a read in progress on another thread
+      close(iterator);
+      drain();
+    }
+
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        if (!done) {
+          emit();
         }
-        if (!isTerminated()) {
-          try {
-            Object result = methodHandler.invoke(arguments);
-            if (null != result) {
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void emit() {
+      if (cancelled) {
+        finish();
+        return;
+      }
+      if (invalidRequest != null) {
+        finish();
+        subscriber.onError(invalidRequest);
+        return;
+      }
+      long demand = requested.get();
+      if (demand == 0) {
+        return;
+      }
+      try {
+        if (!invoked) {
+          invoked = true;
+          Object result = methodHandler.invoke(arguments);
+          if (stream && result instanceof Iterator) {
+            iterator = (Iterator<?>) result;
+          } else {
+            finish();
+            if (result != null && !cancelled) {
               subscriber.onNext(result);
             }
-          } catch (Throwable th) {
-            if (!terminated()) {
-              subscriber.onError(th);
+            if (!cancelled) {
+              subscriber.onComplete();
             }
+            return;
           }
         }
-        if (!terminated()) {
-          subscriber.onComplete();
+        long emitted = 0;
+        while (!cancelled && invalidRequest == null) {
+          if (emitted == demand) {
+            demand = requested.addAndGet(-emitted);
+            emitted = 0;
+            if (demand == 0) {
+              return;
+            }
+          }
+          if (!iterator.hasNext()) {
+            finish();
+            subscriber.onComplete();
+            return;
+          }
+          subscriber.onNext(iterator.next());
+          if (demand != Long.MAX_VALUE) {
+            emitted++;
+          }
+        }
+        // cancelled or invalid request, terminated by the next pass
+        emit();
+      } catch (Throwable th) {
+        finish();
+        if (!cancelled) {
+          subscriber.onError(th);
         }
       }
+    }
 
-      @Override
-      public void cancel() {
-        isTerminated.set(true);
-      }
-
-      private boolean isTerminated() {
-        return isTerminated.get();
-      }
+    private void finish() {
+      done = true;
+      close(iterator);
+    }
 
-      private boolean terminated() {
-        return isTerminated.getAndSet(true);
+    private static void close(Iterator<?> iterator) {
+      if (iterator instanceof Closeable) {
+        ensureClosed((Closeable) iterator);
       }
-    });
+    }
   }
 }
@@ -14,6 +14,7 @@
 package feign.reactive;
 
 import feign.Feign;
+import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 import java.lang.reflect.InvocationHandler;
@@ -32,6 +33,10 @@ public class ReactorFeign extends ReactiveFeign {
 
     private Scheduler scheduler = Schedulers.elastic();
 
+    public Builder() {
+      super(Flux.class);
+    }
+
     @Override
     public Feign build() {
       super.invocationHandlerFactory(new ReactorInvocationHandlerFactory(scheduler));
@@ -34,8 +34,9 @@ public class ReactorInvocationHandler extends ReactiveInvocationHandler {
 
   @Override
   protected Publisher invoke(Method method, MethodHandler methodHandler, Object[] arguments) {
-    Publisher<?> invocation = this.invokeMethod(methodHandler, arguments);
-    if (Flux.class.isAssignableFrom(method.getReturnType())) {
+    boolean multiValued = Flux.class.isAssignableFrom(method.getReturnType());
+    Publisher<?> invocation = this.invokeMethod(methodHandler, arguments, multiValued);
+    if (multiValued) {
       return Flux.from(invocation).subscribeOn(scheduler);
     } else if (Mono.class.isAssignableFrom(method.getReturnType())) {
       return Mono.from(invocation).subscribeOn(scheduler);
@@ -19,6 +19,7 @@ import java.util.Map;
 import feign.Feign;
 import feign.InvocationHandlerFactory;
 import feign.Target;
+import io.reactivex.Flowable;
 import io.reactivex.Scheduler;
 import io.reactivex.schedulers.Schedulers;
 
@@ -32,6 +33,10 @@ public class RxJavaFeign extends ReactiveFeign {
 
     private Scheduler scheduler = Schedulers.trampoline();
 
+    public Builder() {
+      super(Flowable.class);
+    }
+
     @Override
     public Feign build() {
       super.invocationHandlerFactory(new RxJavaInvocationHandlerFactory(scheduler));
@@ -33,7 +33,8 @@ public class RxJavaInvocationHandler extends ReactiveInvocationHandler {
 
   @Override
   protected Publisher invoke(Method method, MethodHandler methodHandler, Object[] arguments) {
-    return Flowable.fromPublisher(this.invokeMethod(methodHandler, arguments))
+    return Flowable.fromPublisher(this.invokeMethod(methodHandler, arguments,
+        Flowable.class.isAssignableFrom(method.getReturnType())))
         .observeOn(scheduler);
   }
 }
@@ -41,6 +41,7 @@ import feign.codec.Decoder;
 import feign.codec.ErrorDecoder;
 import feign.jackson.JacksonDecoder;
 import feign.jackson.JacksonEncoder;
+import feign.jackson.JacksonIteratorDecoder;
 import feign.jaxrs.JAXRSContract;
 import io.reactivex.Flowable;
 import java.lang.reflect.Type;
@@ -139,6 +140,30 @@ public class ReactiveFeignIntegrationTest {
     assertThat(webServer.takeRequest().getPath()).isEqualToIgnoringCase("/users/test");
   }
 
+  @Test
+  public void testStreamingDecoder() throws Exception {
+    this.webServer.enqueue(new MockResponse().setBody("1.0"));
+    this.webServer.enqueue(new MockResponse()
+        .setBody("[{ \"username\": \"a\" }, { \"username\": \"b\" }, { \"username\": \"c\" }]"));
+
+    TestReactorService service = ReactorFeign.builder()
+        .decoder(new JacksonDecoder())
+        .streamingDecoder(JacksonIteratorDecoder.create())
+        .target(TestReactorService.class, this.getServerUrl());
+
+    StepVerifier.create(service.version())
+        .expectNext("1.0")
+        .expectComplete()
+        .verify();
+
+    StepVerifier.create(service.user("test").map(User::getUsername), 1)
+        .expectNext("a")
+        .thenRequest(1)
+        .expectNext("b")
+        .thenCancel()
+        .verify();
+  }
+
   @Test
   public void invocationFactoryIsNotSupported() {
     this.thrown.expect(UnsupportedOperationException.class);
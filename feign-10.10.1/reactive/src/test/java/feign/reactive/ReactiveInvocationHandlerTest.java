@@ -23,14 +23,18 @@ import feign.InvocationHandlerFactory.MethodHandler;
 import feign.RequestLine;
 import feign.Target;
 import io.reactivex.Flowable;
+import java.io.Closeable;
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
@@ -164,9 +168,87 @@ public class ReactiveInvocationHandlerTest {
   }
 
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void streamsIteratorOnDemandReactor() throws Throwable {
+    Method versions = TestReactorService.class.getMethod("versions");
+    CloseableIterator iterator = new CloseableIterator("1.0", "1.1", "1.2");
+    given(this.methodHandler.invoke(any())).willReturn(iterator);
+    ReactorInvocationHandler handler = new ReactorInvocationHandler(this.target,
+        Collections.singletonMap(versions, this.methodHandler), Schedulers.immediate());
+
+    Object result = handler.invoke(versions, this.methodHandler, new Object[] {});
+    assertThat(result).isInstanceOf(Flux.class);
+
+    StepVerifier.create((Flux<String>) result, 1)
+        .expectNext("1.0")
+        .then(() -> assertThat(iterator.read).isEqualTo(1))
+        .thenRequest(1)
+        .expectNext("1.1")
+        .thenCancel()
+        .verify();
+    assertThat(iterator.read).isEqualTo(2);
+    assertThat(iterator.closed).isTrue();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void streamsIteratorToCompletionRxJava() throws Throwable {
+    Method versions = TestRxJavaService.class.getMethod("versions");
+    CloseableIterator iterator = new CloseableIterator("1.0", "1.1");
+    given(this.methodHandler.invoke(any())).willReturn(iterator);
+    RxJavaInvocationHandler handler =
+        new RxJavaInvocationHandler(this.target,
+            Collections.singletonMap(versions, this.methodHandler),
+            io.reactivex.schedulers.Schedulers.trampoline());
+
+    Object result = handler.invoke(versions, this.methodHandler, new Object[] {});
+    StepVerifier.create((Flowable<String>) result)
+        .expectNext("1.0", "1.1")
+        .expectComplete()
+        .verify();
+    assertThat(iterator.closed).isTrue();
+  }
+
+
   public interface TestReactorService {
     @RequestLine("GET /version")
     Mono<String> version();
+
+    @RequestLine("GET /versions")
+    Flux<String> versions();
+  }
+
+  public interface TestRxJavaService {
+    @RequestLine("GET /versions")
+    Flowable<String> versions();
+  }
+
+  static class CloseableIterator implements Iterator<String>, Closeable {
+
+    private final Iterator<String> delegate;
+    int read;
+    boolean closed;
+
+    CloseableIterator(String... values) {
+      this.delegate = Arrays.asList(values).iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return delegate.hasNext();
+    }
+
+    @Override
+    public String next() {
+      read++;
+      return delegate.next();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
   }
 
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2013-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import feign.Client;
+import feign.Feign;
+import feign.Param;
+import feign.RequestLine;
+import feign.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.ConfigBuilder;
+
+/**
+ * Compares calls through {@link FeignCircuitBreakerInvocationHandler}, with a circuit
+ * breaker that only runs the call, against calls through the plain
+ * {@code ReflectiveFeign} invocation handler, so the difference is the cost of the
+ * handler. Run with {@link #main(String[])}.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class FeignCircuitBreakerInvocationHandlerBenchmark {
+
+	private Api reflectiveFeign;
+
+	private Api circuitBreaker;
+
+	private Api circuitBreakerWithFallback;
+
+	@Setup
+	public void setup() {
+		Client client = (request, options) -> Response.builder().status(200)
+				.request(request).headers(Collections.emptyMap()).body(new byte[0])
+				.build();
+		this.reflectiveFeign = Feign.builder().client(client).target(Api.class,
+				"http://localhost");
+		this.circuitBreaker = circuitBreakerBuilder(client).target(Api.class,
+				"http://localhost");
+		this.circuitBreakerWithFallback = circuitBreakerBuilder(client)
+				.target(new feign.Target.HardCodedTarget<>(Api.class, "http://localhost"),
+						(Api) id -> null);
+	}
+
+	private static FeignCircuitBreaker.Builder circuitBreakerBuilder(Client client) {
+		FeignCircuitBreaker.Builder builder = FeignCircuitBreaker.builder()
+				.circuitBreakerFactory(new PassThroughFactory()).feignClientName("api");
+		builder.client(client);
+		return builder;
+	}
+
+	@Benchmark
+	public Response reflectiveFeign() {
+		return this.reflectiveFeign.get(1L);
+	}
+
+	@Benchmark
+	public Response circuitBreaker() {
+		return this.circuitBreaker.get(1L);
+	}
+
+	@Benchmark
+	public Response circuitBreakerWithFallback() {
+		return this.circuitBreakerWithFallback.get(1L);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(FeignCircuitBreakerInvocationHandlerBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+
+	interface Api {
+
+		@RequestLine("GET /things/{id}")
+		Response get(@Param("id") long id);
+
+	}
+
+	static class PassThroughFactory
+			extends CircuitBreakerFactory<Object, ConfigBuilder<Object>> {
+
+		private static final CircuitBreaker PASS_THROUGH = new CircuitBreaker() {
+			@Override
+			public <T> T run(Supplier<T> toRun, Function<Throwable, T> fallback) {
+				try {
+					return toRun.get();
+				}
+				catch (Throwable throwable) {
+					return fallback.apply(throwable);
+				}
+			}
+		};
+
+		@Override
+		public CircuitBreaker create(String id) {
+			return PASS_THROUGH;
+		}
+
+		@Override
+		protected ConfigBuilder<Object> configBuilder(String id) {
+			return Object::new;
+		}
+
+		@Override
+		public void configureDefault(Function<String, Object> defaultConfiguration) {
+		}
+
+	}
+
+}
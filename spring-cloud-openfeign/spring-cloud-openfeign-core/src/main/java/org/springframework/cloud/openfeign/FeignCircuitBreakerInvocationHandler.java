@@ -19,11 +19,12 @@ package org.springframework.cloud.openfeign;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import feign.Feign;
 import feign.InvocationHandlerFactory;
 import feign.Target;
 
@@ -32,30 +33,28 @@ import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
 
 import static feign.Util.checkNotNull;
 
+/**
+ * Runs the calls of a Feign client through a {@link CircuitBreaker} per method, named
+ * after the client and the {@link Feign#configKey(Class, Method) config key} of the
+ * method, so overloaded methods get their own breaker. Breakers are created once, with
+ * the handler.
+ */
 class FeignCircuitBreakerInvocationHandler implements InvocationHandler {
 
-	private final CircuitBreakerFactory factory;
-
-	private final String feignClientName;
-
 	private final Target<?> target;
 
-	private final Map<Method, InvocationHandlerFactory.MethodHandler> dispatch;
-
 	private final FallbackFactory<?> nullableFallbackFactory;
 
-	private final Map<Method, Method> fallbackMethodMap;
+	private final Map<Method, BreakerMethod> methods;
 
 	FeignCircuitBreakerInvocationHandler(CircuitBreakerFactory factory,
 			String feignClientName, Target<?> target,
 			Map<Method, InvocationHandlerFactory.MethodHandler> dispatch,
 			FallbackFactory<?> nullableFallbackFactory) {
-		this.factory = factory;
-		this.feignClientName = feignClientName;
 		this.target = checkNotNull(target, "target");
-		this.dispatch = checkNotNull(dispatch, "dispatch");
-		this.fallbackMethodMap = toFallbackMethod(dispatch);
 		this.nullableFallbackFactory = nullableFallbackFactory;
+		this.methods = toBreakerMethods(factory, feignClientName, target,
+				checkNotNull(dispatch, "dispatch"));
 	}
 
 	@Override
@@ -79,53 +78,35 @@ class FeignCircuitBreakerInvocationHandler implements InvocationHandler {
 		else if ("toString".equals(method.getName())) {
 			return toString();
 		}
-		String circuitName = this.feignClientName + "_" + method.getName();
-		CircuitBreaker circuitBreaker = this.factory.create(circuitName);
-		Supplier<Object> supplier = asSupplier(method, args);
+		BreakerMethod breakerMethod = this.methods.get(method);
+		// one object serves as both the call and its fallback
+		Call call = new Call(breakerMethod, args);
 		if (this.nullableFallbackFactory != null) {
-			Function<Throwable, Object> fallbackFunction = throwable -> {
-				Object fallback = this.nullableFallbackFactory.create(throwable);
-				try {
-					return this.fallbackMethodMap.get(method).invoke(fallback, args);
-				}
-				catch (Exception e) {
-					throw new IllegalStateException(e);
-				}
-			};
-			return circuitBreaker.run(supplier, fallbackFunction);
+			return breakerMethod.circuitBreaker.run(call, call);
 		}
-		return circuitBreaker.run(supplier);
-	}
-
-	private Supplier<Object> asSupplier(final Method method, final Object[] args) {
-		return () -> {
-			try {
-				return this.dispatch.get(method).invoke(args);
-			}
-			catch (RuntimeException throwable) {
-				throw throwable;
-			}
-			catch (Throwable throwable) {
-				throw new RuntimeException(throwable);
-			}
-		};
+		return breakerMethod.circuitBreaker.run(call);
 	}
 
 	/**
 	 * If the method param of InvocationHandler.invoke is not accessible, i.e in a
 	 * package-private interface, the fallback call will cause of access restrictions. But
 	 * methods in dispatch are copied methods. So setting access to dispatch method
-	 * doesn't take effect to the method in InvocationHandler.invoke. Use map to store a
-	 * copy of method to invoke the fallback to bypass this and reducing the count of
-	 * reflection calls.
-	 * @return cached methods map for fallback invoking
+	 * doesn't take effect to the method in InvocationHandler.invoke. Keep the dispatch
+	 * method to invoke the fallback to bypass this.
+	 * @return the breaker, handler and fallback method of each method of the client
 	 */
-	static Map<Method, Method> toFallbackMethod(
+	static Map<Method, BreakerMethod> toBreakerMethods(CircuitBreakerFactory factory,
+			String feignClientName, Target<?> target,
 			Map<Method, InvocationHandlerFactory.MethodHandler> dispatch) {
-		Map<Method, Method> result = new LinkedHashMap<Method, Method>();
-		for (Method method : dispatch.keySet()) {
+		Map<Method, BreakerMethod> result = new HashMap<>();
+		for (Map.Entry<Method, InvocationHandlerFactory.MethodHandler> entry : dispatch
+				.entrySet()) {
+			Method method = entry.getKey();
 			method.setAccessible(true);
-			result.put(method, method);
+			String circuitName = feignClientName + "_"
+					+ Feign.configKey(target.type(), method);
+			result.put(method, new BreakerMethod(factory.create(circuitName),
+					entry.getValue(), method));
 		}
 		return result;
 	}
@@ -149,4 +130,60 @@ class FeignCircuitBreakerInvocationHandler implements InvocationHandler {
 		return this.target.toString();
 	}
 
+	static final class BreakerMethod {
+
+		final CircuitBreaker circuitBreaker;
+
+		final InvocationHandlerFactory.MethodHandler methodHandler;
+
+		final Method fallbackMethod;
+
+		BreakerMethod(CircuitBreaker circuitBreaker,
+				InvocationHandlerFactory.MethodHandler methodHandler,
+				Method fallbackMethod) {
+			this.circuitBreaker = circuitBreaker;
+			this.methodHandler = methodHandler;
+			this.fallbackMethod = fallbackMethod;
+		}
+
+	}
+
+	private final class Call implements Supplier<Object>, Function<Throwable, Object> {
+
+		private final BreakerMethod breakerMethod;
+
+		private final Object[] args;
+
+		Call(BreakerMethod breakerMethod, Object[] args) {
+			this.breakerMethod = breakerMethod;
+			this.args = args;
+		}
+
+		@Override
+		public Object get() {
+			try {
+				return this.breakerMethod.methodHandler.invoke(this.args);
+			}
+			catch (RuntimeException throwable) {
+				throw throwable;
+			}
+			catch (Throwable throwable) {
+				throw new RuntimeException(throwable);
+			}
+		}
+
+		@Override
+		public Object apply(Throwable throwable) {
+			Object fallback = FeignCircuitBreakerInvocationHandler.this
+					.nullableFallbackFactory.create(throwable);
+			try {
+				return this.breakerMethod.fallbackMethod.invoke(fallback, this.args);
+			}
+			catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+	}
+
 }
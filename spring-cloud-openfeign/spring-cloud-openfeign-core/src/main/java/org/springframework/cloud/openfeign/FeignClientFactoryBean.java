@@ -18,6 +18,8 @@ package org.springframework.cloud.openfeign;
 
 import feign.*;
 import feign.Target.HardCodedTarget;
+import feign.cache.CachingCapability;
+import feign.cache.LruResponseStore;
 import feign.codec.Decoder;
 import feign.codec.Encoder;
 import feign.codec.ErrorDecoder;
@@ -25,6 +27,8 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.*;
 import org.springframework.cloud.openfeign.clientconfig.FeignClientConfigurer;
+import org.springframework.cloud.openfeign.interceptor.HeaderPropagationRequestInterceptor;
+import org.springframework.cloud.openfeign.interceptor.ParamLogRequestInterceptor;
 import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
 import org.springframework.cloud.openfeign.ribbon.LoadBalancerFeignClient;
 import org.springframework.context.ApplicationContext;
@@ -34,10 +38,12 @@ import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * @author Spencer Gibb
@@ -146,6 +152,9 @@ public class FeignClientFactoryBean implements FactoryBean<Object>, Initializing
                         builder);
                 // 配置属性文件中@FeignClient的配置，将会覆盖上述配置
                 configureUsingProperties(properties.getConfig().get(contextId), builder);
+                configureOnceUsingProperties(
+                        properties.getConfig().get(properties.getDefaultConfig()),
+                        properties.getConfig().get(contextId), builder);
             } else {
                 // 与上述一样只是与configureUsingConfiguration交换位置
                 configureUsingProperties(
@@ -153,6 +162,9 @@ public class FeignClientFactoryBean implements FactoryBean<Object>, Initializing
                         builder);
                 // 覆盖默认配置
                 configureUsingProperties(properties.getConfig().get(contextId), builder);
+                configureOnceUsingProperties(
+                        properties.getConfig().get(properties.getDefaultConfig()),
+                        properties.getConfig().get(contextId), builder);
                 configureUsingConfiguration(context, builder);
             }
         } else {
@@ -202,6 +214,14 @@ public class FeignClientFactoryBean implements FactoryBean<Object>, Initializing
             AnnotationAwareOrderComparator.sort(interceptors);
             builder.requestInterceptors(interceptors);
         }
+        // 能力拓展，例如并发限制，按@Order顺序依次包装
+        Map<String, Capability> capabilities
+                = getInheritedAwareInstances(context, Capability.class);
+        if (capabilities != null) {
+            List<Capability> orderedCapabilities = new ArrayList<>(capabilities.values());
+            AnnotationAwareOrderComparator.sort(orderedCapabilities);
+            orderedCapabilities.forEach(builder::addCapability);
+        }
         // 对象转Map编码器
         QueryMapEncoder queryMapEncoder = getInheritedAwareOptional(context, QueryMapEncoder.class);
         if (queryMapEncoder != null) {
@@ -301,6 +321,69 @@ public class FeignClientFactoryBean implements FactoryBean<Object>, Initializing
         if (Objects.nonNull(config.getExceptionPropagationPolicy())) {
             builder.exceptionPropagationPolicy(config.getExceptionPropagationPolicy());
         }
+
+    }
+
+    /**
+     * 包装客户端的能力和透传、采样日志拦截器只添加一次：默认配置与@FeignClient的配置先合并，
+     * 后者的值覆盖前者，而不是像{@link #configureUsingProperties}那样对两份配置各执行一遍
+     */
+    protected void configureOnceUsingProperties(
+            FeignClientProperties.FeignClientConfiguration defaultConfig,
+            FeignClientProperties.FeignClientConfiguration config,
+            Feign.Builder builder) {
+        // 合并相同的在途GET请求，@FeignClient的方法列表替换默认配置的列表
+        List<String> singleFlightMethods = property(defaultConfig, config,
+                FeignClientProperties.FeignClientConfiguration::getSingleFlightMethods);
+        if (singleFlightMethods != null && !singleFlightMethods.isEmpty()) {
+            List<String> varyHeaders = property(defaultConfig, config,
+                    FeignClientProperties.FeignClientConfiguration::getSingleFlightVaryHeaders);
+            builder.addCapability(new SingleFlightCapability(singleFlightMethods,
+                    varyHeaders != null ? varyHeaders : Collections.emptyList()));
+        }
+
+        // HTTP响应缓存，@FeignClient的配置为0时关闭默认配置开启的缓存
+        Long responseCacheMaxBytes = property(defaultConfig, config,
+                FeignClientProperties.FeignClientConfiguration::getResponseCacheMaxBytes);
+        if (responseCacheMaxBytes != null && responseCacheMaxBytes > 0) {
+            Boolean offHeap = property(defaultConfig, config,
+                    FeignClientProperties.FeignClientConfiguration::getResponseCacheOffHeap);
+            builder.addCapability(new CachingCapability(new LruResponseStore(
+                    responseCacheMaxBytes, Boolean.TRUE.equals(offHeap))));
+        }
+
+        // 请求头透传
+        List<String> propagatedHeaders = property(defaultConfig, config,
+                FeignClientProperties.FeignClientConfiguration::getPropagatedHeaders);
+        if (propagatedHeaders != null && !propagatedHeaders.isEmpty()) {
+            builder.requestInterceptor(new HeaderPropagationRequestInterceptor(propagatedHeaders));
+        }
+
+        // 采样记录请求参数
+        Double requestLogSampleRate = property(defaultConfig, config,
+                FeignClientProperties.FeignClientConfiguration::getRequestLogSampleRate);
+        if (requestLogSampleRate != null && requestLogSampleRate > 0) {
+            Integer maxBodyLength = property(defaultConfig, config,
+                    FeignClientProperties.FeignClientConfiguration::getRequestLogMaxBodyLength);
+            List<String> routes = property(defaultConfig, config,
+                    FeignClientProperties.FeignClientConfiguration::getRequestLogRoutes);
+            builder.requestInterceptor(new ParamLogRequestInterceptor(requestLogSampleRate,
+                    maxBodyLength != null ? maxBodyLength : 1024,
+                    routes != null ? routes : Collections.emptyList()));
+        }
+    }
+
+    /**
+     * @return @FeignClient配置的值，未配置时为默认配置的值
+     */
+    private static <T> T property(FeignClientProperties.FeignClientConfiguration defaultConfig,
+            FeignClientProperties.FeignClientConfiguration config,
+            Function<FeignClientProperties.FeignClientConfiguration, T> getter) {
+        T value = config != null ? getter.apply(config) : null;
+        if (value == null && defaultConfig != null) {
+            value = getter.apply(defaultConfig);
+        }
+        return value;
     }
 
     private <T> T getOrInstantiate(Class<T> tClass) {
@@ -53,6 +53,13 @@ public class FeignClientProperties {
 	 */
 	private boolean decodeSlash = true;
 
+	/**
+	 * Whether request bodies are written straight into the client's output stream
+	 * instead of being buffered into a byte array first. Streamed requests are sent
+	 * without a `Content-Length`, as it is only known once the body is written.
+	 */
+	private boolean streamRequestBody = false;
+
 	public boolean isDefaultToProperties() {
 		return defaultToProperties;
 	}
@@ -85,6 +92,14 @@ public class FeignClientProperties {
 		this.decodeSlash = decodeSlash;
 	}
 
+	public boolean isStreamRequestBody() {
+		return streamRequestBody;
+	}
+
+	public void setStreamRequestBody(boolean streamRequestBody) {
+		this.streamRequestBody = streamRequestBody;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) {
@@ -97,12 +112,14 @@ public class FeignClientProperties {
 		return defaultToProperties == that.defaultToProperties
 				&& Objects.equals(defaultConfig, that.defaultConfig)
 				&& Objects.equals(config, that.config)
-				&& Objects.equals(decodeSlash, that.decodeSlash);
+				&& Objects.equals(decodeSlash, that.decodeSlash)
+				&& Objects.equals(streamRequestBody, that.streamRequestBody);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(defaultToProperties, defaultConfig, config, decodeSlash);
+		return Objects.hash(defaultToProperties, defaultConfig, config, decodeSlash,
+				streamRequestBody);
 	}
 
 	/**
@@ -136,6 +153,49 @@ public class FeignClientProperties {
 
 		private ExceptionPropagationPolicy exceptionPropagationPolicy;
 
+		/**
+		 * Names or config keys of GET methods whose concurrent identical requests share
+		 * one call, in addition to those annotated with {@link feign.SingleFlight}.
+		 */
+		private List<String> singleFlightMethods;
+
+		/**
+		 * Headers that must match for requests to share a call. All headers when empty.
+		 */
+		private List<String> singleFlightVaryHeaders;
+
+		/**
+		 * Bytes of GET responses to keep in an HTTP cache in front of the client, none
+		 * when unset.
+		 */
+		private Long responseCacheMaxBytes;
+
+		/**
+		 * Whether cached response bodies are kept outside of the Java heap.
+		 */
+		private Boolean responseCacheOffHeap;
+
+		/**
+		 * Share of requests whose path and body are logged at INFO, from 0 to 1. No
+		 * request logging when unset.
+		 */
+		private Double requestLogSampleRate;
+
+		/**
+		 * Bytes of each logged request body, 1024 when unset.
+		 */
+		private Integer requestLogMaxBodyLength;
+
+		/**
+		 * Ant-style patterns of the method paths to log. All methods when empty.
+		 */
+		private List<String> requestLogRoutes;
+
+		/**
+		 * Headers of the current servlet request to copy onto each request.
+		 */
+		private List<String> propagatedHeaders;
+
 		public Logger.Level getLoggerLevel() {
 			return loggerLevel;
 		}
@@ -244,6 +304,70 @@ public class FeignClientProperties {
 			this.exceptionPropagationPolicy = exceptionPropagationPolicy;
 		}
 
+		public List<String> getSingleFlightMethods() {
+			return singleFlightMethods;
+		}
+
+		public void setSingleFlightMethods(List<String> singleFlightMethods) {
+			this.singleFlightMethods = singleFlightMethods;
+		}
+
+		public List<String> getSingleFlightVaryHeaders() {
+			return singleFlightVaryHeaders;
+		}
+
+		public void setSingleFlightVaryHeaders(List<String> singleFlightVaryHeaders) {
+			this.singleFlightVaryHeaders = singleFlightVaryHeaders;
+		}
+
+		public Long getResponseCacheMaxBytes() {
+			return responseCacheMaxBytes;
+		}
+
+		public void setResponseCacheMaxBytes(Long responseCacheMaxBytes) {
+			this.responseCacheMaxBytes = responseCacheMaxBytes;
+		}
+
+		public Boolean getResponseCacheOffHeap() {
+			return responseCacheOffHeap;
+		}
+
+		public void setResponseCacheOffHeap(Boolean responseCacheOffHeap) {
+			this.responseCacheOffHeap = responseCacheOffHeap;
+		}
+
+		public Double getRequestLogSampleRate() {
+			return requestLogSampleRate;
+		}
+
+		public void setRequestLogSampleRate(Double requestLogSampleRate) {
+			this.requestLogSampleRate = requestLogSampleRate;
+		}
+
+		public Integer getRequestLogMaxBodyLength() {
+			return requestLogMaxBodyLength;
+		}
+
+		public void setRequestLogMaxBodyLength(Integer requestLogMaxBodyLength) {
+			this.requestLogMaxBodyLength = requestLogMaxBodyLength;
+		}
+
+		public List<String> getRequestLogRoutes() {
+			return requestLogRoutes;
+		}
+
+		public void setRequestLogRoutes(List<String> requestLogRoutes) {
+			this.requestLogRoutes = requestLogRoutes;
+		}
+
+		public List<String> getPropagatedHeaders() {
+			return propagatedHeaders;
+		}
+
+		public void setPropagatedHeaders(List<String> propagatedHeaders) {
+			this.propagatedHeaders = propagatedHeaders;
+		}
+
 		@Override
 		public boolean equals(Object o) {
 			if (this == o) {
@@ -267,7 +391,17 @@ public class FeignClientProperties {
 							that.exceptionPropagationPolicy)
 					&& Objects.equals(defaultRequestHeaders, that.defaultRequestHeaders)
 					&& Objects.equals(defaultQueryParameters,
-							that.defaultQueryParameters);
+							that.defaultQueryParameters)
+					&& Objects.equals(singleFlightMethods, that.singleFlightMethods)
+					&& Objects.equals(singleFlightVaryHeaders,
+							that.singleFlightVaryHeaders)
+					&& Objects.equals(responseCacheMaxBytes, that.responseCacheMaxBytes)
+					&& Objects.equals(responseCacheOffHeap, that.responseCacheOffHeap)
+					&& Objects.equals(requestLogSampleRate, that.requestLogSampleRate)
+					&& Objects.equals(requestLogMaxBodyLength,
+							that.requestLogMaxBodyLength)
+					&& Objects.equals(requestLogRoutes, that.requestLogRoutes)
+					&& Objects.equals(propagatedHeaders, that.propagatedHeaders);
 		}
 
 		@Override
@@ -275,7 +409,9 @@ public class FeignClientProperties {
 			return Objects.hash(loggerLevel, connectTimeout, readTimeout, retryer,
 					errorDecoder, requestInterceptors, decode404, encoder, decoder,
 					contract, exceptionPropagationPolicy, defaultQueryParameters,
-					defaultRequestHeaders);
+					defaultRequestHeaders, singleFlightMethods, singleFlightVaryHeaders,
+					responseCacheMaxBytes, responseCacheOffHeap, requestLogSampleRate,
+					requestLogMaxBodyLength, requestLogRoutes, propagatedHeaders);
 		}
 
 	}
@@ -165,13 +165,17 @@ public class FeignClientsConfiguration {
 	private Encoder springEncoder(ObjectProvider<AbstractFormWriter> formWriterProvider) {
 		AbstractFormWriter formWriter = formWriterProvider.getIfAvailable();
 
+		SpringEncoder encoder;
 		if (formWriter != null) {
-			return new SpringEncoder(new SpringPojoFormEncoder(formWriter),
+			encoder = new SpringEncoder(new SpringPojoFormEncoder(formWriter),
 					this.messageConverters);
 		}
 		else {
-			return new SpringEncoder(new SpringFormEncoder(), this.messageConverters);
+			encoder = new SpringEncoder(new SpringFormEncoder(), this.messageConverters);
 		}
+		encoder.setStreaming(feignClientProperties != null
+				&& feignClientProperties.isStreamRequestBody());
+		return encoder;
 	}
 
 	@Configuration(proxyBeanMethods = false)
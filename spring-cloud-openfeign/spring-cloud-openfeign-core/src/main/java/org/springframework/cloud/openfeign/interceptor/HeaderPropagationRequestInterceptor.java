@@ -0,0 +1,50 @@
+package org.springframework.cloud.openfeign.interceptor;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collection;
+
+/**
+ * 把当前 Servlet 请求的请求头复制到 Feign 请求上，只复制 {@code headerNames} 中存在的头。
+ * 不在 Servlet 请求线程上调用时不做任何事。
+ */
+public class HeaderPropagationRequestInterceptor implements RequestInterceptor {
+
+	private final String[] headerNames;
+
+	/**
+	 * 透传 {@code sessionId}
+	 */
+	public HeaderPropagationRequestInterceptor() {
+		this(new String[] { "sessionId" });
+	}
+
+	public HeaderPropagationRequestInterceptor(Collection<String> headerNames) {
+		this(headerNames.toArray(new String[0]));
+	}
+
+	private HeaderPropagationRequestInterceptor(String[] headerNames) {
+		this.headerNames = headerNames;
+	}
+
+	@Override
+	public void apply(RequestTemplate template) {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (!(attributes instanceof ServletRequestAttributes)) {
+			return;
+		}
+		HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+		for (String name : headerNames) {
+			String value = request.getHeader(name);
+			if (value != null) {
+				template.header(name, value);
+			}
+		}
+	}
+
+}
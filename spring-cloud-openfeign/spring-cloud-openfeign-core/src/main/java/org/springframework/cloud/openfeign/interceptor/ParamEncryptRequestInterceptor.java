@@ -1,41 +1,215 @@
 package org.springframework.cloud.openfeign.interceptor;
 
+import feign.MethodMetadata;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.template.UriUtils;
+import org.springframework.util.Assert;
 
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Force-oneself
  * @Description ParamEncryptRequestInterceptor
  * @date 2021-08-23
+ *
+ * 用 AES-GCM 加密匹配路由的方法的 {@code paramNames} 参数，包括查询参数和
+ * {@code application/x-www-form-urlencoded} 请求体中的参数。密文是 12 字节随机 IV
+ * 加上密文和认证标签，用 URL 安全的 Base64（无填充）编码，可用 {@link #decrypt(String)} 解密。
+ *
+ * 密钥在创建时构造一次，每个线程复用自己的 {@link Cipher}；路由在创建时编译成前缀树，
+ * 每个方法只匹配一次。只改写要加密的参数，其他查询参数不动。
  */
 public class ParamEncryptRequestInterceptor implements RequestInterceptor {
 
-	private List<String> urlList;
+	private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+	private static final String FORM = "application/x-www-form-urlencoded";
+
+	private static final int IV_LENGTH = 12;
+
+	private static final int TAG_BITS = 128;
+
+	private final SecretKeySpec key;
+
+	private final Set<String> paramNames;
+
+	private final RouteMatcher routes;
+
+	/**
+	 * 方法 configKey -> 是否匹配 routes
+	 */
+	private final Map<String, Boolean> matches = new ConcurrentHashMap<>();
+
+	private final ThreadLocal<Encryptor> encryptors = ThreadLocal
+			.withInitial(Encryptor::new);
+
+	/**
+	 * 加密名为 {@code param} 的参数
+	 */
+	public ParamEncryptRequestInterceptor(byte[] key, Collection<String> routes) {
+		this(key, routes, Collections.singleton("param"));
+	}
+
+	/**
+	 * @param key 16、24 或 32 字节的 AES 密钥
+	 * @param routes 要加密的方法的路径模式，见 {@link RouteMatcher}，为空时加密所有方法
+	 * @param paramNames 要加密的参数名
+	 */
+	public ParamEncryptRequestInterceptor(byte[] key, Collection<String> routes,
+			Collection<String> paramNames) {
+		Assert.isTrue(key.length == 16 || key.length == 24 || key.length == 32,
+				"key must be 16, 24 or 32 bytes");
+		this.key = new SecretKeySpec(key, "AES");
+		this.paramNames = new HashSet<>(paramNames);
+		this.routes = new RouteMatcher(routes);
+		// 不支持 AES-GCM 时在创建时失败，而不是在第一次请求时
+		encryptors.get();
+	}
 
 	@Override
 	public void apply(RequestTemplate template) {
-		if (shouldSkip(template)) {
+		if (!matches(template)) {
 			return;
 		}
-		Collection<String> paramList = template.queries().get("param");
-		String param = paramList.iterator().next();
+		for (String name : paramNames) {
+			Collection<String> values = template.queryValues(name);
+			if (!values.isEmpty()) {
+				List<String> encrypted = new ArrayList<>(values.size());
+				for (String value : values) {
+					encrypted.add(
+							encrypt(UriUtils.decode(value, StandardCharsets.UTF_8)));
+				}
+				template.replaceQuery(name, encrypted);
+			}
+		}
+		if (!template.isStreaming() && template.body() != null && isForm(template)) {
+			encryptForm(template);
+		}
+	}
+
+	/**
+	 * 解密 {@link #apply(RequestTemplate)} 加密的参数值，供接收方使用
+	 */
+	public String decrypt(String value) {
+		byte[] data = Base64.getUrlDecoder().decode(value);
+		try {
+			Cipher cipher = encryptors.get().cipher;
+			cipher.init(Cipher.DECRYPT_MODE, key,
+					new GCMParameterSpec(TAG_BITS, data, 0, IV_LENGTH));
+			return new String(cipher.doFinal(data, IV_LENGTH, data.length - IV_LENGTH),
+					StandardCharsets.UTF_8);
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalArgumentException("Could not decrypt parameter", e);
+		}
+	}
+
+	private boolean matches(RequestTemplate template) {
+		if (routes.isEmpty()) {
+			return true;
+		}
+		MethodMetadata metadata = template.methodMetadata();
+		if (metadata == null) {
+			return routes.matches(template.path());
+		}
+		return matches.computeIfAbsent(metadata.configKey(),
+				configKey -> routes.matches(metadata.template().path()));
+	}
+
+	private String encrypt(String value) {
+		Encryptor encryptor = encryptors.get();
+		byte[] plain = value.getBytes(StandardCharsets.UTF_8);
 		try {
-			// 加密
+			encryptor.random.nextBytes(encryptor.iv);
+			encryptor.cipher.init(Cipher.ENCRYPT_MODE, key,
+					new GCMParameterSpec(TAG_BITS, encryptor.iv));
+			byte[] out = new byte[IV_LENGTH
+					+ encryptor.cipher.getOutputSize(plain.length)];
+			System.arraycopy(encryptor.iv, 0, out, 0, IV_LENGTH);
+			encryptor.cipher.doFinal(plain, 0, plain.length, out, IV_LENGTH);
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(out);
+		}
+		catch (GeneralSecurityException e) {
+			// 不能把明文发出去
+			throw new EncodeException("Could not encrypt parameter", e);
+		}
+	}
+
+	private static boolean isForm(RequestTemplate template) {
+		Collection<String> contentTypes = template.headers().get("Content-Type");
+		if (contentTypes == null) {
+			return false;
+		}
+		for (String contentType : contentTypes) {
+			if (contentType.startsWith(FORM)) {
+				return true;
+			}
+		}
+		return false;
+	}
 
-		} catch (Exception e) {
-			e.printStackTrace();
+	private void encryptForm(RequestTemplate template) {
+		Charset charset = template.requestCharset() != null ? template.requestCharset()
+				: StandardCharsets.UTF_8;
+		String form = new String(template.body(), charset);
+		StringBuilder rewritten = new StringBuilder(form.length() * 2);
+		boolean changed = false;
+		int from = 0;
+		while (from <= form.length()) {
+			int end = form.indexOf('&', from);
+			if (end < 0) {
+				end = form.length();
+			}
+			int eq = form.indexOf('=', from);
+			if (from > 0) {
+				rewritten.append('&');
+			}
+			if (eq >= 0 && eq < end && paramNames
+					.contains(UriUtils.decode(form.substring(from, eq), charset))) {
+				rewritten.append(form, from, eq + 1).append(
+						encrypt(UriUtils.decode(form.substring(eq + 1, end), charset)));
+				changed = true;
+			}
+			else {
+				rewritten.append(form, from, end);
+			}
+			from = end + 1;
+		}
+		if (changed) {
+			template.body(rewritten.toString().getBytes(charset), charset);
 		}
-		Map<String, Collection<String>> newQueries = new HashMap<>();
-		Collection<String> value = new ArrayList<>();
-		value.add(param);
-		newQueries.put("param", value);
-		template.queries(newQueries);// 替换原有对象
 	}
 
-	private boolean shouldSkip(RequestTemplate template) {
-		// 根据URL地址过滤请求
-		return !urlList.contains(template.url());
+	/**
+	 * 每个线程一个，{@link Cipher} 和 {@link SecureRandom} 都不适合多线程共用
+	 */
+	private static final class Encryptor {
+
+		final Cipher cipher;
+
+		final SecureRandom random = new SecureRandom();
+
+		final byte[] iv = new byte[IV_LENGTH];
+
+		Encryptor() {
+			try {
+				this.cipher = Cipher.getInstance(TRANSFORMATION);
+			}
+			catch (GeneralSecurityException e) {
+				throw new IllegalStateException(TRANSFORMATION + " is not available", e);
+			}
+		}
+
 	}
+
 }
@@ -1,43 +1,173 @@
 package org.springframework.cloud.openfeign.interceptor;
 
+import feign.AsyncLogger;
+import feign.MethodMetadata;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.Assert;
 
-import javax.servlet.http.HttpServletRequest;
-import java.util.Objects;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * @author Force-oneself
  * @Description ParamLogRequestInterceptor
  * @date 2021-08-23
+ *
+ * 按采样率记录请求的路径和参数。请求体最多记录 {@code maxBodyLength} 字节；是否匹配
+ * {@code routes} 每个方法只计算一次；消息由 {@link AsyncLogger} 在后台线程格式化并写入，
+ * 队列满时丢弃。请求头透传见 {@link HeaderPropagationRequestInterceptor}。
  */
 public class ParamLogRequestInterceptor implements RequestInterceptor {
 
 	private final static Logger log = LoggerFactory.getLogger(ParamLogRequestInterceptor.class);
 
+	private final static AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+	private final double sampleRate;
+
+	private final int maxBodyLength;
+
+	private final List<String> routes;
+
+	/**
+	 * 方法 configKey -> 是否匹配 routes
+	 */
+	private final Map<String, Boolean> matches = new ConcurrentHashMap<>();
+
+	/**
+	 * 记录所有请求，请求体最多 1024 字节
+	 */
+	public ParamLogRequestInterceptor() {
+		this(1.0, 1024, Collections.emptyList());
+	}
+
+	/**
+	 * @param sampleRate 记录的请求比例，0 到 1
+	 * @param maxBodyLength 请求体最多记录的字节数
+	 * @param routes 只记录路径模板匹配这些 Ant 风格模式的方法，为空时记录所有方法
+	 */
+	public ParamLogRequestInterceptor(double sampleRate, int maxBodyLength,
+			Collection<String> routes) {
+		Assert.isTrue(sampleRate >= 0 && sampleRate <= 1, "sampleRate must be in [0, 1]");
+		Assert.isTrue(maxBodyLength >= 0, "maxBodyLength must not be negative");
+		this.sampleRate = sampleRate;
+		this.maxBodyLength = maxBodyLength;
+		this.routes = new ArrayList<>(routes);
+	}
+
+	/**
+	 * 队列满时丢弃的消息数，所有实例共用一个队列
+	 */
+	public static long droppedCount() {
+		return Emitter.INSTANCE.droppedCount();
+	}
+
 	@Override
 	public void apply(RequestTemplate template) {
-		ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+		if (!log.isInfoEnabled() || !sampled() || !matches(template.methodMetadata())) {
+			return;
+		}
+		MethodMetadata metadata = template.methodMetadata();
+		String configKey = metadata != null ? metadata.configKey() : null;
+		if (template.isStreaming()) {
+			// 读取流式请求体会把它整个缓冲下来
+			Emitter.INSTANCE.emit(configKey, "OpenFeign %s请求，请求路径：【%s】，请求参数：【%s】",
+					template.method(), template.url(), "Streaming data");
+			return;
+		}
+		byte[] body = template.body();
+		if (body == null) {
+			Emitter.INSTANCE.emit(configKey, "OpenFeign %s请求，请求路径：【%s】",
+					template.method(), template.url());
+		}
+		else {
+			Emitter.INSTANCE.emit(configKey, "OpenFeign %s请求，请求路径：【%s】，请求参数：【%s】",
+					template.method(), template.url(),
+					new BodyText(body, maxBodyLength, template.requestCharset()));
+		}
+	}
+
+	private boolean sampled() {
+		return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+	}
 
-		if (attributes != null) {
-			HttpServletRequest request = attributes.getRequest();
-			template.header("sessionId", request.getHeader("sessionId"));
+	private boolean matches(MethodMetadata metadata) {
+		if (routes.isEmpty()) {
+			return true;
 		}
-		switch (Objects.requireNonNull(template.method())) {
-			case "GET":
-				log.info("{}OpenFeign GET请求，请求路径：【{}", System.lineSeparator(), template.url());
-				break;
-			case "POST":
-				log.info("{}OpenFeign POST请求，请求路径：【{}】，请求参数：【{}】",
-					System.lineSeparator(),
-					template.url(),
-					new String(template.body(), template.requestCharset()));
-				break;
-			default:
+		if (metadata == null) {
+			return false;
 		}
+		return matches.computeIfAbsent(metadata.configKey(), key -> {
+			String path = metadata.template().path();
+			int query = path.indexOf('?');
+			String route = query >= 0 ? path.substring(0, query) : path;
+			return routes.stream()
+					.anyMatch(pattern -> PATH_MATCHER.match(pattern, route));
+		});
 	}
+
+	/**
+	 * 在后台线程格式化时才解码请求体
+	 */
+	private static final class BodyText {
+
+		private final byte[] data;
+
+		private final int maxLength;
+
+		private final Charset charset;
+
+		BodyText(byte[] data, int maxLength, Charset charset) {
+			this.data = data;
+			this.maxLength = maxLength;
+			this.charset = charset != null ? charset : StandardCharsets.UTF_8;
+		}
+
+		@Override
+		public String toString() {
+			if (data.length <= maxLength) {
+				return new String(data, charset);
+			}
+			return new String(data, 0, maxLength, charset) + "...（还有"
+					+ (data.length - maxLength) + "字节）";
+		}
+
+	}
+
+	/**
+	 * 所有实例共用的后台队列和线程
+	 */
+	private static final class Emitter extends AsyncLogger {
+
+		static final Emitter INSTANCE = new Emitter();
+
+		private Emitter() {
+			super(new feign.Logger() {
+				@Override
+				protected void log(String configKey, String format, Object... args) {
+					String message = String.format(format, args);
+					log.info(configKey != null ? methodTag(configKey) + message
+							: message);
+				}
+			});
+		}
+
+		void emit(String configKey, String format, Object... args) {
+			log(configKey, format, args);
+		}
+
+	}
+
 }
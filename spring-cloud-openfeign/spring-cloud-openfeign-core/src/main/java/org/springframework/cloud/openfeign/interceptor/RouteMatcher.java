@@ -0,0 +1,98 @@
+package org.springframework.cloud.openfeign.interceptor;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 由路由模式编译成的前缀树，按 {@code /} 分段匹配路径。{@code *} 匹配任意一段，末尾的
+ * {@code **} 匹配其余所有段（包括没有），其他段按字面匹配，例如 {@code /users/{id}}。
+ */
+final class RouteMatcher {
+
+	private final Node root = new Node();
+
+	private final boolean empty;
+
+	RouteMatcher(Collection<String> routes) {
+		for (String route : routes) {
+			add(route);
+		}
+		this.empty = routes.isEmpty();
+	}
+
+	boolean isEmpty() {
+		return empty;
+	}
+
+	boolean matches(String path) {
+		int query = path.indexOf('?');
+		int end = query >= 0 ? query : path.length();
+		return matches(root, path.substring(0, end), start(path));
+	}
+
+	private void add(String route) {
+		Node node = root;
+		int from = start(route);
+		while (from < route.length()) {
+			int end = segmentEnd(route, from);
+			String segment = route.substring(from, end);
+			if ("**".equals(segment)) {
+				node.rest = true;
+				return;
+			}
+			if ("*".equals(segment)) {
+				if (node.any == null) {
+					node.any = new Node();
+				}
+				node = node.any;
+			}
+			else if (!segment.isEmpty()) {
+				node = node.children.computeIfAbsent(segment, key -> new Node());
+			}
+			from = end + 1;
+		}
+		node.terminal = true;
+	}
+
+	private static boolean matches(Node node, String path, int from) {
+		if (node.rest) {
+			return true;
+		}
+		if (from >= path.length()) {
+			return node.terminal;
+		}
+		int end = segmentEnd(path, from);
+		if (end == from) {
+			// 空段，比如 //
+			return matches(node, path, end + 1);
+		}
+		Node next = node.children.get(path.substring(from, end));
+		if (next != null && matches(next, path, end + 1)) {
+			return true;
+		}
+		return node.any != null && matches(node.any, path, end + 1);
+	}
+
+	private static int start(String path) {
+		return path.startsWith("/") ? 1 : 0;
+	}
+
+	private static int segmentEnd(String path, int from) {
+		int end = path.indexOf('/', from);
+		return end >= 0 ? end : path.length();
+	}
+
+	private static final class Node {
+
+		final Map<String, Node> children = new HashMap<>();
+
+		Node any;
+
+		boolean terminal;
+
+		boolean rest;
+
+	}
+
+}
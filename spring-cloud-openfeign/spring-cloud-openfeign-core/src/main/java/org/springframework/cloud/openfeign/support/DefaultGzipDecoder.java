@@ -21,26 +21,35 @@ import feign.Response;
 import feign.codec.Decoder;
 import org.springframework.cloud.openfeign.encoding.HttpEncoding;
 
-import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.lang.reflect.Type;
-import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 /**
- * When response is compressed as gzip, this decompresses and uses {@link SpringDecoder}
- * to decode.
+ * When response is compressed as gzip or deflate, this decompresses the body as it is
+ * read and uses {@link SpringDecoder} to decode.
  *
  * @author Jaesik Kim
  */
 public class DefaultGzipDecoder implements Decoder {
 
-	private Decoder decoder;
+	private final Decoder decoder;
+
+	private final DecompressionListener listener;
 
 	public DefaultGzipDecoder(Decoder decoder) {
+		this(decoder, DecompressionListener.NOOP);
+	}
+
+	public DefaultGzipDecoder(Decoder decoder, DecompressionListener listener) {
 		this.decoder = decoder;
+		this.listener = listener;
 	}
 
 	@Override
@@ -48,12 +57,21 @@ public class DefaultGzipDecoder implements Decoder {
 			throws IOException, FeignException {
 		Collection<String> encoding = response.headers().getOrDefault(HttpEncoding.CONTENT_ENCODING_HEADER, null);
 
-		if (encoding != null) {
+		if (encoding != null && response.body() != null) {
+			String contentEncoding = null;
 			if (encoding.contains(HttpEncoding.GZIP_ENCODING)) {
-				String decompressedBody = decompress(response);
-				if (decompressedBody != null) {
+				contentEncoding = HttpEncoding.GZIP_ENCODING;
+			}
+			else if (encoding.contains(HttpEncoding.DEFLATE_ENCODING)) {
+				contentEncoding = HttpEncoding.DEFLATE_ENCODING;
+			}
+			if (contentEncoding != null) {
+				InputStream decompressed = decompress(response, contentEncoding);
+				if (decompressed != null) {
+					// 解压后的长度未知，由解码器按需读取。返回值可能延迟读取流
+					// （如 InputStreamResource），这里不关闭，由 Feign 处理响应时关闭
 					Response decompressedResponse = response.toBuilder()
-							.body(decompressedBody.getBytes()).build();
+							.body(decompressed, null).build();
 					return decoder.decode(decompressedResponse, type);
 				}
 			}
@@ -61,21 +79,165 @@ public class DefaultGzipDecoder implements Decoder {
 		return decoder.decode(response, type);
 	}
 
-	private String decompress(Response response) throws IOException {
-		if (response.body() == null) {
+	private InputStream decompress(Response response, String contentEncoding)
+			throws IOException {
+		CountingInputStream compressed = new CountingInputStream(
+				response.body().asInputStream());
+		PushbackInputStream source = new PushbackInputStream(compressed, 2);
+		int first = source.read();
+		if (first == -1) {
+			// an empty body has nothing to decompress
 			return null;
 		}
-		try (GZIPInputStream gzipInputStream = new GZIPInputStream(
-				response.body().asInputStream());
-				BufferedReader reader = new BufferedReader(
-						new InputStreamReader(gzipInputStream, StandardCharsets.UTF_8))) {
-			String outputString = "";
-			String line;
-			while ((line = reader.readLine()) != null) {
-				outputString += line;
+		int second = source.read();
+		if (second != -1) {
+			source.unread(second);
+		}
+		source.unread(first);
+
+		InputStream inflating;
+		if (HttpEncoding.GZIP_ENCODING.equals(contentEncoding)) {
+			inflating = new GZIPInputStream(source);
+		}
+		else {
+			// servers disagree on "deflate": accept zlib wrapped and raw streams
+			inflating = new InflaterInputStream(source,
+					new Inflater(!isZlibHeader(first, second)));
+		}
+		return new DecompressingInputStream(inflating, contentEncoding, compressed,
+				this.listener);
+	}
+
+	private static boolean isZlibHeader(int first, int second) {
+		return second != -1 && (first & 0x0F) == 8 && ((first << 8) | second) % 31 == 0;
+	}
+
+	/**
+	 * Receives the compressed and decompressed size of each body once it is read.
+	 */
+	@FunctionalInterface
+	public interface DecompressionListener {
+
+		/**
+		 * Listener that ignores all sizes.
+		 */
+		DecompressionListener NOOP = (encoding, compressedBytes, decompressedBytes) -> {
+		};
+
+		/**
+		 * Called once the decompressed body has been read or closed.
+		 * @param encoding the content encoding, {@code gzip} or {@code deflate}
+		 * @param compressedBytes number of bytes read from the response
+		 * @param decompressedBytes number of bytes handed to the decoder
+		 */
+		void onDecompressed(String encoding, long compressedBytes, long decompressedBytes);
+
+	}
+
+	private static final class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		private CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				this.count++;
 			}
-			return outputString;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read > 0) {
+				this.count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			this.count += skipped;
+			return skipped;
 		}
+
+	}
+
+	private static final class DecompressingInputStream extends FilterInputStream {
+
+		private final String encoding;
+
+		private final CountingInputStream compressed;
+
+		private final DecompressionListener listener;
+
+		private long count;
+
+		private boolean reported;
+
+		private DecompressingInputStream(InputStream in, String encoding,
+				CountingInputStream compressed, DecompressionListener listener) {
+			super(in);
+			this.encoding = encoding;
+			this.compressed = compressed;
+			this.listener = listener;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b == -1) {
+				report();
+			}
+			else {
+				this.count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read == -1) {
+				report();
+			}
+			else {
+				this.count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			this.count += skipped;
+			return skipped;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			}
+			finally {
+				report();
+			}
+		}
+
+		private void report() {
+			if (!this.reported) {
+				this.reported = true;
+				this.listener.onDecompressed(this.encoding, this.compressed.count,
+						this.count);
+			}
+		}
+
 	}
 
 }
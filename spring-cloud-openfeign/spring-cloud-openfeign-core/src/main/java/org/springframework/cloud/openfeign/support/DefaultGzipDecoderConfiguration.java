@@ -19,8 +19,12 @@ package org.springframework.cloud.openfeign.support;
 import feign.codec.Decoder;
 import feign.optionals.OptionalDecoder;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
@@ -50,9 +54,26 @@ public class DefaultGzipDecoderConfiguration {
 	@Bean
 	@ConditionalOnMissingBean
 	@ConditionalOnProperty("feign.compression.response.useGzipDecoder")
-	public Decoder defaultGzipDecoder() {
-		return new OptionalDecoder(new ResponseEntityDecoder(
-				new DefaultGzipDecoder(new SpringDecoder(messageConverters))));
+	public Decoder defaultGzipDecoder(
+			ObjectProvider<DefaultGzipDecoder.DecompressionListener> listener) {
+		return new OptionalDecoder(new ResponseEntityDecoder(new DefaultGzipDecoder(
+				new SpringDecoder(messageConverters),
+				listener.getIfAvailable(() -> DefaultGzipDecoder.DecompressionListener.NOOP))));
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(MeterRegistry.class)
+	protected static class MicrometerDecompressionConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public DefaultGzipDecoder.DecompressionListener feignDecompressionListener(
+				ObjectProvider<MeterRegistry> meterRegistry) {
+			MeterRegistry registry = meterRegistry.getIfAvailable();
+			return registry != null ? new MicrometerDecompressionListener(registry)
+					: DefaultGzipDecoder.DecompressionListener.NOOP;
+		}
+
 	}
 
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.cloud.openfeign.encoding.HttpEncoding;
+
+/**
+ * Records the sizes reported by {@link DefaultGzipDecoder} as Micrometer distribution
+ * summaries, tagged with the content encoding.
+ *
+ * @author Force-oneself
+ */
+public class MicrometerDecompressionListener
+		implements DefaultGzipDecoder.DecompressionListener {
+
+	/**
+	 * Name of the summary recording compressed response sizes.
+	 */
+	public static final String COMPRESSED_SIZE = "feign.response.compressed.size";
+
+	/**
+	 * Name of the summary recording decompressed response sizes.
+	 */
+	public static final String DECOMPRESSED_SIZE = "feign.response.decompressed.size";
+
+	private final DistributionSummary gzipCompressed;
+
+	private final DistributionSummary gzipDecompressed;
+
+	private final DistributionSummary deflateCompressed;
+
+	private final DistributionSummary deflateDecompressed;
+
+	public MicrometerDecompressionListener(MeterRegistry registry) {
+		this.gzipCompressed = summary(registry, COMPRESSED_SIZE,
+				HttpEncoding.GZIP_ENCODING);
+		this.gzipDecompressed = summary(registry, DECOMPRESSED_SIZE,
+				HttpEncoding.GZIP_ENCODING);
+		this.deflateCompressed = summary(registry, COMPRESSED_SIZE,
+				HttpEncoding.DEFLATE_ENCODING);
+		this.deflateDecompressed = summary(registry, DECOMPRESSED_SIZE,
+				HttpEncoding.DEFLATE_ENCODING);
+	}
+
+	@Override
+	public void onDecompressed(String encoding, long compressedBytes,
+			long decompressedBytes) {
+		if (HttpEncoding.GZIP_ENCODING.equals(encoding)) {
+			this.gzipCompressed.record(compressedBytes);
+			this.gzipDecompressed.record(decompressedBytes);
+		}
+		else {
+			this.deflateCompressed.record(compressedBytes);
+			this.deflateDecompressed.record(decompressedBytes);
+		}
+	}
+
+	private static DistributionSummary summary(MeterRegistry registry, String name,
+			String encoding) {
+		return DistributionSummary.builder(name).baseUnit("bytes")
+				.tag("encoding", encoding).register(registry);
+	}
+
+}
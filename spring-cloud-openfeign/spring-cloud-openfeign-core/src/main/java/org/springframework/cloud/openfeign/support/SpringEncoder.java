@@ -29,11 +29,13 @@ import org.springframework.cloud.openfeign.encoding.HttpEncoding;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.GenericHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayOutputStream;
@@ -63,6 +65,8 @@ public class SpringEncoder implements Encoder {
 
 	private final ObjectFactory<HttpMessageConverters> messageConverters;
 
+	private boolean streaming;
+
 	public SpringEncoder(ObjectFactory<HttpMessageConverters> messageConverters) {
 		this.springFormEncoder = new SpringFormEncoder();
 		this.messageConverters = messageConverters;
@@ -74,6 +78,15 @@ public class SpringEncoder implements Encoder {
 		this.messageConverters = messageConverters;
 	}
 
+	/**
+	 * When enabled, message converters write the body straight into the client's output
+	 * stream when the request is sent, instead of into an intermediate byte array.
+	 * @param streaming whether request bodies are streamed
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
 	@Override
 	public void encode(Object requestBody, Type bodyType, RequestTemplate request)
 			throws EncodeException {
@@ -112,11 +125,12 @@ public class SpringEncoder implements Encoder {
 					if (messageConverter instanceof GenericHttpMessageConverter) {
 						outputMessage = checkAndWrite(requestBody, bodyType,
 								requestContentType,
-								(GenericHttpMessageConverter) messageConverter, request);
+								(GenericHttpMessageConverter) messageConverter, request,
+								this.streaming);
 					}
 					else {
 						outputMessage = checkAndWrite(requestBody, requestContentType,
-								messageConverter, request);
+								messageConverter, request, this.streaming);
 					}
 				}
 				catch (IOException | HttpMessageConversionException ex) {
@@ -142,8 +156,16 @@ public class SpringEncoder implements Encoder {
 					else {
 						charset = StandardCharsets.UTF_8;
 					}
-					request.body(Request.Body.encoded(
-							outputMessage.getOutputStream().toByteArray(), charset));
+					if (this.streaming) {
+						// 流式写出：发送时由转换器直接写入连接的输出流
+						request.body(streamingBody(requestBody, bodyType,
+								requestContentType, messageConverter,
+								outputMessage.getHeaders()), -1, charset);
+					}
+					else {
+						request.body(Request.Body.encoded(
+								outputMessage.getOutputStream().toByteArray(), charset));
+					}
 					return;
 				}
 			}
@@ -158,11 +180,17 @@ public class SpringEncoder implements Encoder {
 
 	@SuppressWarnings("unchecked")
 	private FeignOutputMessage checkAndWrite(Object body, MediaType contentType,
-			HttpMessageConverter converter, RequestTemplate request) throws IOException {
+			HttpMessageConverter converter, RequestTemplate request, boolean deferBody)
+			throws IOException {
 		if (converter.canWrite(body.getClass(), contentType)) {
 			logBeforeWrite(body, contentType, converter);
 			FeignOutputMessage outputMessage = new FeignOutputMessage(request);
-			converter.write(body, contentType, outputMessage);
+			if (deferBody) {
+				addDefaultHeaders(outputMessage.getHeaders(), contentType, converter);
+			}
+			else {
+				converter.write(body, contentType, outputMessage);
+			}
 			return outputMessage;
 		}
 		else {
@@ -173,11 +201,16 @@ public class SpringEncoder implements Encoder {
 	@SuppressWarnings("unchecked")
 	private FeignOutputMessage checkAndWrite(Object body, Type genericType,
 			MediaType contentType, GenericHttpMessageConverter converter,
-			RequestTemplate request) throws IOException {
+			RequestTemplate request, boolean deferBody) throws IOException {
 		if (converter.canWrite(genericType, body.getClass(), contentType)) {
 			logBeforeWrite(body, contentType, converter);
 			FeignOutputMessage outputMessage = new FeignOutputMessage(request);
-			converter.write(body, genericType, contentType, outputMessage);
+			if (deferBody) {
+				addDefaultHeaders(outputMessage.getHeaders(), contentType, converter);
+			}
+			else {
+				converter.write(body, genericType, contentType, outputMessage);
+			}
 			return outputMessage;
 		}
 		else {
@@ -185,6 +218,56 @@ public class SpringEncoder implements Encoder {
 		}
 	}
 
+	/**
+	 * Sets the content type the converter will write the body with, as
+	 * {@code AbstractHttpMessageConverter#addDefaultHeaders} does, without writing it. The
+	 * content length is left out, as it is only known once the body is written.
+	 */
+	private static void addDefaultHeaders(HttpHeaders headers, MediaType contentType,
+			HttpMessageConverter<?> converter) {
+		if (headers.getContentType() != null) {
+			return;
+		}
+		MediaType contentTypeToUse = contentType;
+		if (contentType == null || contentType.isWildcardType()
+				|| contentType.isWildcardSubtype()) {
+			contentTypeToUse = converter.getSupportedMediaTypes().stream()
+					.filter(MediaType::isConcrete).findFirst().orElse(contentType);
+		}
+		if (contentTypeToUse != null) {
+			if (contentTypeToUse.getCharset() == null
+					&& converter instanceof AbstractHttpMessageConverter) {
+				Charset defaultCharset = ((AbstractHttpMessageConverter<?>) converter)
+						.getDefaultCharset();
+				if (defaultCharset != null) {
+					contentTypeToUse = new MediaType(contentTypeToUse, defaultCharset);
+				}
+			}
+			headers.setContentType(contentTypeToUse);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Request.Body.Writer streamingBody(Object body, Type bodyType,
+			MediaType contentType, HttpMessageConverter converter, HttpHeaders headers) {
+		return out -> {
+			HttpOutputMessage outputMessage = new StreamingOutputMessage(headers,
+					StreamUtils.nonClosing(out));
+			try {
+				if (converter instanceof GenericHttpMessageConverter) {
+					((GenericHttpMessageConverter) converter).write(body, bodyType,
+							contentType, outputMessage);
+				}
+				else {
+					converter.write(body, contentType, outputMessage);
+				}
+			}
+			catch (HttpMessageConversionException ex) {
+				throw new EncodeException("Error converting request body", ex);
+			}
+		};
+	}
+
 	private void logBeforeWrite(Object requestBody, MediaType requestContentType,
 			HttpMessageConverter messageConverter) {
 		if (log.isDebugEnabled()) {
@@ -225,4 +308,28 @@ public class SpringEncoder implements Encoder {
 
 	}
 
+	private static final class StreamingOutputMessage implements HttpOutputMessage {
+
+		private final HttpHeaders httpHeaders;
+
+		private final OutputStream body;
+
+		private StreamingOutputMessage(HttpHeaders headers, OutputStream body) {
+			this.httpHeaders = new HttpHeaders();
+			this.httpHeaders.putAll(headers);
+			this.body = body;
+		}
+
+		@Override
+		public OutputStream getBody() {
+			return this.body;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.httpHeaders;
+		}
+
+	}
+
 }
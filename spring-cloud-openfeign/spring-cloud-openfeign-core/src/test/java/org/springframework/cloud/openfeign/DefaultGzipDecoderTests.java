@@ -16,8 +16,18 @@
 
 package org.springframework.cloud.openfeign;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Objects;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
+import feign.Request;
+import feign.Response;
+import feign.codec.Decoder;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -25,6 +35,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.openfeign.encoding.HttpEncoding;
+import org.springframework.cloud.openfeign.support.DefaultGzipDecoder;
 import org.springframework.cloud.openfeign.test.NoSecurityConfiguration;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -32,6 +44,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -102,6 +115,54 @@ public class DefaultGzipDecoderTests extends FeignClientFactoryBean {
 				.isEqualTo(new Hello("안녕하세요 means Hello in Korean"));
 	}
 
+	@Test
+	public void testDeflateDecompressKeepsNewlinesAndReportsSizes() throws IOException {
+		byte[] body = "line one\nline two\n".getBytes(StandardCharsets.UTF_8);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (DeflaterOutputStream out = new DeflaterOutputStream(compressed)) {
+			out.write(body);
+		}
+		long[] sizes = new long[2];
+		Decoder decoder = new DefaultGzipDecoder(new Decoder.Default(),
+				(encoding, compressedBytes, decompressedBytes) -> {
+					sizes[0] = compressedBytes;
+					sizes[1] = decompressedBytes;
+				});
+		Response response = Response.builder().status(200)
+				.request(Request.create(Request.HttpMethod.GET, "/",
+						Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+				.headers(Collections.singletonMap(HttpEncoding.CONTENT_ENCODING_HEADER,
+						Collections.singletonList(HttpEncoding.DEFLATE_ENCODING)))
+				.body(compressed.toByteArray()).build();
+
+		byte[] decoded = (byte[]) decoder.decode(response, byte[].class);
+
+		assertThat(decoded).isEqualTo(body);
+		assertThat(sizes).containsExactly(compressed.size(), body.length);
+	}
+
+	@Test
+	public void testDecodedStreamIsLeftOpen() throws IOException {
+		byte[] body = "streamed later".getBytes(StandardCharsets.UTF_8);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+			out.write(body);
+		}
+		Decoder decoder = new DefaultGzipDecoder(
+				(response, type) -> response.body().asInputStream());
+		Response response = Response.builder().status(200)
+				.request(Request.create(Request.HttpMethod.GET, "/",
+						Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+				.headers(Collections.singletonMap(HttpEncoding.CONTENT_ENCODING_HEADER,
+						Collections.singletonList(HttpEncoding.GZIP_ENCODING)))
+				.body(compressed.toByteArray()).build();
+
+		try (InputStream decoded = (InputStream) decoder.decode(response,
+				InputStream.class)) {
+			assertThat(StreamUtils.copyToByteArray(decoded)).isEqualTo(body);
+		}
+	}
+
 	private static class Hello {
 
 		private String message;
@@ -17,9 +17,13 @@
 package org.springframework.cloud.openfeign;
 
 import java.lang.reflect.Field;
+import java.util.List;
 
+import feign.Capability;
+import feign.ConcurrencyLimitCapability;
 import feign.Feign;
 import feign.Logger;
+import feign.SingleFlightCapability;
 import org.junit.Test;
 
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
@@ -78,6 +82,27 @@ public class FeignBuilderCustomizerTests {
 		context.close();
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCapabilityBeansAndCustomizers() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				FeignBuilderCustomizerTests.SampleConfiguration4.class);
+
+		FeignClientFactoryBean clientFactoryBean = context
+				.getBean(FeignClientFactoryBean.class);
+		FeignContext feignContext = context.getBean(FeignContext.class);
+
+		Feign.Builder builder = clientFactoryBean.feign(feignContext);
+		Field capabilities = ReflectionUtils.findField(Feign.Builder.class,
+				"capabilities");
+		ReflectionUtils.makeAccessible(capabilities);
+		assertThat((List<Capability>) ReflectionUtils.getField(capabilities, builder))
+				.extracting(Object::getClass).containsExactly(
+						ConcurrencyLimitCapability.class, SingleFlightCapability.class);
+
+		context.close();
+	}
+
 	private static FeignClientFactoryBean defaultFeignClientFactoryBean() {
 		FeignClientFactoryBean feignClientFactoryBean = new FeignClientFactoryBean();
 		feignClientFactoryBean.setContextId("test");
@@ -157,4 +182,35 @@ public class FeignBuilderCustomizerTests {
 
 	}
 
+	@Configuration(proxyBeanMethods = false)
+	@Import(FeignClientsConfiguration.class)
+	protected static class SampleConfiguration4 {
+
+		@Bean
+		FeignContext feignContext() {
+			return new FeignContext();
+		}
+
+		@Bean
+		FeignClientProperties feignClientProperties() {
+			return new FeignClientProperties();
+		}
+
+		@Bean
+		ConcurrencyLimitCapability concurrencyLimitCapability() {
+			return new ConcurrencyLimitCapability();
+		}
+
+		@Bean
+		FeignBuilderCustomizer feignBuilderCustomizer() {
+			return builder -> builder.addCapability(new SingleFlightCapability());
+		}
+
+		@Bean
+		FeignClientFactoryBean feignClientFactoryBean() {
+			return defaultFeignClientFactoryBean();
+		}
+
+	}
+
 }
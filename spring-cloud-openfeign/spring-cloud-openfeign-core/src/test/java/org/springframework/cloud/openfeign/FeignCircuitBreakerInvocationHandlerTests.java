@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import feign.Param;
+import feign.RequestLine;
+import feign.Response;
+import feign.Retryer;
+import feign.Target.HardCodedTarget;
+import feign.Util;
+import org.junit.Test;
+
+import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.ConfigBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link FeignCircuitBreakerInvocationHandler}.
+ */
+public class FeignCircuitBreakerInvocationHandlerTests {
+
+	private static final String URL = "http://localhost";
+
+	private final List<String> created = new ArrayList<>();
+
+	private final List<String> runs = new ArrayList<>();
+
+	@Test
+	public void overloadedMethodsGetTheirOwnBreakerCreatedOnce() {
+		Api api = builder().target(Api.class, URL);
+
+		assertThat(api.greet()).isEqualTo("/greet");
+		assertThat(api.greet("bob")).isEqualTo("/greet/bob");
+		assertThat(api.greet("alice")).isEqualTo("/greet/alice");
+
+		assertThat(this.created).containsExactlyInAnyOrder("api_Api#greet()",
+				"api_Api#greet(String)", "api_Api#fail()");
+		assertThat(this.runs).containsExactly("api_Api#greet()",
+				"api_Api#greet(String)", "api_Api#greet(String)");
+	}
+
+	@Test
+	public void fallbackIsCalledWithTheArguments() {
+		Api api = builder().target(new HardCodedTarget<>(Api.class, URL), new Api() {
+			@Override
+			public String greet() {
+				return "fallback";
+			}
+
+			@Override
+			public String greet(String name) {
+				return "fallback " + name;
+			}
+
+			@Override
+			public String fail() {
+				return "fallback";
+			}
+		});
+
+		assertThat(api.fail()).isEqualTo("fallback");
+		assertThat(api.greet("bob")).isEqualTo("/greet/bob");
+	}
+
+	@Test
+	public void fallbackFactoryGetsTheCause() {
+		Api api = builder().target(new HardCodedTarget<>(Api.class, URL),
+				(FallbackFactory<Api>) cause -> new Api() {
+					@Override
+					public String greet() {
+						return cause.getMessage();
+					}
+
+					@Override
+					public String greet(String name) {
+						return cause.getMessage();
+					}
+
+					@Override
+					public String fail() {
+						return cause.getClass().getSimpleName();
+					}
+				});
+
+		assertThat(api.fail()).isEqualTo("RetryableException");
+	}
+
+	private FeignCircuitBreaker.Builder builder() {
+		FeignCircuitBreaker.Builder builder = FeignCircuitBreaker.builder()
+				.circuitBreakerFactory(new RecordingFactory()).feignClientName("api");
+		builder.retryer(Retryer.NEVER_RETRY).client((request, options) -> {
+			if (request.url().endsWith("/fail")) {
+				throw new IOException("down");
+			}
+			return Response.builder().status(200).request(request)
+					.headers(Collections.emptyMap())
+					.body(request.url().substring(URL.length()), Util.UTF_8)
+					.build();
+		});
+		return builder;
+	}
+
+	interface Api {
+
+		@RequestLine("GET /greet")
+		String greet();
+
+		@RequestLine("GET /greet/{name}")
+		String greet(@Param("name") String name);
+
+		@RequestLine("GET /fail")
+		String fail();
+
+	}
+
+	private class RecordingFactory
+			extends CircuitBreakerFactory<Object, ConfigBuilder<Object>> {
+
+		@Override
+		public CircuitBreaker create(String id) {
+			FeignCircuitBreakerInvocationHandlerTests.this.created.add(id);
+			return new CircuitBreaker() {
+				@Override
+				public <T> T run(Supplier<T> toRun, Function<Throwable, T> fallback) {
+					FeignCircuitBreakerInvocationHandlerTests.this.runs.add(id);
+					try {
+						return toRun.get();
+					}
+					catch (Throwable throwable) {
+						return fallback.apply(throwable);
+					}
+				}
+			};
+		}
+
+		@Override
+		protected ConfigBuilder<Object> configBuilder(String id) {
+			return Object::new;
+		}
+
+		@Override
+		public void configureDefault(Function<String, Object> defaultConfiguration) {
+		}
+
+	}
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2013-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import feign.Capability;
+import feign.Contract;
+import feign.Feign;
+import feign.MethodMetadata;
+import feign.RequestInterceptor;
+import feign.RequestLine;
+import feign.SingleFlightCapability;
+import feign.cache.CachingCapability;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import org.springframework.cloud.openfeign.FeignClientProperties.FeignClientConfiguration;
+import org.springframework.cloud.openfeign.interceptor.HeaderPropagationRequestInterceptor;
+import org.springframework.cloud.openfeign.interceptor.ParamLogRequestInterceptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Capabilities configured through properties are added once, from the default and the
+ * client configuration merged.
+ */
+public class FeignClientFactoryBeanPropertiesTests {
+
+	private final FeignClientFactoryBean factoryBean = new FeignClientFactoryBean();
+
+	private final FeignClientConfiguration defaultConfig = new FeignClientConfiguration();
+
+	private final FeignClientConfiguration clientConfig = new FeignClientConfiguration();
+
+	@Test
+	public void responseCacheIsAddedOnceWhenSetInBothConfigs() {
+		defaultConfig.setResponseCacheMaxBytes(1024L);
+		clientConfig.setResponseCacheMaxBytes(2048L);
+
+		assertThat(capabilities()).hasSize(1)
+				.allMatch(capability -> capability instanceof CachingCapability);
+	}
+
+	@Test
+	public void clientConfigTurnsOffTheDefaultResponseCache() {
+		defaultConfig.setResponseCacheMaxBytes(1024L);
+		clientConfig.setResponseCacheMaxBytes(0L);
+
+		assertThat(capabilities()).isEmpty();
+	}
+
+	@Test
+	public void defaultResponseCacheAppliesWithoutClientConfig() {
+		defaultConfig.setResponseCacheMaxBytes(1024L);
+
+		assertThat(capabilities(defaultConfig, null)).hasSize(1);
+	}
+
+	@Test
+	public void singleFlightIsAddedOnceWithTheClientMethods() {
+		defaultConfig.setSingleFlightMethods(Collections.singletonList("foo"));
+		clientConfig.setSingleFlightMethods(Collections.singletonList("bar"));
+
+		List<Capability> capabilities = capabilities();
+
+		assertThat(capabilities).hasSize(1);
+		assertThat(capabilities.get(0)).isInstanceOf(SingleFlightCapability.class);
+		@SuppressWarnings("unchecked")
+		Predicate<MethodMetadata> coalesced = (Predicate<MethodMetadata>) ReflectionTestUtils
+				.getField(capabilities.get(0), "coalesced");
+		List<MethodMetadata> methods = new Contract.Default()
+				.parseAndValidateMetadata(Api.class);
+		assertThat(methods).filteredOn(coalesced).extracting(MethodMetadata::configKey)
+				.containsExactly("Api#bar()");
+	}
+
+	@Test
+	public void interceptorsAreAddedOnceWhenSetInBothConfigs() {
+		defaultConfig.setPropagatedHeaders(Collections.singletonList("sessionId"));
+		defaultConfig.setRequestLogSampleRate(1.0);
+		defaultConfig.setRequestLogMaxBodyLength(10);
+		clientConfig.setPropagatedHeaders(Collections.singletonList("traceId"));
+		clientConfig.setRequestLogSampleRate(0.5);
+
+		Feign.Builder builder = Mockito.mock(Feign.Builder.class);
+		factoryBean.configureOnceUsingProperties(defaultConfig, clientConfig, builder);
+		ArgumentCaptor<RequestInterceptor> captor = ArgumentCaptor
+				.forClass(RequestInterceptor.class);
+		Mockito.verify(builder, Mockito.times(2)).requestInterceptor(captor.capture());
+
+		assertThat(captor.getAllValues()).hasSize(2);
+		assertThat(captor.getAllValues().get(0))
+				.isInstanceOf(HeaderPropagationRequestInterceptor.class);
+		assertThat(captor.getAllValues().get(1))
+				.isInstanceOf(ParamLogRequestInterceptor.class)
+				.hasFieldOrPropertyWithValue("sampleRate", 0.5)
+				.hasFieldOrPropertyWithValue("maxBodyLength", 10);
+	}
+
+	@Test
+	public void clientConfigTurnsOffTheDefaultRequestLog() {
+		defaultConfig.setRequestLogSampleRate(1.0);
+		clientConfig.setRequestLogSampleRate(0.0);
+
+		Feign.Builder builder = Mockito.mock(Feign.Builder.class);
+		factoryBean.configureOnceUsingProperties(defaultConfig, clientConfig, builder);
+
+		Mockito.verify(builder, Mockito.never())
+				.requestInterceptor(Mockito.any(RequestInterceptor.class));
+	}
+
+	interface Api {
+
+		@RequestLine("GET /foo")
+		String foo();
+
+		@RequestLine("GET /bar")
+		String bar();
+
+	}
+
+	private List<Capability> capabilities() {
+		return capabilities(defaultConfig, clientConfig);
+	}
+
+	private List<Capability> capabilities(FeignClientConfiguration defaultConfig,
+			FeignClientConfiguration clientConfig) {
+		Feign.Builder builder = Mockito.mock(Feign.Builder.class);
+		factoryBean.configureOnceUsingProperties(defaultConfig, clientConfig,
+				builder);
+		ArgumentCaptor<Capability> captor = ArgumentCaptor.forClass(Capability.class);
+		Mockito.verify(builder, Mockito.atLeast(0)).addCapability(captor.capture());
+		return captor.getAllValues();
+	}
+
+}
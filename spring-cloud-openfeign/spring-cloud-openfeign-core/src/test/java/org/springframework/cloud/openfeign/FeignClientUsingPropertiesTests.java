@@ -166,6 +166,37 @@ public class FeignClientUsingPropertiesTests {
 		assertThat(response).isEqualTo("OK");
 	}
 
+	@Test
+	public void testSingleFlightMethods() {
+		FeignClientProperties properties = applicationContext
+				.getBean(FeignClientProperties.class);
+		assertThat(properties.getConfig().get("foo").getSingleFlightMethods())
+				.containsExactly("foo");
+		assertThat(properties.getConfig().get("foo").getSingleFlightVaryHeaders())
+				.containsExactly("Accept");
+		assertThat(fooClient().foo()).isEqualTo("OK");
+	}
+
+	@Test
+	public void testResponseCache() {
+		FeignClientProperties properties = applicationContext
+				.getBean(FeignClientProperties.class);
+		assertThat(properties.getConfig().get("foo").getResponseCacheMaxBytes())
+				.isEqualTo(1048576L);
+		assertThat(fooClient().foo()).isEqualTo("OK");
+		assertThat(fooClient().foo()).isEqualTo("OK");
+	}
+
+	@Test
+	public void testRequestLogAndPropagatedHeaders() {
+		FeignClientProperties.FeignClientConfiguration config = applicationContext
+				.getBean(FeignClientProperties.class).getConfig().get("foo");
+		assertThat(config.getRequestLogSampleRate()).isEqualTo(0.5);
+		assertThat(config.getRequestLogRoutes()).containsExactly("/foo/**");
+		assertThat(config.getPropagatedHeaders()).containsExactly("sessionId");
+		assertThat(fooClient().foo()).isEqualTo("OK");
+	}
+
 	@Test(expected = RetryableException.class)
 	public void testBar() {
 		barClient().bar();
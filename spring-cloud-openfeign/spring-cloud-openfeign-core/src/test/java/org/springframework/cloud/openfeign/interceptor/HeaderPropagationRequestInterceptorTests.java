@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.interceptor;
+
+import java.util.Arrays;
+
+import feign.RequestTemplate;
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HeaderPropagationRequestInterceptorTests {
+
+	private final HeaderPropagationRequestInterceptor interceptor =
+			new HeaderPropagationRequestInterceptor(Arrays.asList("sessionId", "X-Tenant"));
+
+	@After
+	public void reset() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	public void copiesPresentHeaders() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("sessionId", "abc");
+		request.addHeader("Authorization", "secret");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		RequestTemplate template = new RequestTemplate();
+
+		interceptor.apply(template);
+
+		assertThat(template.headers()).containsOnlyKeys("sessionId");
+		assertThat(template.headers().get("sessionId")).containsExactly("abc");
+	}
+
+	@Test
+	public void noServletRequest() {
+		RequestTemplate template = new RequestTemplate();
+
+		interceptor.apply(template);
+
+		assertThat(template.headers()).isEmpty();
+	}
+
+}
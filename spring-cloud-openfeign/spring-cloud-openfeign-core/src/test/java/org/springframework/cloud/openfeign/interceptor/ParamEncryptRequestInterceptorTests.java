@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.interceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import feign.Body;
+import feign.Feign;
+import feign.Headers;
+import feign.Param;
+import feign.Request;
+import feign.RequestLine;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.template.UriUtils;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParamEncryptRequestInterceptorTests {
+
+	private static final byte[] KEY = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+	private final ParamEncryptRequestInterceptor interceptor =
+			new ParamEncryptRequestInterceptor(KEY, Arrays.asList("/pay/**", "/users/*"));
+
+	private final AtomicReference<Request> sent = new AtomicReference<>();
+
+	private final Api api = Feign.builder().requestInterceptor(interceptor)
+			.client((request, options) -> {
+				sent.set(request);
+				return Response.builder().status(200).request(request)
+						.headers(Collections.emptyMap()).body(new byte[0]).build();
+			}).target(Api.class, "http://localhost");
+
+	@Test
+	public void encryptsOnlyTheParameter() {
+		api.pay(42L, "a b&c", "plain");
+
+		String url = sent.get().url();
+		assertThat(url).startsWith("http://localhost/pay/orders/42?param=")
+				.endsWith("&other=plain").doesNotContain("a%20b");
+		assertThat(interceptor.decrypt(query(url, "param"))).isEqualTo("a b&c");
+	}
+
+	@Test
+	public void randomIvPerValue() {
+		api.pay(1L, "same", "x");
+		String first = query(sent.get().url(), "param");
+		api.pay(1L, "same", "x");
+		String second = query(sent.get().url(), "param");
+
+		assertThat(first).isNotEqualTo(second);
+		assertThat(interceptor.decrypt(first)).isEqualTo(interceptor.decrypt(second));
+	}
+
+	@Test
+	public void encryptsFormBodyParameter() {
+		api.user("7", "secret value", "visible");
+
+		String body = new String(sent.get().body(), StandardCharsets.UTF_8);
+		assertThat(body).startsWith("param=").endsWith("&other=visible");
+		String value = body.substring("param=".length(), body.indexOf('&'));
+		assertThat(interceptor.decrypt(value)).isEqualTo("secret value");
+		assertThat(sent.get().headers().get("Content-Length"))
+				.containsExactly(String.valueOf(sent.get().body().length));
+	}
+
+	@Test
+	public void leavesStreamingBodiesUnread() {
+		RequestTemplate template = new RequestTemplate().method(Request.HttpMethod.POST)
+				.uri("/users/7")
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.body(out -> {
+					throw new AssertionError("body must not be read");
+				}, -1, StandardCharsets.UTF_8);
+
+		interceptor.apply(template);
+
+		assertThat(template.isStreaming()).isTrue();
+	}
+
+	@Test
+	public void skipsUnmatchedRoutes() {
+		api.orders("7", "plain");
+
+		assertThat(sent.get().url())
+				.isEqualTo("http://localhost/users/7/orders?param=plain");
+	}
+
+	@Test
+	public void routeMatcher() {
+		RouteMatcher routes = new RouteMatcher(
+				Arrays.asList("/pay/**", "/users/*", "/static/{id}/info"));
+
+		assertThat(routes.matches("/pay")).isTrue();
+		assertThat(routes.matches("/pay/orders/{id}")).isTrue();
+		assertThat(routes.matches("/users/{id}?param={param}")).isTrue();
+		assertThat(routes.matches("/users/{id}/orders")).isFalse();
+		assertThat(routes.matches("/users")).isFalse();
+		assertThat(routes.matches("/static/{id}/info")).isTrue();
+		assertThat(routes.matches("/static/1/info")).isFalse();
+		assertThat(new RouteMatcher(Collections.emptyList()).isEmpty()).isTrue();
+	}
+
+	private static String query(String url, String name) {
+		for (String pair : url.substring(url.indexOf('?') + 1).split("&")) {
+			if (pair.startsWith(name + "=")) {
+				return UriUtils.decode(pair.substring(name.length() + 1),
+						StandardCharsets.UTF_8);
+			}
+		}
+		return null;
+	}
+
+	interface Api {
+
+		@RequestLine("GET /pay/orders/{id}?param={param}&other={other}")
+		void pay(@Param("id") long id, @Param("param") String param,
+				@Param("other") String other);
+
+		@RequestLine("POST /users/{id}")
+		@Headers("Content-Type: application/x-www-form-urlencoded")
+		@Body("param={param}&other={other}")
+		void user(@Param("id") String id, @Param("param") String param,
+				@Param("other") String other);
+
+		@RequestLine("GET /users/{id}/orders?param={param}")
+		void orders(@Param("id") String id, @Param("param") String param);
+
+	}
+
+}
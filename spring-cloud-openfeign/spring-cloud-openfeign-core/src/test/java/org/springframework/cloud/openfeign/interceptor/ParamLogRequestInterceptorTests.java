@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.interceptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import feign.Body;
+import feign.Feign;
+import feign.Param;
+import feign.RequestInterceptor;
+import feign.RequestLine;
+import feign.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParamLogRequestInterceptorTests {
+
+	private final Logger logger = (Logger) LoggerFactory
+			.getLogger(ParamLogRequestInterceptor.class);
+
+	private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+	/**
+	 * 记录所有请求，用来确认后台线程已处理完之前的消息
+	 */
+	private final Api marker = api(new ParamLogRequestInterceptor());
+
+	@Before
+	public void attach() {
+		appender.start();
+		logger.addAppender(appender);
+	}
+
+	@After
+	public void detach() {
+		logger.detachAppender(appender);
+		appender.stop();
+	}
+
+	@Test
+	public void sampleRateOneLogsEveryRequest() {
+		Api api = api(new ParamLogRequestInterceptor(1.0, 1024, Collections.emptyList()));
+
+		api.order("a1");
+		api.order("a2");
+
+		awaitMessages();
+		assertThat(messages()).anyMatch(message -> message.contains("/orders/a1"))
+				.anyMatch(message -> message.contains("/orders/a2"));
+	}
+
+	@Test
+	public void sampleRateZeroLogsNothing() {
+		Api api = api(new ParamLogRequestInterceptor(0.0, 1024, Collections.emptyList()));
+
+		api.order("b1");
+
+		awaitMessages();
+		assertThat(messages()).noneMatch(message -> message.contains("/orders/b1"));
+	}
+
+	@Test
+	public void truncatesLongBodies() {
+		Api api = api(new ParamLogRequestInterceptor(1.0, 5, Collections.emptyList()));
+
+		api.user("c1", "0123456789");
+
+		awaitMessages();
+		assertThat(messages()).filteredOn(message -> message.contains("/users/c1"))
+				.hasSize(1).allMatch(message -> message.endsWith("【01234...（还有5字节）】"));
+	}
+
+	@Test
+	public void logsOnlyMatchingRoutes() {
+		Api api = api(new ParamLogRequestInterceptor(1.0, 1024,
+				Arrays.asList("/users/*")));
+
+		api.user("d1", "body");
+		api.order("d2");
+
+		awaitMessages();
+		assertThat(messages()).anyMatch(message -> message.contains("/users/d1"))
+				.noneMatch(message -> message.contains("/orders/d2"));
+	}
+
+	private Api api(RequestInterceptor interceptor) {
+		return Feign.builder().requestInterceptor(interceptor)
+				.client((request, options) -> Response.builder().status(200)
+						.request(request).headers(Collections.emptyMap())
+						.body(new byte[0]).build())
+				.target(Api.class, "http://localhost");
+	}
+
+	/**
+	 * 消息由一个后台线程按顺序写入，标记请求出现时之前的请求都已处理
+	 */
+	private void awaitMessages() {
+		String id = UUID.randomUUID().toString();
+		marker.order(id);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (messages().stream().noneMatch(message -> message.contains(id))) {
+			assertThat(System.currentTimeMillis()).as("等待日志").isLessThan(deadline);
+			Thread.yield();
+		}
+	}
+
+	private List<String> messages() {
+		synchronized (appender.list) {
+			return appender.list.stream().map(ILoggingEvent::getFormattedMessage)
+					.collect(Collectors.toList());
+		}
+	}
+
+	interface Api {
+
+		@RequestLine("GET /orders/{id}")
+		void order(@Param("id") String id);
+
+		@RequestLine("POST /users/{id}")
+		@Body("{body}")
+		void user(@Param("id") String id, @Param("body") String body);
+
+	}
+
+}
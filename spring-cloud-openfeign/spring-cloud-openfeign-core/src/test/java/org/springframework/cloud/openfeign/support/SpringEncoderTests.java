@@ -16,12 +16,15 @@
 
 package org.springframework.cloud.openfeign.support;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import feign.RequestTemplate;
 import feign.codec.EncodeException;
@@ -32,6 +35,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.cloud.openfeign.FeignContext;
@@ -47,6 +51,7 @@ import org.springframework.http.converter.GenericHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -147,6 +152,45 @@ public class SpringEncoderTests {
 				.isEqualTo(APPLICATION_OCTET_STREAM_VALUE);
 	}
 
+	@Test
+	public void testStreamingBody() {
+		SpringEncoder encoder = new SpringEncoder(() -> new HttpMessageConverters(false,
+				Collections.singletonList(new StringHttpMessageConverter())));
+		encoder.setStreaming(true);
+		RequestTemplate request = new RequestTemplate();
+
+		encoder.encode("hi", String.class, request);
+
+		assertThat(request.requestBody().isStreaming())
+				.as("request body should be streamed").isTrue();
+		assertThat(((List) request.headers().get(CONTENT_TYPE)).get(0))
+				.isEqualTo("text/plain;charset=ISO-8859-1");
+		assertThat(request.headers()).doesNotContainKey(CONTENT_LENGTH);
+		assertThat(new String(request.body(), StandardCharsets.UTF_8)).isEqualTo("hi");
+	}
+
+	@Test
+	public void testStreamingBodyIsConvertedOnceWhenSent() throws IOException {
+		AtomicInteger writes = new AtomicInteger();
+		SpringEncoder encoder = new SpringEncoder(() -> new HttpMessageConverters(false,
+				Collections.singletonList(new StringHttpMessageConverter() {
+					@Override
+					protected void writeInternal(String str, HttpOutputMessage message)
+							throws IOException {
+						writes.incrementAndGet();
+						super.writeInternal(str, message);
+					}
+				})));
+		encoder.setStreaming(true);
+		RequestTemplate request = new RequestTemplate();
+
+		encoder.encode("hi", String.class, request);
+		assertThat(writes).hasValue(0);
+
+		request.requestBody().writeTo(new ByteArrayOutputStream());
+		assertThat(writes).hasValue(1);
+	}
+
 	@Test(expected = EncodeException.class)
 	public void testMultipartFile1() {
 		Encoder encoder = this.context.getInstance("foo", Encoder.class);